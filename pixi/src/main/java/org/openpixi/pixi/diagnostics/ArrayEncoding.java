@@ -0,0 +1,465 @@
+package org.openpixi.pixi.diagnostics;
+
+import org.openpixi.pixi.parallel.indexaccess.IndexAction;
+import org.openpixi.pixi.parallel.indexaccess.ParallelIndexIterator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encoding of large arrays of doubles in binary output files. Three types of encodings are supported:
+ * <ul>
+ *     <li>DOUBLE: the exact values as float64,</li>
+ *     <li>FLOAT: the values rounded to float32,</li>
+ *     <li>QUANTIZED: the values rounded to multiples of twice an error bound relative to the minimum of every chunk,
+ *     such that the error of every value is at most the error bound (up to rounding errors of order 1e-16 times the
+ *     value). The multiples are stored as unsigned integers with 1, 2 or 4 bytes, depending on the range of values
+ *     in the chunk. Chunks with a larger range or with non-finite values are stored exactly.</li>
+ * </ul>
+ * The array is split into chunks of {@link #DEFAULT_CHUNK_SIZE} values which are encoded and optionally compressed
+ * with a {@link Deflater} in parallel.
+ * <br>
+ * The default encoding (DOUBLE without compression) writes the plain values without any header, such that the output
+ * is identical to a sequence of {@link java.io.DataOutputStream#writeDouble(double)} calls. All other encodings write
+ * <pre>
+ *     int      magic number
+ *     byte     type (0: DOUBLE, 1: FLOAT, 2: QUANTIZED)
+ *     byte     compression level (0: uncompressed, 1-9: Deflater level)
+ *     int      number of values
+ *     int      number of values per chunk
+ *     double   error bound
+ * </pre>
+ * followed by every chunk as
+ * <pre>
+ *     int      number of stored bytes
+ *     int      number of bytes after decompression
+ *     byte[]   stored bytes
+ * </pre>
+ * Quantized chunks start with the minimum (Real64) and the number of bytes per value (Int8, 8 for exact values).
+ * All values are stored big-endian.
+ * <br>
+ * The diagnostics start every dump (or every sample of a dump) written with a non-default encoding with
+ * <pre>
+ *     int      dump marker (negative)
+ *     int      version of the format
+ * </pre>
+ * see {@link #putDumpHeader(ByteBuffer)}. Plain dumps start with a size (number of dimensions, rows, ...) which is
+ * never negative, so {@link #readDumpHeader(ByteBuffer)} tells both apart without looking at the values. Encoded
+ * arrays can then be read with {@link #decode(ByteBuffer, int, boolean)}.
+ */
+public class ArrayEncoding {
+
+	public enum Type {
+		DOUBLE,
+		FLOAT,
+		QUANTIZED
+	}
+
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+	private static final int MAGIC = 0x50584145; // "PXAE"
+
+	/**
+	 * First Int32 of a dump with a non-default encoding. The sign bit is set, so it can not be confused with the
+	 * sizes at the start of plain dumps.
+	 */
+	private static final int DUMP_MARKER = 0xD0505844; // 0xD0, "PXD"
+
+	/**
+	 * Version of the encoded format, written after the {@link #DUMP_MARKER}.
+	 */
+	public static final int DUMP_VERSION = 1;
+
+	private static final int DUMP_HEADER_SIZE = 4 + 4;
+
+	private static final int HEADER_SIZE = 4 + 1 + 1 + 4 + 4 + 8;
+
+	private static final int CHUNK_HEADER_SIZE = 4 + 4;
+
+	private Type type;
+	private double errorBound;
+	private int compressionLevel;
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	/**
+	 * Creates the default encoding, i.e. exact values without compression.
+	 */
+	public ArrayEncoding() {
+		this(Type.DOUBLE, 0.0, 0);
+	}
+
+	/**
+	 * Creates an encoding.
+	 *
+	 * @param type              type of the encoding
+	 * @param errorBound        maximum absolute error of the QUANTIZED encoding, ignored otherwise
+	 * @param compressionLevel  {@link Deflater} level from 1 (fastest) to 9 (smallest), 0 for no compression
+	 */
+	public ArrayEncoding(Type type, double errorBound, int compressionLevel) {
+		if (compressionLevel < 0 || compressionLevel > 9) {
+			throw new IllegalArgumentException("ArrayEncoding: compression level has to be between 0 and 9.");
+		}
+		if (type == Type.QUANTIZED && !(errorBound > 0.0)) {
+			throw new IllegalArgumentException("ArrayEncoding: quantized encoding requires a positive error bound.");
+		}
+		this.type = type;
+		this.errorBound = (type == Type.QUANTIZED) ? errorBound : 0.0;
+		this.compressionLevel = compressionLevel;
+	}
+
+	/**
+	 * Creates an encoding from the options of a YAML file. Missing options select the default values.
+	 *
+	 * @param type              "double", "float" or "quantized"
+	 * @param errorBound        maximum absolute error of the quantized encoding
+	 * @param compressionLevel  {@link Deflater} level, 0 for no compression
+	 * @return                  encoding
+	 */
+	public static ArrayEncoding fromOptions(String type, Double errorBound, Integer compressionLevel) {
+		Type t = (type != null) ? Type.valueOf(type.toUpperCase()) : Type.DOUBLE;
+		double e = (errorBound != null) ? errorBound : 0.0;
+		int level = (compressionLevel != null) ? compressionLevel : 0;
+		return new ArrayEncoding(t, e, level);
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public double getErrorBound() {
+		return errorBound;
+	}
+
+	public int getCompressionLevel() {
+		return compressionLevel;
+	}
+
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Returns true for the default encoding, which stores the plain values without a header.
+	 */
+	public boolean isDefault() {
+		return type == Type.DOUBLE && compressionLevel == 0;
+	}
+
+	/**
+	 * Returns the size of the dump header which is written by {@link #putDumpHeader(ByteBuffer)}.
+	 *
+	 * @return  number of bytes, 0 for the default encoding
+	 */
+	public int getDumpHeaderSize() {
+		return isDefault() ? 0 : DUMP_HEADER_SIZE;
+	}
+
+	/**
+	 * Writes the marker and the version of the encoded format at the current position of a buffer, unless this is the
+	 * default encoding, whose dumps stay identical to the plain output.
+	 *
+	 * @param buffer    buffer with room for {@link #getDumpHeaderSize()} bytes
+	 */
+	public void putDumpHeader(ByteBuffer buffer) {
+		if (!isDefault()) {
+			buffer.putInt(DUMP_MARKER);
+			buffer.putInt(DUMP_VERSION);
+		}
+	}
+
+	/**
+	 * Reads the dump header written by {@link #putDumpHeader(ByteBuffer)} if there is one and advances the position.
+	 *
+	 * @param buffer    buffer at the start of a dump or sample
+	 * @return          true if the arrays of the dump are encoded, false for a plain dump
+	 * @throws IOException  if the dump has been written with an unsupported version
+	 */
+	public static boolean readDumpHeader(ByteBuffer buffer) throws IOException {
+		if (buffer.remaining() < DUMP_HEADER_SIZE || buffer.getInt(buffer.position()) != DUMP_MARKER) {
+			return false;
+		}
+		buffer.getInt();
+		int version = buffer.getInt();
+		if (version != DUMP_VERSION) {
+			throw new IOException("ArrayEncoding: unsupported version " + version + ".");
+		}
+		return true;
+	}
+
+	/**
+	 * Encodes an array. The chunks are encoded in parallel. The values are copied, so the array may be modified after
+	 * this method returns, except for the default encoding, which writes the array itself in
+	 * {@link EncodedArray#put(ByteBuffer)}.
+	 *
+	 * @param values            array to be encoded
+	 * @param iterator          iterator which encodes the chunks, usually
+	 *                          {@link org.openpixi.pixi.physics.Simulation#getIndexIterator()}
+	 * @return                  encoded array
+	 */
+	public EncodedArray encode(final double[] values, ParallelIndexIterator iterator) {
+		if (isDefault()) {
+			return new EncodedArray(values, null, 8 * values.length);
+		}
+		int numberOfChunks = (values.length + chunkSize - 1) / chunkSize;
+		final byte[][] chunks = new byte[numberOfChunks][];
+		iterator.execute(numberOfChunks, new IndexAction() {
+			public void execute(int chunk) {
+				int start = chunk * chunkSize;
+				int end = Math.min(start + chunkSize, values.length);
+				chunks[chunk] = encodeChunk(values, start, end);
+			}
+		});
+		int numberOfBytes = HEADER_SIZE;
+		for (byte[] chunk : chunks) {
+			numberOfBytes += chunk.length;
+		}
+		return new EncodedArray(values, chunks, numberOfBytes);
+	}
+
+	/**
+	 * Reads an array from the current position of a buffer and advances the position.
+	 *
+	 * @param buffer            buffer containing the array
+	 * @param numberOfValues    number of values of the array
+	 * @param encoded           false for plain values, true for an array written with a non-default encoding, see
+	 *                          {@link #readDumpHeader(ByteBuffer)}
+	 * @return                  decoded array
+	 * @throws IOException      if the data is corrupt
+	 */
+	public static double[] decode(ByteBuffer buffer, int numberOfValues, boolean encoded) throws IOException {
+		double[] values = new double[numberOfValues];
+		if (!encoded) {
+			buffer.asDoubleBuffer().get(values);
+			buffer.position(buffer.position() + 8 * numberOfValues);
+			return values;
+		}
+
+		if (buffer.getInt() != MAGIC) {
+			throw new IOException("ArrayEncoding: missing header.");
+		}
+		byte typeIndex = buffer.get();
+		byte level = buffer.get();
+		int length = buffer.getInt();
+		int chunkSize = buffer.getInt();
+		double errorBound = buffer.getDouble();
+		if (typeIndex < 0 || typeIndex >= Type.values().length || length != numberOfValues || chunkSize <= 0) {
+			throw new IOException("ArrayEncoding: invalid header.");
+		}
+		Type type = Type.values()[typeIndex];
+
+		for (int start = 0; start < length; start += chunkSize) {
+			int end = Math.min(start + chunkSize, length);
+			int storedBytes = buffer.getInt();
+			int rawBytes = buffer.getInt();
+			byte[] stored = new byte[storedBytes];
+			buffer.get(stored);
+			byte[] raw = (level > 0) ? inflate(stored, rawBytes) : stored;
+			decodeChunk(type, errorBound, ByteBuffer.wrap(raw), values, start, end);
+		}
+		return values;
+	}
+
+	/**
+	 * Returns the encoded chunk including its header.
+	 */
+	private byte[] encodeChunk(double[] values, int start, int end) {
+		int n = end - start;
+		ByteBuffer raw;
+		switch (type) {
+			case FLOAT:
+				raw = ByteBuffer.allocate(4 * n);
+				for (int i = start; i < end; i++) {
+					raw.putFloat((float) values[i]);
+				}
+				break;
+			case QUANTIZED:
+				raw = quantize(values, start, end);
+				break;
+			default:
+				raw = ByteBuffer.allocate(8 * n);
+				raw.asDoubleBuffer().put(values, start, n);
+				raw.position(8 * n);
+				break;
+		}
+
+		int rawBytes = raw.position();
+		byte[] stored = (compressionLevel > 0) ? deflate(raw.array(), rawBytes, compressionLevel) : raw.array();
+		int storedBytes = (compressionLevel > 0) ? stored.length : rawBytes;
+		ByteBuffer chunk = ByteBuffer.allocate(CHUNK_HEADER_SIZE + storedBytes);
+		chunk.putInt(storedBytes);
+		chunk.putInt(rawBytes);
+		chunk.put(stored, 0, storedBytes);
+		return chunk.array();
+	}
+
+	private ByteBuffer quantize(double[] values, int start, int end) {
+		int n = end - start;
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		boolean finite = true;
+		for (int i = start; i < end; i++) {
+			double v = values[i];
+			finite &= !Double.isNaN(v) && !Double.isInfinite(v);
+			min = Math.min(min, v);
+			max = Math.max(max, v);
+		}
+
+		double step = 2.0 * errorBound;
+		double range = finite ? (max - min) / step : Double.POSITIVE_INFINITY;
+		int width;
+		if (range < 0xFFL) {
+			width = 1;
+		} else if (range < 0xFFFFL) {
+			width = 2;
+		} else if (range < 0xFFFFFFFFL) {
+			width = 4;
+		} else {
+			width = 8;
+		}
+
+		ByteBuffer raw = ByteBuffer.allocate(9 + width * n);
+		raw.putDouble(finite ? min : 0.0);
+		raw.put((byte) width);
+		if (width == 8) {
+			raw.asDoubleBuffer().put(values, start, n);
+			raw.position(raw.position() + 8 * n);
+			return raw;
+		}
+		for (int i = start; i < end; i++) {
+			long q = Math.round((values[i] - min) / step);
+			switch (width) {
+				case 1:
+					raw.put((byte) q);
+					break;
+				case 2:
+					raw.putShort((short) q);
+					break;
+				default:
+					raw.putInt((int) q);
+					break;
+			}
+		}
+		return raw;
+	}
+
+	private static void decodeChunk(Type type, double errorBound, ByteBuffer raw, double[] values, int start, int end)
+			throws IOException {
+		int n = end - start;
+		switch (type) {
+			case FLOAT:
+				for (int i = start; i < end; i++) {
+					values[i] = raw.getFloat();
+				}
+				break;
+			case QUANTIZED:
+				double min = raw.getDouble();
+				int width = raw.get();
+				double step = 2.0 * errorBound;
+				for (int i = start; i < end; i++) {
+					switch (width) {
+						case 1:
+							values[i] = min + step * (raw.get() & 0xFFL);
+							break;
+						case 2:
+							values[i] = min + step * (raw.getShort() & 0xFFFFL);
+							break;
+						case 4:
+							values[i] = min + step * (raw.getInt() & 0xFFFFFFFFL);
+							break;
+						case 8:
+							values[i] = raw.getDouble();
+							break;
+						default:
+							throw new IOException("ArrayEncoding: invalid quantized chunk.");
+					}
+				}
+				break;
+			default:
+				raw.asDoubleBuffer().get(values, start, n);
+				break;
+		}
+	}
+
+	private static byte[] deflate(byte[] data, int length, int level) {
+		Deflater deflater = new Deflater(level);
+		deflater.setInput(data, 0, length);
+		deflater.finish();
+		byte[] output = new byte[length + length / 100 + 64];
+		int size = 0;
+		while (!deflater.finished()) {
+			if (size == output.length) {
+				output = Arrays.copyOf(output, 2 * output.length);
+			}
+			size += deflater.deflate(output, size, output.length - size);
+		}
+		deflater.end();
+		return Arrays.copyOf(output, size);
+	}
+
+	private static byte[] inflate(byte[] data, int rawLength) throws IOException {
+		Inflater inflater = new Inflater();
+		inflater.setInput(data);
+		byte[] output = new byte[rawLength];
+		try {
+			int size = 0;
+			while (size < rawLength) {
+				int inflated = inflater.inflate(output, size, rawLength - size);
+				if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+					throw new IOException("ArrayEncoding: compressed chunk is too short.");
+				}
+				size += inflated;
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("ArrayEncoding: invalid compressed chunk.", e);
+		} finally {
+			inflater.end();
+		}
+		return output;
+	}
+
+	/**
+	 * Result of {@link #encode(double[], ParallelIndexIterator)}. Knows its size in bytes, such that the output buffer can be allocated
+	 * before the array is written.
+	 */
+	public class EncodedArray {
+
+		private double[] values;
+		private byte[][] chunks;
+		private int numberOfBytes;
+
+		private EncodedArray(double[] values, byte[][] chunks, int numberOfBytes) {
+			this.values = values;
+			this.chunks = chunks;
+			this.numberOfBytes = numberOfBytes;
+		}
+
+		public int getNumberOfBytes() {
+			return numberOfBytes;
+		}
+
+		/**
+		 * Writes the encoded array at the current position of a buffer and advances the position.
+		 *
+		 * @param buffer    buffer with room for {@link #getNumberOfBytes()} bytes
+		 */
+		public void put(ByteBuffer buffer) {
+			if (chunks == null) {
+				OutputWriter.putDoubles(buffer, values);
+				return;
+			}
+			buffer.putInt(MAGIC);
+			buffer.put((byte) type.ordinal());
+			buffer.put((byte) compressionLevel);
+			buffer.putInt(values.length);
+			buffer.putInt(chunkSize);
+			buffer.putDouble(errorBound);
+			for (byte[] chunk : chunks) {
+				buffer.put(chunk);
+			}
+		}
+	}
+}
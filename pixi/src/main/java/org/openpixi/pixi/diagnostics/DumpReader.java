@@ -0,0 +1,129 @@
+package org.openpixi.pixi.diagnostics;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+
+/**
+ * Reads the binary field dumps of {@link org.openpixi.pixi.diagnostics.methods.EnergyDensity},
+ * {@link org.openpixi.pixi.diagnostics.methods.PlanarFields} and
+ * {@link org.openpixi.pixi.physics.fields.currentgenerators.DualMVModel} in any {@link ArrayEncoding}.
+ * <br>
+ * The main method converts a dump into the default output format, such that existing analysis scripts can be used:
+ * <pre>
+ * java -cp target/pixi-0.6-SNAPSHOT.jar org.openpixi.pixi.diagnostics.DumpReader energydensity input.dat output.dat
+ * java -cp target/pixi-0.6-SNAPSHOT.jar org.openpixi.pixi.diagnostics.DumpReader planarfields input.dat output.txt
+ * </pre>
+ */
+public class DumpReader {
+
+	/**
+	 * Energy density of every cell and the lattice size.
+	 */
+	public static class EnergyDensityDump {
+		public int[] numCells;
+		public double[] values;
+	}
+
+	/**
+	 * Reads a file written by {@link org.openpixi.pixi.diagnostics.methods.EnergyDensity}.
+	 *
+	 * @param path  path of the file
+	 * @return      energy density and lattice size
+	 * @throws IOException
+	 */
+	public static EnergyDensityDump readEnergyDensity(String path) throws IOException {
+		ByteBuffer buffer = readFile(path);
+		EnergyDensityDump dump = new EnergyDensityDump();
+		boolean encoded = ArrayEncoding.readDumpHeader(buffer);
+		int numberOfDimensions = buffer.getInt();
+		dump.numCells = new int[numberOfDimensions];
+		int totalNumberOfCells = 1;
+		for (int i = 0; i < numberOfDimensions; i++) {
+			dump.numCells[i] = buffer.getInt();
+			totalNumberOfCells *= dump.numCells[i];
+		}
+		dump.values = ArrayEncoding.decode(buffer, totalNumberOfCells, encoded);
+		return dump;
+	}
+
+	/**
+	 * Reads a binary file written by {@link org.openpixi.pixi.diagnostics.methods.PlanarFields} or
+	 * {@link org.openpixi.pixi.physics.fields.currentgenerators.DualMVModel} with a non-default encoding. The files
+	 * contain for every sample the dump header (see {@link ArrayEncoding#putDumpHeader(ByteBuffer)}), the number of
+	 * rows (Int32) and columns (Int32) followed by the encoded rows. The rows are the lines of the text format.
+	 *
+	 * @param path  path of the file
+	 * @return      list of samples, every sample as an array of rows
+	 * @throws IOException
+	 */
+	public static ArrayList<double[][]> readPlanarFields(String path) throws IOException {
+		ByteBuffer buffer = readFile(path);
+		ArrayList<double[][]> samples = new ArrayList<double[][]>();
+		while (buffer.hasRemaining()) {
+			boolean encoded = ArrayEncoding.readDumpHeader(buffer);
+			int rows = buffer.getInt();
+			int columns = buffer.getInt();
+			double[] values = ArrayEncoding.decode(buffer, rows * columns, encoded);
+			double[][] sample = new double[rows][columns];
+			for (int i = 0; i < rows; i++) {
+				System.arraycopy(values, i * columns, sample[i], 0, columns);
+			}
+			samples.add(sample);
+		}
+		return samples;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 3) {
+			System.out.println("Usage: DumpReader (energydensity|planarfields) input output");
+			return;
+		}
+		if (args[0].equals("energydensity")) {
+			EnergyDensityDump dump = readEnergyDensity(args[1]);
+			DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(args[2])));
+			try {
+				stream.writeInt(dump.numCells.length);
+				for (int n : dump.numCells) {
+					stream.writeInt(n);
+				}
+				for (double v : dump.values) {
+					stream.writeDouble(v);
+				}
+			} finally {
+				stream.close();
+			}
+		} else if (args[0].equals("planarfields")) {
+			ArrayList<double[][]> samples = readPlanarFields(args[1]);
+			BufferedWriter writer = new BufferedWriter(new FileWriter(args[2]));
+			try {
+				for (double[][] sample : samples) {
+					for (double[] row : sample) {
+						writer.write(FileFunctions.generateTSVString(row) + "\n");
+					}
+				}
+			} finally {
+				writer.close();
+			}
+		} else {
+			System.out.println("DumpReader: unknown file type " + args[0]);
+		}
+	}
+
+	private static ByteBuffer readFile(String path) throws IOException {
+		FileInputStream stream = new FileInputStream(path);
+		try {
+			FileChannel channel = stream.getChannel();
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			stream.close();
+		}
+	}
+}
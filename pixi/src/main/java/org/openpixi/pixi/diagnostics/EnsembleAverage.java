@@ -0,0 +1,130 @@
+package org.openpixi.pixi.diagnostics;
+
+import java.util.ArrayList;
+
+/**
+ * Accumulates the samples of a diagnostic over an ensemble of events. Every sample (e.g. one time step of an
+ * observable) is an array of values. Mean and variance of every value are updated online using Welford's algorithm,
+ * such that only the accumulated sums have to be kept in memory:
+ * <pre>
+ *     n     = n + 1
+ *     delta = x - mean
+ *     mean  = mean + delta / n
+ *     M2    = M2 + delta * (x - mean)
+ * </pre>
+ * The sample variance of the ensemble is M2 / (n - 1).
+ */
+public class EnsembleAverage {
+
+	private ArrayList<Sample> samples = new ArrayList<Sample>();
+
+	/**
+	 * Adds the values of a sample of the current event.
+	 *
+	 * @param sample    Index of the sample, e.g. the number of the time step
+	 * @param values    Values of the sample
+	 */
+	public void add(int sample, double[] values) {
+		while (samples.size() <= sample) {
+			samples.add(new Sample(values.length));
+		}
+		Sample s = samples.get(sample);
+		if (s.mean.length != values.length) {
+			throw new IllegalArgumentException("Sample " + sample + " has " + values.length
+					+ " values instead of " + s.mean.length + ".");
+		}
+
+		s.numberOfEvents++;
+		for (int i = 0; i < values.length; i++) {
+			double delta = values[i] - s.mean[i];
+			s.mean[i] += delta / s.numberOfEvents;
+			s.m2[i] += delta * (values[i] - s.mean[i]);
+		}
+	}
+
+	/**
+	 * Adds all events of another ensemble average, e.g. of a single event which has been completed. Mean and M2 of
+	 * every sample are combined by
+	 * <pre>
+	 *     n     = n_a + n_b
+	 *     delta = mean_b - mean_a
+	 *     mean  = mean_a + delta * n_b / n
+	 *     M2    = M2_a + M2_b + delta^2 * n_a * n_b / n
+	 * </pre>
+	 *
+	 * @param other Ensemble average whose samples are added to this one
+	 */
+	public void add(EnsembleAverage other) {
+		for (int sample = 0; sample < other.samples.size(); sample++) {
+			Sample b = other.samples.get(sample);
+			while (samples.size() <= sample) {
+				samples.add(new Sample(b.mean.length));
+			}
+			Sample a = samples.get(sample);
+			if (a.mean.length != b.mean.length) {
+				throw new IllegalArgumentException("Sample " + sample + " has " + b.mean.length
+						+ " values instead of " + a.mean.length + ".");
+			}
+			if (b.numberOfEvents == 0) {
+				continue;
+			}
+
+			int n = a.numberOfEvents + b.numberOfEvents;
+			for (int i = 0; i < a.mean.length; i++) {
+				double delta = b.mean[i] - a.mean[i];
+				a.mean[i] += delta * b.numberOfEvents / n;
+				a.m2[i] += b.m2[i] + delta * delta * a.numberOfEvents * b.numberOfEvents / n;
+			}
+			a.numberOfEvents = n;
+		}
+	}
+
+	/**
+	 * @return  Number of samples added so far
+	 */
+	public int getNumberOfSamples() {
+		return samples.size();
+	}
+
+	/**
+	 * @param sample    Index of the sample
+	 * @return          Number of events which contributed to the sample
+	 */
+	public int getNumberOfEvents(int sample) {
+		return samples.get(sample).numberOfEvents;
+	}
+
+	/**
+	 * @param sample    Index of the sample
+	 * @return          Ensemble mean of the values of the sample
+	 */
+	public double[] getMean(int sample) {
+		return samples.get(sample).mean.clone();
+	}
+
+	/**
+	 * @param sample    Index of the sample
+	 * @return          Sample variance of the values of the sample, zero for less than two events
+	 */
+	public double[] getVariance(int sample) {
+		Sample s = samples.get(sample);
+		double[] variance = new double[s.m2.length];
+		if (s.numberOfEvents > 1) {
+			for (int i = 0; i < variance.length; i++) {
+				variance[i] = s.m2[i] / (s.numberOfEvents - 1);
+			}
+		}
+		return variance;
+	}
+
+	private static class Sample {
+		private int numberOfEvents;
+		private double[] mean;
+		private double[] m2;
+
+		private Sample(int numberOfValues) {
+			mean = new double[numberOfValues];
+			m2 = new double[numberOfValues];
+		}
+	}
+}
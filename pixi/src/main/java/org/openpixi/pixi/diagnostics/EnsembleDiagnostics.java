@@ -0,0 +1,27 @@
+package org.openpixi.pixi.diagnostics;
+
+import java.io.IOException;
+
+/**
+ * Diagnostics which can average their output over an ensemble of events instead of writing a file for every event
+ * (see {@link org.openpixi.pixi.ui.MainBatch}).
+ */
+public interface EnsembleDiagnostics extends Diagnostics {
+
+	/**
+	 * Adds the samples of the simulation to the ensemble average instead of writing them. Has to be called before the
+	 * diagnostic is initialized.
+	 *
+	 * @param average   Ensemble average which collects the samples of the current event
+	 */
+	void setEnsembleAverage(EnsembleAverage average);
+
+	/**
+	 * Writes an ensemble average to the output of the diagnostic. Called after the last event has been simulated with
+	 * the average over all events which have been completed.
+	 *
+	 * @param average   Ensemble average of the samples of this diagnostic
+	 * @throws IOException
+	 */
+	void writeEnsembleAverage(EnsembleAverage average) throws IOException;
+}
@@ -31,6 +31,21 @@ public class FileFunctions {
 		return file;
 	}
 
+	/**
+	 * Returns the path of the file for the ensemble variance of an output file, which is the path with "_variance"
+	 * inserted before the extension (e.g. "pe_variance.dat" for "pe.dat").
+	 *
+	 * @param path String with path or filename of the output file
+	 * @return     path of the variance file
+	 */
+	public static String getVariancePath(String path) {
+		int extension = path.lastIndexOf('.');
+		if(extension > path.lastIndexOf('/')) {
+			return path.substring(0, extension) + "_variance" + path.substring(extension);
+		}
+		return path + "_variance";
+	}
+
 	/**
 	 * Clear a file if it already exists.
 	 *
@@ -0,0 +1,391 @@
+package org.openpixi.pixi.diagnostics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Writes the output files of the diagnostics. A diagnostic copies its sample into a buffer obtained from
+ * {@link #getBuffer(int)} and passes the buffer to {@link #write(File, ByteBuffer, boolean)}, which appends it to the
+ * file with a bulk write through a {@link FileChannel}. Files stay open until they are closed explicitly or until
+ * {@link #close()} is called.
+ * <br>
+ * In asynchronous mode (see {@link org.openpixi.pixi.physics.Settings#useAsyncOutput(boolean)}) the files are written
+ * by a background thread and the simulation thread only copies the sample into the buffer. A fixed number of buffers
+ * is reused, by default two: one is filled by the simulation while the other one is written to disk. The buffers also
+ * bound the queue of pending writes: if all of them are waiting to be written, {@link #getBuffer(int)} blocks until
+ * the background thread has finished one of them. Pending writes are completed by {@link #flush()}, {@link #close()}
+ * and, if the simulation did not close its output, when the JVM shuts down.
+ * <br>
+ * The buffers grow to the size of the largest sample and are reused afterwards. They use big-endian byte order, so
+ * binary output is identical to output written with {@link java.io.DataOutputStream}.
+ */
+public class OutputWriter {
+
+	public static final int DEFAULT_NUMBER_OF_BUFFERS = 2;
+
+	/**
+	 * Minimum capacity of a buffer in bytes.
+	 */
+	private static final int MINIMUM_CAPACITY = 1 << 16;
+
+	private boolean asynchronous;
+
+	/**
+	 * Buffers which can be filled by the diagnostics.
+	 */
+	private BlockingQueue<ByteBuffer> freeBuffers;
+
+	/**
+	 * Writes which have not been completed by the background thread.
+	 */
+	private BlockingQueue<Job> pendingJobs;
+
+	/**
+	 * Open files. Only accessed by the thread which writes the files.
+	 */
+	private HashMap<String, FileChannel> channels = new HashMap<String, FileChannel>();
+
+	private Thread writerThread;
+	private Thread shutdownHook;
+
+	/**
+	 * First error of the background thread, reported to the simulation thread by the next call.
+	 */
+	private volatile IOException error;
+
+	/**
+	 * Creates a writer with the default number of buffers.
+	 *
+	 * @param asynchronous  true if the files should be written by a background thread
+	 */
+	public OutputWriter(boolean asynchronous) {
+		this(asynchronous, DEFAULT_NUMBER_OF_BUFFERS);
+	}
+
+	/**
+	 * Creates a writer. The buffers are allocated when they are first used.
+	 *
+	 * @param asynchronous      true if the files should be written by a background thread
+	 * @param numberOfBuffers   number of buffers, i.e. the maximum number of samples waiting to be written plus one
+	 */
+	public OutputWriter(boolean asynchronous, int numberOfBuffers) {
+		this.asynchronous = asynchronous;
+		this.freeBuffers = new ArrayBlockingQueue<ByteBuffer>(numberOfBuffers);
+		// One additional entry for the flush and close requests.
+		this.pendingJobs = new ArrayBlockingQueue<Job>(numberOfBuffers + 1);
+		for (int i = 0; i < numberOfBuffers; i++) {
+			freeBuffers.add(ByteBuffer.allocate(0));
+		}
+	}
+
+	public boolean isAsynchronous() {
+		return asynchronous;
+	}
+
+	/**
+	 * Returns an empty buffer with room for at least the given number of bytes. Blocks while all buffers are waiting
+	 * to be written. The buffer has to be passed to {@link #write(File, ByteBuffer, boolean)} afterwards.
+	 *
+	 * @param numberOfBytes size of the sample
+	 * @return              empty buffer
+	 * @throws IOException  if a previous write has failed or the thread has been interrupted
+	 */
+	public ByteBuffer getBuffer(int numberOfBytes) throws IOException {
+		checkError();
+		ByteBuffer buffer;
+		try {
+			buffer = freeBuffers.take();
+		} catch (InterruptedException e) {
+			throw interrupted();
+		}
+		if (buffer.capacity() < numberOfBytes) {
+			buffer = ByteBuffer.allocateDirect(Math.max(numberOfBytes + numberOfBytes / 8, MINIMUM_CAPACITY));
+		}
+		buffer.clear();
+		return buffer;
+	}
+
+	/**
+	 * Appends the content of a buffer obtained from {@link #getBuffer(int)} to a file. The buffer must not be used
+	 * afterwards. In asynchronous mode the method returns before the data has been written.
+	 *
+	 * @param file      output file, see {@link FileFunctions#getFile(String)}
+	 * @param buffer    buffer filled up to its position
+	 * @param closeFile true if the file is not needed any more after this write
+	 * @throws IOException  if this or a previous write has failed
+	 */
+	public void write(File file, ByteBuffer buffer, boolean closeFile) throws IOException {
+		buffer.flip();
+		if (asynchronous) {
+			startWriterThread();
+			put(new Job(file, buffer, closeFile, null));
+		} else {
+			try {
+				writeToFile(file, buffer, closeFile);
+			} finally {
+				freeBuffers.add(buffer);
+			}
+		}
+		checkError();
+	}
+
+	/**
+	 * Appends a string to a file, see {@link #write(File, ByteBuffer, boolean)}. The string is encoded with the
+	 * default charset like {@link java.io.FileWriter} does.
+	 *
+	 * @param file      output file
+	 * @param text      string to be written
+	 * @param closeFile true if the file is not needed any more after this write
+	 * @throws IOException  if this or a previous write has failed
+	 */
+	public void write(File file, String text, boolean closeFile) throws IOException {
+		byte[] bytes = text.getBytes();
+		ByteBuffer buffer = getBuffer(bytes.length);
+		buffer.put(bytes);
+		write(file, buffer, closeFile);
+	}
+
+	/**
+	 * Truncates a file to zero length or creates it if it does not exist. Like a write, the request is ordered with
+	 * the other writes, so data which has been passed to the writer before ends up in the old content of the file and
+	 * is removed. An open channel of the file is closed first. In asynchronous mode the method returns before the file
+	 * has been cleared.
+	 *
+	 * @param file  output file, see {@link FileFunctions#getFile(String)}
+	 * @throws IOException  if clearing the file or a previous write has failed
+	 */
+	public void clear(File file) throws IOException {
+		if (asynchronous) {
+			startWriterThread();
+			put(new Job(file, null, true, null));
+		} else {
+			clearFile(file);
+		}
+		checkError();
+	}
+
+	/**
+	 * Waits until all pending writes have been completed.
+	 *
+	 * @throws IOException  if a write has failed
+	 */
+	public synchronized void flush() throws IOException {
+		if (writerThread != null) {
+			CountDownLatch done = new CountDownLatch(1);
+			put(new Job(null, null, false, done));
+			await(done);
+		}
+		checkError();
+	}
+
+	/**
+	 * Completes all pending writes, closes all files and stops the background thread. The writer can still be used
+	 * afterwards, in which case a new background thread is started.
+	 *
+	 * @throws IOException  if a write has failed
+	 */
+	public synchronized void close() throws IOException {
+		if (writerThread != null) {
+			CountDownLatch done = new CountDownLatch(1);
+			put(new Job(null, null, true, done));
+			await(done);
+			try {
+				writerThread.join();
+			} catch (InterruptedException e) {
+				throw interrupted();
+			}
+			writerThread = null;
+			try {
+				Runtime.getRuntime().removeShutdownHook(shutdownHook);
+			} catch (IllegalStateException e) {
+				// Called by the shutdown hook itself.
+			}
+			shutdownHook = null;
+		} else {
+			closeFiles();
+		}
+		IOException e = error;
+		error = null;
+		if (e != null) {
+			throw e;
+		}
+	}
+
+	/**
+	 * Copies an array of doubles into a buffer at its current position and advances the position.
+	 *
+	 * @param buffer    buffer with room for the array
+	 * @param array     array of doubles
+	 */
+	public static void putDoubles(ByteBuffer buffer, double[] array) {
+		buffer.asDoubleBuffer().put(array);
+		buffer.position(buffer.position() + 8 * array.length);
+	}
+
+	private synchronized void startWriterThread() {
+		if (writerThread == null) {
+			writerThread = new Thread(new Runnable() {
+				public void run() {
+					processJobs();
+				}
+			}, "OutputWriter");
+			// The shutdown hook completes the output if the simulation has not been closed.
+			writerThread.setDaemon(true);
+			writerThread.start();
+			shutdownHook = new Thread(new Runnable() {
+				public void run() {
+					try {
+						close();
+					} catch (IOException e) {
+						System.out.println("OutputWriter: Error writing to file.");
+					}
+				}
+			});
+			Runtime.getRuntime().addShutdownHook(shutdownHook);
+		}
+	}
+
+	/**
+	 * Main loop of the background thread.
+	 */
+	private void processJobs() {
+		while (true) {
+			Job job;
+			try {
+				job = pendingJobs.take();
+			} catch (InterruptedException e) {
+				error = interrupted();
+				return;
+			}
+			if (job.file != null && job.buffer == null) {
+				try {
+					if (error == null) {
+						clearFile(job.file);
+					}
+				} catch (IOException e) {
+					error = e;
+				}
+			} else if (job.file != null) {
+				try {
+					if (error == null) {
+						writeToFile(job.file, job.buffer, job.close);
+					}
+				} catch (IOException e) {
+					error = e;
+				} finally {
+					freeBuffers.add(job.buffer);
+				}
+			} else if (job.close) {
+				try {
+					closeFiles();
+				} catch (IOException e) {
+					if (error == null) {
+						error = e;
+					}
+				}
+			}
+			if (job.done != null) {
+				job.done.countDown();
+			}
+			if (job.file == null && job.close) {
+				return;
+			}
+		}
+	}
+
+	private void writeToFile(File file, ByteBuffer buffer, boolean closeFile) throws IOException {
+		String key = file.getAbsolutePath();
+		FileChannel channel = channels.get(key);
+		if (channel == null) {
+			channel = new FileOutputStream(file, true).getChannel();
+			channels.put(key, channel);
+		}
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		} finally {
+			if (closeFile) {
+				channels.remove(key);
+				channel.close();
+			}
+		}
+	}
+
+	private void clearFile(File file) throws IOException {
+		FileChannel channel = channels.remove(file.getAbsolutePath());
+		if (channel != null) {
+			channel.close();
+		}
+		new FileOutputStream(file, false).close();
+	}
+
+	private void closeFiles() throws IOException {
+		IOException exception = null;
+		for (FileChannel channel : channels.values()) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				exception = e;
+			}
+		}
+		channels.clear();
+		if (exception != null) {
+			throw exception;
+		}
+	}
+
+	private void put(Job job) throws IOException {
+		try {
+			pendingJobs.put(job);
+		} catch (InterruptedException e) {
+			throw interrupted();
+		}
+	}
+
+	private void await(CountDownLatch done) throws IOException {
+		try {
+			done.await();
+		} catch (InterruptedException e) {
+			throw interrupted();
+		}
+	}
+
+	private void checkError() throws IOException {
+		IOException e = error;
+		if (e != null) {
+			throw e;
+		}
+	}
+
+	private static InterruptedIOException interrupted() {
+		Thread.currentThread().interrupt();
+		return new InterruptedIOException("OutputWriter: interrupted while waiting for the output.");
+	}
+
+	/**
+	 * A buffer to be written to a file, a request to clear a file (buffer == null), or a flush (file == null) or close
+	 * (file == null, close == true) request.
+	 */
+	private static class Job {
+		private File file;
+		private ByteBuffer buffer;
+		private boolean close;
+		private CountDownLatch done;
+
+		private Job(File file, ByteBuffer buffer, boolean close, CountDownLatch done) {
+			this.file = file;
+			this.buffer = buffer;
+			this.close = close;
+			this.done = done;
+		}
+	}
+}
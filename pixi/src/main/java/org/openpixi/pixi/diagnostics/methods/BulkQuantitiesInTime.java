@@ -12,7 +12,7 @@ import org.openpixi.pixi.diagnostics.FileFunctions;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.physics.particles.IParticle;
-import org.openpixi.pixi.physics.measurements.FieldMeasurements;
+import org.openpixi.pixi.physics.measurements.BulkObservables;
 
 public class BulkQuantitiesInTime implements Diagnostics {
 
@@ -21,7 +21,7 @@ public class BulkQuantitiesInTime implements Diagnostics {
 	private int stepInterval;
 	private boolean supressOutput;
 	private Simulation s;
-	private FieldMeasurements fieldMeasurements;
+	private BulkObservables bulkObservables;
 
 	public double eSquared;
 	public double bSquared;
@@ -44,7 +44,8 @@ public class BulkQuantitiesInTime implements Diagnostics {
 
 	/**
 	 * Initializes the BulkQuantitiesInTime object.
-	 * It sets the step interval and creates/deletes the output file.
+	 * It sets the step interval and creates/deletes the output file. A restarted simulation appends to the existing
+	 * output file.
 	 *
 	 * @param s    Instance of the simulation object
 	 */
@@ -52,9 +53,9 @@ public class BulkQuantitiesInTime implements Diagnostics {
 	{
 		this.s = s;
 		this.stepInterval = (int) Math.max(Math.round((timeInterval / this.s.getTimeStep())), 1);
-		this.fieldMeasurements = new FieldMeasurements();
+		this.bulkObservables = new BulkObservables(true, false);
 
-		if(!supressOutput) {
+		if(!supressOutput && !s.isRestarted()) {
 			// Create/delete file.
 			FileFunctions.clearFile(path);
 
@@ -82,20 +83,16 @@ public class BulkQuantitiesInTime implements Diagnostics {
 	public void calculate(Grid grid, ArrayList<IParticle> particles, int steps) throws IOException {
 		if(steps % stepInterval == 0) {
 			//TODO Make this method d-dimensional!!
-			double[] esquares = new double[3];
-			double[] bsquares = new double[3];
-			for (int i = 0; i < 3; i++) {
-				esquares[i] = fieldMeasurements.calculateEsquared(grid, i);
-				bsquares[i] = fieldMeasurements.calculateBsquared(grid, i);
-			}
+			// All observables are computed in a single sweep over the grid.
+			bulkObservables.calculate(grid);
 
-			eSquared = esquares[0] + esquares[1] + esquares[2];
-			bSquared = bsquares[0] + bsquares[1] + bsquares[2];
-			px = -esquares[0] + esquares[1] + esquares[2] - bsquares[0] + bsquares[1] + bsquares[2];
-			py = +esquares[0] - esquares[1] + esquares[2] + bsquares[0] - bsquares[1] + bsquares[2];
-			pz = +esquares[0] + esquares[1] - esquares[2] + bsquares[0] + bsquares[1] - bsquares[2];
+			eSquared = bulkObservables.getEsquared();
+			bSquared = bulkObservables.getBsquared();
+			px = bulkObservables.getPressure(0);
+			py = bulkObservables.getPressure(1);
+			pz = bulkObservables.getPressure(2);
 
-			gaussViolation = fieldMeasurements.calculateGaussConstraint(grid);
+			gaussViolation = bulkObservables.getGaussViolation();
 
 			if(!supressOutput) {
 				File file = FileFunctions.getFile(path);
@@ -0,0 +1,40 @@
+package org.openpixi.pixi.diagnostics.methods;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.openpixi.pixi.diagnostics.Diagnostics;
+import org.openpixi.pixi.physics.Checkpoint;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.physics.particles.IParticle;
+
+/**
+ * Writes a binary checkpoint of the simulation at specified times. Every checkpoint replaces the previous one.
+ * The simulation can be resumed from the checkpoint, see {@link Checkpoint}.
+ */
+public class CheckpointInTime implements Diagnostics {
+
+	private Simulation s;
+	private String path;
+	private double timeInterval;
+	private int stepInterval;
+
+	public CheckpointInTime(String path, double timeInterval) {
+		this.path = path;
+		this.timeInterval = timeInterval;
+	}
+
+	@Override
+	public void initialize(Simulation s) {
+		this.s = s;
+		this.stepInterval = (int) Math.max(Math.round((timeInterval / s.getTimeStep())), 1);
+	}
+
+	@Override
+	public void calculate(Grid grid, ArrayList<IParticle> particles, int steps) throws IOException {
+		if (steps > 0 && steps % stepInterval == 0) {
+			Checkpoint.write(s, path);
+		}
+	}
+}
@@ -2,6 +2,7 @@ package org.openpixi.pixi.diagnostics.methods;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.openpixi.pixi.diagnostics.Diagnostics;
 import org.openpixi.pixi.physics.Simulation;
@@ -19,11 +20,34 @@ public class CoulombGaugeInTime implements Diagnostics {
 	private double timeOffset;
 	private int stepOffset;
 
+	/**
+	 * Settings of the gauge fixing algorithm.
+	 */
+	private boolean adaptiveStepSize = false;
+	private double initialStepSize = 1.0;
+
+	/**
+	 * Print iterations and wall time of every gauge fixing.
+	 */
+	private boolean report = false;
+
 	public CoulombGaugeInTime(double timeInterval, double timeOffset) {
 		this.timeInterval = timeInterval;
 		this.timeOffset = timeOffset;
 	}
 
+	public void setAdaptiveStepSize(boolean adaptiveStepSize) {
+		this.adaptiveStepSize = adaptiveStepSize;
+	}
+
+	public void setInitialStepSize(double initialStepSize) {
+		this.initialStepSize = initialStepSize;
+	}
+
+	public void setReport(boolean report) {
+		this.report = report;
+	}
+
 	@Override
 	public void initialize(Simulation s) {
 		this.stepInterval = (int) Math.max(Math.round((timeInterval / s.getTimeStep())), 1);
@@ -35,7 +59,14 @@ public class CoulombGaugeInTime implements Diagnostics {
 			throws IOException {
 		if ((steps - stepOffset) % stepInterval == 0) {
 			CoulombGauge coulombGauge = new CoulombGauge(grid);
+			coulombGauge.setAdaptiveStepSize(adaptiveStepSize);
+			coulombGauge.setInitialStepSize(initialStepSize);
 			coulombGauge.applyGaugeTransformation(grid);
+			if (report) {
+				System.out.println("CoulombGaugeInTime: lattice " + Arrays.toString(grid.getNumCells())
+						+ ", " + coulombGauge.getLastIterations() + " iterations, "
+						+ coulombGauge.getLastWallTime() + " ms");
+			}
 		}
 	}
 }
@@ -1,15 +1,18 @@
 package org.openpixi.pixi.diagnostics.methods;
 
 import org.apache.commons.io.FilenameUtils;
+import org.openpixi.pixi.diagnostics.ArrayEncoding;
 import org.openpixi.pixi.diagnostics.Diagnostics;
 import org.openpixi.pixi.diagnostics.FileFunctions;
-import org.openpixi.pixi.math.AlgebraElement;
-import org.openpixi.pixi.parallel.cellaccess.CellAction;
+import org.openpixi.pixi.diagnostics.OutputWriter;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.physics.measurements.BulkObservables;
 import org.openpixi.pixi.physics.particles.IParticle;
 
-import java.io.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 /**
@@ -24,10 +27,13 @@ import java.util.ArrayList;
  * Body:
  * \epsilon (N^D * Real64)
  *
- * On a 256^3 grid the filesize will be roughly 0.13 gb.
+ * On a 256^3 grid the filesize will be roughly 0.13 gb. Smaller files can be written with reduced precision or
+ * compression, see {@link #setEncoding(ArrayEncoding)}. In this case the file starts with the dump marker and the
+ * version of the format, and the body is an encoded array as described in {@link ArrayEncoding}. Files can be read with {@link org.openpixi.pixi.diagnostics.DumpReader}.
  *
  * Java writes binary data with Big Endian encoding.
  *
+ * The file is written by the {@link OutputWriter} of the simulation.
  */
 public class EnergyDensity implements Diagnostics {
 	private Simulation simulation;
@@ -37,7 +43,8 @@ public class EnergyDensity implements Diagnostics {
 	private int firstStep;
 	private int step;
 	private int counter = 0;
-	private ComponentComputation componentComputation = new ComponentComputation();
+	private BulkObservables bulkObservables = new BulkObservables(false, true);
+	private ArrayEncoding encoding = new ArrayEncoding();
 
 
 	public EnergyDensity(String filename, double startTime, double timeInterval) {
@@ -46,11 +53,19 @@ public class EnergyDensity implements Diagnostics {
 		this.timeInterval = timeInterval;
 	}
 
+	/**
+	 * Sets the encoding of the energy density. The default encoding stores the exact values as Real64.
+	 *
+	 * @param encoding  encoding of the body
+	 */
+	public void setEncoding(ArrayEncoding encoding) {
+		this.encoding = encoding;
+	}
+
 	public void initialize(Simulation s) {
 		this.firstStep = (int) Math.max(Math.round((startTime / s.getTimeStep())), 1);
 		this.step = (int) Math.round(timeInterval / s.getTimeStep());
 
-		componentComputation.initialize(s.grid);
 		this.simulation = s;
 	}
 
@@ -64,104 +79,31 @@ public class EnergyDensity implements Diagnostics {
 				String filename_extension = FilenameUtils.getExtension(filename);
 				String new_name = filename_base + "_" + counter + "." + filename_extension;
 				String new_filepath = FilenameUtils.concat(filename_path, new_name);
-				FileFunctions.clearFile(new_filepath);
 				File file = FileFunctions.getFile(new_filepath);
 
-				// Write header
-				try {
-					DataOutputStream stream = null;
-					try {
-						stream = getStream(file);
-						stream.writeInt(simulation.getNumberOfDimensions());
-						for (int d = 0; d < simulation.getNumberOfDimensions(); d++) {
-							stream.writeInt(simulation.grid.getNumCells(d));
-						}
-					} finally {
-						stream.flush();
-						stream.close();
-					}
-				} catch (IOException ex) {
-					System.out.println("EnergyDensity: Error writing to file.");
-				}
-
 				// Calculate
-				componentComputation.reset();
-				grid.getCellIterator().execute(grid, componentComputation);
+				bulkObservables.calculate(grid);
+				ArrayEncoding.EncodedArray energyDensity = encoding.encode(bulkObservables.getEnergyDensity(),
+						simulation.getIndexIterator());
 
-				// Write body
+				// Write header and body
 				try {
-					DataOutputStream stream = null;
-					try {
-						stream = getStream(file);
-						writeBinaryDoubleArray(stream, componentComputation.energy);
-					} finally {
-						stream.flush();
-						stream.close();
+					OutputWriter writer = simulation.getOutputWriter();
+					writer.clear(file);
+					int numberOfDimensions = simulation.getNumberOfDimensions();
+					ByteBuffer buffer = writer.getBuffer(encoding.getDumpHeaderSize() + 4 * (1 + numberOfDimensions)
+							+ energyDensity.getNumberOfBytes());
+					encoding.putDumpHeader(buffer);
+					buffer.putInt(numberOfDimensions);
+					for (int d = 0; d < numberOfDimensions; d++) {
+						buffer.putInt(simulation.grid.getNumCells(d));
 					}
+					energyDensity.put(buffer);
+					writer.write(file, buffer, true);
 				} catch (IOException ex) {
 					System.out.println("EnergyDensity: Error writing to file.");
 				}
 			}
 		}
 	}
-
-	private DataOutputStream getStream(File file) throws IOException {
-		DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
-		return stream;
-	}
-
-	private void writeBinaryDoubleArray(DataOutputStream stream, double[] array) throws IOException {
-		for (int i = 0; i < array.length; i++) {
-			stream.writeDouble(array[i]);
-		}
-	}
-
-	private class ComponentComputation implements CellAction {
-
-		private int numberOfCells;
-		private int numberOfDimensions;
-		private double[] unitFactor;
-
-		private double[] energy;
-
-		public void initialize(Grid grid) {
-			numberOfCells = grid.getTotalNumberOfCells();
-			numberOfDimensions = grid.getNumberOfDimensions();
-
-			energy = new double[numberOfCells];
-
-			unitFactor = new double[numberOfDimensions];
-			for (int d = 0; d < numberOfDimensions; d++) {
-
-				unitFactor[d] = Math.pow(grid.getLatticeUnitFactor(0), -2);
-			}
-
-			reset();
-		}
-
-
-		public void reset() {
-			for (int i = 0; i < numberOfCells; i++) {
-				energy[i] = 0.0;
-			}
-		}
-
-		public void execute(Grid grid, int index) {
-			// Use index array to get longitudinal index.
-			if(grid.isEvaluatable(index)) {
-				for (int d = 0; d < numberOfDimensions; d++) {
-					AlgebraElement E = grid.getE(index, d);
-					AlgebraElement B = grid.getB(index, d, 0);
-					B.addAssign(grid.getB(index, d, 1));
-
-					double Esq = 0.5 * E.square();
-					double Bsq = 0.25 * B.square();
-
-					synchronized (this) {
-						energy[index] += (Esq + Bsq) * unitFactor[d];
-					}
-				}
-			}
-		}
-	}
 }
@@ -10,7 +10,6 @@ import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.physics.particles.IParticle;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -44,6 +43,12 @@ public class OccupationNumbersInTime implements Diagnostics {
 	private boolean useMirroredGrid;
 	private int mirroredDirection;
 
+	/**
+	 * Settings of the Coulomb gauge fixing algorithm.
+	 */
+	private boolean adaptiveStepSize = false;
+	private double initialStepSize = 1.0;
+
 	private String separator = ", ";
 	private String linebreak = "\n";
 
@@ -83,6 +88,14 @@ public class OccupationNumbersInTime implements Diagnostics {
 		this.mirroredDirection = mirroredDirection;
 	}
 
+	public void setAdaptiveStepSize(boolean adaptiveStepSize) {
+		this.adaptiveStepSize = adaptiveStepSize;
+	}
+
+	public void setInitialStepSize(double initialStepSize) {
+		this.initialStepSize = initialStepSize;
+	}
+
 	public void initialize(Simulation s) {
 		this.s = s;
 		this.stepInterval = (int) Math.max(Math.round((timeInterval / s.getTimeStep())), 1);
@@ -96,7 +109,7 @@ public class OccupationNumbersInTime implements Diagnostics {
 			}
 		}
 
-		this.fft = new DoubleFFTWrapper(s.grid.getNumCells());
+		this.fft = DoubleFFTWrapper.getInstance(s.grid.getNumCells());
 		occupationNumbers = new double[s.grid.getTotalNumberOfCells()][numberOfComponents];
 
 
@@ -131,6 +144,8 @@ public class OccupationNumbersInTime implements Diagnostics {
 				grid = new Grid(grid_reference);	// Copy grid.
 			}
 			CoulombGauge coulombGauge = new CoulombGauge(grid);
+			coulombGauge.setAdaptiveStepSize(adaptiveStepSize);
+			coulombGauge.setInitialStepSize(initialStepSize);
 			coulombGauge.applyGaugeTransformation(grid);
 
 			if(useMirroredGrid) {
@@ -139,33 +154,33 @@ public class OccupationNumbersInTime implements Diagnostics {
 
 			// Fill arrays for FFT.
 			double gainv = 1.0 / (grid.getLatticeSpacing() * grid.getGaugeCoupling());
-			double[][][] eFFTdata = new double[grid.getNumberOfDimensions()][numberOfComponents][fft.getFFTArraySize()];
-			double[][][] aFFTdata = new double[grid.getNumberOfDimensions()][numberOfComponents][fft.getFFTArraySize()];
+			double[][][] eFFTdata = new double[grid.getNumberOfDimensions()][numberOfComponents][fft.getRealFFTArraySize()];
+			double[][][] aFFTdata = new double[grid.getNumberOfDimensions()][numberOfComponents][fft.getRealFFTArraySize()];
+			double[][][] eData = new double[grid.getNumberOfDimensions()][numberOfComponents][grid.getTotalNumberOfCells()];
+			double[][][] aData = new double[grid.getNumberOfDimensions()][numberOfComponents][grid.getTotalNumberOfCells()];
 			for (int i = 0; i < grid.getTotalNumberOfCells(); i++) {
-				int fftIndex = fft.getFFTArrayIndex(i);
 				for (int j = 0; j < grid.getNumberOfDimensions(); j++) {
 					for (int k = 0; k < numberOfComponents; k++) {
 						// Electric field
 						double electricFieldComponent = grid.getE(i, j).get(k) * gainv;
-						eFFTdata[j][k][fftIndex] = electricFieldComponent;
-						eFFTdata[j][k][fftIndex + 1] = 0.0;
+						eData[j][k][i] = electricFieldComponent;
 
 						// Gauge fields need to be averaged over two time-steps.
 						AlgebraElement gaugeFieldAsAlgebraElement0 = grid.getU(i, j).getAlgebraElement();
 						AlgebraElement gaugeFieldAsAlgebraElement1 = grid.getUnext(i, j).getAlgebraElement();
 						double gaugeFieldComponent0 = gaugeFieldAsAlgebraElement0.get(k) * gainv;
 						double gaugeFieldComponent1 = gaugeFieldAsAlgebraElement1.get(k) * gainv;
-						aFFTdata[j][k][fftIndex] = 0.5 * (gaugeFieldComponent0 + gaugeFieldComponent1);
-						aFFTdata[j][k][fftIndex + 1] = 0.0;
+						aData[j][k][i] = 0.5 * (gaugeFieldComponent0 + gaugeFieldComponent1);
 					}
 				}
 			}
 
-			// Compute FTs of electric field and gauge field.
+			// Compute FTs of electric field and gauge field. The fields are real, so only half of the spectrum is
+			// computed and the other half follows from complex conjugation.
 			for (int j = 0; j < grid.getNumberOfDimensions(); j++) {
 				for (int k = 0; k < numberOfComponents; k++) {
-					fft.complexForward(eFFTdata[j][k]);
-					fft.complexForward(aFFTdata[j][k]);
+					fft.realForward(eData[j][k], eFFTdata[j][k]);
+					fft.realForward(aData[j][k], aFFTdata[j][k]);
 				}
 			}
 			//
@@ -175,7 +190,8 @@ public class OccupationNumbersInTime implements Diagnostics {
 			energyDensity = 0.0;
 			for(int k = 0; k < this.numberOfComponents; k++) {
 				for (int i = 0; i < grid.getTotalNumberOfCells(); i++) {
-					int fftIndex = fft.getFFTArrayIndex(i);
+					int fftIndex = fft.getRealFFTArrayIndex(i);
+					double conjugation = fft.isRealFFTConjugate(i) ? -1.0 : 1.0;
 					double eSquared = 0.0;
 					double aSquared = 0.0;
 					double mixed = 0.0;
@@ -189,7 +205,7 @@ public class OccupationNumbersInTime implements Diagnostics {
 								+ aFFTdata[j][k][fftIndex + 1] * aFFTdata[j][k][fftIndex + 1]);
 
 						// Mixed part
-						mixed -= 2.0 * (-aFFTdata[j][k][fftIndex + 1] * eFFTdata[j][k][fftIndex]
+						mixed -= 2.0 * conjugation * (-aFFTdata[j][k][fftIndex + 1] * eFFTdata[j][k][fftIndex]
 								+ aFFTdata[j][k][fftIndex] * eFFTdata[j][k][fftIndex + 1]);
 					}
 
@@ -292,20 +308,15 @@ public class OccupationNumbersInTime implements Diagnostics {
 	public void writeHeader(String path) {
 		File file = FileFunctions.getFile(path);
 
-		try {
-			FileWriter pw = new FileWriter(file, true);
-			for (int i = 0; i < s.getNumberOfDimensions(); i++) {
-				pw.write(String.valueOf(s.grid.getNumCells(i)));
-				if(i < s.getNumberOfDimensions() -1) {
-					pw.write(separator);
-				}
+		StringBuilder header = new StringBuilder();
+		for (int i = 0; i < s.getNumberOfDimensions(); i++) {
+			header.append(s.grid.getNumCells(i));
+			if(i < s.getNumberOfDimensions() -1) {
+				header.append(separator);
 			}
-			pw.write(linebreak);
-			pw.close();
-
-		} catch (IOException ex) {
-			System.out.println("OccupationNumbersInTime: Error writing to file.");
 		}
+		header.append(linebreak);
+		write(file, header.toString());
 	}
 
 	/**
@@ -319,27 +330,21 @@ public class OccupationNumbersInTime implements Diagnostics {
 	 */
 	private void writeMomentumVectors(String path) {
 		File file = FileFunctions.getFile(path);
-		try {
-			FileWriter pw = new FileWriter(file, true);
-			for(int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
-				double[] k = this.computeMomentumVectorFromLatticeIndex(i);
-				String kString = "";
-				for (int j = 0; j < s.getNumberOfDimensions(); j++) {
-					kString += k[j];
-					if(j < s.getNumberOfDimensions()-1) {
-						kString += separator;
-					}
-				}
-				pw.write(kString);
-				if(i < s.grid.getTotalNumberOfCells()-1) {
-					pw.write(separator);
+		StringBuilder vectors = new StringBuilder();
+		for(int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+			double[] k = this.computeMomentumVectorFromLatticeIndex(i);
+			for (int j = 0; j < s.getNumberOfDimensions(); j++) {
+				vectors.append(k[j]);
+				if(j < s.getNumberOfDimensions()-1) {
+					vectors.append(separator);
 				}
 			}
-			pw.write(linebreak);
-			pw.close();
-		} catch (IOException ex) {
-			System.out.println("OccupationNumbersInTime: Error writing to file.");
+			if(i < s.grid.getTotalNumberOfCells()-1) {
+				vectors.append(separator);
+			}
 		}
+		vectors.append(linebreak);
+		write(file, vectors.toString());
 	}
 
 	/**
@@ -357,14 +362,19 @@ public class OccupationNumbersInTime implements Diagnostics {
 	private void writeCSVFile(String path, boolean includeOccupationNumbers)
 	{
 		File file = FileFunctions.getFile(path);
+		write(file, this.generateCSVString(includeOccupationNumbers));
+	}
+
+	/**
+	 * Appends a string to the output file using the {@link org.openpixi.pixi.diagnostics.OutputWriter} of the
+	 * simulation.
+	 */
+	private void write(File file, String string) {
 		try {
-			FileWriter pw = new FileWriter(file, true);
-			pw.write(this.generateCSVString(includeOccupationNumbers));
-			pw.close();
+			s.getOutputWriter().write(file, string, false);
 		} catch (IOException ex) {
 			System.out.println("OccupationNumbersInTime: Error writing to file.");
 		}
-
 	}
 
 	/**
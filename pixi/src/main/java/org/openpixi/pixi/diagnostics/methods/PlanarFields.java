@@ -1,7 +1,9 @@
 package org.openpixi.pixi.diagnostics.methods;
 
+import org.openpixi.pixi.diagnostics.ArrayEncoding;
 import org.openpixi.pixi.diagnostics.Diagnostics;
 import org.openpixi.pixi.diagnostics.FileFunctions;
+import org.openpixi.pixi.diagnostics.OutputWriter;
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.grid.Grid;
@@ -9,8 +11,8 @@ import org.openpixi.pixi.physics.particles.IParticle;
 import org.openpixi.pixi.physics.util.GridFunctions;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 
@@ -19,6 +21,7 @@ public class PlanarFields implements Diagnostics {
 	private double timeInterval;
 	private int stepInterval;
 	private String outputName;
+	private File file;
 	private double startingTime;
 	private int startingStep;
 	private double finalTime;
@@ -35,6 +38,8 @@ public class PlanarFields implements Diagnostics {
 	private Simulation s;
 	private int numberOfComponents;
 
+	private ArrayEncoding encoding = new ArrayEncoding();
+
 	public PlanarFields(double timeInterval, String outputName, double startingTime, double finalTime, int direction, int planarIndex) {
 		this.timeInterval = timeInterval;
 		this.outputName = outputName;
@@ -45,8 +50,25 @@ public class PlanarFields implements Diagnostics {
 
 	}
 
+	/**
+	 * Sets the encoding of the fields. By default the fields are written as text with one line per component of the
+	 * transverse gauge fields and the longitudinal electric field. Other encodings write binary samples, see
+	 * {@link org.openpixi.pixi.diagnostics.DumpReader#readPlanarFields(String)}.
+	 *
+	 * @param encoding  encoding of the fields
+	 */
+	public void setEncoding(ArrayEncoding encoding) {
+		this.encoding = encoding;
+	}
+
 	public void initialize(Simulation s) {
-		FileFunctions.clearFile(outputName);
+		this.file = FileFunctions.getFile(outputName);
+		try {
+			// Ordered with the pending writes of the output writer
+			s.getOutputWriter().clear(file);
+		} catch (IOException ex) {
+			System.out.println("PlanarFields: Error writing to file.");
+		}
 
 		this.s = s;
 		this.transNumCells = GridFunctions.reduceGridPos(s.grid.getNumCells(), direction);
@@ -83,27 +105,30 @@ public class PlanarFields implements Diagnostics {
 					}
 				}
 
-				File file = FileFunctions.getFile(outputName);
-				try {
-					FileWriter pw = new FileWriter(file, true);
-
-					//pw.write(s.getIterations() + "\t" + s.getIterations() * s.getTimeStep() + "\n");
-
-					// Transverse fields
-					for (int i = 0; i < effDimensions-1; i++) {
-						double[][] output = convertToDoubleArray(transverseGaugeFields[i], numberOfComponents);
-						for (int j = 0; j < numberOfComponents; j++) {
-							pw.write(generateTSVString(output[j]) + "\n");
-						}
-					}
-
-					// Longitudinal fields
-					double[][] output = convertToDoubleArray(longitudinalElectricFields, numberOfComponents);
+				// Rows: components of the transverse fields, then of the longitudinal field
+				double[][] rows = new double[effDimensions * numberOfComponents][];
+				for (int i = 0; i < effDimensions-1; i++) {
+					double[][] output = convertToDoubleArray(transverseGaugeFields[i], numberOfComponents);
 					for (int j = 0; j < numberOfComponents; j++) {
-						pw.write(generateTSVString(output[j]) + "\n");
+						rows[i * numberOfComponents + j] = output[j];
 					}
+				}
+				double[][] output = convertToDoubleArray(longitudinalElectricFields, numberOfComponents);
+				for (int j = 0; j < numberOfComponents; j++) {
+					rows[(effDimensions - 1) * numberOfComponents + j] = output[j];
+				}
 
-					pw.close();
+				try {
+					if (encoding.isDefault()) {
+						StringBuilder sample = new StringBuilder();
+						//sample.append(s.getIterations() + "\t" + s.getIterations() * s.getTimeStep() + "\n");
+						for (double[] row : rows) {
+							sample.append(generateTSVString(row) + "\n");
+						}
+						s.getOutputWriter().write(file, sample.toString(), false);
+					} else {
+						writeBinarySample(rows);
+					}
 				} catch (IOException ex) {
 					System.out.println("PlanarFields: Error writing to file.");
 				}
@@ -112,6 +137,21 @@ public class PlanarFields implements Diagnostics {
 		}
 	}
 
+	private void writeBinarySample(double[][] rows) throws IOException {
+		double[] values = new double[rows.length * totalTransCells];
+		for (int i = 0; i < rows.length; i++) {
+			System.arraycopy(rows[i], 0, values, i * totalTransCells, totalTransCells);
+		}
+		ArrayEncoding.EncodedArray encoded = encoding.encode(values, s.getIndexIterator());
+		OutputWriter writer = s.getOutputWriter();
+		ByteBuffer buffer = writer.getBuffer(encoding.getDumpHeaderSize() + 8 + encoded.getNumberOfBytes());
+		encoding.putDumpHeader(buffer);
+		buffer.putInt(rows.length);
+		buffer.putInt(totalTransCells);
+		encoded.put(buffer);
+		writer.write(file, buffer, false);
+	}
+
 	private String generateTSVString(double[] array) {
 		StringBuilder outputStringBuilder = new StringBuilder();
 		DecimalFormat formatter = new DecimalFormat("0.################E0");
@@ -125,7 +165,7 @@ public class PlanarFields implements Diagnostics {
 	}
 
 	private double[][] convertToDoubleArray(AlgebraElement[] array, int numberOfComponents) {
-		double[][] output = new double[3][array.length];
+		double[][] output = new double[numberOfComponents][array.length];
 		for (int i = 0; i < array.length; i++) {
 			AlgebraElement a = array[i];
 			for (int j = 0; j < numberOfComponents; j++) {
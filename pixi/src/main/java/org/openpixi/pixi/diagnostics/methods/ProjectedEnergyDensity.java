@@ -1,11 +1,12 @@
 package org.openpixi.pixi.diagnostics.methods;
 
-import org.openpixi.pixi.diagnostics.Diagnostics;
+import org.openpixi.pixi.diagnostics.EnsembleAverage;
+import org.openpixi.pixi.diagnostics.EnsembleDiagnostics;
 import org.openpixi.pixi.diagnostics.FileFunctions;
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.ElementFactory;
 import org.openpixi.pixi.math.GroupElement;
-import org.openpixi.pixi.parallel.cellaccess.CellAction;
+import org.openpixi.pixi.parallel.cellaccess.ReductionCellAction;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.physics.particles.IParticle;
@@ -14,6 +15,7 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * This diagnostic averages the energy density over the transversal plane (specified by the longitudinal direction)
@@ -39,8 +41,11 @@ import java.util.ArrayList;
  * 6) longitudinal poynting vector (averaged)
  * 7) longitudinal poynting vector (only time-averaged)
  *
+ * In the ensemble mode of {@link org.openpixi.pixi.ui.MainBatch} the time steps of all events are averaged and only
+ * the mean is written to the file in the format above. The sample variance of every value is written in the same
+ * format to a second file with "_variance" appended to the file name (e.g. "pe_variance.dat" for "pe.dat").
  */
-public class ProjectedEnergyDensity implements Diagnostics {
+public class ProjectedEnergyDensity implements EnsembleDiagnostics {
 
 	private int direction;
 
@@ -54,6 +59,11 @@ public class ProjectedEnergyDensity implements Diagnostics {
 	public boolean computeEnergyDensity;
 	public boolean computePoyntingVector;
 
+	private int numberOfCells;
+	private int samples;
+	private EnsembleAverage ensembleAverage;
+	private double[] ensembleSample;
+
 
 	public ProjectedEnergyDensity(String path, double timeInterval, int direction) {
 		this.direction = direction;
@@ -71,37 +81,50 @@ public class ProjectedEnergyDensity implements Diagnostics {
 			poyntingComputation.initialize(s.grid, direction);
 		}
 
-		FileFunctions.clearFile(path);
+		numberOfCells = s.grid.getNumCells(direction);
+		samples = 0;
+		if(ensembleAverage != null) {
+			ensembleSample = new double[1 + getNumberOfRows() * numberOfCells];
+			return;
+		}
+
+		// A restarted simulation appends to the output of the interrupted run.
+		if(!s.isRestarted()) {
+			FileFunctions.clearFile(path);
+		}
 	}
 
 	public void calculate(Grid grid, ArrayList<IParticle> particles, int steps) throws IOException {
 		if(steps % stepInterval == 0) {
 
 			if(computeEnergyDensity) {
-				energyDensityComputation.reset();
-				grid.getCellIterator().execute(grid, energyDensityComputation);
+				energyDensityComputation.setResult(grid.getCellIterator().reduce(grid, energyDensityComputation));
 			}
 
 			if(computePoyntingVector) {
-				poyntingComputation.reset();
-				grid.getCellIterator().execute(grid, poyntingComputation);
+				poyntingComputation.setResult(grid.getCellIterator().reduce(grid, poyntingComputation));
+			}
+
+			Double time = steps * grid.getTemporalSpacing();
+			double[][] rows = getRows();
+
+			if(ensembleAverage != null) {
+				ensembleSample[0] = time;
+				for (int r = 0; r < rows.length; r++) {
+					System.arraycopy(rows[r], 0, ensembleSample, 1 + r * numberOfCells, numberOfCells);
+				}
+				ensembleAverage.add(samples, ensembleSample);
+				samples++;
+				return;
 			}
 
 			// Write to file
 			File file = FileFunctions.getFile(path);
 			try {
 				FileWriter pw = new FileWriter(file, true);
-				Double time = steps * grid.getTemporalSpacing();
 				pw.write(time.toString() + "\n");
-				if(computeEnergyDensity) {
-					pw.write(FileFunctions.generateTSVString(energyDensityComputation.energyDensity_T_el) + "\n");
-					pw.write(FileFunctions.generateTSVString(energyDensityComputation.energyDensity_T_mag) + "\n");
-					pw.write(FileFunctions.generateTSVString(energyDensityComputation.energyDensity_L_el) + "\n");
-					pw.write(FileFunctions.generateTSVString(energyDensityComputation.energyDensity_L_mag) + "\n");
-				}
-				if(computePoyntingVector) {
-					pw.write(FileFunctions.generateTSVString(poyntingComputation.poyntingAveraged) + "\n");
-					pw.write(FileFunctions.generateTSVString(poyntingComputation.poyntingTimeAveraged) + "\n");
+				for (double[] row : rows) {
+					pw.write(FileFunctions.generateTSVString(row) + "\n");
 				}
 				pw.close();
 			} catch (IOException ex) {
@@ -110,8 +133,68 @@ public class ProjectedEnergyDensity implements Diagnostics {
 		}
 	}
 
-	// Multithreaded code which leaks memory. I don't know why.
-	private class EnergyDensityComputation implements CellAction {
+	public void setEnsembleAverage(EnsembleAverage average) {
+		this.ensembleAverage = average;
+	}
+
+	public void writeEnsembleAverage(EnsembleAverage average) throws IOException {
+		writeEnsembleAverage(average, path, false);
+		writeEnsembleAverage(average, FileFunctions.getVariancePath(path), true);
+	}
+
+	private void writeEnsembleAverage(EnsembleAverage average, String outputPath, boolean variance)
+			throws IOException {
+		FileFunctions.clearFile(outputPath);
+		File file = FileFunctions.getFile(outputPath);
+		int rows = getNumberOfRows();
+		FileWriter pw = new FileWriter(file, true);
+		try {
+			for (int t = 0; t < average.getNumberOfSamples(); t++) {
+				double[] values = average.getMean(t);
+				// Keep the time such that both files have the same layout.
+				Double time = values[0];
+				if(variance) {
+					values = average.getVariance(t);
+				}
+				pw.write(time.toString() + "\n");
+				for (int r = 0; r < rows; r++) {
+					double[] row = Arrays.copyOfRange(values, 1 + r * numberOfCells, 1 + (r + 1) * numberOfCells);
+					pw.write(FileFunctions.generateTSVString(row) + "\n");
+				}
+			}
+		} finally {
+			pw.close();
+		}
+	}
+
+	/**
+	 * Returns the rows of the current time step in the order of the output format.
+	 */
+	private double[][] getRows() {
+		double[][] rows = new double[getNumberOfRows()][];
+		int r = 0;
+		if(computeEnergyDensity) {
+			rows[r++] = energyDensityComputation.energyDensity_T_el;
+			rows[r++] = energyDensityComputation.energyDensity_T_mag;
+			rows[r++] = energyDensityComputation.energyDensity_L_el;
+			rows[r++] = energyDensityComputation.energyDensity_L_mag;
+		}
+		if(computePoyntingVector) {
+			rows[r++] = poyntingComputation.poyntingAveraged;
+			rows[r++] = poyntingComputation.poyntingTimeAveraged;
+		}
+		return rows;
+	}
+
+	private int getNumberOfRows() {
+		return (computeEnergyDensity ? 4 : 0) + (computePoyntingVector ? 2 : 0);
+	}
+
+	/**
+	 * Computes the four energy density components as a reduction. The accumulator holds the components
+	 * energyDensity_T_el, energyDensity_T_mag, energyDensity_L_el and energyDensity_L_mag one after another.
+	 */
+	private class EnergyDensityComputation implements ReductionCellAction {
 
 		private int direction;
 		private int numberOfCells;
@@ -136,16 +219,18 @@ public class ProjectedEnergyDensity implements Diagnostics {
 
 		}
 
-		public void reset() {
-			for (int i = 0; i < numberOfCells; i++) {
-				this.energyDensity_T_el[i] = 0.0;
-				this.energyDensity_T_mag[i] = 0.0;
-				this.energyDensity_L_el[i] = 0.0;
-				this.energyDensity_L_mag[i] = 0.0;
-			}
+		public void setResult(double[] accumulator) {
+			System.arraycopy(accumulator, 0, energyDensity_T_el, 0, numberOfCells);
+			System.arraycopy(accumulator, numberOfCells, energyDensity_T_mag, 0, numberOfCells);
+			System.arraycopy(accumulator, 2 * numberOfCells, energyDensity_L_el, 0, numberOfCells);
+			System.arraycopy(accumulator, 3 * numberOfCells, energyDensity_L_mag, 0, numberOfCells);
+		}
+
+		public int getAccumulatorSize() {
+			return 4 * numberOfCells;
 		}
 
-		public void execute(Grid grid, int index) {
+		public void execute(Grid grid, int index, double[] accumulator) {
 			if(grid.isEvaluatable(index)) {
 				int projIndex = grid.getCellPos(index)[direction];
 				// transversal & longitudinal electric energy density
@@ -168,18 +253,20 @@ public class ProjectedEnergyDensity implements Diagnostics {
 					}
 				}
 
-				synchronized (this) {
-					energyDensity_T_el[projIndex] += e_T_el;
-					energyDensity_T_mag[projIndex] += e_T_mag;
-					energyDensity_L_el[projIndex] += e_L_el;
-					energyDensity_L_mag[projIndex] += e_L_mag;
-				}
+				accumulator[projIndex] += e_T_el;
+				accumulator[numberOfCells + projIndex] += e_T_mag;
+				accumulator[2 * numberOfCells + projIndex] += e_L_el;
+				accumulator[3 * numberOfCells + projIndex] += e_L_mag;
 			}
 		}
 	}
 
 
-	private class PoyntingComputation implements CellAction {
+	/**
+	 * Computes the Poynting vector components as a reduction. The accumulator holds poyntingAveraged and
+	 * poyntingTimeAveraged one after another.
+	 */
+	private class PoyntingComputation implements ReductionCellAction {
 
 		private int direction;
 		private int numberOfDimensions;
@@ -208,14 +295,16 @@ public class ProjectedEnergyDensity implements Diagnostics {
 			}
 		}
 
-		public void reset() {
-			for (int i = 0; i < numberOfCells; i++) {
-				this.poyntingAveraged[i] = 0.0;
-				this.poyntingTimeAveraged[i] = 0.0;
-			}
+		public void setResult(double[] accumulator) {
+			System.arraycopy(accumulator, 0, poyntingAveraged, 0, numberOfCells);
+			System.arraycopy(accumulator, numberOfCells, poyntingTimeAveraged, 0, numberOfCells);
 		}
 
-		public void execute(Grid grid, int index) {
+		public int getAccumulatorSize() {
+			return 2 * numberOfCells;
+		}
+
+		public void execute(Grid grid, int index, double[] accumulator) {
 			double localPoyntingAveraged = 0.0;
 			double localPoyntingTimeAveraged = 0.0;
 
@@ -271,11 +360,8 @@ public class ProjectedEnergyDensity implements Diagnostics {
 
 			// Add to array.
 			int projIndex = grid.getCellPos(index)[direction];
-			synchronized (this) {
-				this.poyntingAveraged[projIndex] += localPoyntingAveraged;
-				this.poyntingTimeAveraged[projIndex] += localPoyntingTimeAveraged;
-
-			}
+			accumulator[projIndex] += localPoyntingAveraged;
+			accumulator[numberOfCells + projIndex] += localPoyntingTimeAveraged;
 		}
 	}
 
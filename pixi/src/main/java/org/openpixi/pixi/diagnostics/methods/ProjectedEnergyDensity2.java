@@ -1,14 +1,18 @@
 package org.openpixi.pixi.diagnostics.methods;
 
-import org.openpixi.pixi.diagnostics.Diagnostics;
+import org.openpixi.pixi.diagnostics.EnsembleAverage;
+import org.openpixi.pixi.diagnostics.EnsembleDiagnostics;
 import org.openpixi.pixi.diagnostics.FileFunctions;
+import org.openpixi.pixi.diagnostics.OutputWriter;
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.parallel.cellaccess.CellAction;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.physics.particles.IParticle;
 
-import java.io.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 /**
@@ -50,14 +54,24 @@ import java.util.ArrayList;
  *
  * Java writes binary data with Big Endian encoding.
  *
+ * The file is written by the {@link OutputWriter} of the simulation and stays open until the last time step has been
+ * written. A simulation restored from a checkpoint appends the remaining time steps to the existing file.
+ *
+ * In the ensemble mode of {@link org.openpixi.pixi.ui.MainBatch} the time steps of all events are averaged and only
+ * the mean is written to the file in the format above. The sample variance of every value is written in the same
+ * format to a second file with "_variance" appended to the file name (e.g. "pe_variance.dat" for "pe.dat").
  */
-public class ProjectedEnergyDensity2 implements Diagnostics {
+public class ProjectedEnergyDensity2 implements EnsembleDiagnostics {
 	private String path;
 	private double timeInterval;
 	private int stepInterval;
 	private int maxWrites;
 	private int writes;
 	private ComponentComputation componentComputation = new ComponentComputation();
+	private OutputWriter writer;
+	private File file;
+	private EnsembleAverage ensembleAverage;
+	private double[] ensembleSample;
 
 
 	public ProjectedEnergyDensity2(String path, double timeInterval) {
@@ -72,9 +86,54 @@ public class ProjectedEnergyDensity2 implements Diagnostics {
 
 		componentComputation.initialize(s.grid);
 
-		FileFunctions.clearFile(path);
-		File file = FileFunctions.getFile(path);
-		writeBinaryHeader(file, s);
+		writer = s.getOutputWriter();
+		if(ensembleAverage != null) {
+			ensembleSample = new double[1 + 6 * componentComputation.longitudinalCells];
+			return;
+		}
+		if(s.isRestarted()) {
+			// Append to the output of the interrupted run, which already contains the header and every time step up
+			// to the checkpoint (the first one at t = 0).
+			file = FileFunctions.getFile(path);
+			writes = Math.min(s.totalSimulationSteps / stepInterval + 1, maxWrites);
+			return;
+		}
+		file = FileFunctions.getFile(path);
+		writeBinaryHeader(s);
+	}
+
+	public void setEnsembleAverage(EnsembleAverage average) {
+		this.ensembleAverage = average;
+	}
+
+	public void writeEnsembleAverage(EnsembleAverage average) throws IOException {
+		writeEnsembleAverage(average, path, false);
+		writeEnsembleAverage(average, FileFunctions.getVariancePath(path), true);
+	}
+
+	private void writeEnsembleAverage(EnsembleAverage average, String outputPath, boolean variance)
+			throws IOException {
+		File outputFile = FileFunctions.getFile(outputPath);
+		int samples = average.getNumberOfSamples();
+		writer.clear(outputFile);
+
+		ByteBuffer buffer = writer.getBuffer(8);
+		buffer.putInt(componentComputation.longitudinalCells);
+		buffer.putInt(samples);
+		writer.write(outputFile, buffer, samples == 0);
+
+		for (int t = 0; t < samples; t++) {
+			double[] values = average.getMean(t);
+			if(variance) {
+				// Keep the time such that both files have the same layout.
+				double time = values[0];
+				values = average.getVariance(t);
+				values[0] = time;
+			}
+			buffer = writer.getBuffer(8 * values.length);
+			OutputWriter.putDoubles(buffer, values);
+			writer.write(outputFile, buffer, t == samples - 1);
+		}
 	}
 
 	public void calculate(Grid grid, ArrayList<IParticle> particles, int steps) throws IOException {
@@ -82,61 +141,57 @@ public class ProjectedEnergyDensity2 implements Diagnostics {
 			componentComputation.reset();
 			grid.getCellIterator().execute(grid, componentComputation);
 			componentComputation.finalizeArrays(grid);
+			double time = steps * grid.getTemporalSpacing();
+
+			if(ensembleAverage != null) {
+				int n = componentComputation.longitudinalCells;
+				ensembleSample[0] = time;
+				System.arraycopy(componentComputation.ET, 0, ensembleSample, 1, n);
+				System.arraycopy(componentComputation.BT, 0, ensembleSample, 1 + n, n);
+				System.arraycopy(componentComputation.EL, 0, ensembleSample, 1 + 2 * n, n);
+				System.arraycopy(componentComputation.BL, 0, ensembleSample, 1 + 3 * n, n);
+				System.arraycopy(componentComputation.SL, 0, ensembleSample, 1 + 4 * n, n);
+				System.arraycopy(componentComputation.JE, 0, ensembleSample, 1 + 5 * n, n);
+				ensembleAverage.add(writes, ensembleSample);
+				writes++;
+				return;
+			}
 
 			// Write to file
-			File file = FileFunctions.getFile(path);
-
 			try {
-				DataOutputStream stream = null;
-				try {
-					stream = getStream(file);
-					double time = steps * grid.getTemporalSpacing();
-					stream.writeDouble(time);
-					writeBinaryDoubleArray(stream, componentComputation.ET);
-					writeBinaryDoubleArray(stream, componentComputation.BT);
-					writeBinaryDoubleArray(stream, componentComputation.EL);
-					writeBinaryDoubleArray(stream, componentComputation.BL);
-					writeBinaryDoubleArray(stream, componentComputation.SL);
-					writeBinaryDoubleArray(stream, componentComputation.JE);
-				} finally {
-					stream.flush();
-					stream.close();
-					writes++;
-				}
+				ByteBuffer buffer = writer.getBuffer(8 + 6 * 8 * componentComputation.longitudinalCells);
+				buffer.putDouble(time);
+				OutputWriter.putDoubles(buffer, componentComputation.ET);
+				OutputWriter.putDoubles(buffer, componentComputation.BT);
+				OutputWriter.putDoubles(buffer, componentComputation.EL);
+				OutputWriter.putDoubles(buffer, componentComputation.BL);
+				OutputWriter.putDoubles(buffer, componentComputation.SL);
+				OutputWriter.putDoubles(buffer, componentComputation.JE);
+				writes++;
+				writer.write(file, buffer, writes == maxWrites);
 			} catch (IOException ex) {
 				System.out.println("ProjectedEnergyDensity2: Error writing to file.");
 			}
 		}
 	}
 
-	private void writeBinaryHeader(File file, Simulation s) {
+	/**
+	 * Clears the output file and writes the header. Both go through the writer, so they are ordered with the writes
+	 * which are still pending, e.g. from a previous simulation with the same output file.
+	 */
+	private void writeBinaryHeader(Simulation s) {
 		int longitudinalCells = s.grid.getNumCells(0);
 		try {
-			DataOutputStream stream = null;
-			try {
-				stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
-				stream.writeInt(longitudinalCells);
-				stream.writeInt(maxWrites);
-			} finally {
-				stream.flush();
-				stream.close();
-			}
+			writer.clear(file);
+			ByteBuffer buffer = writer.getBuffer(8);
+			buffer.putInt(longitudinalCells);
+			buffer.putInt(maxWrites);
+			writer.write(file, buffer, maxWrites == 0);
 		} catch (IOException ex) {
 			System.out.println("ProjectedEnergyDensity2: Error writing to file.");
 		}
 	}
 
-	private DataOutputStream getStream(File file) throws IOException {
-		DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
-		return stream;
-	}
-
-	private void writeBinaryDoubleArray(DataOutputStream stream, double[] array) throws IOException {
-		for (int i = 0; i < array.length; i++) {
-			stream.writeDouble(array[i]);
-		}
-	}
-
 	private class ComponentComputation implements CellAction {
 		private int numberOfCells;
 		private int longitudinalCells;
@@ -84,6 +84,13 @@ public interface AlgebraElement {
 	 */
 	GroupElement getLink();
 
+	/**
+	 * Same as {@link #getLink()} but writes the group element into a destination instead of returning a new instance.
+	 *
+	 * @param result    GroupElement instance in which the result of the exponential map is stored.
+	 */
+	void getLinkInto(GroupElement result);
+
 	/**
 	 * Returns the projection of the algebra element on to the c'th generator, i.e.
 	 *
@@ -7,6 +7,7 @@ public class ElementFactory {
 
     public int numberOfColors;
     public int numberOfComponents;
+    public int numberOfGroupParameters;
 
     public ElementFactory(int numberOfColors) {
         this.numberOfColors = numberOfColors;
@@ -15,6 +16,25 @@ public class ElementFactory {
         } else {
             this.numberOfComponents = 1;
         }
+        this.numberOfGroupParameters = groupParameters(numberOfColors);
+    }
+
+    /**
+     * Returns the number of real parameters used by the group element parametrization of SU(n),
+     * see {@link GroupElement#get(int)}.
+     *
+     * @param colors    number of colors
+     * @return          number of real parameters of a group element
+     */
+    public static int groupParameters(int colors) {
+        switch (colors) {
+            case 2:
+                return 4;
+            case 3:
+                return 18;
+            default: System.out.println("Constructor for SU(" + colors + ") not defined.\n");
+                return 4;
+        }
     }
 
     public ElementFactory() {}
@@ -67,6 +67,26 @@ public interface GroupElement {
 
 	void multAssign(GroupElement a);
 
+	/**
+	 * Computes the matrix product A.B of the GroupElement instance (A) with another GroupElement instance (B) and
+	 * writes it into a destination GroupElement. The destination may be identical to one of the factors.
+	 * This method does not allocate any new objects.
+	 *
+	 * @param a         GroupElement instance used for post-multiplication.
+	 * @param result    GroupElement instance in which the result is stored.
+	 */
+	void multInto(GroupElement a, GroupElement result);
+
+	/**
+	 * Computes the matrix product A.B^\dagger of the GroupElement instance (A) with the hermitian conjugate of another
+	 * GroupElement instance (B) and writes it into a destination GroupElement. The destination may be identical to one
+	 * of the factors. This method does not allocate any new objects.
+	 *
+	 * @param a         GroupElement instance whose hermitian conjugate is used for post-multiplication.
+	 * @param result    GroupElement instance in which the result is stored.
+	 */
+	void multAdjInto(GroupElement a, GroupElement result);
+
 	/**
 	 * Returns the exact algebra element of the group element. The algebra element generates the group element
 	 * via the exponential map.
@@ -96,6 +116,25 @@ public interface GroupElement {
 	 */
 	AlgebraElement proj();
 
+	/**
+	 * Same as {@link #proj()} but writes the projection into a destination AlgebraElement instead of returning a copy.
+	 *
+	 * @param result    AlgebraElement instance in which the projection is stored.
+	 */
+	void projInto(AlgebraElement result);
+
+	/**
+	 * Computes the matrix of the group element in the adjoint representation,
+	 *
+	 *      R_ab = 2 tr (t_a U t_b U^\dagger),
+	 *
+	 * such that the components of the adjoint action U X U^\dagger (see {@link AlgebraElement#act(GroupElement)}) are
+	 * given by R_ab X_b. The matrix is real and orthogonal, so the action of U^\dagger is given by its transpose.
+	 *
+	 * @param result    array of length (N^2-1)^2 in which the matrix is stored in row-major order.
+	 */
+	void getAdjointMatrix(double[] result);
+
 	/**
 	 * Returns x'th matrix power of the group element. This works for diagonalizable matrices.
 	 * The most simple implementation of this uses getAlgebraElement() and getLink().
@@ -108,6 +147,34 @@ public interface GroupElement {
 
 	void set(GroupElement a);
 
+	/**
+	 * Sets all parameters of the group element to zero. The result is not a valid SU(n) matrix, but it is useful as a
+	 * starting point for sums of group elements.
+	 */
+	void setZero();
+
+	/**
+	 * Sets the group element to the identity.
+	 */
+	void setIdentity();
+
+	/**
+	 * Sets the j-th parameter of the group element to a certain value. These parameters are specific to the
+	 * parametrization used by the implementing class (e.g. four real numbers for SU(2), 18 real numbers for SU(3)).
+	 *
+	 * @param j     index of the parameter to be set.
+	 * @param value new value of the parameter.
+	 */
+	void set(int j, double value);
+
+	/**
+	 * Returns the j-th parameter of the group element. See {@link #set(int, double)}.
+	 *
+	 * @param j index of the parameter to be read.
+	 * @return  value of the j-th parameter.
+	 */
+	double get(int j);
+
 	GroupElement copy();
 
 	/**
@@ -151,6 +151,23 @@ public class SU2AlgebraElement implements AlgebraElement {
 		return b;
 	}
 
+	public void getLinkInto(GroupElement res) {
+
+		double sum = v0*v0+v1*v1+v2*v2;
+		double mod = Math.sqrt(sum)/2;
+		double sinfakt;
+		if(mod < 1.E-20) {
+			sinfakt = 0.0;
+		} else {
+			sinfakt = 0.5/mod*Math.sin(mod);
+		}
+		SU2GroupElement b = (SU2GroupElement) res;
+		b.set(0, Math.cos(mod));
+		b.set(1, v0*sinfakt);
+		b.set(2, v1*sinfakt);
+		b.set(3, v2*sinfakt);
+	}
+
 	public double proj(int c)
 	{
 		return 0.5 * get(c);
@@ -97,6 +97,20 @@ public class SU2GroupElement implements GroupElement {
 		e3 = a.e3;
 	}
 
+	public void setZero() {
+		e0 = 0.0;
+		e1 = 0.0;
+		e2 = 0.0;
+		e3 = 0.0;
+	}
+
+	public void setIdentity() {
+		e0 = 1.0;
+		e1 = 0.0;
+		e2 = 0.0;
+		e3 = 0.0;
+	}
+
 	/**
 	 * Sets the j-th parameter to a certain value. These parameters are specific to the group parametrization used by
 	 * SU2GroupElement.
@@ -231,6 +245,35 @@ public class SU2GroupElement implements GroupElement {
 		e3 = f0 * ae3 + e3 * ae0 - f1 * ae2 + f2 * ae1;
 	}
 
+	public void multInto(GroupElement arg, GroupElement res) {
+		SU2GroupElement a = (SU2GroupElement) arg;
+		SU2GroupElement b = (SU2GroupElement) res;
+
+		double b0 = e0 * a.e0 - e1 * a.e1 - e2 * a.e2 - e3 * a.e3;
+		double b1 = e0 * a.e1 + e1 * a.e0 - e2 * a.e3 + e3 * a.e2;
+		double b2 = e0 * a.e2 + e2 * a.e0 - e3 * a.e1 + e1 * a.e3;
+		double b3 = e0 * a.e3 + e3 * a.e0 - e1 * a.e2 + e2 * a.e1;
+		b.e0 = b0;
+		b.e1 = b1;
+		b.e2 = b2;
+		b.e3 = b3;
+	}
+
+	public void multAdjInto(GroupElement arg, GroupElement res) {
+		SU2GroupElement a = (SU2GroupElement) arg;
+		SU2GroupElement b = (SU2GroupElement) res;
+
+		// same as multInto() with (a.e1, a.e2, a.e3) -> -(a.e1, a.e2, a.e3)
+		double b0 = e0 * a.e0 + e1 * a.e1 + e2 * a.e2 + e3 * a.e3;
+		double b1 = - e0 * a.e1 + e1 * a.e0 + e2 * a.e3 - e3 * a.e2;
+		double b2 = - e0 * a.e2 + e2 * a.e0 + e3 * a.e1 - e1 * a.e3;
+		double b3 = - e0 * a.e3 + e3 * a.e0 + e1 * a.e2 - e2 * a.e1;
+		b.e0 = b0;
+		b.e1 = b1;
+		b.e2 = b2;
+		b.e3 = b3;
+	}
+
 	public AlgebraElement getAlgebraElement()
 	{
 		double norm = 0.0;
@@ -262,6 +305,34 @@ public class SU2GroupElement implements GroupElement {
 		return field;
 	}
 
+	public void projInto(AlgebraElement res) {
+		SU2AlgebraElement field = (SU2AlgebraElement) res;
+
+		field.v0 = 2 * this.e1;
+		field.v1 = 2 * this.e2;
+		field.v2 = 2 * this.e3;
+	}
+
+	/**
+	 * The adjoint representation of SU(2) is the rotation of the parameter vector e_i,
+	 *
+	 *      R_ab = (e_0^2 - e_i e_i) \delta_ab + 2 e_a e_b + 2 e_0 \epsilon_abc e_c.
+	 *
+	 * @param result    array of length 9 in which the matrix is stored in row-major order.
+	 */
+	public void getAdjointMatrix(double[] result) {
+		double d = e0 * e0 - e1 * e1 - e2 * e2 - e3 * e3;
+		result[0] = d + 2 * e1 * e1;
+		result[1] = 2 * (e1 * e2 + e0 * e3);
+		result[2] = 2 * (e1 * e3 - e0 * e2);
+		result[3] = 2 * (e2 * e1 - e0 * e3);
+		result[4] = d + 2 * e2 * e2;
+		result[5] = 2 * (e2 * e3 + e0 * e1);
+		result[6] = 2 * (e3 * e1 + e0 * e2);
+		result[7] = 2 * (e3 * e2 - e0 * e1);
+		result[8] = d + 2 * e3 * e3;
+	}
+
 	public double getRealTrace() {
 		return 2*e0;
 	}
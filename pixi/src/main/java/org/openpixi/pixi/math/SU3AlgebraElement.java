@@ -22,6 +22,33 @@ public class SU3AlgebraElement implements AlgebraElement {
 	// threshold to determine zero vectors in normalize method
 	private final double normalizationAccuracy = 1.E-12;
 
+	// below this value of tr(Q^2)/2 the closed form of the exponential is replaced by its second order expansion
+	private static final double cayleyHamiltonZeroCutoff = 1.E-30;
+
+	// below this value of w the function sin(w)/w is computed from its Taylor series
+	private static final double sincCutoff = 0.05;
+
+	/**
+	 * Per-thread scratch arrays used by the exponential map so that getLinkInto() does not allocate.
+	 */
+	private static final ThreadLocal<LinkWorkspace> workspace = new ThreadLocal<LinkWorkspace>() {
+		@Override
+		protected LinkWorkspace initialValue() {
+			return new LinkWorkspace();
+		}
+	};
+
+	private static class LinkWorkspace {
+		double[] ths = new double[3];
+		double[] phases = new double[3];
+		double[] valuesRe = new double[3];
+		double[] valuesIm = new double[3];
+		double[][] vectors = new double[3][6];
+		SU3GroupElement intermediate = new SU3GroupElement();
+		SU3GroupElement temp = new SU3GroupElement();
+		SU3GroupElement multiplier = new SU3GroupElement();
+	}
+
 	protected double[] v;
 
 	public SU3AlgebraElement() {
@@ -235,15 +262,17 @@ public class SU3AlgebraElement implements AlgebraElement {
 	/**
 	 * Calculates the group element by first eigendecomposing into UDU* and then finding exp D
 	 * WARNING: This decomposition only works for traceless hermitian matrices due to certain optimizations
-	 * @return coefficients to be fed into SU3GroupElement to give group element
+	 * @param result    coefficients of the SU3GroupElement which are overwritten with the group element
+	 * @param w         scratch arrays of the current thread
+	 * @return 0 if the decomposition succeeded, otherwise the number of iterations required by the Taylor series
 	 */
-	private double[] groupElementDecompositionMethod() {
+	private int groupElementDecompositionMethod(double[] result, LinkWorkspace w) {
 		// trace of matrix squared, using square method
 		double trSq = square() / 2;
 
 		// if matrix is too small, use taylor series for better accuracy
 		if (trSq <= zeroCutoff) {
-			return new double[]{taylorSeriesZeroIterations};
+			return taylorSeriesZeroIterations;
 		}
 
 		// real determinant
@@ -275,7 +304,7 @@ public class SU3AlgebraElement implements AlgebraElement {
 		r = Math.pow(preOmegaRe * preOmegaRe + preOmegaIm * preOmegaIm, 1. / 6);
 
 		// three angles of cube roots of W^3
-		double[] ths = new double[3];
+		double[] ths = w.ths;
 		for (int i = 0; i < 3; i++) {
 			ths[i] = (th + 2 * Math.PI * i) / 3;
 		}
@@ -285,7 +314,7 @@ public class SU3AlgebraElement implements AlgebraElement {
 		// then \lambda_i = X_i
 		// this gives us the real eigenvalues to high precision
 		// (these matrices are hermitian, so eigenvalues better be real)
-		double[] phases = new double[3];
+		double[] phases = w.phases;
 		for (int i = 0; i < 3; i++) {
 			if (Math.abs(r) == 0) {
 				phases[i] = 0;
@@ -301,16 +330,16 @@ public class SU3AlgebraElement implements AlgebraElement {
 
 		// if there are degenerate eigenvalues, use taylor series
 		if (Math.abs(1 - phases[0] / phases[1]) < degeneracyCutoff) {
-			return new double[]{taylorSeriesDegenerateIterations};
+			return taylorSeriesDegenerateIterations;
 		} else if (Math.abs(1 - phases[0] / phases[2]) < degeneracyCutoff) {
-			return new double[]{taylorSeriesDegenerateIterations};
+			return taylorSeriesDegenerateIterations;
 		} else if (Math.abs(1 - phases[1] / phases[2]) < degeneracyCutoff) {
-			return new double[]{taylorSeriesDegenerateIterations};
+			return taylorSeriesDegenerateIterations;
 		}
 
 		// get one eigenvector for each value
 		// normalize vectors in place
-		double[][] vectors = new double[3][6];
+		double[][] vectors = w.vectors;
 		for (int i = 0; i < 3; i++) {
 			// product of other two phases besides phases[i]
 			double otherPhaseProduct = phases[(i + 1) % 3] * phases[(i + 2) % 3];
@@ -356,47 +385,194 @@ public class SU3AlgebraElement implements AlgebraElement {
 			}
 		}
 
-		// take log of eigenvalue matrix
-		double[] valuesRe = new double[3];
-		double[] valuesIm = new double[3];
+		// exponentiate eigenvalue matrix
+		double[] valuesRe = w.valuesRe;
+		double[] valuesIm = w.valuesIm;
 		for (int i = 0; i < 3; i++) {
 			valuesRe[i] = Math.cos(phases[i]);
 			valuesIm[i] = Math.sin(phases[i]);
 		}
 
-		// multiply U exp(D) U* to get algebra element
-		// exp(D) is just a (complex) diagonal matrix
-		SU3GroupElement unit = new SU3GroupElement(new double[]{vectors[0][0],vectors[1][0],vectors[2][0],
-		                                                        vectors[0][1],vectors[1][1],vectors[2][1],
-		                                                        vectors[0][2],vectors[1][2],vectors[2][2],
-		                                                        vectors[0][3],vectors[1][3],vectors[2][3],
-		                                                        vectors[0][4],vectors[1][4],vectors[2][4],
-		                                                        vectors[0][5],vectors[1][5],vectors[2][5]});
-		SU3GroupElement diag = new SU3GroupElement(new double[]{valuesRe[0],0,0,
-		                                                        0,valuesRe[1],0,
-		                                                        0,0,valuesRe[2],
-		                                                        valuesIm[0],0,0,
-		                                                        0,valuesIm[1],0,
-		                                                        0,0,valuesIm[2]});
-		return ((SU3GroupElement) unit.mult(diag).mult(unit.adj())).get();
+		// multiply U exp(D) U* to get group element
+		// exp(D) is just a (complex) diagonal matrix and the columns of U are the eigenvectors, so
+		// (U exp(D) U*)_jk = sum_i vectors[i][j] exp(i phases[i]) conj(vectors[i][k])
+		for (int j = 0; j < 3; j++) {
+			for (int k = 0; k < 3; k++) {
+				double re = 0;
+				double im = 0;
+				for (int i = 0; i < 3; i++) {
+					double[] vec = vectors[i];
+					double aRe = vec[j] * valuesRe[i] - vec[j + 3] * valuesIm[i];
+					double aIm = vec[j] * valuesIm[i] + vec[j + 3] * valuesRe[i];
+					re += aRe * vec[k] + aIm * vec[k + 3];
+					im += aIm * vec[k] - aRe * vec[k + 3];
+				}
+				result[3 * j + k] = re;
+				result[9 + 3 * j + k] = im;
+			}
+		}
+		return 0;
 	}
 
 	/**
 	 * Calculates the group element using the taylor series expansion of exp.
 	 * WARNING: This decomposition only works well for "small" matrices!
-	 * @return coefficients to be fed into SU3GroupElement to give group element
+	 * @param iterations    number of terms of the Taylor series
+	 * @param result        SU3GroupElement which is overwritten with the group element
+	 * @param w             scratch elements of the current thread
 	 */
-	private double[] groupElementTaylorSeries(double iterations) {
-		SU3GroupElement result = new SU3GroupElement(new double[]{1,0,0,0,1,0,0,0,1,0,0,0,0,0,0,0,0,0});
-		SU3GroupElement intermediate = new SU3GroupElement(new double[]{1,0,0,0,1,0,0,0,1,0,0,0,0,0,0,0,0,0});
-		SU3GroupElement multiplier = new SU3GroupElement(new double[]{0,v[3],v[6],-v[3],0,v[7],-v[6],-v[7],0,v[0],v[1],v[2],v[1],v[4],v[5],v[2],v[5],v[8]});
+	private void groupElementTaylorSeries(int iterations, SU3GroupElement result, LinkWorkspace w) {
+		SU3GroupElement intermediate = w.intermediate;
+		SU3GroupElement temp = w.temp;
+		SU3GroupElement multiplier = w.multiplier;
+		double[] m = multiplier.get();
+		m[0] = 0;     m[1] = v[3];  m[2] = v[6];
+		m[3] = -v[3]; m[4] = 0;     m[5] = v[7];
+		m[6] = -v[6]; m[7] = -v[7]; m[8] = 0;
+		m[9] = v[0];  m[10] = v[1]; m[11] = v[2];
+		m[12] = v[1]; m[13] = v[4]; m[14] = v[5];
+		m[15] = v[2]; m[16] = v[5]; m[17] = v[8];
+
+		result.setIdentity();
+		intermediate.setIdentity();
 
 		for (int i = 1; i <= iterations; i++) {
-			intermediate = (SU3GroupElement) intermediate.mult(multiplier).mult(1.0 / i);
-			result = (SU3GroupElement) result.add(intermediate);
+			intermediate.multInto(multiplier, temp);
+			temp.multAssign(1.0 / i);
+			SU3GroupElement swap = intermediate;
+			intermediate = temp;
+			temp = swap;
+			result.addAssign(intermediate);
 		}
+	}
 
-		return result.get();
+	/**
+	 * Calculates the group element exp(iQ) using the Cayley-Hamilton theorem, see C. Morningstar and M. Peardon,
+	 * Phys. Rev. D 69, 054501 (2004). The exponential of a traceless hermitian 3x3 matrix Q is given by
+	 * 		exp(iQ) = f0 + f1 Q + f2 Q^2,
+	 * where the complex coefficients f0, f1 and f2 only depend on the invariants c0 = det Q and c1 = tr(Q^2)/2. In
+	 * contrast to the decomposition method no eigenvectors are needed and degenerate eigenvalues do not require a
+	 * special treatment.
+	 * WARNING: This method only works for traceless hermitian matrices.
+	 * @param result    coefficients of the SU3GroupElement which are overwritten with the group element
+	 */
+	private void groupElementCayleyHamilton(double[] result) {
+		double c1 = square() / 4;
+		double c0 = -v[2]*v[2]*v[4]+v[6]*(2*v[3]*v[5]-v[4]*v[6]+2*v[1]*v[7])+2*v[2]*(v[1]*v[5]-v[3]*v[7])-
+				(v[1]*v[1]+v[3]*v[3])*v[8]-v[0]*(v[5]*v[5]+v[7]*v[7]-v[4]*v[8]);
+
+		double f0Re, f0Im, f1Re, f1Im, f2Re, f2Im;
+		if (c1 < cayleyHamiltonZeroCutoff) {
+			// exp(iQ) = 1 + iQ - Q^2/2 is exact up to rounding errors
+			f0Re = 1;   f0Im = 0;
+			f1Re = 0;   f1Im = 1;
+			f2Re = -.5; f2Im = 0;
+		} else {
+			// the coefficients for negative c0 follow from f_j(-c0) = (-1)^j f_j(c0)*
+			boolean negative = c0 < 0;
+			double sqrtC1Third = Math.sqrt(c1 / 3);
+			double ratio = Math.abs(c0) / (2 * c1 / 3 * sqrtC1Third);
+			if (ratio > 1) {
+				ratio = 1;
+			}
+			double theta = Math.acos(ratio) / 3;
+
+			// eigenvalues of Q are 2u, -u + w and -u - w
+			double u = sqrtC1Third * Math.cos(theta);
+			double w = Math.sqrt(c1) * Math.sin(theta);
+			double uSq = u * u;
+			double wSq = w * w;
+
+			double xi0;
+			if (Math.abs(w) < sincCutoff) {
+				xi0 = 1 - wSq / 6 * (1 - wSq / 20 * (1 - wSq / 42));
+			} else {
+				xi0 = Math.sin(w) / w;
+			}
+			double cosW = Math.cos(w);
+
+			// exp(2iu) and exp(-iu)
+			double cosU = Math.cos(u);
+			double sinU = Math.sin(u);
+			double e2Re = cosU * cosU - sinU * sinU;
+			double e2Im = 2 * sinU * cosU;
+			double e1Re = cosU;
+			double e1Im = -sinU;
+
+			// h0 = (u^2 - w^2) exp(2iu) + exp(-iu) (8 u^2 cos(w) + 2iu (3u^2 + w^2) xi0)
+			double aRe = 8 * uSq * cosW;
+			double aIm = 2 * u * (3 * uSq + wSq) * xi0;
+			double h0Re = (uSq - wSq) * e2Re + e1Re * aRe - e1Im * aIm;
+			double h0Im = (uSq - wSq) * e2Im + e1Re * aIm + e1Im * aRe;
+
+			// h1 = 2u exp(2iu) - exp(-iu) (2u cos(w) - i (3u^2 - w^2) xi0)
+			aRe = 2 * u * cosW;
+			aIm = -(3 * uSq - wSq) * xi0;
+			double h1Re = 2 * u * e2Re - (e1Re * aRe - e1Im * aIm);
+			double h1Im = 2 * u * e2Im - (e1Re * aIm + e1Im * aRe);
+
+			// h2 = exp(2iu) - exp(-iu) (cos(w) + 3iu xi0)
+			aRe = cosW;
+			aIm = 3 * u * xi0;
+			double h2Re = e2Re - (e1Re * aRe - e1Im * aIm);
+			double h2Im = e2Im - (e1Re * aIm + e1Im * aRe);
+
+			double denominator = 1 / (9 * uSq - wSq);
+			f0Re = h0Re * denominator;
+			f0Im = h0Im * denominator;
+			f1Re = h1Re * denominator;
+			f1Im = h1Im * denominator;
+			f2Re = h2Re * denominator;
+			f2Im = h2Im * denominator;
+			if (negative) {
+				f0Im = -f0Im;
+				f1Re = -f1Re;
+				f2Im = -f2Im;
+			}
+		}
+
+		// Q^2 is hermitian, so only the diagonal and the upper triangle are computed
+		double s00 = v[0]*v[0]+v[1]*v[1]+v[3]*v[3]+v[2]*v[2]+v[6]*v[6];
+		double s11 = v[1]*v[1]+v[3]*v[3]+v[4]*v[4]+v[5]*v[5]+v[7]*v[7];
+		double s22 = v[2]*v[2]+v[6]*v[6]+v[5]*v[5]+v[7]*v[7]+v[8]*v[8];
+		double s01Re = (v[0]+v[4])*v[1]+v[2]*v[5]+v[6]*v[7];
+		double s01Im = -(v[0]+v[4])*v[3]+v[2]*v[7]-v[5]*v[6];
+		double s02Re = (v[0]+v[8])*v[2]+v[1]*v[5]-v[3]*v[7];
+		double s02Im = -(v[0]+v[8])*v[6]-v[1]*v[7]-v[3]*v[5];
+		double s12Re = (v[4]+v[8])*v[5]+v[1]*v[2]+v[3]*v[6];
+		double s12Im = -(v[4]+v[8])*v[7]+v[2]*v[3]-v[1]*v[6];
+
+		// diagonal: f0 + f1 Q_jj + f2 (Q^2)_jj
+		result[0] = f0Re + f1Re * v[0] + f2Re * s00;
+		result[9] = f0Im + f1Im * v[0] + f2Im * s00;
+		result[4] = f0Re + f1Re * v[4] + f2Re * s11;
+		result[13] = f0Im + f1Im * v[4] + f2Im * s11;
+		result[8] = f0Re + f1Re * v[8] + f2Re * s22;
+		result[17] = f0Im + f1Im * v[8] + f2Im * s22;
+
+		// off-diagonal: f1 Q_jk + f2 (Q^2)_jk, the lower triangle uses the complex conjugate entries of Q and Q^2
+		setOffDiagonal(result, 1, 3, f1Re, f1Im, f2Re, f2Im, v[1], -v[3], s01Re, s01Im);
+		setOffDiagonal(result, 2, 6, f1Re, f1Im, f2Re, f2Im, v[2], -v[6], s02Re, s02Im);
+		setOffDiagonal(result, 5, 7, f1Re, f1Im, f2Re, f2Im, v[5], -v[7], s12Re, s12Im);
+	}
+
+	/**
+	 * Sets the entries jk and kj of f1 Q + f2 Q^2 for hermitian Q.
+	 * @param result    coefficients of the SU3GroupElement
+	 * @param jk        index of the entry in the upper triangle
+	 * @param kj        index of the transposed entry
+	 * @param qRe       real part of Q_jk
+	 * @param qIm       imag. part of Q_jk
+	 * @param sRe       real part of (Q^2)_jk
+	 * @param sIm       imag. part of (Q^2)_jk
+	 */
+	private static void setOffDiagonal(double[] result, int jk, int kj,
+	                                   double f1Re, double f1Im, double f2Re, double f2Im,
+	                                   double qRe, double qIm, double sRe, double sIm) {
+		result[jk] = f1Re * qRe - f1Im * qIm + f2Re * sRe - f2Im * sIm;
+		result[9 + jk] = f1Re * qIm + f1Im * qRe + f2Re * sIm + f2Im * sRe;
+		result[kj] = f1Re * qRe + f1Im * qIm + f2Re * sRe + f2Im * sIm;
+		result[9 + kj] = -f1Re * qIm + f1Im * qRe - f2Re * sIm + f2Im * sRe;
 	}
 
 	public GroupElement getLinearizedLink() {
@@ -405,15 +581,29 @@ public class SU3AlgebraElement implements AlgebraElement {
 	}
 
 	public GroupElement getLink() {
-		// try exact method
-		double[] values = groupElementDecompositionMethod();
+		SU3GroupElement b = new SU3GroupElement();
+		getLinkInto(b);
+		return b;
+	}
 
-		// if values has length 1 the exact method failed and values[0] is the requried taylorSeriesIterations
-		if (values.length == 1) {
-			values = groupElementTaylorSeries(values[0]);
-		}
+	public void getLinkInto(GroupElement res) {
+		groupElementCayleyHamilton(((SU3GroupElement) res).get());
+	}
 
-		return new SU3GroupElement(values);
+	/**
+	 * Computes the group element with the eigendecomposition method and its Taylor series fallbacks. This method has
+	 * been replaced by the closed form in {@link #getLinkInto(GroupElement)} and is kept for comparison.
+	 * @param res   SU3GroupElement which is overwritten with the group element
+	 */
+	void getLinkIntoDecomposition(GroupElement res) {
+		SU3GroupElement b = (SU3GroupElement) res;
+		LinkWorkspace w = workspace.get();
+
+		// try exact method, if it fails the required number of taylorSeriesIterations is returned
+		int iterations = groupElementDecompositionMethod(b.get(), w);
+		if (iterations > 0) {
+			groupElementTaylorSeries(iterations, b, w);
+		}
 	}
 
 	public double proj(int c) {
@@ -22,6 +22,37 @@ public class SU3GroupElement implements GroupElement {
 	// threshold to determine zero vectors in normalize method
 	private final double normalizationAccuracy = 1.E-12;
 
+	// below this value of |a - b| / |a + b| the divided difference of log(a) and log(b) is computed from its series
+	private static final double dividedDifferenceCutoff = 1.E-2;
+
+	private static final double sqrt3Half = Math.sqrt(3) / 2;
+
+	// cube roots of unity
+	private static final double[] rotationRe = new double[]{1, -.5, -.5};
+	private static final double[] rotationIm = new double[]{0, sqrt3Half, -sqrt3Half};
+
+	/**
+	 * Per-thread scratch arrays used by the logarithm so that getAlgebraElement() only allocates its result.
+	 */
+	private static final ThreadLocal<LogWorkspace> workspace = new ThreadLocal<LogWorkspace>() {
+		@Override
+		protected LogWorkspace initialValue() {
+			return new LogWorkspace();
+		}
+	};
+
+	private static class LogWorkspace {
+		double[] shiftedRe = new double[3];
+		double[] shiftedIm = new double[3];
+		double[] phases = new double[3];
+		double[] difference = new double[2];
+		double[] values = new double[18];
+		SU3GroupElement factor1 = new SU3GroupElement();
+		SU3GroupElement factor2 = new SU3GroupElement();
+		SU3GroupElement product = new SU3GroupElement();
+		SU3AlgebraElement algebraElement = new SU3AlgebraElement();
+	}
+
 	private double[] e;
 
 	public SU3GroupElement() {
@@ -82,6 +113,19 @@ public class SU3GroupElement implements GroupElement {
 		}
 	}
 
+	public void setZero() {
+		for (int i = 0; i < 18; i++) {
+			e[i] = 0.0;
+		}
+	}
+
+	public void setIdentity() {
+		setZero();
+		e[0] = 1.0;
+		e[4] = 1.0;
+		e[8] = 1.0;
+	}
+
 	public void set(int j, double value) {
 
 		e[j] = value;
@@ -208,8 +252,93 @@ public class SU3GroupElement implements GroupElement {
 	}
 
 	public void multAssign(GroupElement arg) {
-		GroupElement U = this.mult(arg);
-		this.set(U);
+		this.multInto(arg, this);
+	}
+
+	public void multInto(GroupElement arg, GroupElement res) {
+		double[] a = ((SU3GroupElement) arg).e;
+		double[] b = ((SU3GroupElement) res).e;
+
+		// all entries are computed before the destination is written, so res may be identical to this or arg
+		double b0 = e[0]*a[0] - e[9]*a[9] + e[1]*a[3] - e[10]*a[12] + e[2]*a[6] - e[11]*a[15];
+		double b1 = e[0]*a[1] - e[9]*a[10] + e[1]*a[4] - e[10]*a[13] + e[2]*a[7] - e[11]*a[16];
+		double b2 = e[0]*a[2] - e[9]*a[11] + e[1]*a[5] - e[10]*a[14] + e[2]*a[8] - e[11]*a[17];
+		double b3 = e[3]*a[0] - e[12]*a[9] + e[4]*a[3] - e[13]*a[12] + e[5]*a[6] - e[14]*a[15];
+		double b4 = e[3]*a[1] - e[12]*a[10] + e[4]*a[4] - e[13]*a[13] + e[5]*a[7] - e[14]*a[16];
+		double b5 = e[3]*a[2] - e[12]*a[11] + e[4]*a[5] - e[13]*a[14] + e[5]*a[8] - e[14]*a[17];
+		double b6 = e[6]*a[0] - e[15]*a[9] + e[7]*a[3] - e[16]*a[12] + e[8]*a[6] - e[17]*a[15];
+		double b7 = e[6]*a[1] - e[15]*a[10] + e[7]*a[4] - e[16]*a[13] + e[8]*a[7] - e[17]*a[16];
+		double b8 = e[6]*a[2] - e[15]*a[11] + e[7]*a[5] - e[16]*a[14] + e[8]*a[8] - e[17]*a[17];
+		double b9 = e[0]*a[9] + e[9]*a[0] + e[1]*a[12] + e[10]*a[3] + e[2]*a[15] + e[11]*a[6];
+		double b10 = e[0]*a[10] + e[9]*a[1] + e[1]*a[13] + e[10]*a[4] + e[2]*a[16] + e[11]*a[7];
+		double b11 = e[0]*a[11] + e[9]*a[2] + e[1]*a[14] + e[10]*a[5] + e[2]*a[17] + e[11]*a[8];
+		double b12 = e[3]*a[9] + e[12]*a[0] + e[4]*a[12] + e[13]*a[3] + e[5]*a[15] + e[14]*a[6];
+		double b13 = e[3]*a[10] + e[12]*a[1] + e[4]*a[13] + e[13]*a[4] + e[5]*a[16] + e[14]*a[7];
+		double b14 = e[3]*a[11] + e[12]*a[2] + e[4]*a[14] + e[13]*a[5] + e[5]*a[17] + e[14]*a[8];
+		double b15 = e[6]*a[9] + e[15]*a[0] + e[7]*a[12] + e[16]*a[3] + e[8]*a[15] + e[17]*a[6];
+		double b16 = e[6]*a[10] + e[15]*a[1] + e[7]*a[13] + e[16]*a[4] + e[8]*a[16] + e[17]*a[7];
+		double b17 = e[6]*a[11] + e[15]*a[2] + e[7]*a[14] + e[16]*a[5] + e[8]*a[17] + e[17]*a[8];
+		b[0] = b0;
+		b[1] = b1;
+		b[2] = b2;
+		b[3] = b3;
+		b[4] = b4;
+		b[5] = b5;
+		b[6] = b6;
+		b[7] = b7;
+		b[8] = b8;
+		b[9] = b9;
+		b[10] = b10;
+		b[11] = b11;
+		b[12] = b12;
+		b[13] = b13;
+		b[14] = b14;
+		b[15] = b15;
+		b[16] = b16;
+		b[17] = b17;
+	}
+
+	public void multAdjInto(GroupElement arg, GroupElement res) {
+		double[] a = ((SU3GroupElement) arg).e;
+		double[] b = ((SU3GroupElement) res).e;
+
+		// same as multInto() with a replaced by its hermitian conjugate
+		double b0 = e[0]*a[0] + e[9]*a[9] + e[1]*a[1] + e[10]*a[10] + e[2]*a[2] + e[11]*a[11];
+		double b1 = e[0]*a[3] + e[9]*a[12] + e[1]*a[4] + e[10]*a[13] + e[2]*a[5] + e[11]*a[14];
+		double b2 = e[0]*a[6] + e[9]*a[15] + e[1]*a[7] + e[10]*a[16] + e[2]*a[8] + e[11]*a[17];
+		double b3 = e[3]*a[0] + e[12]*a[9] + e[4]*a[1] + e[13]*a[10] + e[5]*a[2] + e[14]*a[11];
+		double b4 = e[3]*a[3] + e[12]*a[12] + e[4]*a[4] + e[13]*a[13] + e[5]*a[5] + e[14]*a[14];
+		double b5 = e[3]*a[6] + e[12]*a[15] + e[4]*a[7] + e[13]*a[16] + e[5]*a[8] + e[14]*a[17];
+		double b6 = e[6]*a[0] + e[15]*a[9] + e[7]*a[1] + e[16]*a[10] + e[8]*a[2] + e[17]*a[11];
+		double b7 = e[6]*a[3] + e[15]*a[12] + e[7]*a[4] + e[16]*a[13] + e[8]*a[5] + e[17]*a[14];
+		double b8 = e[6]*a[6] + e[15]*a[15] + e[7]*a[7] + e[16]*a[16] + e[8]*a[8] + e[17]*a[17];
+		double b9 = -e[0]*a[9] + e[9]*a[0] - e[1]*a[10] + e[10]*a[1] - e[2]*a[11] + e[11]*a[2];
+		double b10 = -e[0]*a[12] + e[9]*a[3] - e[1]*a[13] + e[10]*a[4] - e[2]*a[14] + e[11]*a[5];
+		double b11 = -e[0]*a[15] + e[9]*a[6] - e[1]*a[16] + e[10]*a[7] - e[2]*a[17] + e[11]*a[8];
+		double b12 = -e[3]*a[9] + e[12]*a[0] - e[4]*a[10] + e[13]*a[1] - e[5]*a[11] + e[14]*a[2];
+		double b13 = -e[3]*a[12] + e[12]*a[3] - e[4]*a[13] + e[13]*a[4] - e[5]*a[14] + e[14]*a[5];
+		double b14 = -e[3]*a[15] + e[12]*a[6] - e[4]*a[16] + e[13]*a[7] - e[5]*a[17] + e[14]*a[8];
+		double b15 = -e[6]*a[9] + e[15]*a[0] - e[7]*a[10] + e[16]*a[1] - e[8]*a[11] + e[17]*a[2];
+		double b16 = -e[6]*a[12] + e[15]*a[3] - e[7]*a[13] + e[16]*a[4] - e[8]*a[14] + e[17]*a[5];
+		double b17 = -e[6]*a[15] + e[15]*a[6] - e[7]*a[16] + e[16]*a[7] - e[8]*a[17] + e[17]*a[8];
+		b[0] = b0;
+		b[1] = b1;
+		b[2] = b2;
+		b[3] = b3;
+		b[4] = b4;
+		b[5] = b5;
+		b[6] = b6;
+		b[7] = b7;
+		b[8] = b8;
+		b[9] = b9;
+		b[10] = b10;
+		b[11] = b11;
+		b[12] = b12;
+		b[13] = b13;
+		b[14] = b14;
+		b[15] = b15;
+		b[16] = b16;
+		b[17] = b17;
 	}
 
 	public double[] det() {
@@ -425,6 +554,262 @@ public class SU3GroupElement implements GroupElement {
 		return hermiticize(values);
 	}
 
+	/**
+	 * Calculates the algebra element H = -i log(U) using the Cayley-Hamilton theorem. Every function of U can be
+	 * written as a polynomial of second order in U. Here the Newton form of the interpolation polynomial of log at the
+	 * eigenvalues l_a, l_b, l_c of U is used:
+	 * 		log(U) = log(l_a) + log[l_a, l_b] (U - l_a) + log[l_a, l_b, l_c] (U - l_a)(U - l_b),
+	 * where log[...] are divided differences. Degenerate eigenvalues are handled by the series expansion of the first
+	 * divided differences and by choosing l_a and l_c as the pair of eigenvalues with the largest distance.
+	 * <br>
+	 * The eigenvalues are obtained from the characteristic polynomial of N = U - z, where z is the element of the
+	 * center of SU(3) closest to U. Close to z (in particular close to unity) the eigenvalues of N are small, so they
+	 * are computed with a small absolute error and no Taylor series is needed.
+	 * WARNING: This method only works for SU(3) matrices. The result is ambiguous if U has an eigenvalue close to -1.
+	 * @param result    coefficients of the SU3AlgebraElement which are overwritten with the algebra element
+	 * @param w         scratch arrays of the current thread
+	 */
+	private void algebraElementCayleyHamilton(double[] result, LogWorkspace w) {
+		// center element z = exp(2 pi i k / 3) closest to tr(U) / 3
+		double trRe = e[0] + e[4] + e[8];
+		double trIm = e[9] + e[13] + e[17];
+		double zRe = 1;
+		double zIm = 0;
+		double projection = trRe;
+		if (-trRe / 2 + sqrt3Half * trIm > projection) {
+			projection = -trRe / 2 + sqrt3Half * trIm;
+			zRe = -.5;
+			zIm = sqrt3Half;
+		}
+		if (-trRe / 2 - sqrt3Half * trIm > projection) {
+			zRe = -.5;
+			zIm = -sqrt3Half;
+		}
+
+		// entries of N = U - z
+		double n00Re = e[0] - zRe, n00Im = e[9] - zIm;
+		double n11Re = e[4] - zRe, n11Im = e[13] - zIm;
+		double n22Re = e[8] - zRe, n22Im = e[17] - zIm;
+
+		// principal minors, cofactors and invariants of N
+		double m00Re = mulRe(n11Re, n11Im, n22Re, n22Im) - mulRe(e[5], e[14], e[7], e[16]);
+		double m00Im = mulIm(n11Re, n11Im, n22Re, n22Im) - mulIm(e[5], e[14], e[7], e[16]);
+		double m11Re = mulRe(n00Re, n00Im, n22Re, n22Im) - mulRe(e[2], e[11], e[6], e[15]);
+		double m11Im = mulIm(n00Re, n00Im, n22Re, n22Im) - mulIm(e[2], e[11], e[6], e[15]);
+		double m22Re = mulRe(n00Re, n00Im, n11Re, n11Im) - mulRe(e[1], e[10], e[3], e[12]);
+		double m22Im = mulIm(n00Re, n00Im, n11Re, n11Im) - mulIm(e[1], e[10], e[3], e[12]);
+		double c10Re = mulRe(e[3], e[12], n22Re, n22Im) - mulRe(e[5], e[14], e[6], e[15]);
+		double c10Im = mulIm(e[3], e[12], n22Re, n22Im) - mulIm(e[5], e[14], e[6], e[15]);
+		double c20Re = mulRe(e[3], e[12], e[7], e[16]) - mulRe(n11Re, n11Im, e[6], e[15]);
+		double c20Im = mulIm(e[3], e[12], e[7], e[16]) - mulIm(n11Re, n11Im, e[6], e[15]);
+
+		double s1Re = n00Re + n11Re + n22Re;
+		double s1Im = n00Im + n11Im + n22Im;
+		double s2Re = m00Re + m11Re + m22Re;
+		double s2Im = m00Im + m11Im + m22Im;
+		double s3Re = mulRe(n00Re, n00Im, m00Re, m00Im) - mulRe(e[1], e[10], c10Re, c10Im) + mulRe(e[2], e[11], c20Re, c20Im);
+		double s3Im = mulIm(n00Re, n00Im, m00Re, m00Im) - mulIm(e[1], e[10], c10Re, c10Im) + mulIm(e[2], e[11], c20Re, c20Im);
+
+		// characteristic polynomial mu^3 - s1 mu^2 + s2 mu - s3 == 0
+		// mu = X + s1/3 gives the reduced cubic X^3 + p X + q == 0
+		double meanRe = s1Re / 3;
+		double meanIm = s1Im / 3;
+		double s1SqRe = mulRe(s1Re, s1Im, s1Re, s1Im);
+		double s1SqIm = mulIm(s1Re, s1Im, s1Re, s1Im);
+		double pRe = s2Re - s1SqRe / 3;
+		double pIm = s2Im - s1SqIm / 3;
+		double qRe = -s3Re + mulRe(s1Re, s1Im, s2Re, s2Im) / 3 - 2 * mulRe(s1SqRe, s1SqIm, s1Re, s1Im) / 27;
+		double qIm = -s3Im + mulIm(s1Re, s1Im, s2Re, s2Im) / 3 - 2 * mulIm(s1SqRe, s1SqIm, s1Re, s1Im) / 27;
+
+		// Cardano: W^3 == -q/2 + sqrt(q^2/4 + p^3/27), the sign of the root is chosen to avoid cancellations
+		double pSqRe = mulRe(pRe, pIm, pRe, pIm);
+		double pSqIm = mulIm(pRe, pIm, pRe, pIm);
+		double radRe = mulRe(qRe, qIm, qRe, qIm) / 4 + mulRe(pSqRe, pSqIm, pRe, pIm) / 27;
+		double radIm = mulIm(qRe, qIm, qRe, qIm) / 4 + mulIm(pSqRe, pSqIm, pRe, pIm) / 27;
+		double radAbs = Math.sqrt(radRe * radRe + radIm * radIm);
+		double rootRe = Math.sqrt((radAbs + Math.abs(radRe)) / 2);
+		double rootIm = (rootRe > 0) ? radIm / (2 * rootRe) : 0;
+		if (radRe < 0) {
+			double temp = rootRe;
+			rootRe = Math.abs(rootIm);
+			rootIm = (radIm < 0) ? -temp : temp;
+		}
+		if (-qRe * rootRe - qIm * rootIm < 0) {
+			rootRe = -rootRe;
+			rootIm = -rootIm;
+		}
+		double cubeRe = -qRe / 2 + rootRe;
+		double cubeIm = -qIm / 2 + rootIm;
+		double r = Math.cbrt(Math.sqrt(cubeRe * cubeRe + cubeIm * cubeIm));
+		double th = Math.atan2(cubeIm, cubeRe) / 3;
+		double cosTh = Math.cos(th);
+		double sinTh = Math.sin(th);
+
+		// eigenvalues of N: mu_i = W_i - p / (3 W_i) + s1/3 with the three cube roots W_i
+		double[] muRe = w.shiftedRe;
+		double[] muIm = w.shiftedIm;
+		double[] phases = w.phases;
+		for (int i = 0; i < 3; i++) {
+			muRe[i] = meanRe;
+			muIm[i] = meanIm;
+			if (r > 0) {
+				// W_i = r exp(i th) exp(2 pi i k / 3)
+				double wRe = r * (cosTh * rotationRe[i] - sinTh * rotationIm[i]);
+				double wIm = r * (cosTh * rotationIm[i] + sinTh * rotationRe[i]);
+				double wAbsSq = 3 * (wRe * wRe + wIm * wIm);
+				muRe[i] += wRe - (pRe * wRe + pIm * wIm) / wAbsSq;
+				muIm[i] += wIm - (pIm * wRe - pRe * wIm) / wAbsSq;
+			}
+			// the eigenvalues l_i = z + mu_i lie on the unit circle, so log(l_i) = i phases[i]
+			phases[i] = Math.atan2(zIm + muIm[i], zRe + muRe[i]);
+		}
+
+		// ensure algebra element is traceless by shifting the largest (smallest) phase by 2 pi
+		double phaseSum = phases[0] + phases[1] + phases[2];
+		if (phaseSum > Math.PI) {
+			phases[indexOfExtremum(phases, 1)] -= 2 * Math.PI;
+		} else if (phaseSum < -Math.PI) {
+			phases[indexOfExtremum(phases, -1)] += 2 * Math.PI;
+		}
+
+		// order the eigenvalues such that l_a and l_c have the largest distance
+		int a = 0, b = 1, c = 2;
+		double d01 = distanceSq(muRe, muIm, 0, 1);
+		double d02 = distanceSq(muRe, muIm, 0, 2);
+		double d12 = distanceSq(muRe, muIm, 1, 2);
+		if (d01 >= d02 && d01 >= d12) {
+			b = 2;
+			c = 1;
+		} else if (d12 > d02) {
+			a = 1;
+			b = 0;
+		}
+
+		// divided differences log[l_a, l_b], log[l_b, l_c] and log[l_a, l_b, l_c]
+		double[] difference = w.difference;
+		logDividedDifference(muRe, muIm, phases, a, b, zRe, zIm, difference);
+		double abRe = difference[0];
+		double abIm = difference[1];
+		logDividedDifference(muRe, muIm, phases, b, c, zRe, zIm, difference);
+		double abcRe = 0;
+		double abcIm = 0;
+		double acRe = muRe[c] - muRe[a];
+		double acIm = muIm[c] - muIm[a];
+		double acAbsSq = acRe * acRe + acIm * acIm;
+		if (acAbsSq > 0) {
+			double numRe = difference[0] - abRe;
+			double numIm = difference[1] - abIm;
+			abcRe = (numRe * acRe + numIm * acIm) / acAbsSq;
+			abcIm = (numIm * acRe - numRe * acIm) / acAbsSq;
+		}
+
+		// (U - l_a) and (U - l_b) are N shifted by mu_a and mu_b
+		double[] f1 = w.factor1.get();
+		double[] f2 = w.factor2.get();
+		for (int i = 0; i < 18; i++) {
+			f1[i] = e[i];
+			f2[i] = e[i];
+		}
+		for (int j = 0; j < 3; j++) {
+			f1[4 * j] -= zRe + muRe[a];
+			f1[9 + 4 * j] -= zIm + muIm[a];
+			f2[4 * j] -= zRe + muRe[b];
+			f2[9 + 4 * j] -= zIm + muIm[b];
+		}
+		w.factor1.multInto(w.factor2, w.product);
+		double[] pr = w.product.get();
+
+		// H = -i log(U), real parts of H are imag. parts of log(U) and vice versa
+		double[] values = w.values;
+		for (int i = 0; i < 9; i++) {
+			double logRe = abRe * f1[i] - abIm * f1[i + 9] + abcRe * pr[i] - abcIm * pr[i + 9];
+			double logIm = abRe * f1[i + 9] + abIm * f1[i] + abcRe * pr[i + 9] + abcIm * pr[i];
+			values[i] = logIm;
+			values[i + 9] = -logRe;
+		}
+		for (int j = 0; j < 3; j++) {
+			values[4 * j] += phases[a];
+		}
+
+		hermiticize(values, result);
+
+		// remove the trace left over by rounding errors
+		double trace = (result[0] + result[4] + result[8]) / 3;
+		result[0] -= trace;
+		result[4] -= trace;
+		result[8] -= trace;
+	}
+
+	/**
+	 * Computes the divided difference (log(l_i) - log(l_j)) / (l_i - l_j) of two eigenvalues l = z + mu. For close
+	 * eigenvalues the series log[l_i, l_j] = 2 / (l_i + l_j) * atanh(x) / x with x = (l_i - l_j) / (l_i + l_j) is used.
+	 * @param muRe      real parts of the shifted eigenvalues mu
+	 * @param muIm      imag. parts of the shifted eigenvalues mu
+	 * @param phases    phases of the eigenvalues, i.e. log(l) = i phases
+	 * @param i         index of the first eigenvalue
+	 * @param j         index of the second eigenvalue
+	 * @param zRe       real part of the shift z
+	 * @param zIm       imag. part of the shift z
+	 * @param result    array of length 2 which is overwritten with the real and imag. part of the divided difference
+	 */
+	private static void logDividedDifference(double[] muRe, double[] muIm, double[] phases,
+	                                         int i, int j, double zRe, double zIm, double[] result) {
+		double dRe = muRe[i] - muRe[j];
+		double dIm = muIm[i] - muIm[j];
+		double sRe = 2 * zRe + muRe[i] + muRe[j];
+		double sIm = 2 * zIm + muIm[i] + muIm[j];
+		double sAbsSq = sRe * sRe + sIm * sIm;
+		double dAbsSq = dRe * dRe + dIm * dIm;
+
+		boolean sameBranch = Math.abs(phases[i] - phases[j]) < Math.PI;
+		if (dAbsSq == 0 || (sameBranch && dAbsSq < dividedDifferenceCutoff * dividedDifferenceCutoff * sAbsSq)) {
+			// x = d / s and the series 1 + x^2/3 + x^4/5 + x^6/7 + x^8/9 of atanh(x) / x
+			double xRe = (dRe * sRe + dIm * sIm) / sAbsSq;
+			double xIm = (dIm * sRe - dRe * sIm) / sAbsSq;
+			double xSqRe = mulRe(xRe, xIm, xRe, xIm);
+			double xSqIm = mulIm(xRe, xIm, xRe, xIm);
+			double seriesRe = 1. / 9;
+			double seriesIm = 0;
+			for (int k = 7; k >= 1; k -= 2) {
+				double temp = mulRe(xSqRe, xSqIm, seriesRe, seriesIm) + 1. / k;
+				seriesIm = mulIm(xSqRe, xSqIm, seriesRe, seriesIm);
+				seriesRe = temp;
+			}
+			// multiply by 2 / s
+			result[0] = 2 * (seriesRe * sRe + seriesIm * sIm) / sAbsSq;
+			result[1] = 2 * (seriesIm * sRe - seriesRe * sIm) / sAbsSq;
+		} else {
+			double num = phases[i] - phases[j];
+			result[0] = num * dIm / dAbsSq;
+			result[1] = num * dRe / dAbsSq;
+		}
+	}
+
+	private static double mulRe(double aRe, double aIm, double bRe, double bIm) {
+		return aRe * bRe - aIm * bIm;
+	}
+
+	private static double mulIm(double aRe, double aIm, double bRe, double bIm) {
+		return aRe * bIm + aIm * bRe;
+	}
+
+	private static double distanceSq(double[] re, double[] im, int i, int j) {
+		return (re[i] - re[j]) * (re[i] - re[j]) + (im[i] - im[j]) * (im[i] - im[j]);
+	}
+
+	/**
+	 * Returns the index of the largest (sign = 1) or smallest (sign = -1) of three values.
+	 */
+	private static int indexOfExtremum(double[] values, int sign) {
+		int index = 0;
+		for (int i = 1; i < 3; i++) {
+			if (sign * values[i] > sign * values[index]) {
+				index = i;
+			}
+		}
+		return index;
+	}
+
 	/**
 	 * Calculates the group element using the taylor series expansion of exp.
 	 * WARNING: This decomposition only works well for "small" matrices!
@@ -458,6 +843,16 @@ public class SU3GroupElement implements GroupElement {
 	 */
 	private double[] hermiticize(double[] values) {
 		double[] fieldValues = new double[9];
+		hermiticize(values, fieldValues);
+		return fieldValues;
+	}
+
+	/**
+	 * (anti)symmetrizes matrix to ensure hermiticity
+	 * @param values        list of 18 values as in SU3GroupElement
+	 * @param fieldValues   list of 9 values as in SU3AlgebraElement which is overwritten
+	 */
+	private void hermiticize(double[] values, double[] fieldValues) {
 		// diagonal is just the real diagonal of result
 		fieldValues[0] = values[0];
 		fieldValues[4] = values[4];
@@ -470,10 +865,20 @@ public class SU3GroupElement implements GroupElement {
 		fieldValues[3] = (values[12] - values[10])/2;
 		fieldValues[6] = (values[15] - values[11])/2;
 		fieldValues[7] = (values[16] - values[14])/2;
-		return fieldValues;
 	}
 
 	public AlgebraElement getAlgebraElement() {
+		SU3AlgebraElement result = new SU3AlgebraElement();
+		algebraElementCayleyHamilton(result.v, workspace.get());
+		return result;
+	}
+
+	/**
+	 * Computes the algebra element with the eigendecomposition method and its Taylor series fallbacks. This method
+	 * has been replaced by the closed form in {@link #getAlgebraElement()} and is kept for comparison.
+	 * @return  algebra element
+	 */
+	AlgebraElement getAlgebraElementDecomposition() {
 		// try exact method
 		double[] values = algebraElementDecompositionMethod();
 
@@ -504,6 +909,87 @@ public class SU3GroupElement implements GroupElement {
 		return new SU3AlgebraElement(fieldValues);
 	}
 
+	public void projInto(AlgebraElement res) {
+		double[] v = ((SU3AlgebraElement) res).v;
+		v[0] = (2*e[9]-e[13]-e[17])/3;
+		v[1] = (e[10]+e[12])/2;
+		v[2] = (e[11]+e[15])/2;
+		v[3] = (e[1]-e[3])/2;
+		v[4] = (2*e[13]-e[17]-e[9])/3;
+		v[5] = (e[14]+e[16])/2;
+		v[6] = (e[2]-e[6])/2;
+		v[7] = (e[5]-e[7])/2;
+		v[8] = (2*e[17]-e[9]-e[13])/3;
+	}
+
+	/**
+	 * Computes R_ab = 2 tr (t_a U t_b U^\dagger) column by column: for every generator t_b the hermitian matrix
+	 * M = U t_b U^\dagger is projected onto the generators like in {@link SU3AlgebraElement#get(int)}. With the products
+	 * P(k,l)_ij = U_ik U*_jl we have M = (t_b)_kl P(k,l), e.g. M = (P(0,1) + P(1,0)) / 2 for t_1 = lambda_1 / 2. Only
+	 * the lower triangle of M is needed for the projection.
+	 *
+	 * @param result    array of length 64 in which the matrix is stored in row-major order.
+	 */
+	public void getAdjointMatrix(double[] result) {
+		// P(k,l)_ij at [6 * (3 * k + l) + n], where n enumerates (i, j) = (0,0), (1,0), (1,1), (2,0), (2,1), (2,2)
+		double[] pRe = new double[54];
+		double[] pIm = new double[54];
+		for (int k = 0; k < 3; k++) {
+			for (int l = 0; l < 3; l++) {
+				int n = 6 * (3 * k + l);
+				for (int i = 0; i < 3; i++) {
+					double aRe = e[3 * i + k];
+					double aIm = e[9 + 3 * i + k];
+					for (int j = 0; j <= i; j++) {
+						double bRe = e[3 * j + l];
+						double bIm = -e[9 + 3 * j + l];
+						pRe[n] = aRe * bRe - aIm * bIm;
+						pIm[n] = aRe * bIm + aIm * bRe;
+						n++;
+					}
+				}
+			}
+		}
+
+		// lower triangle of M for every generator at [6 * b + n]
+		double[] mRe = new double[48];
+		double[] mIm = new double[48];
+		double norm8 = 1 / (2 * Math.sqrt(3));
+		for (int n = 0; n < 6; n++) {
+			int p00 = n, p01 = 6 + n, p02 = 12 + n;
+			int p10 = 18 + n, p11 = 24 + n, p12 = 30 + n;
+			int p20 = 36 + n, p21 = 42 + n, p22 = 48 + n;
+			mRe[n] = (pRe[p01] + pRe[p10]) / 2;
+			mIm[n] = (pIm[p01] + pIm[p10]) / 2;
+			mRe[6 + n] = (pIm[p01] - pIm[p10]) / 2;
+			mIm[6 + n] = (pRe[p10] - pRe[p01]) / 2;
+			mRe[12 + n] = (pRe[p00] - pRe[p11]) / 2;
+			mIm[12 + n] = (pIm[p00] - pIm[p11]) / 2;
+			mRe[18 + n] = (pRe[p02] + pRe[p20]) / 2;
+			mIm[18 + n] = (pIm[p02] + pIm[p20]) / 2;
+			mRe[24 + n] = (pIm[p02] - pIm[p20]) / 2;
+			mIm[24 + n] = (pRe[p20] - pRe[p02]) / 2;
+			mRe[30 + n] = (pRe[p12] + pRe[p21]) / 2;
+			mIm[30 + n] = (pIm[p12] + pIm[p21]) / 2;
+			mRe[36 + n] = (pIm[p12] - pIm[p21]) / 2;
+			mIm[36 + n] = (pRe[p21] - pRe[p12]) / 2;
+			mRe[42 + n] = (pRe[p00] + pRe[p11] - 2 * pRe[p22]) * norm8;
+			mIm[42 + n] = (pIm[p00] + pIm[p11] - 2 * pIm[p22]) * norm8;
+		}
+
+		for (int b = 0; b < 8; b++) {
+			int m = 6 * b;
+			result[b] = 2 * mRe[m + 1];
+			result[8 + b] = 2 * mIm[m + 1];
+			result[16 + b] = mRe[m] - mRe[m + 2];
+			result[24 + b] = 2 * mRe[m + 3];
+			result[32 + b] = 2 * mIm[m + 3];
+			result[40 + b] = 2 * mRe[m + 4];
+			result[48 + b] = 2 * mIm[m + 4];
+			result[56 + b] = (mRe[m] + mRe[m + 2] - 2 * mRe[m + 5]) / Math.sqrt(3);
+		}
+	}
+
 	/**
 	 * Returns the real trace of the matrix.
 	 *
@@ -514,7 +1000,11 @@ public class SU3GroupElement implements GroupElement {
 	}
 
 	public GroupElement pow(double x) {
-		return this.getAlgebraElement().mult(x).getLink();
+		LogWorkspace w = workspace.get();
+		SU3AlgebraElement a = w.algebraElement;
+		algebraElementCayleyHamilton(a.v, w);
+		a.multAssign(x);
+		return a.getLink();
 	}
 
 	public GroupElement copy() {
@@ -0,0 +1,75 @@
+package org.openpixi.pixi.math;
+
+/**
+ * Per-thread pool of preallocated group and algebra elements. Allocation-free kernels (e.g. the field updates of
+ * the Yang-Mills solvers) use these elements as temporary storage instead of creating new instances for every
+ * intermediate result.
+ * <br>
+ * Every thread gets its own set of elements, so a single ScratchElements instance can be shared by a CellAction which
+ * is executed in parallel. The elements returned by {@link #getGroupElements()} and {@link #getAlgebraElements()} must
+ * not be handed over to other threads or stored beyond the current computation.
+ */
+public class ScratchElements {
+
+	private int numberOfColors;
+	private ThreadLocal<GroupElement[]> groupElements;
+	private ThreadLocal<AlgebraElement[]> algebraElements;
+
+	/**
+	 * Creates a new pool of scratch elements.
+	 *
+	 * @param factory                   factory used to create the elements
+	 * @param numberOfGroupElements     number of group elements available to each thread
+	 * @param numberOfAlgebraElements   number of algebra elements available to each thread
+	 */
+	public ScratchElements(final ElementFactory factory, final int numberOfGroupElements, final int numberOfAlgebraElements) {
+		numberOfColors = factory.numberOfColors;
+		groupElements = new ThreadLocal<GroupElement[]>() {
+			@Override
+			protected GroupElement[] initialValue() {
+				GroupElement[] elements = new GroupElement[numberOfGroupElements];
+				for (int i = 0; i < numberOfGroupElements; i++) {
+					elements[i] = factory.groupIdentity();
+				}
+				return elements;
+			}
+		};
+		algebraElements = new ThreadLocal<AlgebraElement[]>() {
+			@Override
+			protected AlgebraElement[] initialValue() {
+				AlgebraElement[] elements = new AlgebraElement[numberOfAlgebraElements];
+				for (int i = 0; i < numberOfAlgebraElements; i++) {
+					elements[i] = factory.algebraZero();
+				}
+				return elements;
+			}
+		};
+	}
+
+	/**
+	 * Returns the number of colors of the scratch elements.
+	 *
+	 * @return  number of colors of the gauge group
+	 */
+	public int getNumberOfColors() {
+		return numberOfColors;
+	}
+
+	/**
+	 * Returns the scratch group elements of the current thread.
+	 *
+	 * @return  array of group elements owned by the current thread
+	 */
+	public GroupElement[] getGroupElements() {
+		return groupElements.get();
+	}
+
+	/**
+	 * Returns the scratch algebra elements of the current thread.
+	 *
+	 * @return  array of algebra elements owned by the current thread
+	 */
+	public AlgebraElement[] getAlgebraElements() {
+		return algebraElements.get();
+	}
+}
@@ -13,6 +13,16 @@ public abstract class CellIterator {
 
 	public abstract void execute(Grid grid, CellAction action);
 
+	/**
+	 * Executes a reduction over all cells. Every thread uses its own accumulator, the accumulators are summed up
+	 * after all cells have been executed.
+	 *
+	 * @param grid      Grid on which the action is executed
+	 * @param action    Action which adds the contribution of every cell to the accumulator
+	 * @return          Sum of the contributions of all cells
+	 */
+	public abstract double[] reduce(Grid grid, ReductionCellAction action);
+
 	/**
 	 * In this mode the iterator does not calculate the extra cells.
 	 */
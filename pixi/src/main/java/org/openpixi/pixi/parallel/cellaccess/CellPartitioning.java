@@ -0,0 +1,31 @@
+package org.openpixi.pixi.parallel.cellaccess;
+
+/**
+ * Determines how the cells of the grid are distributed among the threads of a {@link ParallelCellIterator}.
+ */
+public enum CellPartitioning {
+	/**
+	 * Cells are assigned round-robin, i.e. thread t executes the cells t, t + numOfThreads, t + 2 * numOfThreads, ...
+	 */
+	Strided,
+
+	/**
+	 * Every thread executes one contiguous range of cell indices, which corresponds to a slab of the lattice
+	 * perpendicular to the first direction.
+	 */
+	Slabs,
+
+	/**
+	 * The lattice is divided into tiles which span the full extent of the last (fastest running) direction and
+	 * have a fixed edge length in all other directions. Every thread executes a contiguous block of tiles.
+	 */
+	Tiles,
+
+	/**
+	 * The cells are divided into small contiguous chunks which are claimed by the threads on demand. Threads which
+	 * finish early continue with the remaining chunks, so the load is balanced even if the work per cell is uneven
+	 * (e.g. cells outside of the active region). Reductions are accumulated per chunk and combined in the order of
+	 * the chunks, so their results are reproducible and independent of the number of threads.
+	 */
+	Dynamic
+}
@@ -9,11 +9,13 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Executes action upon cells in parallel using threads.
  * Can iterate also through extra cells based on the boolean parameter
  * includeExtraCells in constructor.
+ * The distribution of the cells among the threads is determined by the {@link CellPartitioning}.
  */
 public class ParallelCellIterator extends CellIterator {
 
@@ -21,16 +23,51 @@ public class ParallelCellIterator extends CellIterator {
 	   since they can not be passed to them as method arguments. */
 	private Grid grid;
 	private CellAction action;
+	private ReductionCellAction reductionAction;
 	int numOfCells;
 	int numOfThreads;
 
+	private CellPartitioning partitioning;
+
+	/**
+	 * Edge length of the tiles in the {@link CellPartitioning#Tiles} mode.
+	 */
+	private static final int TILE_SIZE = 8;
+
+	/**
+	 * Number of cells claimed at once in the {@link CellPartitioning#Dynamic} mode.
+	 */
+	private static final int CHUNK_SIZE = 256;
+
+	/**
+	 * Cell indices in the order in which they are executed in the {@link CellPartitioning#Tiles} mode.
+	 */
+	private int[] tileOrder;
+
+	/**
+	 * Start of the next unclaimed chunk in the {@link CellPartitioning#Dynamic} mode.
+	 */
+	private AtomicInteger nextChunk = new AtomicInteger();
+
+	/**
+	 * Accumulators of the individual chunks in reductions in the {@link CellPartitioning#Dynamic} mode. The chunks
+	 * are claimed in an arbitrary order, but combined in the order of their indices, such that the result does not
+	 * depend on the scheduling or the number of threads.
+	 */
+	private double[][] chunkAccumulators;
+
 	private List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
 	private ExecutorService threadExecutor;
 
 
 	public ParallelCellIterator(int numOfThreads, ExecutorService threadExecutor) {
+		this(numOfThreads, threadExecutor, CellPartitioning.Strided);
+	}
+
+	public ParallelCellIterator(int numOfThreads, ExecutorService threadExecutor, CellPartitioning partitioning) {
 		this.threadExecutor = threadExecutor;
 		this.numOfThreads = numOfThreads;
+		this.partitioning = partitioning;
 		for (int i = 0; i < numOfThreads; ++i) {
 			tasks.add(new Task(i, numOfThreads));
 		}
@@ -40,6 +77,52 @@ public class ParallelCellIterator extends CellIterator {
 	public void execute(Grid grid, CellAction action) {
 		this.grid = grid;
 		this.action = action;
+		this.reductionAction = null;
+		invokeTasks();
+	}
+
+	public double[] reduce(Grid grid, ReductionCellAction action) {
+		this.grid = grid;
+		this.action = null;
+		this.reductionAction = action;
+		int size = action.getAccumulatorSize();
+		double[] result = new double[size];
+
+		if (partitioning == CellPartitioning.Dynamic) {
+			chunkAccumulators = new double[(numOfCells + CHUNK_SIZE - 1) / CHUNK_SIZE][size];
+			invokeTasks();
+
+			// Combine the accumulators in the order of the chunks
+			for (double[] accumulator : chunkAccumulators) {
+				for (int i = 0; i < size; i++) {
+					result[i] += accumulator[i];
+				}
+			}
+			chunkAccumulators = null;
+			this.reductionAction = null;
+			return result;
+		}
+
+		for (Callable<Object> task : tasks) {
+			((Task) task).accumulator = new double[size];
+		}
+
+		invokeTasks();
+
+		// Combine the accumulators in a fixed order
+		for (Callable<Object> task : tasks) {
+			double[] accumulator = ((Task) task).accumulator;
+			for (int i = 0; i < size; i++) {
+				result[i] += accumulator[i];
+			}
+			((Task) task).accumulator = null;
+		}
+		this.reductionAction = null;
+		return result;
+	}
+
+	private void invokeTasks() {
+		nextChunk.set(0);
 		try {
 			List<Future<Object>> futures = threadExecutor.invokeAll(tasks);
 			for (Future<Object> f : futures) {
@@ -55,9 +138,10 @@ public class ParallelCellIterator extends CellIterator {
 	}
 
 	public CellIterator copy(){
-		ParallelCellIterator copy = new ParallelCellIterator(this.numOfThreads, this.threadExecutor);
+		ParallelCellIterator copy = new ParallelCellIterator(this.numOfThreads, this.threadExecutor, this.partitioning);
 		copy.dimensions = dimensions.copy();
 		copy.numOfCells = this.numOfCells;
+		copy.tileOrder = this.tileOrder;
 
 		return copy;
 	}
@@ -66,6 +150,74 @@ public class ParallelCellIterator extends CellIterator {
 	public void setNormalMode(int[] numCells) {
 		super.setNormalMode(numCells);
 		numOfCells = dimensions.getNumCells();
+		if (partitioning == CellPartitioning.Tiles) {
+			tileOrder = createTileOrder(numCells);
+		}
+	}
+
+	public CellPartitioning getPartitioning() {
+		return partitioning;
+	}
+
+	/**
+	 * Lists all cell indices tile by tile. The tiles span the full extent of the last direction (which is the
+	 * contiguous direction of the cell index) and TILE_SIZE cells in every other direction.
+	 *
+	 * @param numCells  Number of cells in each direction
+	 * @return          Cell indices ordered by tiles
+	 */
+	private int[] createTileOrder(int[] numCells) {
+		int numDim = numCells.length;
+		int[] order = new int[numOfCells];
+
+		int[] numTiles = new int[numDim];
+		int totalTiles = 1;
+		for (int i = 0; i < numDim; i++) {
+			numTiles[i] = (i < numDim - 1) ? (numCells[i] + TILE_SIZE - 1) / TILE_SIZE : 1;
+			totalTiles *= numTiles[i];
+		}
+
+		int[] lower = new int[numDim];
+		int[] upper = new int[numDim];
+		int[] pos = new int[numDim];
+		int n = 0;
+		for (int tile = 0; tile < totalTiles; tile++) {
+			// Bounds of the current tile
+			int t = tile;
+			for (int i = numDim - 1; i >= 0; i--) {
+				int tilePos = t % numTiles[i];
+				t /= numTiles[i];
+				if (i < numDim - 1) {
+					lower[i] = tilePos * TILE_SIZE;
+					upper[i] = Math.min(lower[i] + TILE_SIZE, numCells[i]);
+				} else {
+					lower[i] = 0;
+					upper[i] = numCells[i];
+				}
+				pos[i] = lower[i];
+			}
+
+			// Iterate over the cells of the tile, last direction fastest
+			boolean done = false;
+			while (!done) {
+				int index = 0;
+				for (int i = 0; i < numDim; i++) {
+					index = index * numCells[i] + pos[i];
+				}
+				order[n++] = index;
+
+				done = true;
+				for (int i = numDim - 1; i >= 0; i--) {
+					pos[i]++;
+					if (pos[i] < upper[i]) {
+						done = false;
+						break;
+					}
+					pos[i] = lower[i];
+				}
+			}
+		}
+		return order;
 	}
 
 	private class Task implements Callable<Object> {
@@ -73,16 +225,56 @@ public class ParallelCellIterator extends CellIterator {
 		private int threadIdx;
 		private int numOfThreads;
 
+		/**
+		 * Private accumulator of this task, only used by reductions.
+		 */
+		private double[] accumulator;
+
 		private Task(int threadIdx, int numOfThreads) {
 			this.threadIdx = threadIdx;
 			this.numOfThreads = numOfThreads;
 		}
 
 		public Object call() throws Exception {
-			for (int cellIdx = threadIdx; cellIdx < numOfCells; cellIdx += numOfThreads) {
-				action.execute(grid, cellIdx);
+			int start = (int) ((long) numOfCells * threadIdx / numOfThreads);
+			int end = (int) ((long) numOfCells * (threadIdx + 1) / numOfThreads);
+			switch (partitioning) {
+				case Slabs:
+					for (int cellIdx = start; cellIdx < end; cellIdx++) {
+						executeCell(cellIdx);
+					}
+					break;
+				case Tiles:
+					for (int i = start; i < end; i++) {
+						executeCell(tileOrder[i]);
+					}
+					break;
+				case Dynamic:
+					int chunkStart;
+					while ((chunkStart = nextChunk.getAndAdd(CHUNK_SIZE)) < numOfCells) {
+						int chunkEnd = Math.min(chunkStart + CHUNK_SIZE, numOfCells);
+						if (chunkAccumulators != null) {
+							accumulator = chunkAccumulators[chunkStart / CHUNK_SIZE];
+						}
+						for (int cellIdx = chunkStart; cellIdx < chunkEnd; cellIdx++) {
+							executeCell(cellIdx);
+						}
+					}
+					break;
+				default:
+					for (int cellIdx = threadIdx; cellIdx < numOfCells; cellIdx += numOfThreads) {
+						executeCell(cellIdx);
+					}
 			}
 			return null;
 		}
+
+		private void executeCell(int cellIdx) {
+			if (reductionAction != null) {
+				reductionAction.execute(grid, cellIdx, accumulator);
+			} else {
+				action.execute(grid, cellIdx);
+			}
+		}
 	}
 }
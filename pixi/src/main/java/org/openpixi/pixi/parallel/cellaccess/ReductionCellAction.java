@@ -0,0 +1,21 @@
+package org.openpixi.pixi.parallel.cellaccess;
+
+import org.openpixi.pixi.physics.grid.Grid;
+
+/**
+ * Cell action which sums up values over the cells of the grid. Instead of adding to a shared (and therefore
+ * synchronized) variable, each cell adds its contribution to an accumulator array which is private to the executing
+ * thread. The cell iterator combines the accumulators of all threads once all cells have been executed,
+ * see {@link CellIterator#reduce(Grid, ReductionCellAction)}.
+ */
+public interface ReductionCellAction {
+	/**
+	 * Returns the number of entries of the accumulator array.
+	 */
+	int getAccumulatorSize();
+
+	/**
+	 * Executes the action on a cell with particular index and adds its contributions to the accumulator.
+	 */
+	void execute(Grid grid, int index, double[] accumulator);
+}
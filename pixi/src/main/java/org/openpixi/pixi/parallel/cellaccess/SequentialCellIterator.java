@@ -16,6 +16,16 @@ public class SequentialCellIterator extends CellIterator {
 		}
 	}
 
+	public double[] reduce(Grid grid, ReductionCellAction action) {
+
+		double[] accumulator = new double[action.getAccumulatorSize()];
+		int numOfCells = dimensions.getNumCells();
+		for (int cellIdx = 0; cellIdx < numOfCells; cellIdx++) {
+			action.execute(grid, cellIdx, accumulator);
+		}
+		return accumulator;
+	}
+
 	public CellIterator copy() {
 		SequentialCellIterator copy = new SequentialCellIterator();
 		copy.dimensions = dimensions.copy();
@@ -0,0 +1,12 @@
+package org.openpixi.pixi.parallel.indexaccess;
+
+/**
+ * Required in index iterator, so that we are able to use the index iterator
+ * for different operations upon a range of work items.
+ */
+public interface IndexAction {
+	/**
+	 * Executes the action on the work item with a particular index.
+	 */
+	void execute(int index);
+}
@@ -0,0 +1,91 @@
+package org.openpixi.pixi.parallel.indexaccess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes an action upon the indices 0, ..., count-1 in parallel using threads.
+ * <br>
+ * The cell iterators distribute the cells of the grid among the threads. Some work is not organized by cells, e.g.
+ * the Poisson equation solved for every longitudinal slice or the Wilson lines computed along every transverse
+ * position. Such work items are usually few and expensive, so the threads claim them one by one.
+ * <br>
+ * The threads are taken from the executor of the settings, which is shared with the cell and particle iterators
+ * (see {@link org.openpixi.pixi.physics.Settings#getIndexIterator()}), so no threads are created per call and
+ * thread local data like FFT plans is reused. Actions must not use the cell or particle iterators themselves,
+ * because the threads of the executor would wait for each other.
+ */
+public class ParallelIndexIterator {
+
+	private int numOfThreads;
+	private ExecutorService threadExecutor;
+
+	/* These are exposed here for inner classes
+	   since they can not be passed to them as method arguments. */
+	private IndexAction action;
+	private int count;
+	private AtomicInteger nextIndex = new AtomicInteger();
+
+	/**
+	 * @param numOfThreads      number of threads
+	 * @param threadExecutor    executor providing the threads, may be null if numOfThreads is 1
+	 */
+	public ParallelIndexIterator(int numOfThreads, ExecutorService threadExecutor) {
+		this.numOfThreads = numOfThreads;
+		this.threadExecutor = threadExecutor;
+	}
+
+	/**
+	 * Executes the action for every index from 0 to count-1. Actions for different indices may be executed
+	 * concurrently and in any order.
+	 *
+	 * @param count     number of work items
+	 * @param action    action executed for every work item
+	 */
+	public void execute(int count, IndexAction action) {
+		int threads = Math.min(numOfThreads, count);
+		if (threads <= 1 || threadExecutor == null) {
+			for (int i = 0; i < count; i++) {
+				action.execute(i);
+			}
+			return;
+		}
+
+		this.action = action;
+		this.count = count;
+		nextIndex.set(0);
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+		for (int i = 0; i < threads; i++) {
+			tasks.add(new Task());
+		}
+		try {
+			List<Future<Object>> futures = threadExecutor.invokeAll(tasks);
+			for (Future<Object> f : futures) {
+				// Retrieving the result throws possible exceptions
+				f.get();
+			}
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			// Throw exceptions that happened in a thread
+			throw new RuntimeException(e);
+		} finally {
+			this.action = null;
+		}
+	}
+
+	private class Task implements Callable<Object> {
+		public Object call() throws Exception {
+			int index;
+			while ((index = nextIndex.getAndIncrement()) < count) {
+				action.execute(index);
+			}
+			return null;
+		}
+	}
+}
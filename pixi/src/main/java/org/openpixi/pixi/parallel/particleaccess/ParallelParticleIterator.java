@@ -27,6 +27,16 @@ public class ParallelParticleIterator implements ParticleIterator {
 	private List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
 	private ExecutorService threadExecutor;
 
+	/**
+	 * Index of the task which is currently executed by a thread.
+	 */
+	private static final ThreadLocal<int[]> taskIndex = new ThreadLocal<int[]>() {
+		@Override
+		protected int[] initialValue() {
+			return new int[1];
+		}
+	};
+
 	public ParallelParticleIterator(int numOfThreads, ExecutorService threadExecutor) {
 		this.threadExecutor = threadExecutor;
 		for (int i = 0; i < numOfThreads; ++i) {
@@ -52,6 +62,17 @@ public class ParallelParticleIterator implements ParticleIterator {
 		}
 	}
 
+	/**
+	 * Returns the index of the task which the calling thread is executing, or 0 if it is not executing a task.
+	 * A task always processes the same particles in the same order, regardless of the thread which runs it. Data
+	 * accumulated per task index therefore does not depend on the scheduling of the threads.
+	 *
+	 * @return  index of the current task
+	 */
+	public static int getTaskIndex() {
+		return taskIndex.get()[0];
+	}
+
 	private class Task implements Callable<Object> {
 
 		private int threadIdx;
@@ -63,9 +84,15 @@ public class ParallelParticleIterator implements ParticleIterator {
 		}
 
 		public Object call() throws Exception {
-			int size = particles.size();
-			for (int particleIdx = threadIdx; particleIdx < size; particleIdx += numOfThreads) {
-				action.execute(particles.get(particleIdx));
+			int[] index = taskIndex.get();
+			index[0] = threadIdx;
+			try {
+				int size = particles.size();
+				for (int particleIdx = threadIdx; particleIdx < size; particleIdx += numOfThreads) {
+					action.execute(particles.get(particleIdx));
+				}
+			} finally {
+				index[0] = 0;
 			}
 			return null;
 		}
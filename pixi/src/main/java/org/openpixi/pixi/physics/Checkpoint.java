@@ -0,0 +1,509 @@
+package org.openpixi.pixi.physics;
+
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.ElementFactory;
+import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.physics.particles.CGCParticle;
+import org.openpixi.pixi.physics.particles.CGCSuperParticle;
+import org.openpixi.pixi.physics.particles.IParticle;
+import org.openpixi.pixi.physics.particles.PackedCGCParticles;
+import org.openpixi.pixi.physics.particles.YangMillsParticle;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Binary checkpoint of the full state of a {@link Simulation}. A checkpoint contains the step counter, the lattice
+ * fields U, Unext, E, J and rho and the particle list. The data is written and read in chunks of
+ * {@link #CHUNK_SIZE} bytes through a {@link FileChannel}.
+ * <br>
+ * The file starts with a header:
+ * <pre>
+ *     long     magic number
+ *     int      version
+ *     int      number of dimensions
+ *     int      number of colors
+ *     int[]    number of cells in every direction
+ *     int      total simulation steps
+ *     double   total simulation time
+ *     double   time step
+ * </pre>
+ * followed by the fields of every cell (for every direction U, Unext, E and J, then rho) and the particles. Group
+ * elements are stored using their parametrization (see {@link GroupElement#get(int)}), algebra elements by their
+ * components. All values are stored big-endian.
+ * <br>
+ * A simulation is resumed by setting {@link Settings#setRestartFile(String)}. Since every double is stored exactly,
+ * the restarted simulation continues bit-identically.
+ * <br>
+ * A new checkpoint is first written to {@code <filename>.tmp}. The previous checkpoint is then renamed to
+ * {@code <filename>.bak}, the temporary file is renamed to the target and the backup is deleted. Neither rename
+ * overwrites an existing file, so a complete checkpoint exists at every moment. If a write is interrupted,
+ * {@link #read(Simulation, String)} falls back to the temporary file and the backup.
+ */
+public class Checkpoint {
+
+	private static final long MAGIC = 0x5049584943484B50L; // "PIXICHKP"
+
+	private static final int VERSION = 2;
+
+	/**
+	 * Size of the chunks which are written to or read from the file channel at once.
+	 */
+	public static final int CHUNK_SIZE = 1 << 22;
+
+	/*
+	 * Particle type tags
+	 */
+	private static final byte YANG_MILLS_PARTICLE = 0;
+	private static final byte CGC_PARTICLE = 1;
+	private static final byte CGC_SUPER_PARTICLE = 2;
+	private static final byte CGC_PACKED_PARTICLES = 3;
+
+	/*
+	 * Suffixes of the temporary file and of the backup of the previous checkpoint
+	 */
+	private static final String TEMPORARY_SUFFIX = ".tmp";
+	private static final String BACKUP_SUFFIX = ".bak";
+
+	private static final Logger LOGGER = Logger.getLogger(Checkpoint.class.getName());
+
+	/**
+	 * Writes a checkpoint of the simulation. The checkpoint is first written to a temporary file. The previous
+	 * checkpoint is kept as a backup until the temporary file has been renamed to the target file, such that an
+	 * interrupted write never destroys the previous checkpoint.
+	 * <br>
+	 * Pending writes of the {@link org.openpixi.pixi.diagnostics.OutputWriter} of the simulation are completed first,
+	 * so the output files of the diagnostics are complete up to the state of the checkpoint.
+	 *
+	 * @param s         Simulation to be saved
+	 * @param filename  path of the checkpoint file
+	 * @throws IOException
+	 */
+	public static void write(Simulation s, String filename) throws IOException {
+		File file = new File(filename);
+		File temporaryFile = new File(filename + TEMPORARY_SUFFIX);
+		File backupFile = new File(filename + BACKUP_SUFFIX);
+
+		s.getOutputWriter().flush();
+
+		FileOutputStream stream = new FileOutputStream(temporaryFile);
+		ChunkedWriter out = new ChunkedWriter(stream.getChannel());
+		try {
+			writeHeader(s, out);
+			writeFields(s.grid, out);
+			writeParticles(s.particles, out);
+			out.flush();
+			stream.getChannel().force(true);
+		} finally {
+			stream.close();
+		}
+
+		if (file.exists()) {
+			// A backup exists only if the previous write was interrupted after the target had been renamed.
+			if (backupFile.exists() && !backupFile.delete()) {
+				throw new IOException("Checkpoint: could not delete " + backupFile.getPath());
+			}
+			rename(file, backupFile);
+		}
+		rename(temporaryFile, file);
+		if (backupFile.exists() && !backupFile.delete()) {
+			throw new IOException("Checkpoint: could not delete " + backupFile.getPath());
+		}
+	}
+
+	private static void rename(File source, File target) throws IOException {
+		if (!source.renameTo(target)) {
+			throw new IOException("Checkpoint: could not rename " + source.getPath() + " to " + target.getPath());
+		}
+	}
+
+	/**
+	 * Restores the state of the simulation from a checkpoint. The simulation has to be set up with the same lattice,
+	 * number of colors and time step as the simulation which wrote the checkpoint. The particle list is replaced by
+	 * the particles of the checkpoint.
+	 * <br>
+	 * If the checkpoint file is missing or cannot be read because a write was interrupted, the temporary file of the
+	 * interrupted write and then the backup of the previous checkpoint are read instead.
+	 *
+	 * @param s         Simulation to be restored
+	 * @param filename  path of the checkpoint file
+	 * @throws IOException if none of the files contains a valid checkpoint
+	 */
+	public static void read(Simulation s, String filename) throws IOException {
+		String[] candidates = new String[] {filename, filename + TEMPORARY_SUFFIX, filename + BACKUP_SUFFIX};
+		IOException error = null;
+		for (String candidate : candidates) {
+			if (!new File(candidate).exists()) {
+				continue;
+			}
+			try {
+				readFile(s, candidate);
+				if (!candidate.equals(filename)) {
+					LOGGER.log(Level.WARNING, "Restored simulation from {0}", candidate);
+				}
+				return;
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING, "Could not read {0}: {1}", new Object[] {candidate, e.getMessage()});
+				error = e;
+			}
+		}
+		if (error == null) {
+			throw new IOException("Checkpoint: " + filename + " does not exist.");
+		}
+		throw error;
+	}
+
+	private static void readFile(Simulation s, String filename) throws IOException {
+		FileInputStream stream = new FileInputStream(filename);
+		ChunkedReader in = new ChunkedReader(stream.getChannel());
+		try {
+			readHeader(s, in, filename);
+			readFields(s.grid, in);
+			readParticles(s, in);
+		} finally {
+			stream.close();
+		}
+		s.grid.setSimulationSteps(s.totalSimulationSteps);
+	}
+
+	private static void writeHeader(Simulation s, ChunkedWriter out) throws IOException {
+		Grid grid = s.grid;
+		out.putLong(MAGIC);
+		out.putInt(VERSION);
+		out.putInt(grid.getNumberOfDimensions());
+		out.putInt(grid.getNumberOfColors());
+		for (int i = 0; i < grid.getNumberOfDimensions(); i++) {
+			out.putInt(grid.getNumCells(i));
+		}
+		out.putInt(s.totalSimulationSteps);
+		out.putDouble(s.totalSimulationTime);
+		out.putDouble(s.tstep);
+	}
+
+	private static void readHeader(Simulation s, ChunkedReader in, String filename) throws IOException {
+		Grid grid = s.grid;
+		if (in.getLong() != MAGIC) {
+			throw new IOException("Checkpoint: " + filename + " is not a checkpoint file.");
+		}
+		int version = in.getInt();
+		if (version != VERSION) {
+			throw new IOException("Checkpoint: unsupported version " + version + ".");
+		}
+		boolean compatible = (in.getInt() == grid.getNumberOfDimensions());
+		compatible &= (in.getInt() == grid.getNumberOfColors());
+		for (int i = 0; i < grid.getNumberOfDimensions() && compatible; i++) {
+			compatible &= (in.getInt() == grid.getNumCells(i));
+		}
+		if (!compatible) {
+			throw new IOException("Checkpoint: lattice of " + filename + " does not match the simulation.");
+		}
+		s.totalSimulationSteps = in.getInt();
+		s.totalSimulationTime = in.getDouble();
+		if (in.getDouble() != s.tstep) {
+			throw new IOException("Checkpoint: time step of " + filename + " does not match the simulation.");
+		}
+	}
+
+	private static void writeFields(Grid grid, ChunkedWriter out) throws IOException {
+		for (int index = 0; index < grid.getTotalNumberOfCells(); index++) {
+			for (int dir = 0; dir < grid.getNumberOfDimensions(); dir++) {
+				out.putGroupElement(grid.getU(index, dir));
+				out.putGroupElement(grid.getUnext(index, dir));
+				out.putAlgebraElement(grid.getE(index, dir));
+				out.putAlgebraElement(grid.getJ(index, dir));
+			}
+			out.putAlgebraElement(grid.getRho(index));
+		}
+	}
+
+	private static void readFields(Grid grid, ChunkedReader in) throws IOException {
+		GroupElement U = grid.getElementFactory().groupIdentity();
+		AlgebraElement field = grid.getElementFactory().algebraZero();
+		grid.resetCurrent();
+		for (int index = 0; index < grid.getTotalNumberOfCells(); index++) {
+			for (int dir = 0; dir < grid.getNumberOfDimensions(); dir++) {
+				in.getGroupElement(U);
+				grid.setU(index, dir, U);
+				in.getGroupElement(U);
+				grid.setUnext(index, dir, U);
+				in.getAlgebraElement(field);
+				grid.setE(index, dir, field);
+				in.getAlgebraElement(field);
+				grid.addJ(index, dir, field);
+			}
+			in.getAlgebraElement(field);
+			grid.setRho(index, field.copy());
+		}
+	}
+
+	private static void writeParticles(ArrayList<IParticle> particles, ChunkedWriter out) throws IOException {
+		out.putInt(particles.size());
+		for (IParticle p : particles) {
+			if (p instanceof CGCSuperParticle) {
+				CGCSuperParticle P = (CGCSuperParticle) p;
+				out.putByte(CGC_SUPER_PARTICLE);
+				out.putInt(P.direction);
+				out.putInt(P.orientation);
+				out.putInt(P.numberOfParticles);
+				out.putInt(P.longitudinalOffset);
+				out.putInt(P.subLatticeShift);
+				out.putInt(P.particlePerCell);
+				out.putInt(P.Q[0].getNumberOfColors());
+				for (int i = 0; i < P.numberOfParticles; i++) {
+					out.putAlgebraElement(P.Q[i]);
+				}
+			} else if (p instanceof PackedCGCParticles) {
+				PackedCGCParticles P = (PackedCGCParticles) p;
+				out.putByte(CGC_PACKED_PARTICLES);
+				out.putInt(P.direction);
+				out.putInt(P.orientation);
+				out.putInt(P.size());
+				out.putInt(P.numberOfColors);
+				for (int i = 0; i < P.size(); i++) {
+					out.putDouble(P.pos0[i]);
+					out.putDouble(P.pos1[i]);
+					out.putInt(P.transversalCellIndices[i]);
+				}
+				for (int i = 0; i < P.size() * P.numberOfComponents; i++) {
+					out.putDouble(P.Q[i]);
+				}
+			} else if (p instanceof YangMillsParticle) {
+				YangMillsParticle P = (YangMillsParticle) p;
+				boolean isCGCParticle = (p instanceof CGCParticle);
+				out.putByte(isCGCParticle ? CGC_PARTICLE : YANG_MILLS_PARTICLE);
+				out.putInt(P.getNumberOfDimensions());
+				out.putInt(P.Q0.getNumberOfColors());
+				if (isCGCParticle) {
+					CGCParticle C = (CGCParticle) p;
+					out.putInt(C.direction);
+					out.putByte((byte) (C.updateCharge ? 1 : 0));
+					out.putGroupElement(C.U);
+				}
+				for (int i = 0; i < P.getNumberOfDimensions(); i++) {
+					out.putDouble(P.pos0[i]);
+					out.putDouble(P.pos1[i]);
+					out.putDouble(P.vel[i]);
+					out.putDouble(P.acc[i]);
+				}
+				out.putAlgebraElement(P.Q0);
+				out.putAlgebraElement(P.Q1);
+				out.putDouble(P.mass);
+				out.putDouble(P.r);
+				out.putByte((byte) ((P.col != null) ? 1 : 0));
+				out.putInt((P.col != null) ? P.col.getRGB() : 0);
+			} else {
+				throw new IOException("Checkpoint: particle type " + p.getClass().getName() + " not supported.");
+			}
+		}
+	}
+
+	private static void readParticles(Simulation s, ChunkedReader in) throws IOException {
+		int numberOfParticles = in.getInt();
+		s.particles.clear();
+		s.particles.ensureCapacity(numberOfParticles);
+		// Super particles moving in the same direction share the table of transversal cell indices.
+		int[][] transversalCellIndices = new int[s.getNumberOfDimensions()][];
+		for (int n = 0; n < numberOfParticles; n++) {
+			byte type = in.getByte();
+			if (type == CGC_SUPER_PARTICLE) {
+				int direction = in.getInt();
+				int orientation = in.getInt();
+				int numberOfSubParticles = in.getInt();
+				int longitudinalOffset = in.getInt();
+				int subLatticeShift = in.getInt();
+				int particlePerCell = in.getInt();
+				int colors = in.getInt();
+				if (direction < 0 || direction >= s.getNumberOfDimensions()) {
+					throw new IOException("Checkpoint: invalid direction " + direction + " of super particle.");
+				}
+				if (transversalCellIndices[direction] == null) {
+					transversalCellIndices[direction] = CGCSuperParticle.getTransversalCellIndices(s.grid.getNumCells(), direction);
+				}
+				CGCSuperParticle P = new CGCSuperParticle(direction, orientation, numberOfSubParticles,
+						longitudinalOffset, subLatticeShift, particlePerCell, transversalCellIndices[direction],
+						CGCSuperParticle.getLongitudinalStride(s.grid.getNumCells(), direction));
+				for (int i = 0; i < numberOfSubParticles; i++) {
+					P.Q[i] = s.grid.getElementFactory().algebraZero(colors);
+					in.getAlgebraElement(P.Q[i]);
+				}
+				s.particles.add(P);
+			} else if (type == CGC_PACKED_PARTICLES) {
+				int direction = in.getInt();
+				int orientation = in.getInt();
+				int size = in.getInt();
+				int colors = in.getInt();
+				if (direction < 0 || direction >= s.getNumberOfDimensions()) {
+					throw new IOException("Checkpoint: invalid direction " + direction + " of packed particles.");
+				}
+				PackedCGCParticles P = new PackedCGCParticles(direction, orientation, colors, s.grid.getNumCells(), size);
+				AlgebraElement charge = s.grid.getElementFactory().algebraZero(colors);
+				for (int i = 0; i < size; i++) {
+					double position0 = in.getDouble();
+					double position1 = in.getDouble();
+					P.add(position0, position1, in.getInt(), charge);
+				}
+				for (int i = 0; i < size * P.numberOfComponents; i++) {
+					P.Q[i] = in.getDouble();
+				}
+				s.particles.add(P);
+			} else if (type == YANG_MILLS_PARTICLE || type == CGC_PARTICLE) {
+				int dimensions = in.getInt();
+				int colors = in.getInt();
+				YangMillsParticle P;
+				if (type == CGC_PARTICLE) {
+					CGCParticle C = new CGCParticle(dimensions, colors, in.getInt());
+					C.updateCharge = (in.getByte() != 0);
+					in.getGroupElement(C.U);
+					P = C;
+				} else {
+					P = new YangMillsParticle(dimensions, colors);
+				}
+				for (int i = 0; i < dimensions; i++) {
+					P.pos0[i] = in.getDouble();
+					P.pos1[i] = in.getDouble();
+					P.vel[i] = in.getDouble();
+					P.acc[i] = in.getDouble();
+				}
+				in.getAlgebraElement(P.Q0);
+				in.getAlgebraElement(P.Q1);
+				P.mass = in.getDouble();
+				P.r = in.getDouble();
+				boolean hasColor = (in.getByte() != 0);
+				int rgb = in.getInt();
+				P.col = hasColor ? new Color(rgb, true) : null;
+				s.particles.add(P);
+			} else {
+				throw new IOException("Checkpoint: unknown particle type " + type + ".");
+			}
+		}
+	}
+
+	/**
+	 * Collects values in a buffer and writes them in chunks to a file channel.
+	 */
+	private static class ChunkedWriter {
+		private FileChannel channel;
+		private ByteBuffer buffer;
+
+		ChunkedWriter(FileChannel channel) {
+			this.channel = channel;
+			this.buffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+		}
+
+		private void ensureCapacity(int bytes) throws IOException {
+			if (buffer.remaining() < bytes) {
+				flush();
+			}
+		}
+
+		void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		void putByte(byte value) throws IOException {
+			ensureCapacity(1);
+			buffer.put(value);
+		}
+
+		void putInt(int value) throws IOException {
+			ensureCapacity(4);
+			buffer.putInt(value);
+		}
+
+		void putLong(long value) throws IOException {
+			ensureCapacity(8);
+			buffer.putLong(value);
+		}
+
+		void putDouble(double value) throws IOException {
+			ensureCapacity(8);
+			buffer.putDouble(value);
+		}
+
+		void putGroupElement(GroupElement U) throws IOException {
+			int size = ElementFactory.groupParameters(U.getNumberOfColors());
+			for (int j = 0; j < size; j++) {
+				putDouble(U.get(j));
+			}
+		}
+
+		void putAlgebraElement(AlgebraElement A) throws IOException {
+			for (int j = 0; j < A.getAdjointDimension(); j++) {
+				putDouble(A.get(j));
+			}
+		}
+	}
+
+	/**
+	 * Reads chunks from a file channel into a buffer and returns the values one by one.
+	 */
+	private static class ChunkedReader {
+		private FileChannel channel;
+		private ByteBuffer buffer;
+
+		ChunkedReader(FileChannel channel) {
+			this.channel = channel;
+			this.buffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+			this.buffer.flip();
+		}
+
+		private void ensureAvailable(int bytes) throws IOException {
+			if (buffer.remaining() >= bytes) {
+				return;
+			}
+			buffer.compact();
+			while (buffer.position() < bytes) {
+				if (channel.read(buffer) < 0) {
+					throw new IOException("Checkpoint: unexpected end of file.");
+				}
+			}
+			buffer.flip();
+		}
+
+		byte getByte() throws IOException {
+			ensureAvailable(1);
+			return buffer.get();
+		}
+
+		int getInt() throws IOException {
+			ensureAvailable(4);
+			return buffer.getInt();
+		}
+
+		long getLong() throws IOException {
+			ensureAvailable(8);
+			return buffer.getLong();
+		}
+
+		double getDouble() throws IOException {
+			ensureAvailable(8);
+			return buffer.getDouble();
+		}
+
+		void getGroupElement(GroupElement U) throws IOException {
+			int size = ElementFactory.groupParameters(U.getNumberOfColors());
+			for (int j = 0; j < size; j++) {
+				U.set(j, getDouble());
+			}
+		}
+
+		void getAlgebraElement(AlgebraElement A) throws IOException {
+			for (int j = 0; j < A.getAdjointDimension(); j++) {
+				A.set(j, getDouble());
+			}
+		}
+	}
+}
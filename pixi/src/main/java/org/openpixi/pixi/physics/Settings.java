@@ -3,6 +3,7 @@ package org.openpixi.pixi.physics;
 import org.openpixi.pixi.diagnostics.Diagnostics;
 import org.openpixi.pixi.parallel.cellaccess.*;
 import org.openpixi.pixi.parallel.particleaccess.*;
+import org.openpixi.pixi.parallel.indexaccess.ParallelIndexIterator;
 import org.openpixi.pixi.physics.fields.*;
 import org.openpixi.pixi.physics.fields.fieldgenerators.IFieldGenerator;
 import org.openpixi.pixi.physics.fields.currentgenerators.ICurrentGenerator;
@@ -58,6 +59,17 @@ public class Settings {
 	private FieldSolver fieldSolver = new FieldSolver();
 	private PoissonSolver poissonSolver = new EmptyPoissonSolver();
 	private boolean useGrid = true;
+	private boolean useFlatGrid = false;
+	private boolean useNeighbourTable = false;
+	private boolean useLockFreeDeposition = false;
+	private boolean useAdjointLinkCache = false;
+	private boolean useFusedParticleStep = false;
+	private boolean useSparseParticleSeeding = false;
+	private double particleChargeThreshold = 0.0;
+	private boolean useParallelRandomStreams = false;
+	private String restartFile = null;
+	private boolean useAsyncOutput = false;
+	private int numberOfEvents = 1;
 	private boolean relativistic = true;
 	// Regions
 	private boolean evaluationRegionEnabled = false;
@@ -78,6 +90,11 @@ public class Settings {
 	// Solver related parameters for physics.fields.ImplicitTYMSolver
 	private int implicitSolverIterations = 0;
 	private double implicitSolverDamping = 0;
+	private double implicitSolverTolerance = 0;
+
+	// Parameters for physics.fields.BoostInvariantSolver
+	private int longitudinalDirection = 0;
+	private double initialProperTime = 0;
 
 	// FieldGenerator related settings
 	private ArrayList<IFieldGenerator> fieldGenerators = new ArrayList<IFieldGenerator>();
@@ -98,6 +115,7 @@ public class Settings {
 	private int iterations = (int) Math.ceil(tMax/timeStep);
 	// Parallel (threaded) version settings
 	private int numOfThreads = 1;
+	private CellPartitioning cellPartitioning = CellPartitioning.Strided;
 	/* The creation and start of the new threads is expensive. Therefore, in the parallel
 	 * simulation we use ExecutorService which is maintaining a fixed number of threads running
 	 * all the time and assigns work to the threads on the fly according to demand. */
@@ -212,10 +230,58 @@ public class Settings {
 		return useGrid;
 	}
 
+	public boolean useFlatGrid() {
+		return useFlatGrid;
+	}
+
+	public boolean useNeighbourTable() {
+		return useNeighbourTable;
+	}
+
+	public boolean useLockFreeDeposition() {
+		return useLockFreeDeposition;
+	}
+
+	public boolean useAdjointLinkCache() {
+		return useAdjointLinkCache;
+	}
+
+	public boolean useFusedParticleStep() {
+		return useFusedParticleStep;
+	}
+
+	public boolean useSparseParticleSeeding() {
+		return useSparseParticleSeeding;
+	}
+
+	public double getParticleChargeThreshold() {
+		return particleChargeThreshold;
+	}
+
+	public boolean useParallelRandomStreams() {
+		return useParallelRandomStreams;
+	}
+
+	public String getRestartFile() {
+		return restartFile;
+	}
+
+	public boolean useAsyncOutput() {
+		return useAsyncOutput;
+	}
+
+	public int getNumberOfEvents() {
+		return numberOfEvents;
+	}
+
 	public int getNumOfThreads() {
 		return numOfThreads;
 	}
 
+	public CellPartitioning getCellPartitioning() {
+		return cellPartitioning;
+	}
+
 	public ArrayList<IFieldGenerator> getFieldGenerators() {
 		return this.fieldGenerators;
 	}
@@ -262,6 +328,21 @@ public class Settings {
 
 	public double getImplicitSolverDamping() { return implicitSolverDamping; }
 
+	public double getImplicitSolverTolerance() { return implicitSolverTolerance; }
+
+	public int getLongitudinalDirection() { return longitudinalDirection; }
+
+	/**
+	 * Returns the proper time of the boost-invariant initial conditions. If no positive value has been set, the
+	 * evolution starts one time step after the collision.
+	 */
+	public double getInitialProperTime() {
+		if(initialProperTime > 0) {
+			return initialProperTime;
+		}
+		return timeStep;
+	}
+
 	//----------------------------------------------------------------------------------------------
 	// MORE COMPLEX GETTERS / BUILDERS
 	//----------------------------------------------------------------------------------------------
@@ -308,7 +389,21 @@ public class Settings {
 		if (numOfThreads == 1) {
 			return new SequentialCellIterator();
 		} else if (numOfThreads > 1) {
-			return new ParallelCellIterator(numOfThreads, getThreadsExecutor());
+			return new ParallelCellIterator(numOfThreads, getThreadsExecutor(), cellPartitioning);
+		} else {
+			throw new RuntimeException("Invalid number of threads: " + numOfThreads);
+		}
+	}
+
+	/**
+	 * Returns an iterator which executes independent work items in parallel using the same threads as the cell and
+	 * particle iterators.
+	 */
+	public ParallelIndexIterator getIndexIterator() {
+		if (numOfThreads == 1) {
+			return new ParallelIndexIterator(1, null);
+		} else if (numOfThreads > 1) {
+			return new ParallelIndexIterator(numOfThreads, getThreadsExecutor());
 		} else {
 			throw new RuntimeException("Invalid number of threads: " + numOfThreads);
 		}
@@ -453,10 +548,121 @@ public class Settings {
 		this.useGrid = useGrid;
 	}
 
+	/**
+	 * Selects the storage backend of the grid.
+	 * @param useFlatGrid   If true, a {@link FlatGrid} (structure-of-arrays storage) is used instead of Cell objects.
+	 */
+	public void useFlatGrid(boolean useFlatGrid) {
+		this.useFlatGrid = useFlatGrid;
+	}
+
+	/**
+	 * Selects how the grid finds neighbouring cells.
+	 * @param useNeighbourTable If true, the grid precomputes the indices of all neighbouring cells instead of
+	 *                          computing them with integer divisions in every shift.
+	 */
+	public void useNeighbourTable(boolean useNeighbourTable) {
+		this.useNeighbourTable = useNeighbourTable;
+	}
+
+	/**
+	 * Selects how particles deposit currents and charge densities on the grid.
+	 * @param useLockFreeDeposition If true, every thread accumulates currents and charges in its own buffer and the
+	 *                              buffers are added to the grid afterwards, instead of synchronizing every deposit.
+	 */
+	public void useLockFreeDeposition(boolean useLockFreeDeposition) {
+		this.useLockFreeDeposition = useLockFreeDeposition;
+	}
+
+	/**
+	 * Selects how CGC particles parallel transport their charges.
+	 * @param useAdjointLinkCache   If true, the links are converted to the adjoint representation once per time step
+	 *                              (see {@link org.openpixi.pixi.physics.grid.AdjointLinkCache}) and the charges are
+	 *                              transported with real matrix-vector products instead of group multiplications.
+	 */
+	public void useAdjointLinkCache(boolean useAdjointLinkCache) {
+		this.useAdjointLinkCache = useAdjointLinkCache;
+	}
+
+	/**
+	 * Selects how the particles are processed in a simulation step.
+	 * @param useFusedParticleStep  If true, the particles are moved and interpolated in a single pass over the particle
+	 *                              list (see {@link org.openpixi.pixi.physics.movement.FusedParticleStep}) instead of
+	 *                              one pass for every stage.
+	 */
+	public void useFusedParticleStep(boolean useFusedParticleStep) {
+		this.useFusedParticleStep = useFusedParticleStep;
+	}
+
+	/**
+	 * Selects how CGC initial conditions seed their particles.
+	 * @param useSparseParticleSeeding  If true, particles are only created where the magnitude of their charge exceeds
+	 *                                  the particle charge threshold (see {@link #setParticleChargeThreshold(double)}).
+	 */
+	public void useSparseParticleSeeding(boolean useSparseParticleSeeding) {
+		this.useSparseParticleSeeding = useSparseParticleSeeding;
+	}
+
+	/**
+	 * Sets the charge threshold of the sparse particle seeding.
+	 * @param particleChargeThreshold   Particles whose charge magnitude is smaller than or equal to this value are not
+	 *                                  created. With the default value 0 only particles without charge are skipped,
+	 *                                  which does not change the result of the simulation.
+	 */
+	public void setParticleChargeThreshold(double particleChargeThreshold) {
+		this.particleChargeThreshold = particleChargeThreshold;
+	}
+
+	/**
+	 * Selects how random color charges are sampled by the CGC initial conditions.
+	 * @param useParallelRandomStreams  If true, charges are sampled in parallel from counter-based random streams
+	 *                                  (see {@link org.openpixi.pixi.physics.util.RandomStreams}). The results depend
+	 *                                  only on the seed and not on the number of threads, but differ from the
+	 *                                  sequential sampling with {@link java.util.Random}.
+	 */
+	public void useParallelRandomStreams(boolean useParallelRandomStreams) {
+		this.useParallelRandomStreams = useParallelRandomStreams;
+	}
+
+	/**
+	 * Resumes the simulation from a checkpoint instead of applying the initial conditions.
+	 * @param restartFile   Path of a file written by {@link Checkpoint#write(Simulation, String)}, null for a new run.
+	 */
+	public void setRestartFile(String restartFile) {
+		this.restartFile = restartFile;
+	}
+
+	/**
+	 * Selects how the diagnostics write their output files.
+	 * @param useAsyncOutput    If true, the output is written by a background thread (see
+	 *                          {@link org.openpixi.pixi.diagnostics.OutputWriter}) and the simulation only copies its
+	 *                          samples into buffers. Otherwise the output is written on the simulation thread.
+	 */
+	public void useAsyncOutput(boolean useAsyncOutput) {
+		this.useAsyncOutput = useAsyncOutput;
+	}
+
+	/**
+	 * Sets the number of independent events which are simulated one after another in the same process by
+	 * {@link org.openpixi.pixi.ui.MainBatch}.
+	 * @param numberOfEvents    Number of events, 1 for a single simulation.
+	 */
+	public void setNumberOfEvents(int numberOfEvents) {
+		this.numberOfEvents = numberOfEvents;
+	}
+
 	public void setNumOfThreads(int numOfThreads) {
 		this.numOfThreads = numOfThreads;
 	}
 
+	/**
+	 * Selects how the cells are distributed among the threads in the parallel version.
+	 * @param cellPartitioning  Partitioning used by the {@link ParallelCellIterator}
+	 */
+	public void setCellPartitioning(CellPartitioning cellPartitioning) {
+		this.cellPartitioning = cellPartitioning;
+	}
+
 	public void setFieldGenerators(ArrayList<IFieldGenerator> fieldGenerators) {
 		this.fieldGenerators = fieldGenerators;
 	}
@@ -511,6 +717,12 @@ public class Settings {
 
 	public void setImplicitSolverDamping(double implicitSolverDamping) { this.implicitSolverDamping = implicitSolverDamping; }
 
+	public void setImplicitSolverTolerance(double implicitSolverTolerance) { this.implicitSolverTolerance = implicitSolverTolerance; }
+
+	public void setLongitudinalDirection(int longitudinalDirection) { this.longitudinalDirection = longitudinalDirection; }
+
+	public void setInitialProperTime(double initialProperTime) { this.initialProperTime = initialProperTime; }
+
 	//----------------------------------------------------------------------------------------------
 	// VARIOUS
 	//----------------------------------------------------------------------------------------------
@@ -559,7 +771,7 @@ public class Settings {
 				break;
 			case TemporalImplicitCGCNGP:
 				setBoundary(GeneralBoundaryType.Absorbing);
-				setFieldSolver(new ImplicitTYMSolver(implicitSolverIterations, implicitSolverDamping));
+				setFieldSolver(new ImplicitTYMSolver(implicitSolverIterations, implicitSolverDamping, implicitSolverTolerance));
 				setParticleSolver(new CGCParticleSolver());
 				setInterpolator(new CGCParticleInterpolationNGP());
 				break;
@@ -571,15 +783,36 @@ public class Settings {
 				break;
 			case TemporalOptimizedImplicitCGCNGP:
 				setBoundary(GeneralBoundaryType.Absorbing);
-				setFieldSolver(new ImplicitTYMSolver(implicitSolverIterations, implicitSolverDamping));
+				setFieldSolver(new ImplicitTYMSolver(implicitSolverIterations, implicitSolverDamping, implicitSolverTolerance));
 				setParticleSolver(new CGCSuperParticleSolver());
 				setInterpolator(new CGCSuperParticleInterpolationNGP());
 				break;
+			case TemporalPackedCGCNGP:
+				setBoundary(GeneralBoundaryType.Absorbing);
+				setFieldSolver(new FastTYMSolver());
+				setParticleSolver(new PackedCGCParticleSolver());
+				setInterpolator(new PackedCGCParticleInterpolationNGP());
+				break;
 			case BoostInvariantCGC:
+				setBoundary(GeneralBoundaryType.Periodic);
+				setFieldSolver(new BoostInvariantSolver(longitudinalDirection, getInitialProperTime()));
+				setParticleSolver(new EmptyParticleSolver());
+				setInterpolator(new EmptyInterpolator());
 				break;
 		}
 	}
 
+	/**
+	 * Uses the threads of other settings, e.g. of the previous event of an ensemble, instead of starting new ones.
+	 * The threads are terminated by {@link #terminateThreads()} of the settings which are used last.
+	 * @param settings  Settings whose threads are used
+	 */
+	public void shareThreads(Settings settings) {
+		if (numOfThreads > 1 && settings.numOfThreads == numOfThreads) {
+			threadsExecutor = settings.getThreadsExecutor();
+		}
+	}
+
 	/**
 	 * Has to be called every time numOfThreads is set to a value higher than 1!
 	 * Terminates the threads used by executor service. Is idempotent (can be
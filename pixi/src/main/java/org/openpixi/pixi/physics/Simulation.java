@@ -22,21 +22,26 @@ import java.io.IOException;
 
 import org.openpixi.pixi.physics.fields.fieldgenerators.IFieldGenerator;
 import org.openpixi.pixi.physics.fields.currentgenerators.ICurrentGenerator;
+import org.openpixi.pixi.physics.fields.currentgenerators.IParticleCurrentGenerator;
 import org.openpixi.pixi.physics.fields.PoissonSolver;
 import org.openpixi.pixi.physics.force.Force;
 import org.openpixi.pixi.physics.force.CombinedForce;
 import org.openpixi.pixi.physics.force.SimpleGridForce;
 import org.openpixi.pixi.physics.force.relativistic.SimpleGridForceRelativistic;
+import org.openpixi.pixi.physics.grid.FlatGrid;
 import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.physics.grid.Interpolation;
 import org.openpixi.pixi.physics.grid.LocalInterpolation;
 import org.openpixi.pixi.physics.initial.IInitialCondition;
+import org.openpixi.pixi.physics.movement.FusedParticleStep;
 import org.openpixi.pixi.physics.movement.ParticleMover;
 import org.openpixi.pixi.physics.movement.boundary.AbsorbingParticleBoundaryConditions;
 import org.openpixi.pixi.physics.movement.boundary.IParticleBoundaryConditions;
 import org.openpixi.pixi.physics.movement.boundary.PeriodicParticleBoundaryConditions;
 import org.openpixi.pixi.physics.particles.IParticle;
 import org.openpixi.pixi.diagnostics.Diagnostics;
+import org.openpixi.pixi.diagnostics.OutputWriter;
+import org.openpixi.pixi.parallel.indexaccess.ParallelIndexIterator;
 import org.openpixi.pixi.physics.util.PerformanceTimer;
 
 import java.util.ArrayList;
@@ -84,12 +89,36 @@ public class Simulation {
      */
 	public int numberOfThreads;
 
+	/**
+	 * Iterator for work which is not organized by cells, using the threads of the cell iterator.
+	 */
+	private ParallelIndexIterator indexIterator;
+
+	/**
+	 * If true, initial conditions only create particles whose charge exceeds {@link #particleChargeThreshold}.
+	 */
+	private boolean useSparseParticleSeeding;
+
+	/**
+	 * Charge threshold of the sparse particle seeding.
+	 */
+	private double particleChargeThreshold;
+
+	/**
+	 * If true, initial conditions sample random charges in parallel using {@link org.openpixi.pixi.physics.util.RandomStreams}.
+	 */
+	private boolean useParallelRandomStreams;
+
 	/**
 	 * Contains all Particle2D objects
 	 */
 	public ArrayList<IParticle> particles;
 	public CombinedForce f;
 	private ParticleMover mover;
+	/**
+	 * Single-pass particle step. If null, the particles are processed stage by stage.
+	 */
+	private FusedParticleStep fusedParticleStep;
 	/**
 	 * Grid for dynamic field calculation
 	 */
@@ -119,6 +148,11 @@ public class Simulation {
      */
     private ArrayList<Diagnostics>  diagnostics;
 
+	/**
+	 * Writer for the output files of the diagnostics.
+	 */
+	private OutputWriter outputWriter;
+
 	/**
 	 * List of external current generators which are applied during the whole runtime of the simulation.
 	 */
@@ -126,6 +160,16 @@ public class Simulation {
 
 	private PerformanceTimer timer;
 
+	/**
+	 * True after the diagnostics have been initialized in the first call of {@link #step()}.
+	 */
+	private boolean diagnosticsInitialized = false;
+
+	/**
+	 * True if the simulation has been restored from a checkpoint.
+	 */
+	private boolean restarted = false;
+
 
 	public SimulationType getSimulationType() {
 		return simulationType;
@@ -167,6 +211,10 @@ public class Simulation {
 	public int getNumberOfDimensions() {
 		return numberOfDimensions;
 	}
+
+	public ParallelIndexIterator getIndexIterator() {
+		return indexIterator;
+	}
     public double getCouplingConstant() {
         return couplingConstant;
     }
@@ -179,10 +227,45 @@ public class Simulation {
         return  mover;
     }
 
+	public boolean useSparseParticleSeeding() {
+		return useSparseParticleSeeding;
+	}
+
+	public double getParticleChargeThreshold() {
+		return particleChargeThreshold;
+	}
+
+	public boolean useParallelRandomStreams() {
+		return useParallelRandomStreams;
+	}
+
+	public OutputWriter getOutputWriter() {
+		return outputWriter;
+	}
+
+	/**
+	 * Returns true if the simulation has been restored from a checkpoint (see {@link Settings#setRestartFile(String)}).
+	 * Diagnostics then append to the output files of the interrupted run instead of creating new ones.
+	 */
+	public boolean isRestarted() {
+		return restarted;
+	}
+
 	/**
 	 * Constructor for non distributed simulation.
 	 */
 	public Simulation(Settings settings) {
+		this(settings, null);
+	}
+
+	/**
+	 * Constructor which reuses the grid of a previous simulation, e.g. for the events of an ensemble. The grid is
+	 * reset to the vacuum with the new settings (see {@link Grid#reset(Settings)}), so the previous simulation must not
+	 * be used any more. A new grid is created if the grid is null or its type does not match the settings.
+	 * @param settings      Settings of the simulation
+	 * @param previousGrid  Grid of a previous simulation or null
+	 */
+	public Simulation(Settings settings, Grid previousGrid) {
 
 		simulationType = settings.getSimulationType();
 		tstep = settings.getTimeStep();
@@ -209,6 +292,7 @@ public class Simulation {
 		f = settings.getForce();
 
 		diagnostics = settings.getDiagnostics();
+		outputWriter = new OutputWriter(settings.useAsyncOutput());
 
 		IParticleBoundaryConditions particleBoundaryConditions;
 		switch (settings.getBoundaryType())
@@ -230,8 +314,19 @@ public class Simulation {
 				settings.getParticleIterator());
 
 		numberOfThreads = settings.getNumOfThreads();
-
-		grid = new Grid(settings);
+		indexIterator = settings.getIndexIterator();
+		useSparseParticleSeeding = settings.useSparseParticleSeeding();
+		particleChargeThreshold = settings.getParticleChargeThreshold();
+		useParallelRandomStreams = settings.useParallelRandomStreams();
+
+		if (previousGrid != null && (previousGrid instanceof FlatGrid) == settings.useFlatGrid()) {
+			previousGrid.reset(settings);
+			grid = previousGrid;
+		} else if (settings.useFlatGrid()) {
+			grid = new FlatGrid(settings);
+		} else {
+			grid = new Grid(settings);
+		}
 		if (settings.useGrid()) {
 			turnGridForceOn();
 		} else {
@@ -251,31 +346,56 @@ public class Simulation {
 		poisolver = settings.getPoissonSolver();
 		interpolation = new LocalInterpolation(
 				settings.getInterpolator(), settings.getParticleIterator());
-		particleGridInitializer.initialize(interpolation, poisolver, particles, grid);
+		if (settings.useFusedParticleStep()) {
+			fusedParticleStep = new FusedParticleStep(mover, interpolation, settings.getParticleIterator());
+		}
+
+		// A restarted simulation takes its fields and particles from the checkpoint.
+		String restartFile = settings.getRestartFile();
+		if (restartFile == null) {
+			particleGridInitializer.initialize(interpolation, poisolver, particles, grid);
+		}
 
         // Cycle through field generators and apply field configurations to the Grid.
         fieldGenerators = settings.getFieldGenerators();
-		for (IFieldGenerator f: fieldGenerators)
-        {
-            f.applyFieldConfiguration(this);
-        }
+		if (restartFile == null) {
+			for (IFieldGenerator f : fieldGenerators) {
+				f.applyFieldConfiguration(this);
+			}
+		}
 		/*
 			TODO After running through each field generator we should check if the intial state is consistent.
 			(e.g. check if Gauss law is fulfilled.)
 		 */
 
-		// Copy current generators from Settings.
-		currentGenerators = settings.getCurrentGenerators();
+		// Copy current generators from Settings. The particles of particle current generators are part of the
+		// checkpoint, so these generators are dropped when restarting.
+		currentGenerators = new ArrayList<ICurrentGenerator>();
+		for (ICurrentGenerator c : settings.getCurrentGenerators()) {
+			if (restartFile == null || !(c instanceof IParticleCurrentGenerator)) {
+				currentGenerators.add(c);
+			}
+		}
 		// Initialize external currents on the grid
 		for (ICurrentGenerator c: currentGenerators) {
 			c.initializeCurrent(this, currentGenerators.size());
 		}
 
-		for(IInitialCondition ic : settings.getInitialConditions()) {
-			ic.applyInitialCondition(this);
-		}
+		if (restartFile == null) {
+			for(IInitialCondition ic : settings.getInitialConditions()) {
+				ic.applyInitialCondition(this);
+			}
 
-		initialize();
+			initialize();
+		} else {
+			// The checkpoint already contains the initialized state.
+			try {
+				Checkpoint.read(this, restartFile);
+				restarted = true;
+			} catch (IOException e) {
+				throw new RuntimeException("Could not restart simulation from " + restartFile, e);
+			}
+		}
 
 		timer = new PerformanceTimer();
 	}
@@ -369,15 +489,22 @@ public class Simulation {
 	 * 11) Interpolate current j(t+3dt/2) using particle positions [x(t+dt) and x(t+2dt)] velocities [v(t+3dt/2)] charges [Q(t+dt) and Q(t+2dt)].
 	 * 12) Apply external currents and charge densities to j(t+3dt/2) and rho(t+dt).
 	 * 13) Run diagnostics at t+dt.
+	 *
+	 * In the fused particle step mode (see {@link Settings#useFusedParticleStep(boolean)}) the steps 3) and 6) to 11)
+	 * are executed for each particle in a single traversal of the particle list after the field update.
 	 */
 	public void step() throws IOException {
 
 		// 1) Initialize and run diagnostics before first simulation step.
-		if(totalSimulationSteps == 0) {
+		//    A restarted simulation only initializes the diagnostics.
+		if(!diagnosticsInitialized) {
 			for (int i = 0; i< diagnostics.size(); i++) {	//Attention! Size of the diagnostics may change during the initialization!!
 				diagnostics.get(i).initialize(this);
 			}
-			runDiagnostics();
+			diagnosticsInitialized = true;
+			if (totalSimulationSteps == 0) {
+				runDiagnostics();
+			}
 		}
 
 		// 2) Step counter
@@ -386,7 +513,9 @@ public class Simulation {
 		grid.setSimulationSteps(totalSimulationSteps);
 
 		// 3) Reassign particle charges, positions and gauge links
-		mover.reassign(particles);
+		if (fusedParticleStep == null) {
+			mover.reassign(particles);
+		}
 		grid.storeFields();
 
 		timer.reset();
@@ -395,30 +524,38 @@ public class Simulation {
 		grid.updateGrid(tstep);
 		timer.lap("EOM");
 
-		// 6) Interpolate charge density
-		grid.resetCharge();
-		interpolation.interpolateChargedensity(particles, grid);
-		timer.lap("CIN");
-
-		// 7) Update particle velocities
-		//updateVelocities();
-
-		// 8) Update particle positions
-		mover.updatePositions(particles, f, grid, tstep);
-		timer.lap("PUP");
-
-		// 9) Interpolate fields to particles
-		interpolation.interpolateToParticle(particles, grid);
-		timer.lap("PIN");
-
-		// 10) Update particle charges
-		mover.updateCharges(particles, f, grid, tstep);
-		timer.lap("CUP");
-
-		// 11) Interpolate currents
-		grid.resetCurrent();
-		interpolation.interpolateToGrid(particles, grid);
-		timer.lap("JIN");
+		if (fusedParticleStep != null) {
+			// 3), 6) - 11) in a single pass over the particles
+			grid.resetCharge();
+			grid.resetCurrent();
+			fusedParticleStep.execute(particles, f, grid, tstep);
+			timer.lap("PAR");
+		} else {
+			// 6) Interpolate charge density
+			grid.resetCharge();
+			interpolation.interpolateChargedensity(particles, grid);
+			timer.lap("CIN");
+
+			// 7) Update particle velocities
+			//updateVelocities();
+
+			// 8) Update particle positions
+			mover.updatePositions(particles, f, grid, tstep);
+			timer.lap("PUP");
+
+			// 9) Interpolate fields to particles
+			interpolation.interpolateToParticle(particles, grid);
+			timer.lap("PIN");
+
+			// 10) Update particle charges
+			mover.updateCharges(particles, f, grid, tstep);
+			timer.lap("CUP");
+
+			// 11) Interpolate currents
+			grid.resetCurrent();
+			interpolation.interpolateToGrid(particles, grid);
+			timer.lap("JIN");
+		}
 
 		// 12) Generate external currents on the grid
 		for (ICurrentGenerator c: currentGenerators)
@@ -449,6 +586,15 @@ public class Simulation {
 		while (continues()) {
 			step();
 		}
+		outputWriter.flush();
+	}
+
+	/**
+	 * Completes the output of the diagnostics and closes their files. Has to be called when the simulation is not
+	 * continued any more.
+	 */
+	public void closeOutput() throws IOException {
+		outputWriter.close();
 	}
 	
 	public void runDiagnostics() throws IOException {
@@ -7,5 +7,6 @@ public enum SimulationType {
 	TemporalImplicitCGCNGP,
 	TemporalOptimizedCGCNGP,
 	TemporalOptimizedImplicitCGCNGP,
+	TemporalPackedCGCNGP,
 	BoostInvariantCGC
 }
\ No newline at end of file
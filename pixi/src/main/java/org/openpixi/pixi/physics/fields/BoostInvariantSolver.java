@@ -0,0 +1,228 @@
+package org.openpixi.pixi.physics.fields;
+
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.math.ScratchElements;
+import org.openpixi.pixi.parallel.cellaccess.CellAction;
+import org.openpixi.pixi.physics.grid.Grid;
+
+/**
+ * Solver for boost-invariant Yang-Mills fields in Milne coordinates (tau, x_T, eta) on a transverse lattice.
+ * <br>
+ * The grid has to consist of a single cell in the longitudinal direction, which plays the role of the space-time
+ * rapidity eta. The lattice spacing of the grid in this direction is interpreted as the (dimensionless) rapidity
+ * spacing. Since all fields are independent of eta, the periodic rapidity link U_eta is equivalent to the adjoint
+ * scalar A_eta of the boost-invariant theory up to corrections of order (a_eta g A_eta)^2.
+ * <br>
+ * The equations of motion follow from the Hamiltonian
+ * <pre>     H = sum_x [ 1/tau E_i^2 + tau E_eta^2 + tau B_eta^2 + 1/tau B_i^2 ] / 2,</pre>
+ * i.e. they are the temporal gauge equations of {@link FastTYMSolver} with tau-dependent weights: transverse links are
+ * updated with 1/tau E_i and the rapidity link with tau E_eta. Transverse plaquettes enter the electric fields with a
+ * weight tau, plaquettes which contain a rapidity link with a weight 1/tau. Electric fields live at tau_n and links at
+ * tau_n + dt/2, where tau_n = tau_0 + n dt and n is the number of simulation steps of the grid.
+ */
+public class BoostInvariantSolver extends FieldSolver
+{
+
+	/**
+	 * Longitudinal (rapidity) direction of the grid.
+	 */
+	private int direction;
+
+	/**
+	 * Proper time tau_0 of the initial conditions.
+	 */
+	private double initialProperTime;
+
+	private UpdateLinks linkUpdater = new UpdateLinks();
+	private CombinedUpdate combinedUpdate = new CombinedUpdate();
+
+	/**
+	 * Constructor.
+	 * @param direction         longitudinal (rapidity) direction of the grid
+	 * @param initialProperTime proper time of the initial conditions, has to be positive
+	 */
+	public BoostInvariantSolver(int direction, double initialProperTime) {
+		if (initialProperTime <= 0.0) {
+			throw new IllegalArgumentException("The initial proper time has to be positive.");
+		}
+		this.direction = direction;
+		this.initialProperTime = initialProperTime;
+	}
+
+	@Override
+	public FieldSolver clone() {
+		BoostInvariantSolver clone = new BoostInvariantSolver(direction, initialProperTime);
+		clone.copyBaseClassFields(this);
+		return clone;
+	}
+
+	/**
+	 * Returns the proper time at which the electric fields are given after a number of simulation steps.
+	 * @param simulationSteps   number of simulation steps
+	 * @param timeStep          time step
+	 * @return                  proper time tau_n
+	 */
+	public double getProperTime(int simulationSteps, double timeStep) {
+		return initialProperTime + simulationSteps * timeStep;
+	}
+
+	public int getDirection() {
+		return direction;
+	}
+
+	public double getInitialProperTime() {
+		return initialProperTime;
+	}
+
+	@Override
+	public void step(Grid grid, double timeStep) {
+		checkGrid(grid);
+		double tau = getProperTime(grid.getSimulationSteps(), timeStep);
+		combinedUpdate.at = timeStep;
+		// The plaquettes are evaluated at the time of the old links, the links are updated with the new fields.
+		combinedUpdate.plaquetteWeights = getPlaquetteWeights(grid, tau - timeStep / 2.0);
+		combinedUpdate.linkFactors = getLinkFactors(grid, tau, timeStep);
+		if(combinedUpdate.scratch == null || combinedUpdate.scratch.getNumberOfColors() != grid.getNumberOfColors()) {
+			combinedUpdate.scratch = new ScratchElements(grid.getElementFactory(), 4, 1);
+		}
+		cellIterator.execute(grid, combinedUpdate);
+	}
+
+	@Override
+	public void stepLinks(Grid grid, double timeStep) {
+		checkGrid(grid);
+		double tau = getProperTime(grid.getSimulationSteps(), timeStep);
+		linkUpdater.linkFactors = getLinkFactors(grid, tau, timeStep);
+		if(linkUpdater.scratch == null || linkUpdater.scratch.getNumberOfColors() != grid.getNumberOfColors()) {
+			linkUpdater.scratch = new ScratchElements(grid.getElementFactory(), 1, 1);
+		}
+		cellIterator.execute(grid, linkUpdater);
+	}
+
+	private void checkGrid(Grid grid) {
+		if (grid.getNumCells(direction) != 1) {
+			throw new RuntimeException("BoostInvariantSolver: the grid needs a single cell in the longitudinal direction.");
+		}
+	}
+
+	/**
+	 * Factors multiplying the electric fields in the link update: -dt/tau for transverse and -dt*tau for the rapidity
+	 * direction.
+	 */
+	private double[] getLinkFactors(Grid grid, double tau, double timeStep) {
+		double[] factors = new double[grid.getNumberOfDimensions()];
+		for (int i = 0; i < factors.length; i++) {
+			factors[i] = (i == direction) ? - timeStep * tau : - timeStep / tau;
+		}
+		return factors;
+	}
+
+	/**
+	 * Weights of the (i,j)-plaquettes in the field update including the area factors of
+	 * {@link Grid#getStapleSum(int, int)}: tau/a_j^2 for transverse plaquettes and 1/(tau a_j^2) for plaquettes which
+	 * contain a rapidity link.
+	 */
+	private double[][] getPlaquetteWeights(Grid grid, double tau) {
+		int numberOfDimensions = grid.getNumberOfDimensions();
+		double[][] weights = new double[numberOfDimensions][numberOfDimensions];
+		for (int i = 0; i < numberOfDimensions; i++) {
+			for (int j = 0; j < numberOfDimensions; j++) {
+				double areaFactor = 1.0 / Math.pow(grid.getLatticeSpacing(j), 2);
+				if (i == direction || j == direction) {
+					weights[i][j] = areaFactor / tau;
+				} else {
+					weights[i][j] = areaFactor * tau;
+				}
+			}
+		}
+		return weights;
+	}
+
+	private class CombinedUpdate implements CellAction {
+
+		private double at;
+		private double[][] plaquetteWeights;
+		private double[] linkFactors;
+		private ScratchElements scratch;
+
+		/**
+		 * Combined update of fields and links using the weighted sum of staples.
+		 * All intermediate results are stored in per-thread scratch elements.
+		 * @param grid
+		 * @param index
+		 */
+		public void execute(Grid grid, int index) {
+			if(grid.isActive(index)) {
+				GroupElement[] groupElements = scratch.getGroupElements();
+				GroupElement temp = groupElements[0];
+				GroupElement V = groupElements[1];
+				AlgebraElement field = scratch.getAlgebraElements()[0];
+				for (int i = 0; i < grid.getNumberOfDimensions(); i++) {
+					getWeightedStapleSum(grid, index, i, temp);
+					grid.getU(index, i).multInto(temp, temp);
+					temp.projInto(field);
+					field.multAssign(at);
+					grid.addE(index, i, field);
+					field.set(grid.getE(index, i));
+					field.multAssign(linkFactors[i]);
+					field.getLinkInto(V);
+					V.multAssign(grid.getU(index, i));
+					grid.setUnext(index, i, V);
+				}
+			}
+		}
+
+		/**
+		 * Same as {@link Grid#getStapleSum(int, int, GroupElement)}, but every plaquette orientation comes with its
+		 * own weight.
+		 */
+		private void getWeightedStapleSum(Grid grid, int index, int d, GroupElement result) {
+			GroupElement[] groupElements = scratch.getGroupElements();
+			GroupElement U1 = groupElements[2];
+			GroupElement U2 = groupElements[3];
+			result.setZero();
+			int ci1 = grid.shift(index, d, 1);
+			int ci2, ci3, ci4;
+			for (int i = 0; i < grid.getNumberOfDimensions(); i++) {
+				if(i != d) {
+					ci2 = grid.shift(index, i, 1);
+					ci3 = grid.shift(ci1, i, -1);
+					ci4 = grid.shift(index, i, -1);
+					grid.getU(ci1, i).multAdjInto(grid.getU(ci2, d), U1);
+					U1.multAdjInto(grid.getU(index, i), U1);
+					grid.getU(ci4, d).multInto(grid.getU(ci3, i), U2);
+					U2.adjAssign();
+					U2.multAssign(grid.getU(ci4, i));
+					U1.addAssign(U2);
+					U1.multAssign(plaquetteWeights[d][i]);
+					result.addAssign(U1);
+				}
+			}
+		}
+	}
+
+	private class UpdateLinks implements CellAction {
+		private double[] linkFactors;
+		private ScratchElements scratch;
+
+		/**
+		 * Updates the links matrices in a given cell.
+		 * @param grid	Reference to the grid
+		 * @param index	Cell index
+		 */
+		public void execute(Grid grid, int index) {
+			if(grid.isActive(index)) {
+				GroupElement V = scratch.getGroupElements()[0];
+				AlgebraElement field = scratch.getAlgebraElements()[0];
+				for (int k = 0; k < grid.getNumberOfDimensions(); k++) {
+					field.set(grid.getE(index, k));
+					field.multAssign(linkFactors[k]);
+					field.getLinkInto(V);
+					V.multAssign(grid.getU(index, k));
+					grid.setUnext(index, k, V);
+				}
+			}
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package org.openpixi.pixi.physics.fields;
 
+import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.math.ScratchElements;
 import org.openpixi.pixi.parallel.cellaccess.CellAction;
 import org.openpixi.pixi.physics.grid.Grid;
 
@@ -16,8 +18,6 @@ public class FastTYMSolver extends FieldSolver
 		FastTYMSolver clone = new FastTYMSolver();
 		clone.copyBaseClassFields(this);
 		clone.timeStep = timeStep;
-		clone.linkUpdater = linkUpdater;
-		clone.combinedUpdate = combinedUpdate;
 		return clone;
 	}
 
@@ -28,12 +28,18 @@ public class FastTYMSolver extends FieldSolver
 		for (int i = 0; i < grid.getNumberOfDimensions(); i++) {
 			combinedUpdate.unitFactor[i] =  - grid.getLatticeUnitFactor(i) * grid.getTemporalSpacing();
 		}
+		if(combinedUpdate.scratch == null || combinedUpdate.scratch.getNumberOfColors() != grid.getNumberOfColors()) {
+			combinedUpdate.scratch = new ScratchElements(grid.getElementFactory(), 3, 2);
+		}
 		cellIterator.execute(grid, combinedUpdate);
 	}
 
 	@Override
 	public void stepLinks(Grid grid, double timeStep) {
 		linkUpdater.at = timeStep;
+		if(linkUpdater.scratch == null || linkUpdater.scratch.getNumberOfColors() != grid.getNumberOfColors()) {
+			linkUpdater.scratch = new ScratchElements(grid.getElementFactory(), 2, 2);
+		}
 		cellIterator.execute(grid, linkUpdater);
 	}
 
@@ -41,21 +47,36 @@ public class FastTYMSolver extends FieldSolver
 
 		private double at;
 		private double[] unitFactor;
+		private ScratchElements scratch;
 
 		/**
 		 * Combined update of fields and links using the sum of staples.
+		 * All intermediate results are stored in per-thread scratch elements.
 		 * @param grid
 		 * @param index
 		 */
 		public void execute(Grid grid, int index) {
 			if(grid.isActive(index)) {
-				GroupElement V;
+				GroupElement[] groupElements = scratch.getGroupElements();
+				GroupElement temp = groupElements[0];
+				GroupElement V = groupElements[1];
+				GroupElement link = groupElements[2];
+				AlgebraElement[] algebraElements = scratch.getAlgebraElements();
+				AlgebraElement field = algebraElements[0];
+				AlgebraElement buffer = algebraElements[1];
 				for (int i = 0; i < grid.getNumberOfDimensions(); i++) {
-					GroupElement temp = grid.getU(index, i).mult(grid.getStapleSum(index, i));
-					grid.addE(index, i, temp.proj().mult(at)); // area factors already included in getStapleSum()
-					grid.addE(index, i, grid.getJ(index, i).mult(unitFactor[i]));
-					V = grid.getE(index, i).mult(-at).getLink();
-					V.multAssign(grid.getU(index, i));
+					grid.getStapleSum(index, i, temp);
+					grid.getU(index, i, link).multInto(temp, temp);
+					temp.projInto(field);
+					field.multAssign(at);
+					grid.addE(index, i, field); // area factors already included in getStapleSum()
+					field.set(grid.getJ(index, i, buffer));
+					field.multAssign(unitFactor[i]);
+					grid.addE(index, i, field);
+					field.set(grid.getE(index, i, buffer));
+					field.multAssign(-at);
+					field.getLinkInto(V);
+					V.multAssign(grid.getU(index, i, link));
 					grid.setUnext(index, i, V);
 				}
 			}
@@ -64,6 +85,7 @@ public class FastTYMSolver extends FieldSolver
 
 	private class UpdateLinks implements CellAction {
 		private double at;
+		private ScratchElements scratch;
 
 		/**
 		 * Updates the links matrices in a given cell.
@@ -72,10 +94,17 @@ public class FastTYMSolver extends FieldSolver
 		 */
 		public void execute(Grid grid, int index) {
 			if(grid.isActive(index)) {
-				GroupElement V;
+				GroupElement[] groupElements = scratch.getGroupElements();
+				GroupElement V = groupElements[0];
+				GroupElement link = groupElements[1];
+				AlgebraElement[] algebraElements = scratch.getAlgebraElements();
+				AlgebraElement field = algebraElements[0];
+				AlgebraElement buffer = algebraElements[1];
 				for (int k = 0; k < grid.getNumberOfDimensions(); k++) {
-					V = grid.getE(index, k).mult(-at).getLink();
-					V.multAssign(grid.getU(index, k));
+					field.set(grid.getE(index, k, buffer));
+					field.multAssign(-at);
+					field.getLinkInto(V);
+					V.multAssign(grid.getU(index, k, link));
 					grid.setUnext(index, k, V);
 
 				}
@@ -1,7 +1,10 @@
 package org.openpixi.pixi.physics.fields;
 
+import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.math.ScratchElements;
 import org.openpixi.pixi.parallel.cellaccess.CellAction;
+import org.openpixi.pixi.parallel.cellaccess.ReductionCellAction;
 import org.openpixi.pixi.physics.grid.Grid;
 
 public class ImplicitTYMSolver extends FieldSolver
@@ -10,30 +13,62 @@ public class ImplicitTYMSolver extends FieldSolver
 	private double timeStep;
 	private double implicitIterations;
 	private double implicitDampingFactor;
+	private double implicitTolerance;
+	private int lastIterations;
 	private UpdateLinks linkUpdater = new UpdateLinks();
 	private ImplicitBegin implicitBegin = new ImplicitBegin();
 	private ImplicitStep implicitStep = new ImplicitStep();
 	private ImplicitDamping implicitDamping = new ImplicitDamping();
+	private ImplicitConvergence implicitConvergence = new ImplicitConvergence();
 	private ImplicitEnd implicitEnd = new ImplicitEnd();
 
+	/**
+	 * Workspace which holds the implicit iterates of E, U and Unext. It is kept between time steps and only
+	 * recreated if the lattice changes.
+	 */
+	private Grid implicitGrid;
+
 	public ImplicitTYMSolver(double implicitIterations, double implicitDampingFactor) {
+		this(implicitIterations, implicitDampingFactor, 0.0);
+	}
+
+	/**
+	 * Creates an implicit solver which stops iterating as soon as the iteration has converged.
+	 *
+	 * @param implicitIterations	Maximum number of implicit iterations per time step
+	 * @param implicitDampingFactor	Damping factor of the iteration
+	 * @param implicitTolerance		The iteration stops once the mean squared change of the links between two
+	 *                          	iterations drops below this value. If it is zero, the maximum number of
+	 *                          	iterations is always performed.
+	 */
+	public ImplicitTYMSolver(double implicitIterations, double implicitDampingFactor, double implicitTolerance) {
 		this.implicitIterations = implicitIterations;
 		this.implicitDampingFactor = implicitDampingFactor;
+		this.implicitTolerance = implicitTolerance;
 	}
 
 	@Override
 	public FieldSolver clone() {
-		ImplicitTYMSolver clone = new ImplicitTYMSolver(implicitIterations, implicitDampingFactor);
+		ImplicitTYMSolver clone = new ImplicitTYMSolver(implicitIterations, implicitDampingFactor, implicitTolerance);
 		clone.copyBaseClassFields(this);
 		clone.timeStep = timeStep;
 		clone.implicitIterations = implicitIterations;
 		clone.implicitDampingFactor = implicitDampingFactor;
+		clone.implicitTolerance = implicitTolerance;
 		return clone;
 	}
 
 	@Override
 	public void step(Grid grid, double timeStep) {
-		Grid implicitGrid = new Grid(grid); // Copy grid.
+		if(implicitGrid == null
+				|| implicitGrid.getTotalNumberOfCells() != grid.getTotalNumberOfCells()
+				|| implicitGrid.getNumberOfDimensions() != grid.getNumberOfDimensions()
+				|| implicitGrid.getNumberOfColors() != grid.getNumberOfColors()) {
+			implicitGrid = new Grid(grid);
+		}
+		if(implicitBegin.scratch == null || implicitBegin.scratch.getNumberOfColors() != grid.getNumberOfColors()) {
+			implicitBegin.scratch = new ScratchElements(grid.getElementFactory(), 2, 1);
+		}
 
 		implicitBegin.at = timeStep;
 		implicitBegin.unitFactor = new double[grid.getNumberOfDimensions()];
@@ -46,16 +81,34 @@ public class ImplicitTYMSolver extends FieldSolver
 		implicitStep.implicitGrid = implicitGrid;
 		implicitStep.at = implicitBegin.at;
 		implicitStep.unitFactor = implicitBegin.unitFactor;
+		implicitDamping.implicitGrid = implicitGrid;
+		implicitConvergence.implicitGrid = implicitGrid;
+		lastIterations = 0;
 		for (int i = 0; i < implicitIterations; i++) {
 			implicitGrid.storeFields(); // swap U <-> Unext
 			cellIterator.execute(grid, implicitStep);
-			cellIterator.execute(implicitGrid, implicitDamping);
+			cellIterator.execute(grid, implicitDamping);
+			lastIterations++;
+
+			if(implicitTolerance > 0) {
+				double[] change = cellIterator.reduce(grid, implicitConvergence);
+				if(change[1] == 0 || change[0] / change[1] < implicitTolerance) {
+					break;
+				}
+			}
 		}
 
 		implicitEnd.implicitGrid = implicitGrid;
 		cellIterator.execute(grid, implicitEnd);
 	}
 
+	/**
+	 * Returns the number of implicit iterations which were performed in the last time step.
+	 */
+	public int getLastIterations() {
+		return lastIterations;
+	}
+
 	@Override
 	public void stepLinks(Grid grid, double timeStep) {
 		linkUpdater.at = timeStep;
@@ -67,23 +120,41 @@ public class ImplicitTYMSolver extends FieldSolver
 		private double at;
 		private double[] unitFactor;
 		private Grid implicitGrid;
+		private ScratchElements scratch;
 
 		/**
-		 * Combined update of fields and links using the sum of staples.
+		 * Explicit update of fields and links using the sum of staples, which serves as the starting point of the
+		 * implicit iteration. Inactive cells are never updated, so only their links are copied into the workspace.
 		 * @param grid
 		 * @param index
 		 */
 		public void execute(Grid grid, int index) {
 			if(grid.isActive(index)) {
-				GroupElement V;
+				GroupElement[] groupElements = scratch.getGroupElements();
+				GroupElement temp = groupElements[0];
+				GroupElement V = groupElements[1];
+				AlgebraElement field = scratch.getAlgebraElements()[0];
 				for (int i = 0; i < grid.getNumberOfDimensions(); i++) {
-					GroupElement temp = grid.getU(index, i).mult(grid.getStapleSum(index, i));
-					implicitGrid.addE(index, i, temp.proj().mult(at)); // area factors already included in getStapleSum()
-					implicitGrid.addE(index, i, grid.getJ(index, i).mult(unitFactor[i]));
-					V = implicitGrid.getE(index, i).mult(-at).getLink();
+					implicitGrid.setE(index, i, grid.getE(index, i));
+					grid.getStapleSum(index, i, temp);
+					grid.getU(index, i).multInto(temp, temp);
+					temp.projInto(field);
+					field.multAssign(at);
+					implicitGrid.addE(index, i, field); // area factors already included in getStapleSum()
+					field.set(grid.getJ(index, i));
+					field.multAssign(unitFactor[i]);
+					implicitGrid.addE(index, i, field);
+					field.set(implicitGrid.getE(index, i));
+					field.multAssign(-at);
+					field.getLinkInto(V);
 					V.multAssign(grid.getU(index, i));
 					implicitGrid.setUnext(index, i, V);
 				}
+			} else {
+				for (int i = 0; i < grid.getNumberOfDimensions(); i++) {
+					implicitGrid.setU(index, i, grid.getU(index, i));
+					implicitGrid.setUnext(index, i, grid.getUnext(index, i));
+				}
 			}
 		}
 	}
@@ -205,6 +276,8 @@ public class ImplicitTYMSolver extends FieldSolver
 
 	private class ImplicitDamping implements CellAction {
 
+		private Grid implicitGrid;
+
 		/**
 		 * Damping of the fields of the implicit grid.
 		 * @param grid
@@ -213,9 +286,40 @@ public class ImplicitTYMSolver extends FieldSolver
 		public void execute(Grid grid, int index) {
 			if(grid.isActive(index)) {
 				for (int i = 0; i < grid.getNumberOfDimensions(); i++) {
-					GroupElement U1 = grid.getUnext(index,  i).pow(1 - implicitDampingFactor);
-					GroupElement U2 = grid.getU(index, i).pow(implicitDampingFactor);
-					grid.setUnext(index, i, U2.mult(U1));
+					GroupElement U1 = implicitGrid.getUnext(index,  i).pow(1 - implicitDampingFactor);
+					GroupElement U2 = implicitGrid.getU(index, i).pow(implicitDampingFactor);
+					implicitGrid.setUnext(index, i, U2.mult(U1));
+				}
+			}
+		}
+	}
+
+	private class ImplicitConvergence implements ReductionCellAction {
+
+		private Grid implicitGrid;
+
+		public int getAccumulatorSize() {
+			return 2;
+		}
+
+		/**
+		 * Sums the squared change of the link components between the last two iterations (stored in U and Unext of
+		 * the implicit grid) and counts the number of links.
+		 * @param grid
+		 * @param index
+		 * @param accumulator
+		 */
+		public void execute(Grid grid, int index, double[] accumulator) {
+			if(grid.isActive(index)) {
+				int numberOfParameters = grid.getElementFactory().numberOfGroupParameters;
+				for (int i = 0; i < grid.getNumberOfDimensions(); i++) {
+					GroupElement U0 = implicitGrid.getU(index, i);
+					GroupElement U1 = implicitGrid.getUnext(index, i);
+					for (int j = 0; j < numberOfParameters; j++) {
+						double difference = U1.get(j) - U0.get(j);
+						accumulator[0] += difference * difference;
+					}
+					accumulator[1] += 1;
 				}
 			}
 		}
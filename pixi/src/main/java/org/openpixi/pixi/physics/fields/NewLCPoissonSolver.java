@@ -71,7 +71,53 @@ public class NewLCPoissonSolver {
 	}
 
 	public void solve(Simulation s) {
-		DoubleFFTWrapper fft = new DoubleFFTWrapper(transversalNumCells);
+		// First step: compute transversal potential phi
+		this.phi = computeTransversalPotential(transversalChargeDensity, transversalNumCells, as,
+				lowPassCoefficient, infraredCoefficient, factory);
+
+		// Second step: compute links from transversal potential
+		GaugeLinkSetter gaugeLinkSetter = new GaugeLinkSetter();
+		gaugeLinkSetter.initialize(s.grid, gridCopy, phi);
+		s.grid.getCellIterator().execute(s.grid, gaugeLinkSetter);
+
+		// Third step: Compute electric field from temporal plaquette
+		ElectricFieldSetter electricFieldSetter = new ElectricFieldSetter();
+		s.grid.getCellIterator().execute(s.grid, electricFieldSetter);
+		gridCopy.getCellIterator().execute(gridCopy, electricFieldSetter);
+
+		// Compute gauss violation from grid copy
+		GaussViolationCalculation gvCalculation = new GaussViolationCalculation();
+		gvCalculation.reset(gridCopy);
+		gridCopy.getCellIterator().execute(gridCopy, gvCalculation);
+		gaussViolation = gvCalculation.getResult();
+
+		// Remove reference to gridCopy (?)
+		this.gridCopy = null;
+
+	}
+
+	/**
+	 * Solves the transversal Poisson equation for a given transversal charge density. The Wilson line at a transversal
+	 * position x is given by V_x = exp(- g phi_x).
+	 *
+	 * @param transversalChargeDensity  charge density on the transversal lattice
+	 * @param transversalNumCells       size of the transversal lattice
+	 * @param as                        transversal lattice spacing
+	 * @param lowPassCoefficient        coefficient of the UV regulator (hard momentum cutoff)
+	 * @param infraredCoefficient       coefficient of the IR regulator (mass term)
+	 * @param factory                   element factory of the gauge group
+	 * @return                          transversal potential phi
+	 */
+	public static AlgebraElement[] computeTransversalPotential(AlgebraElement[] transversalChargeDensity,
+			int[] transversalNumCells, double as, double lowPassCoefficient, double infraredCoefficient,
+			ElementFactory factory) {
+		int totalTransversalCells = GridFunctions.getTotalNumberOfCells(transversalNumCells);
+		AlgebraElement[] phi = new AlgebraElement[totalTransversalCells];
+		for (int i = 0; i < totalTransversalCells; i++) {
+			phi[i] = factory.algebraZero();
+		}
+
+		DoubleFFTWrapper fft = DoubleFFTWrapper.getInstance(transversalNumCells);
 
 		// UV Regulator (in lattice energy units)
 		double lambdaSquared = lowPassCoefficient * lowPassCoefficient;
@@ -79,19 +125,23 @@ public class NewLCPoissonSolver {
 		// IR Regulator (in lattice energy units)
 		double mSquared = infraredCoefficient * infraredCoefficient;
 
-		// First step: compute transversal potential phi
 		for (int i = 0; i < factory.numberOfComponents; i++) {
 			// Initialize array for FFT and fill it with charge density of component i.
-			double[] fftArray = new double[fft.getFFTArraySize()];
+			double[] chargeDensity = new double[totalTransversalCells];
 			for (int j = 0; j < totalTransversalCells; j++) {
-				fftArray[fft.getFFTArrayIndex(j)] = transversalChargeDensity[j].get(i);
+				chargeDensity[j] = transversalChargeDensity[j].get(i);
 			}
 			// Transform charge density to momentum space.
-			fft.complexForward(fftArray);
+			double[] fftArray = new double[fft.getRealFFTArraySize()];
+			fft.realForward(chargeDensity, fftArray);
 			// Solve Poisson equation in momentum space.
 			for (int j = 1; j < totalTransversalCells; j++) {
-				double pEffSquared = computeEffectiveLatticeMomentumSquared(j);
-				double pSquare = computeLatticeMomentumSquared(j);
+				if (fft.isRealFFTConjugate(j)) {
+					// only half of the spectrum is stored for real data
+					continue;
+				}
+				double pEffSquared = computeEffectiveLatticeMomentumSquared(j, transversalNumCells, as);
+				double pSquare = computeLatticeMomentumSquared(j, transversalNumCells, as);
 				double invLaplace;
 				// Implement as momentum cutoff
 				if(pSquare <= lambdaSquared) {
@@ -99,40 +149,21 @@ public class NewLCPoissonSolver {
 				} else {
 					invLaplace = 0.0;
 				}
-				fftArray[fft.getFFTArrayIndex(j)] *= invLaplace;
-				fftArray[fft.getFFTArrayIndex(j) + 1] *= invLaplace;
+				fftArray[fft.getRealFFTArrayIndex(j)] *= invLaplace;
+				fftArray[fft.getRealFFTArrayIndex(j) + 1] *= invLaplace;
 			}
 			fftArray[0] = 0.0;
 			fftArray[1] = 0.0;
 
 			// Transform back to position space.
-			fft.complexInverse(fftArray, true);
+			fft.realInverse(fftArray, chargeDensity, true);
 
 			// Set transversal potential.
 			for (int j = 0; j < totalTransversalCells; j++) {
-				this.phi[j].set(i, fftArray[fft.getFFTArrayIndex(j)]);
+				phi[j].set(i, chargeDensity[j]);
 			}
 		}
-
-		// Second step: compute links from transversal potential
-		GaugeLinkSetter gaugeLinkSetter = new GaugeLinkSetter();
-		gaugeLinkSetter.initialize(s.grid, gridCopy, phi);
-		s.grid.getCellIterator().execute(s.grid, gaugeLinkSetter);
-
-		// Third step: Compute electric field from temporal plaquette
-		ElectricFieldSetter electricFieldSetter = new ElectricFieldSetter();
-		s.grid.getCellIterator().execute(s.grid, electricFieldSetter);
-		gridCopy.getCellIterator().execute(gridCopy, electricFieldSetter);
-
-		// Compute gauss violation from grid copy
-		GaussViolationCalculation gvCalculation = new GaussViolationCalculation();
-		gvCalculation.reset(gridCopy);
-		gridCopy.getCellIterator().execute(gridCopy, gvCalculation);
-		gaussViolation = gvCalculation.getResult();
-
-		// Remove reference to gridCopy (?)
-		this.gridCopy = null;
-
+		return phi;
 	}
 
 	public AlgebraElement getGaussConstraint(int i) {
@@ -174,7 +205,9 @@ public class NewLCPoissonSolver {
 		return  0.5 + 0.5*Erf.erf(arg);
 	}
 
-	private double computeEffectiveLatticeMomentumSquared(int cellIndex) {
+	private static double computeEffectiveLatticeMomentumSquared(int cellIndex, int[] transversalNumCells, double as) {
+		int[] effTransversalNumCells = GridFunctions.getEffectiveNumCells(transversalNumCells);
+		int effTransversalDimensions = GridFunctions.getEffectiveNumberOfDimensions(transversalNumCells);
 		int[] transversalGridPos = GridFunctions.getCellPos(cellIndex, effTransversalNumCells);
 
 		double momentumSquared = 2.0 * effTransversalDimensions;
@@ -185,7 +218,9 @@ public class NewLCPoissonSolver {
 		return momentumSquared / (as * as);
 	}
 
-	private double computeLatticeMomentumSquared(int cellIndex) {
+	private static double computeLatticeMomentumSquared(int cellIndex, int[] transversalNumCells, double as) {
+		int[] effTransversalNumCells = GridFunctions.getEffectiveNumCells(transversalNumCells);
+		int effTransversalDimensions = GridFunctions.getEffectiveNumberOfDimensions(transversalNumCells);
 		int[] transversalGridPos = GridFunctions.getCellPos(cellIndex, effTransversalNumCells);
 		double twopi = 2.0 * Math.PI;
 
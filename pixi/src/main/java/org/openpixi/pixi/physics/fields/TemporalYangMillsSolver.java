@@ -2,7 +2,9 @@ package org.openpixi.pixi.physics.fields;
 
 import org.openpixi.pixi.parallel.cellaccess.CellAction;
 import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.math.ScratchElements;
 
 public class TemporalYangMillsSolver extends FieldSolver
 {
@@ -16,8 +18,6 @@ public class TemporalYangMillsSolver extends FieldSolver
 		TemporalYangMillsSolver clone = new TemporalYangMillsSolver();
 		clone.copyBaseClassFields(this);
 		clone.timeStep = timeStep;
-		clone.fieldUpdater = fieldUpdater;
-		clone.linkUpdater = linkUpdater;
 		return clone;
 	}
 
@@ -34,6 +34,10 @@ public class TemporalYangMillsSolver extends FieldSolver
 		}
 
 		linkUpdater.at = timeStep;
+		if(fieldUpdater.scratch == null || fieldUpdater.scratch.getNumberOfColors() != grid.getNumberOfColors()) {
+			fieldUpdater.scratch = new ScratchElements(grid.getElementFactory(), 2, 2);
+			linkUpdater.scratch = new ScratchElements(grid.getElementFactory(), 2, 2);
+		}
 		cellIterator.execute(grid, fieldUpdater);
 		cellIterator.execute(grid, linkUpdater);
 	}
@@ -42,6 +46,9 @@ public class TemporalYangMillsSolver extends FieldSolver
 	public void stepLinks(Grid grid, double timeStep) {
 		this.timeStep = timeStep;
 		linkUpdater.at = timeStep;
+		if(linkUpdater.scratch == null || linkUpdater.scratch.getNumberOfColors() != grid.getNumberOfColors()) {
+			linkUpdater.scratch = new ScratchElements(grid.getElementFactory(), 2, 2);
+		}
 		cellIterator.execute(grid, linkUpdater);
 	}
 
@@ -50,6 +57,7 @@ public class TemporalYangMillsSolver extends FieldSolver
 	{
 		private double[] plaquetteFactor;
 		private double[] unitFactor;
+		private ScratchElements scratch;
 
 		/**
 		 * Updates the electric fields at a given coordinate
@@ -58,16 +66,29 @@ public class TemporalYangMillsSolver extends FieldSolver
 		 */
 		public void execute(Grid grid, int index) {
 			if(grid.isActive(index)) {
+				GroupElement[] groupElements = scratch.getGroupElements();
+				GroupElement temp = groupElements[0];
+				GroupElement plaquette = groupElements[1];
+				AlgebraElement[] algebraElements = scratch.getAlgebraElements();
+				AlgebraElement field = algebraElements[0];
+				AlgebraElement buffer = algebraElements[1];
 				for (int i = 0; i < grid.getNumberOfDimensions(); i++) {
-					GroupElement temp = grid.getElementFactory().groupZero();
+					temp.setZero();
 					for (int j = 0; j < grid.getNumberOfDimensions(); j++) {
 						if (j != i) {
-							temp.addAssign(grid.getPlaquette(index, i, j, 1, 1, 0).mult(plaquetteFactor[j]));
-							temp.addAssign(grid.getPlaquette(index, i, j, 1, -1, 0).mult(plaquetteFactor[j]));
+							grid.getPlaquette(index, i, j, 1, 1, 0, plaquette);
+							plaquette.multAssign(plaquetteFactor[j]);
+							temp.addAssign(plaquette);
+							grid.getPlaquette(index, i, j, 1, -1, 0, plaquette);
+							plaquette.multAssign(plaquetteFactor[j]);
+							temp.addAssign(plaquette);
 						}
 					}
-					grid.addE(index, i, temp.proj());
-					grid.addE(index, i, grid.getJ(index, i).mult(unitFactor[i]));
+					temp.projInto(field);
+					grid.addE(index, i, field);
+					field.set(grid.getJ(index, i, buffer));
+					field.multAssign(unitFactor[i]);
+					grid.addE(index, i, field);
 				}
 			}
 		}
@@ -75,6 +96,7 @@ public class TemporalYangMillsSolver extends FieldSolver
 
 	private class UpdateLinks implements CellAction {
 		private double at;
+		private ScratchElements scratch;
 
 		/**
 		 * Updates the links matrices in a given cell.
@@ -83,10 +105,17 @@ public class TemporalYangMillsSolver extends FieldSolver
 		 */
 		public void execute(Grid grid, int index) {
 			if(grid.isActive(index)) {
-				GroupElement V;
+				GroupElement[] groupElements = scratch.getGroupElements();
+				GroupElement V = groupElements[0];
+				GroupElement link = groupElements[1];
+				AlgebraElement[] algebraElements = scratch.getAlgebraElements();
+				AlgebraElement field = algebraElements[0];
+				AlgebraElement buffer = algebraElements[1];
 				for (int k = 0; k < grid.getNumberOfDimensions(); k++) {
-					V = grid.getE(index, k).mult(-at).getLink();
-					V.multAssign(grid.getU(index, k));
+					field.set(grid.getE(index, k, buffer));
+					field.multAssign(-at);
+					field.getLinkInto(V);
+					V.multAssign(grid.getU(index, k, link));
 					grid.setUnext(index, k, V);
 
 				}
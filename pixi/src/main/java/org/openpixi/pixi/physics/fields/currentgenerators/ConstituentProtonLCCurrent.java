@@ -12,7 +12,7 @@ import java.util.Random;
 /**
  * A simple current generator for point-like charges based on ParticleLCCurrent.
  */
-public class ConstituentProtonLCCurrent implements ICurrentGenerator {
+public class ConstituentProtonLCCurrent implements IParticleCurrentGenerator {
 
 	/**
 	 * Direction of movement of the charge density. Values range from 0 to numberOfDimensions-1.
@@ -180,13 +180,7 @@ public class ConstituentProtonLCCurrent implements ICurrentGenerator {
 			transversalWidths[k] /= norm;
 		}
 
-		for (int k = 0; k < totalTransversalCells; k++) {
-			AlgebraElement chargeAmplitude = s.grid.getElementFactory().algebraZero(s.getNumberOfColors());
-			for (int j = 0; j < numberOfComponents; j++) {
-				chargeAmplitude.set(j, rand.nextGaussian()*transversalWidths[k]*colorStrengthFactor / Math.pow(as, s.getNumberOfDimensions() - 1));
-			}
-			transversalChargeDensity[k].addAssign(chargeAmplitude);
-		}
+		SphericalProtonLCCurrent.addRandomCharges(s, transversalChargeDensity, transversalWidths, colorStrengthFactor, Math.pow(as, s.getNumberOfDimensions() - 1), rand);
 
 		if(useMonopoleRemoval) {
 			removeMonopoleMoment(s);
@@ -237,13 +231,7 @@ public class ConstituentProtonLCCurrent implements ICurrentGenerator {
 			transversalWidths[k] /= norm;
 		}
 
-		for (int k = 0; k < totalTransversalCells; k++) {
-			AlgebraElement chargeAmplitude = s.grid.getElementFactory().algebraZero(s.getNumberOfColors());
-			for (int j = 0; j < numberOfComponents; j++) {
-				chargeAmplitude.set(j, rand.nextGaussian()*transversalWidths[k]*colorStrengthFactor / Math.pow(as, s.getNumberOfDimensions() - 1));
-			}
-			transversalChargeDensity[k].addAssign(chargeAmplitude);
-		}
+		SphericalProtonLCCurrent.addRandomCharges(s, transversalChargeDensity, transversalWidths, colorStrengthFactor, Math.pow(as, s.getNumberOfDimensions() - 1), rand);
 
 		if(useMonopoleRemoval) {
 			removeMonopoleMoment(s);
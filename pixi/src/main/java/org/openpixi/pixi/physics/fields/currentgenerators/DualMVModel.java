@@ -1,20 +1,22 @@
 package org.openpixi.pixi.physics.fields.currentgenerators;
 
+import org.openpixi.pixi.diagnostics.ArrayEncoding;
 import org.openpixi.pixi.diagnostics.FileFunctions;
+import org.openpixi.pixi.diagnostics.OutputWriter;
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.GroupElement;
-import org.openpixi.pixi.math.SU2AlgebraElement;
-import org.openpixi.pixi.math.SU2GroupElement;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.fields.NewLCPoissonSolver;
+import org.openpixi.pixi.physics.initial.CGC.BoostInvariantMVModel;
 import org.openpixi.pixi.physics.util.GridFunctions;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.text.DecimalFormat;
 
-public class DualMVModel implements ICurrentGenerator {
+public class DualMVModel implements IParticleCurrentGenerator {
 
 	/**
 	 * Direction of movement of the charge density. Values range from 0 to numberOfDimensions-1.
@@ -60,6 +62,7 @@ public class DualMVModel implements ICurrentGenerator {
 	 */
 	private String outputFile;
 	private boolean createInitialConditionsOutput;
+	private ArrayEncoding outputEncoding = new ArrayEncoding();
 
 	/**
 	 * Option whether to use the \mu^2 (true) or the g^2 \mu^2 (false) normalization for the Gaussian
@@ -92,6 +95,15 @@ public class DualMVModel implements ICurrentGenerator {
 		this.useAlternativeNormalization = useAlternativeNormalization;
 	}
 
+	/**
+	 * Sets the encoding of the initial condition output. By default the fields are written as text.
+	 *
+	 * @param outputEncoding    encoding of the fields
+	 */
+	public void setOutputEncoding(ArrayEncoding outputEncoding) {
+		this.outputEncoding = outputEncoding;
+	}
+
 	public void initializeCurrent(Simulation s, int totalInstances) {
 
 		mv1 = new MVModel(direction, 1, location, longitudinalWidth, mu, useSeed, seed1,
@@ -113,64 +125,39 @@ public class DualMVModel implements ICurrentGenerator {
 			int transverseNumberOfCells = GridFunctions.getTotalNumberOfCells(transNumCells);
 			int effDimensions = GridFunctions.getEffectiveNumberOfDimensions(s.grid.getNumCells());
 
-			GroupElement zero = (SU2GroupElement) s.grid.getElementFactory().groupZero(2);
-			GroupElement identity = (SU2GroupElement) s.grid.getElementFactory().groupIdentity(2);
-
-			// Transverse links
-			SU2GroupElement[][] transverseLinks = new SU2GroupElement[effDimensions - 1][transverseNumberOfCells];
-			SU2AlgebraElement[][] transverseFields = new SU2AlgebraElement[effDimensions - 1][transverseNumberOfCells];
-
-			// Longitudinal E-Fields
-			SU2AlgebraElement[] longitudinalFields = new SU2AlgebraElement[transverseNumberOfCells];
-
 			NewLCPoissonSolver ps1 = mv1.particleLCCurrent.poissonSolver;
 			NewLCPoissonSolver ps2 = mv2.particleLCCurrent.poissonSolver;
 
-			// Compute transverse link elements
+			GroupElement[] V1 = new GroupElement[transverseNumberOfCells];
+			GroupElement[] V2 = new GroupElement[transverseNumberOfCells];
 			for (int i = 0; i < transverseNumberOfCells; i++) {
-				int ts = 0;
-				for (int j = 0; j < effDimensions; j++) {
-					if(j != direction) {
-						// Compute initial condition for transverse fields
-						int is = GridFunctions.shift(i, ts, 1, transNumCells);
-						SU2GroupElement U1 = (SU2GroupElement) ps1.getV(i).mult(ps1.getV(is).adj());
-						SU2GroupElement U2 = (SU2GroupElement) ps2.getV(i).mult(ps2.getV(is).adj());
-
-						SU2GroupElement sum = (SU2GroupElement) U1.add(U2);
-						SU2GroupElement sumInv = ((SU2GroupElement) sum.adj()).inv();
-
-						transverseLinks[ts][i] = (SU2GroupElement) sum.mult(sumInv);
-						transverseFields[ts][i] = (SU2AlgebraElement) transverseLinks[ts][i].getAlgebraElement().mult(normalizationFactor);
-						ts++;
-					}
-				}
+				V1[i] = ps1.getV(i);
+				V2[i] = ps2.getV(i);
 			}
 
-			// Compute longitudinal fields
-			for (int i = 0; i < transverseNumberOfCells; i++) {
-				SU2GroupElement temp = (SU2GroupElement) zero.copy();
-				//SU2AlgebraElement temp2 = (SU2AlgebraElement) s.grid.getElementFactory().algebraZero(2);
-
-				int ts = 0;
-				for (int j = 0; j < effDimensions; j++) {
-					if(j != direction) {
-						int is = GridFunctions.shift(i, ts, -1, transNumCells);
-						SU2GroupElement Um1 = (SU2GroupElement) transverseLinks[ts][i].adj().sub(identity);
-						SU2GroupElement diff1 = (SU2GroupElement) ps1.getU(i, ts).sub(ps2.getU(i, ts));
-						SU2GroupElement Um2 = (SU2GroupElement) transverseLinks[ts][is].adj().sub(identity);
-						SU2GroupElement diff2 = (SU2GroupElement) ps1.getU(is, ts).sub(ps2.getU(is, ts));
-						temp.addAssign(diff1.mult(Um1).sub(Um2.mult(diff2)));
-
-						ts++;
-					}
+			// Transverse links
+			GroupElement[][] transverseLinks = BoostInvariantMVModel.computeTransverseLinks(V1, V2, transNumCells);
+			AlgebraElement[][] transverseFields = new AlgebraElement[effDimensions - 1][transverseNumberOfCells];
+			for (int ts = 0; ts < effDimensions - 1; ts++) {
+				for (int i = 0; i < transverseNumberOfCells; i++) {
+					transverseFields[ts][i] = transverseLinks[ts][i].getAlgebraElement().mult(normalizationFactor);
 				}
+			}
 
-				longitudinalFields[i] = (SU2AlgebraElement) temp.proj().mult(normalizationFactor / (2.0 * g));
+			// Longitudinal E-Fields
+			AlgebraElement[] longitudinalFields = BoostInvariantMVModel.computeLongitudinalFields(V1, V2,
+					transverseLinks, transNumCells);
+			for (int i = 0; i < transverseNumberOfCells; i++) {
+				longitudinalFields[i].multAssign(normalizationFactor / (2.0 * g));
 			}
 
 			// File output ((d-1)x3 transversal gauge field components, 1x3 longitudinal electric field component)
 			FileFunctions.clearFile(outputFile);
 			File file = FileFunctions.getFile(outputFile);
+			if (!outputEncoding.isDefault()) {
+				writeBinaryOutput(s, file, transverseFields, longitudinalFields, effDimensions);
+				return;
+			}
 			try {
 				FileWriter pw = new FileWriter(file, true);
 
@@ -196,6 +183,35 @@ public class DualMVModel implements ICurrentGenerator {
 		}
 	}
 
+	/**
+	 * Writes the initial conditions as a single binary sample with the same rows as the text output, see
+	 * {@link org.openpixi.pixi.diagnostics.DumpReader#readPlanarFields(String)}.
+	 */
+	private void writeBinaryOutput(Simulation s, File file, AlgebraElement[][] transverseFields,
+								   AlgebraElement[] longitudinalFields, int effDimensions) {
+		int columns = longitudinalFields.length;
+		double[] values = new double[3 * effDimensions * columns];
+		for (int i = 0; i < effDimensions; i++) {
+			AlgebraElement[] fields = (i < effDimensions - 1) ? transverseFields[i] : longitudinalFields;
+			double[][] output = convertToDoubleArray(fields);
+			for (int c = 0; c < 3; c++) {
+				System.arraycopy(output[c], 0, values, (3 * i + c) * columns, columns);
+			}
+		}
+		ArrayEncoding.EncodedArray encoded = outputEncoding.encode(values, s.getIndexIterator());
+		try {
+			OutputWriter writer = s.getOutputWriter();
+			ByteBuffer buffer = writer.getBuffer(outputEncoding.getDumpHeaderSize() + 8 + encoded.getNumberOfBytes());
+			outputEncoding.putDumpHeader(buffer);
+			buffer.putInt(3 * effDimensions);
+			buffer.putInt(columns);
+			encoded.put(buffer);
+			writer.write(file, buffer, true);
+		} catch (IOException ex) {
+			System.out.println("DualMVModel: Error writing to file.");
+		}
+	}
+
 	public void applyCurrent(Simulation s) {
 		mv1.applyCurrent(s);
 		mv2.applyCurrent(s);
@@ -0,0 +1,10 @@
+package org.openpixi.pixi.physics.fields.currentgenerators;
+
+/**
+ * Current generator whose current is carried entirely by the particles created in
+ * {@link #initializeCurrent(org.openpixi.pixi.physics.Simulation, int)}, i.e. {@link #applyCurrent} does not add
+ * anything to the grid. The particles and fields are part of a {@link org.openpixi.pixi.physics.Checkpoint}, so such a
+ * generator is neither initialized nor applied if the simulation is restored from a checkpoint.
+ */
+public interface IParticleCurrentGenerator extends ICurrentGenerator {
+}
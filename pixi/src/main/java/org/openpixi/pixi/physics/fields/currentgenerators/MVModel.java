@@ -1,13 +1,14 @@
 package org.openpixi.pixi.physics.fields.currentgenerators;
 
 import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.ElementFactory;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.SimulationType;
 import org.openpixi.pixi.physics.util.GridFunctions;
 
 import java.util.Random;
 
-public class MVModel implements ICurrentGenerator {
+public class MVModel implements IParticleCurrentGenerator {
 
 	/**
 	 * Direction of movement of the charge density. Values range from 0 to numberOfDimensions-1.
@@ -79,40 +80,14 @@ public class MVModel implements ICurrentGenerator {
 
 	public void initializeCurrent(Simulation s, int totalInstances) {
 		int[] transversalNumCells = GridFunctions.reduceGridPos(s.grid.getNumCells(), direction);
-		int totalTransversalCells = GridFunctions.getTotalNumberOfCells(transversalNumCells);
-		int numberOfComponents = s.grid.getElementFactory().numberOfComponents;
-
 		Random rand = new Random();
 		if(useSeed) {
 			rand.setSeed(seed);
 		}
 
-		// Initialize transversal charge density with random charges from a Gaussian distribution with zero mean and width \mu.
-		AlgebraElement[] transversalChargeDensity = new AlgebraElement[totalTransversalCells];
-		AlgebraElement totalCharge = s.grid.getElementFactory().algebraZero();
-
-		double gaussianWidth;
-		if(useAlternativeNormalization) {
-			gaussianWidth = mu / s.grid.getLatticeSpacing();
-		} else {
-			gaussianWidth = mu * s.getCouplingConstant() / s.grid.getLatticeSpacing();
-		}
-
-		for (int i = 0; i < totalTransversalCells; i++) {
-			AlgebraElement charge = s.grid.getElementFactory().algebraZero();
-			for (int c = 0; c < numberOfComponents; c++) {
-				double value = rand.nextGaussian() * gaussianWidth;
-				charge.set(c, value);
-			}
-			totalCharge.addAssign(charge);
-			transversalChargeDensity[i] = charge;
-		}
-
-		// Remove monopole moment.
-		totalCharge.multAssign(- 1.0 / totalTransversalCells);
-		for (int i = 0; i < totalTransversalCells; i++) {
-			transversalChargeDensity[i].addAssign(totalCharge);
-		}
+		AlgebraElement[] transversalChargeDensity = createTransversalChargeDensity(s.grid.getElementFactory(),
+				transversalNumCells, mu, s.getCouplingConstant(), s.grid.getLatticeSpacing(),
+				useAlternativeNormalization, rand);
 
 		// Initialize particle light-cone current
 		double L = s.grid.getNumCells(direction) * s.grid.getLatticeSpacing();
@@ -142,4 +117,51 @@ public class MVModel implements ICurrentGenerator {
 		particleLCCurrent.applyCurrent(s);
 	}
 
+	/**
+	 * Samples a transversal MV model charge density with random charges from a Gaussian distribution with zero mean.
+	 * The monopole moment of the charge density is removed.
+	 *
+	 * @param factory                       element factory of the gauge group
+	 * @param transversalNumCells           size of the transversal lattice
+	 * @param mu                            \mu parameter of the MV model
+	 * @param g                             gauge coupling
+	 * @param as                            transversal lattice spacing
+	 * @param useAlternativeNormalization   use the \mu^2 (true) or the g^2 \mu^2 (false) normalization
+	 * @param rand                          random number generator
+	 * @return                              transversal charge density
+	 */
+	public static AlgebraElement[] createTransversalChargeDensity(ElementFactory factory, int[] transversalNumCells,
+			double mu, double g, double as, boolean useAlternativeNormalization, Random rand) {
+		int totalTransversalCells = GridFunctions.getTotalNumberOfCells(transversalNumCells);
+		int numberOfComponents = factory.numberOfComponents;
+
+		// Initialize transversal charge density with random charges from a Gaussian distribution with zero mean and width \mu.
+		AlgebraElement[] transversalChargeDensity = new AlgebraElement[totalTransversalCells];
+		AlgebraElement totalCharge = factory.algebraZero();
+
+		double gaussianWidth;
+		if(useAlternativeNormalization) {
+			gaussianWidth = mu / as;
+		} else {
+			gaussianWidth = mu * g / as;
+		}
+
+		for (int i = 0; i < totalTransversalCells; i++) {
+			AlgebraElement charge = factory.algebraZero();
+			for (int c = 0; c < numberOfComponents; c++) {
+				double value = rand.nextGaussian() * gaussianWidth;
+				charge.set(c, value);
+			}
+			totalCharge.addAssign(charge);
+			transversalChargeDensity[i] = charge;
+		}
+
+		// Remove monopole moment.
+		totalCharge.multAssign(- 1.0 / totalTransversalCells);
+		for (int i = 0; i < totalTransversalCells; i++) {
+			transversalChargeDensity[i].addAssign(totalCharge);
+		}
+		return transversalChargeDensity;
+	}
+
 }
@@ -12,7 +12,7 @@ import java.util.Random;
 /**
  * A simple current generator for point-like charges based on ParticleLCCurrent.
  */
-public class NucleusLCCurrent implements ICurrentGenerator {
+public class NucleusLCCurrent implements IParticleCurrentGenerator {
 
 	/**
 	 * Direction of movement of the charge density. Values range from 0 to numberOfDimensions-1.
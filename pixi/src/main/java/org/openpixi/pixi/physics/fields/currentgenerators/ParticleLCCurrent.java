@@ -2,8 +2,11 @@ package org.openpixi.pixi.physics.fields.currentgenerators;
 
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.parallel.cellaccess.CellAction;
+import org.openpixi.pixi.parallel.cellaccess.CellIterator;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.fields.NewLCPoissonSolver;
+import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.physics.particles.CGCParticle;
 import org.openpixi.pixi.physics.util.GridFunctions;
 
@@ -13,7 +16,7 @@ import java.util.ArrayList;
  * This current generator uses particles on fixed trajectories to correctly interpolate the charge and current density
  * on the grid according to CGC initial conditions.
  */
-public class ParticleLCCurrent implements ICurrentGenerator {
+public class ParticleLCCurrent implements IParticleCurrentGenerator {
 
 	/**
 	 * Direction of movement of the charge density. Values range from 0 to numberOfDimensions-1.
@@ -75,6 +78,11 @@ public class ParticleLCCurrent implements ICurrentGenerator {
 	 */
 	protected int particlesPerCell = 1;
 
+	/**
+	 * Number of cells which are sampled by one task in {@link #createParticles(Simulation, int, int, double)}.
+	 */
+	private static final int SEEDING_BLOCK_SIZE = 1024;
+
 	/**
 	 * Low pass filter for the Poisson solver
 	 */
@@ -165,69 +173,162 @@ public class ParticleLCCurrent implements ICurrentGenerator {
 	 * @param particlesPerLink
 	 */
 	protected void initializeParticles(Simulation s, int particlesPerLink) {
+		s.particles.addAll(createParticles(s, particlesPerLink, 0, getMinimumChargeSquared(s, -1.0)));
+	}
 
-		// Traverse through charge density and add particles by sampling the charge distribution
-		double t0 = 0.0;	// Particles should be initialized at t = 0 and t = dt.
-		double FIX_ROUND_ERRORS = 10E-12 * as;
-		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
-			for (int j = 0; j < particlesPerLink; j++) {
-				double x = (1.0 * j) / (particlesPerLink);
-				int[] gridPos = s.grid.getCellPos(i);
-				double dz = x * as;
-
-				// Particle position
-				double[] particlePosition0 = new double[gridPos.length];
-				double[] particlePosition1 = new double[gridPos.length];
-				for (int k = 0; k < gridPos.length; k++) {
-					particlePosition0[k] = gridPos[k] * as + FIX_ROUND_ERRORS;
-					particlePosition1[k] = gridPos[k] * as + FIX_ROUND_ERRORS;
-					if(k == direction) {
-						particlePosition0[k] += t0 * orientation + dz;
-						particlePosition1[k] += (t0 + at) * orientation + dz;
-					}
-				}
-
+	/**
+	 * Returns the lower bound for the squared charge of a particle which is created by
+	 * {@link #createParticles(Simulation, int, int, double)}. If sparse particle seeding is enabled
+	 * ({@link Simulation#useSparseParticleSeeding()}), particles whose charge magnitude does not exceed the particle
+	 * charge threshold are skipped.
+	 *
+	 * @param s
+	 * @param defaultValue  lower bound which is used without sparse seeding
+	 * @return              lower bound for the squared charge
+	 */
+	protected double getMinimumChargeSquared(Simulation s, double defaultValue) {
+		if (s.useSparseParticleSeeding()) {
+			double threshold = s.getParticleChargeThreshold();
+			return Math.max(threshold * threshold, defaultValue);
+		}
+		return defaultValue;
+	}
 
-				AlgebraElement charge = interpolateChargeFromGrid(s, particlePosition0).mult(1.0 / particlesPerLink);
+	/**
+	 * Samples the particles of all cells from the Gauss constraint. The cells are split into blocks of
+	 * {@link #SEEDING_BLOCK_SIZE} consecutive cells which are processed in parallel by a copy of the cell iterator of
+	 * the grid. The charge of every particle is computed before the particle is created, so particles whose squared
+	 * charge does not exceed minimumChargeSquared are never allocated. The particles are returned cell by cell (and
+	 * in the order of their longitudinal offsets within a cell), so the order does not depend on the number of
+	 * threads.
+	 *
+	 * @param s
+	 * @param particlesPerLink      number of particles per cell
+	 * @param firstParticleShift    longitudinal shift of the particles in units of as / particlesPerLink
+	 * @param minimumChargeSquared  lower bound for the squared charge of a particle (negative to create all particles)
+	 * @return                      list of particles
+	 */
+	protected ArrayList<CGCParticle> createParticles(final Simulation s, final int particlesPerLink,
+	                                                 final int firstParticleShift, final double minimumChargeSquared) {
+		final int numberOfCells = s.grid.getTotalNumberOfCells();
+		int numberOfBlocks = (numberOfCells + SEEDING_BLOCK_SIZE - 1) / SEEDING_BLOCK_SIZE;
+		final ArrayList<ArrayList<CGCParticle>> blocks = new ArrayList<ArrayList<CGCParticle>>(numberOfBlocks);
+		for (int block = 0; block < numberOfBlocks; block++) {
+			blocks.add(null);
+		}
 
-				// Particle velocity
-				double[] particleVelocity = new double[gridPos.length];
-				for (int k = 0; k < gridPos.length; k++) {
-					if(k == direction) {
-						particleVelocity[k] = 1.0 * orientation;
-					} else {
-						particleVelocity[k] = 0.0;
+		CellIterator blockIterator = s.grid.getCellIterator().copy();
+		blockIterator.setNormalMode(new int[]{numberOfBlocks});
+		blockIterator.execute(s.grid, new CellAction() {
+			public void execute(Grid grid, int block) {
+				ArrayList<CGCParticle> particles = new ArrayList<CGCParticle>();
+				double[] position = new double[s.getNumberOfDimensions()];
+				AlgebraElement charge = grid.getElementFactory().algebraZero();
+				AlgebraElement temp = grid.getElementFactory().algebraZero();
+				int end = Math.min((block + 1) * SEEDING_BLOCK_SIZE, numberOfCells);
+				for (int index = block * SEEDING_BLOCK_SIZE; index < end; index++) {
+					for (int j = 0; j < particlesPerLink; j++) {
+						double x = (1.0 * j - firstParticleShift) / (particlesPerLink);
+						getParticlePosition(s, index, x * as, 0.0, position);
+						interpolateChargeFromGrid(s, position, charge, temp);
+						charge.multAssign(1.0 / particlesPerLink);
+						if (charge.square() > minimumChargeSquared) {
+							particles.add(createParticle(s, index, x * as, charge));
+						}
 					}
 				}
+				blocks.set(block, particles);
+			}
+		});
 
-				CGCParticle p = new CGCParticle(s.getNumberOfDimensions(), s.getNumberOfColors(), direction);
-				p.pos0 = particlePosition0; // position at t = 0
-				p.pos1 = particlePosition1; // position at t = dt (optional)
-				p.vel = particleVelocity;   // particle velocity at t = -dt/2.
-				p.Q0 = charge;              // charge at t = 0
-				p.Q1 = charge.copy();       // charge at t = dt, assume that there is no parallel transport initially (also optional).
+		ArrayList<CGCParticle> particles = new ArrayList<CGCParticle>();
+		for (ArrayList<CGCParticle> block : blocks) {
+			particles.addAll(block);
+		}
+		return particles;
+	}
 
-				s.particles.add(p);
+	/**
+	 * Computes the position of a particle in a cell at time t0 = 0 (or t0 = dt).
+	 *
+	 * @param s
+	 * @param index     cell index
+	 * @param dz        longitudinal offset of the particle within the cell
+	 * @param t0        time of the position
+	 * @param result    array which is overwritten with the position
+	 */
+	protected void getParticlePosition(Simulation s, int index, double dz, double t0, double[] result) {
+		double FIX_ROUND_ERRORS = 10E-12 * as;
+		int[] gridPos = s.grid.getCellPos(index);
+		for (int k = 0; k < gridPos.length; k++) {
+			result[k] = gridPos[k] * as + FIX_ROUND_ERRORS;
+			if(k == direction) {
+				result[k] += t0 * orientation + dz;
 			}
 		}
 	}
 
-	protected AlgebraElement interpolateChargeFromGrid(Simulation s, double[] particlePosition) {
+	/**
+	 * Creates a particle in a cell.
+	 *
+	 * @param s
+	 * @param index             cell index
+	 * @param dz                longitudinal offset of the particle within the cell
+	 * @param charge            charge of the particle (copied)
+	 * @return                  new particle
+	 */
+	protected CGCParticle createParticle(Simulation s, int index, double dz, AlgebraElement charge) {
+		double t0 = 0.0;	// Particles should be initialized at t = 0 and t = dt.
+		int numberOfDimensions = s.getNumberOfDimensions();
+
+		// Particle position
+		double[] particlePosition0 = new double[numberOfDimensions];
+		double[] particlePosition1 = new double[numberOfDimensions];
+		getParticlePosition(s, index, dz, t0, particlePosition0);
+		getParticlePosition(s, index, dz, t0 + at, particlePosition1);
+
+		// Particle velocity
+		double[] particleVelocity = new double[numberOfDimensions];
+		for (int k = 0; k < numberOfDimensions; k++) {
+			if(k == direction) {
+				particleVelocity[k] = 1.0 * orientation;
+			} else {
+				particleVelocity[k] = 0.0;
+			}
+		}
+
+		CGCParticle p = new CGCParticle(numberOfDimensions, s.getNumberOfColors(), direction);
+		p.pos0 = particlePosition0; // position at t = 0
+		p.pos1 = particlePosition1; // position at t = dt (optional)
+		p.vel = particleVelocity;   // particle velocity at t = -dt/2.
+		p.Q0 = charge.copy();       // charge at t = 0
+		p.Q1 = charge.copy();       // charge at t = dt, assume that there is no parallel transport initially (also optional).
+		return p;
+	}
+
+	/**
+	 * Interpolates the charge at a particle position from the Gauss constraint.
+	 *
+	 * @param s
+	 * @param particlePosition  position of the particle
+	 * @param result            algebra element which is overwritten with the charge
+	 * @param temp              temporary algebra element
+	 */
+	protected void interpolateChargeFromGrid(Simulation s, double[] particlePosition, AlgebraElement result,
+	                                         AlgebraElement temp) {
 		int[] flooredGridPos = GridFunctions.flooredGridPoint(particlePosition, as);
 		int index = s.grid.getCellIndex(flooredGridPos);
 		int shiftedIndex = s.grid.shift(index, direction, 1);
-		AlgebraElement charge1 = poissonSolver.getGaussConstraint(index);
-		AlgebraElement charge2 = poissonSolver.getGaussConstraint(shiftedIndex);
 
 		double x = particlePosition[direction] / as - flooredGridPos[direction];
 
-		charge1 = charge1.mult(1.0 - x);
-		charge2 = charge2.mult(x);
+		result.set(poissonSolver.getGaussConstraint(index));
+		result.multAssign(1.0 - x);
+		temp.set(poissonSolver.getGaussConstraint(shiftedIndex));
+		temp.multAssign(x);
 
 		// Parallel transport is not needed because we assume that initial conditions are purely transversal fields.
 
-		charge1.addAssign(charge2);
-
-		return charge1;
+		result.addAssign(temp);
 	}
 }
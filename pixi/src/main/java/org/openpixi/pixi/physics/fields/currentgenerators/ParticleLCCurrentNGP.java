@@ -3,7 +3,6 @@ package org.openpixi.pixi.physics.fields.currentgenerators;
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.particles.CGCParticle;
-import org.openpixi.pixi.physics.particles.IParticle;
 import org.openpixi.pixi.physics.util.GridFunctions;
 
 import java.util.ArrayList;
@@ -32,55 +31,16 @@ public class ParticleLCCurrentNGP extends ParticleLCCurrent {
 		for (int i = 0; i < totalTransversalCells; i++) {
 			longitudinalParticleList.add(new ArrayList<CGCParticle>());
 		}
-		// Traverse through charge density and add particles by sampling the charge distribution
-		double t0 = 0.0;	// Particles should be initialized at t = 0 and t = dt.
-		double FIX_ROUND_ERRORS = 10E-12 * as;
-		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
-			for (int j = 0; j < particlesPerCell; j++) {
-				double x = (1.0 * j - particlesPerLink/2) / (particlesPerLink);
-				int[] gridPos = s.grid.getCellPos(i);
-				double dz = x * as;
-
-				// Particle position
-				double[] particlePosition0 = new double[gridPos.length];
-				double[] particlePosition1 = new double[gridPos.length];
-				for (int k = 0; k < gridPos.length; k++) {
-					particlePosition0[k] = gridPos[k] * as + FIX_ROUND_ERRORS;
-					particlePosition1[k] = gridPos[k] * as + FIX_ROUND_ERRORS;
-					if(k == direction) {
-						particlePosition0[k] += t0 * orientation + dz;
-						particlePosition1[k] += (t0 + at) * orientation + dz;
-					}
-				}
-
-
-				AlgebraElement charge = this.interpolateChargeFromGrid(s, particlePosition0).mult(1.0 / particlesPerLink);
-
-				// Particle velocity
-				double[] particleVelocity = new double[gridPos.length];
-				for (int k = 0; k < gridPos.length; k++) {
-					if(k == direction) {
-						particleVelocity[k] = 1.0 * orientation;
-					} else {
-						particleVelocity[k] = 0.0;
-					}
-				}
-
-				CGCParticle p = new CGCParticle(s.getNumberOfDimensions(), s.getNumberOfColors(), direction);
-				p.pos0 = particlePosition0; // position at t = 0
-				p.pos1 = particlePosition1; // position at t = dt (optional)
-				p.vel = particleVelocity;   // particle velocity at t = -dt/2.
-				p.Q0 = charge;              // charge at t = 0
-				p.Q1 = charge.copy();       // charge at t = dt, assume that there is no parallel transport initially (also optional).
-
-				if(charge.square() > cutoffCharge) {
-					s.particles.add(p);
-
-					// Add to extra particle array for charge refinement.
-					int transversalIndex = GridFunctions.getCellIndex(GridFunctions.reduceGridPos(gridPos, direction), transversalNumCells);
-					longitudinalParticleList.get(transversalIndex).add(p);
-				}
-			}
+		// Sample the charge distribution and add particles whose charge is above the cutoff.
+		ArrayList<CGCParticle> particles = createParticles(s, particlesPerLink, particlesPerLink / 2,
+				getMinimumChargeSquared(s, cutoffCharge));
+		for (CGCParticle p : particles) {
+			s.particles.add(p);
+
+			// Add to extra particle array for charge refinement.
+			int[] gridPos = GridFunctions.flooredGridPoint(p.pos0, as);
+			int transversalIndex = GridFunctions.getCellIndex(GridFunctions.reduceGridPos(gridPos, direction), transversalNumCells);
+			longitudinalParticleList.get(transversalIndex).add(p);
 		}
 
 		// Charge refinement
@@ -103,9 +63,10 @@ public class ParticleLCCurrentNGP extends ParticleLCCurrent {
 		}
 
 		// Make sure particle charges Q0 and Q1 are the same.
-		for(IParticle p : s.particles) {
-			CGCParticle P = (CGCParticle) p;
-			P.Q1 = P.Q0.copy();
+		for (ArrayList<CGCParticle> particleList : longitudinalParticleList) {
+			for (CGCParticle P : particleList) {
+				P.Q1 = P.Q0.copy();
+			}
 		}
 
 	}
@@ -176,9 +137,10 @@ public class ParticleLCCurrentNGP extends ParticleLCCurrent {
 	}
 
 	@Override
-	protected AlgebraElement interpolateChargeFromGrid(Simulation s, double[] particlePosition) {
+	protected void interpolateChargeFromGrid(Simulation s, double[] particlePosition, AlgebraElement result,
+	                                         AlgebraElement temp) {
 		int[] ngp = GridFunctions.nearestGridPoint(particlePosition, as);
-		return poissonSolver.getGaussConstraint(s.grid.getCellIndex(ngp)).copy();
+		result.set(poissonSolver.getGaussConstraint(s.grid.getCellIndex(ngp)));
 	}
 
 
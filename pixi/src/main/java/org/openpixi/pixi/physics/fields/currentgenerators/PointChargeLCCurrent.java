@@ -10,7 +10,7 @@ import java.util.ArrayList;
 /**
  * A simple current generator for point-like charges based on ParticleLCCurrent.
  */
-public class PointChargeLCCurrent implements ICurrentGenerator {
+public class PointChargeLCCurrent implements IParticleCurrentGenerator {
 
 	/**
 	 * Direction of movement of the charge density. Values range from 0 to numberOfDimensions-1.
@@ -2,9 +2,11 @@ package org.openpixi.pixi.physics.fields.currentgenerators;
 
 import org.apache.commons.math3.analysis.function.Gaussian;
 import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.parallel.indexaccess.IndexAction;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.SimulationType;
 import org.openpixi.pixi.physics.util.GridFunctions;
+import org.openpixi.pixi.physics.util.RandomStreams;
 
 import java.util.ArrayList;
 import java.util.Random;
@@ -12,7 +14,7 @@ import java.util.Random;
 /**
  * A simple current generator for point-like charges based on ParticleLCCurrent.
  */
-public class SphericalProtonLCCurrent implements ICurrentGenerator {
+public class SphericalProtonLCCurrent implements IParticleCurrentGenerator {
 
 	/**
 	 * Direction of movement of the charge density. Values range from 0 to numberOfDimensions-1.
@@ -174,13 +176,7 @@ public class SphericalProtonLCCurrent implements ICurrentGenerator {
 			transversalWidths[k] /= norm;
 		}
 
-		for (int k = 0; k < totalTransversalCells; k++) {
-			AlgebraElement chargeAmplitude = s.grid.getElementFactory().algebraZero(s.getNumberOfColors());
-			for (int j = 0; j < numberOfComponents; j++) {
-				chargeAmplitude.set(j, rand.nextGaussian()*transversalWidths[k]*colorStrengthFactor / Math.pow(as, s.getNumberOfDimensions() - 1));
-			}
-			transversalChargeDensity[k].addAssign(chargeAmplitude);
-		}
+		SphericalProtonLCCurrent.addRandomCharges(s, transversalChargeDensity, transversalWidths, colorStrengthFactor, Math.pow(as, s.getNumberOfDimensions() - 1), rand);
 
 		if(useMonopoleRemoval) {
 			removeMonopoleMoment(s);
@@ -231,13 +227,7 @@ public class SphericalProtonLCCurrent implements ICurrentGenerator {
 			transversalWidths[k] /= norm;
 		}
 
-		for (int k = 0; k < totalTransversalCells; k++) {
-			AlgebraElement chargeAmplitude = s.grid.getElementFactory().algebraZero(s.getNumberOfColors());
-			for (int j = 0; j < numberOfComponents; j++) {
-				chargeAmplitude.set(j, rand.nextGaussian()*transversalWidths[k]*colorStrengthFactor / Math.pow(as, s.getNumberOfDimensions() - 1));
-			}
-			transversalChargeDensity[k].addAssign(chargeAmplitude);
-		}
+		SphericalProtonLCCurrent.addRandomCharges(s, transversalChargeDensity, transversalWidths, colorStrengthFactor, Math.pow(as, s.getNumberOfDimensions() - 1), rand);
 
 		if(useMonopoleRemoval) {
 			removeMonopoleMoment(s);
@@ -259,6 +249,57 @@ public class SphericalProtonLCCurrent implements ICurrentGenerator {
 		particleLCCurrent.applyCurrent(s);
 	}
 
+	/**
+	 * Adds Gaussian random color charges to a transversal charge density. The charge of every component in cell k has
+	 * the width widths[k] * colorStrengthFactor / divisor.
+	 * <br>
+	 * If {@link Simulation#useParallelRandomStreams()} is set, the charges are sampled in parallel from random streams
+	 * for every color component and block of cells. The seed of these streams is drawn from the random generator, so
+	 * the results are reproducible for a given seed of the generator. Otherwise all charges are drawn sequentially
+	 * from the random generator.
+	 *
+	 * @param s                     simulation
+	 * @param chargeDensity         transversal charge density to which the charges are added
+	 * @param widths                transversal profile of the widths
+	 * @param colorStrengthFactor   factor of the widths
+	 * @param divisor               divisor of the widths
+	 * @param rand                  random generator
+	 */
+	static void addRandomCharges(final Simulation s, final AlgebraElement[] chargeDensity, final double[] widths,
+	                             final double colorStrengthFactor, final double divisor, Random rand) {
+		final int numberOfComponents = s.grid.getElementFactory().numberOfComponents;
+		final int totalTransversalCells = chargeDensity.length;
+
+		if (!s.useParallelRandomStreams()) {
+			for (int k = 0; k < totalTransversalCells; k++) {
+				AlgebraElement chargeAmplitude = s.grid.getElementFactory().algebraZero(s.getNumberOfColors());
+				for (int j = 0; j < numberOfComponents; j++) {
+					chargeAmplitude.set(j, rand.nextGaussian()*widths[k]*colorStrengthFactor / divisor);
+				}
+				chargeDensity[k].addAssign(chargeAmplitude);
+			}
+			return;
+		}
+
+		final RandomStreams streams = new RandomStreams(rand.nextLong());
+		s.getIndexIterator().execute(RandomStreams.getNumberOfBlocks(totalTransversalCells), new IndexAction() {
+			public void execute(int block) {
+				RandomStreams.Stream[] componentStreams = new RandomStreams.Stream[numberOfComponents];
+				for (int j = 0; j < numberOfComponents; j++) {
+					componentStreams[j] = streams.getStream(j, block);
+				}
+				int end = RandomStreams.getBlockEnd(block, totalTransversalCells);
+				for (int k = RandomStreams.getBlockStart(block); k < end; k++) {
+					AlgebraElement chargeAmplitude = s.grid.getElementFactory().algebraZero(s.getNumberOfColors());
+					for (int j = 0; j < numberOfComponents; j++) {
+						chargeAmplitude.set(j, componentStreams[j].nextGaussian()*widths[k]*colorStrengthFactor / divisor);
+					}
+					chargeDensity[k].addAssign(chargeAmplitude);
+				}
+			}
+		});
+	}
+
 	/**
 	 * Removes the monopole moment by subtracting a constant charge at each lattice site of the transversal charge density.
 	 * This is not a good way to do this, so make sure the initial conditions are colorless at initialization.
@@ -4,21 +4,38 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.openpixi.pixi.math.AlgebraElement;
-import org.openpixi.pixi.math.ElementFactory;
-import org.openpixi.pixi.math.SU2AlgebraElement;
+import org.openpixi.pixi.math.ScratchElements;
 import org.openpixi.pixi.parallel.cellaccess.CellAction;
+import org.openpixi.pixi.parallel.cellaccess.CellIterator;
+import org.openpixi.pixi.parallel.cellaccess.ReductionCellAction;
 import org.openpixi.pixi.physics.grid.Grid;
 
 /**
  * Appy the Coulomb gauge transformation to a grid.
+ * The gauge is fixed by a Fourier accelerated steepest descent. The step size is either constant or adapted to the
+ * change of the divergence.
  */
 public class CoulombGauge extends GaugeTransformation {
 
 	CalculateDivergence calculateDivergence = new CalculateDivergence();
 	InverseLaplaceOperator inverseLaplaceOperator = new InverseLaplaceOperator();
+	UpdateGaugeTransformation updateGaugeTransformation = new UpdateGaugeTransformation();
 
-	private double[] fftArray;
-	private DoubleFFTWrapper fft;
+	/**
+	 * Divergence of every color component, which is replaced by the solution of Poisson's equation.
+	 */
+	private double[][] fftArray;
+	private double[][] spectrum;
+
+	/**
+	 * Inverse lattice Laplace operator in momentum space. The kernel is stored for the modes of the half spectrum of
+	 * {@link DoubleFFTWrapper#realForward(double[], double[])} and computed once per instance, so that repeated gauge
+	 * fixings with the same instance do not recompute it.
+	 */
+	private double[] inverseLaplaceKernel;
+	private int[] numCells;
+	private CellIterator colorIterator;
+	private ScratchElements scratch;
 
 	/**
 	 * Maximum number of interations.
@@ -30,35 +47,136 @@ public class CoulombGauge extends GaugeTransformation {
 	 */
 	private double accuracyGoal = 1e-18;
 
+	/**
+	 * Adapt the step size of the Fourier accelerated steepest descent to the change of the divergence.
+	 */
+	private boolean adaptiveStepSize = false;
+
+	/**
+	 * Step size alpha of the steepest descent, which is the starting value if the step size is adaptive.
+	 */
+	private double initialStepSize = 1.0;
+
+	/**
+	 * Current step size alpha of the steepest descent.
+	 */
+	private double stepSize = 1.0;
+
+	/**
+	 * Bounds and growth factor of the adaptive step size.
+	 */
+	private static final double MIN_STEP_SIZE = 0.1;
+	private static final double MAX_STEP_SIZE = 1.9;
+	private static final double STEP_SIZE_INCREASE = 1.1;
+	private static final double STEP_SIZE_DECREASE = 0.5;
+
 	/**
 	 * Remember a list of divergence.
 	 */
-	private List<Double> lastConvergence = null;
+	private List<Double> lastConvergence = new ArrayList<Double>();
+
+	/**
+	 * Wall time of the last gauge fixing in milliseconds.
+	 */
+	private long lastWallTime;
 
 	public double getAccuracyGoal() {
 		return accuracyGoal;
 	}
 
+	public void setAccuracyGoal(double accuracyGoal) {
+		this.accuracyGoal = accuracyGoal;
+	}
+
+	public int getMaxIteration() {
+		return maxIteration;
+	}
+
+	public void setMaxIteration(int maxIteration) {
+		this.maxIteration = maxIteration;
+	}
+
+	public boolean isAdaptiveStepSize() {
+		return adaptiveStepSize;
+	}
+
+	/**
+	 * Enables the adaptive step size alpha. The step size grows while the divergence decreases and is reduced as soon
+	 * as the divergence increases.
+	 * @param adaptiveStepSize true to adapt the step size
+	 */
+	public void setAdaptiveStepSize(boolean adaptiveStepSize) {
+		this.adaptiveStepSize = adaptiveStepSize;
+	}
+
+	public double getInitialStepSize() {
+		return initialStepSize;
+	}
+
+	/**
+	 * Sets the step size alpha of the gauge transformation g = exp(-alpha psi). Without adaptive step size alpha is
+	 * kept constant, alpha = 1 is the standard Fourier accelerated steepest descent.
+	 * @param initialStepSize step size alpha of the first iteration
+	 */
+	public void setInitialStepSize(double initialStepSize) {
+		this.initialStepSize = initialStepSize;
+	}
+
 	public Double[] getLastConvergence() {
 		return lastConvergence.toArray(new Double[0]);
 	}
 
+	/**
+	 * Returns the number of iterations of the last gauge fixing.
+	 */
+	public int getLastIterations() {
+		return lastConvergence.size();
+	}
+
+	/**
+	 * Returns the wall time of the last gauge fixing in milliseconds.
+	 */
+	public long getLastWallTime() {
+		return lastWallTime;
+	}
+
+	/**
+	 * Returns true if the last gauge fixing reached the accuracy goal, false if no gauge fixing has been applied yet.
+	 */
+	public boolean isLastAccuracyGoalReached() {
+		if (lastConvergence.isEmpty()) {
+			return false;
+		}
+		return lastConvergence.get(lastConvergence.size() - 1) < accuracyGoal;
+	}
+
 	/**
 	 * Constructor. Obtain size of required grid from other grid.
 	 * @param grid Grid that should be duplicated in size.
 	 */
 	public CoulombGauge(Grid grid) {
 		super(grid);
-		fft = new DoubleFFTWrapper(grid.getNumCells());
-		fftArray = new double[fft.getFFTArraySize()];
+		numCells = grid.getNumCells().clone();
+		DoubleFFTWrapper fft = DoubleFFTWrapper.getInstance(numCells);
+		int numberOfComponents = grid.getElementFactory().numberOfComponents;
+		fftArray = new double[numberOfComponents][grid.getTotalNumberOfCells()];
+		spectrum = new double[numberOfComponents][fft.getRealFFTArraySize()];
+		inverseLaplaceKernel = getInverseLaplaceKernel(grid, fft);
+
+		// The color components are transformed in parallel by iterating over the color index.
+		colorIterator = grid.getCellIterator().copy();
+		colorIterator.setNormalMode(new int[]{numberOfComponents});
+		scratch = new ScratchElements(grid.getElementFactory(), 0, 1);
 	}
 
 	public void applyGaugeTransformation(Grid grid) {
+		long startTime = System.currentTimeMillis();
 		int iteration = 0;
 		double divergenceSquaredSum = 0;
+		stepSize = initialStepSize;
 		lastConvergence = new ArrayList<Double>(maxIteration);
 		while (iteration < maxIteration) {
-			divergenceSquaredSum = iterateCoulombGauge(grid);
+			divergenceSquaredSum = iterateCoulombGauge(grid, iteration);
 			lastConvergence.add(divergenceSquaredSum);
 			iteration++;
 			//System.out.println("Iteration " + iteration + " - Divergence U: " + divergenceSquaredSum);
@@ -70,59 +188,34 @@ public class CoulombGauge extends GaugeTransformation {
 		if (divergenceSquaredSum >= accuracyGoal) {
 			System.out.println("Warning: accuracy goal NOT reached within " + iteration + " iterations.");
 		}
+		lastWallTime = System.currentTimeMillis() - startTime;
 	}
 
 	/**
 	 * Performs a single iteration step.
+	 * @param iteration number of previous iterations
 	 * @return previous divergence
 	 */
-	private double iterateCoulombGauge(Grid grid) {
-		double divergenceSquaredSum = 0;
-
-		ElementFactory factory = grid.getElementFactory();
-		int colors = grid.getNumberOfColors();
-
-		// New AlgebraElement array to store psi values
-		AlgebraElement[] psi = new AlgebraElement[getG().length];
-		for (int i = 0; i < getG().length; i++) {
-			psi[i] = factory.algebraZero(colors);
-		}
-
-		int numberOfComponents = factory.numberOfComponents;
-		for (int color = 0; color < numberOfComponents; color++) {
-			// Calculate Divergence and put into fftArray
-			calculateDivergence.setColorAndResetSum(color);
-			grid.getCellIterator().execute(grid, calculateDivergence);
-			divergenceSquaredSum += calculateDivergence.getDivergenceSquaredSum();
-
-			// Solve Poisson's equation by applying the inverse Laplace operator
-			// for discrete lattice derivatives in Fourier space:
-			fft.complexForward(fftArray);
-			grid.getCellIterator().execute(grid, inverseLaplaceOperator);
-			fft.complexInverse(fftArray, true);
-
-			// Add result to gauge transformation
-			for (int i = 0; i < getG().length; i++) {
-				// real part:
-				int fftIndex = fft.getFFTArrayIndex(i);
-				double value = fftArray[fftIndex];
-
-				// Store values temporarily in SU2GroupElement instead of SU2AlgebraElement:
-				//getG()[i].set(color + 1, value);
-
-				psi[i].set(color, value);
+	private double iterateCoulombGauge(Grid grid, int iteration) {
+		// Calculate Divergence of all color components and put into fftArray
+		double divergenceSquaredSum = grid.getCellIterator().reduce(grid, calculateDivergence)[0];
+
+		// Adapt the step size to the change of the divergence caused by the previous step.
+		if (adaptiveStepSize && iteration > 0) {
+			double previousDivergence = lastConvergence.get(iteration - 1);
+			if (divergenceSquaredSum < previousDivergence) {
+				stepSize = Math.min(stepSize * STEP_SIZE_INCREASE, MAX_STEP_SIZE);
+			} else {
+				stepSize = Math.max(stepSize * STEP_SIZE_DECREASE, MIN_STEP_SIZE);
 			}
 		}
 
-		// Calculate g(x) = exp(i g psi^\dagger)
-		for (int i = 0; i < getG().length; i++) {
-			// psi is stored in g for convenience:
-			//SU2AlgebraElement psidagger = (SU2AlgebraElement) getG()[i].adj().proj();
+		// Solve Poisson's equation by applying the inverse Laplace operator
+		// for discrete lattice derivatives in Fourier space:
+		colorIterator.execute(grid, inverseLaplaceOperator);
 
-			// Field generators are antihermitian so multiply psi by -1 to get psidagger
-			AlgebraElement psidagger = psi[i].mult(-1);
-			getG()[i] = psidagger.getLink();
-		}
+		// Calculate g(x) = exp(i g psi^\dagger)
+		grid.getCellIterator().execute(grid, updateGaugeTransformation);
 
 		/*
 			Cycle through each cell and apply the gauge transformation
@@ -132,21 +225,49 @@ public class CoulombGauge extends GaugeTransformation {
 		return divergenceSquaredSum;
 	}
 
-	private class CalculateDivergence implements CellAction {
-		private int color;
-		private double divergenceSquaredSum;
-
-		public void setColorAndResetSum(int color) {
-			this.color = color;
-			divergenceSquaredSum = 0;
+	/**
+	 * Returns the inverse Laplace operator on the lattice for discrete derivatives for every mode of the half
+	 * spectrum.
+	 */
+	private static double[] getInverseLaplaceKernel(Grid grid, DoubleFFTWrapper fft) {
+		double[] kernel = new double[fft.getRealFFTArraySize() / 2];
+		for (int index = 0; index < grid.getTotalNumberOfCells(); index++) {
+			if (fft.isRealFFTConjugate(index)) {
+				// only half of the spectrum is stored for real data
+				continue;
+			}
+			int[] coor = grid.getCellPos(index);
+			double cosineSum = 0;
+			boolean zeroMode = true;
+			for (int i = 0; i < grid.getNumberOfDimensions(); i++) {
+				cosineSum += Math.cos(2 * Math.PI * coor[i] / grid.getNumCells(i));
+				zeroMode &= (coor[i] == 0);
+			}
+			int mode = fft.getRealFFTArrayIndex(index) / 2;
+			if (zeroMode) {
+				// zero vector component does not contribute:
+				kernel[mode] = 0;
+			} else {
+				kernel[mode] = -0.5 / (cosineSum - grid.getNumberOfDimensions());
+			}
 		}
+		return kernel;
+	}
 
-		public double getDivergenceSquaredSum() {
-			return divergenceSquaredSum;
+	/**
+	 * Writes the divergence of all color components into the FFT input arrays and sums up the squared divergence.
+	 */
+	private class CalculateDivergence implements ReductionCellAction {
+
+		public int getAccumulatorSize() {
+			return 1;
 		}
 
-		public void execute(Grid grid, int index) {
-			double divergenceU = 0;
+		public void execute(Grid grid, int index, double[] accumulator) {
+			int numberOfComponents = fftArray.length;
+			for (int color = 0; color < numberOfComponents; color++) {
+				fftArray[color][index] = 0;
+			}
 			for (int dir = 0; dir < grid.getNumberOfDimensions(); dir++) {
 				/*
 				 * U_i(x) - U_i(x-i)
@@ -154,42 +275,44 @@ public class CoulombGauge extends GaugeTransformation {
 				AlgebraElement U = grid.getU(index, dir).getAlgebraElement();
 				AlgebraElement Ushifted = grid.getU(grid.shift(index, dir, -1), dir).getAlgebraElement();
 
-				divergenceU += U.get(color) - Ushifted.get(color);
+				for (int color = 0; color < numberOfComponents; color++) {
+					fftArray[color][index] += U.get(color) - Ushifted.get(color);
+				}
 			}
-			int fftIndex = fft.getFFTArrayIndex(index);
-			fftArray[fftIndex] = divergenceU; // real part
-			fftArray[fftIndex + 1] = 0; // imaginary part
-			double divergenceUSquared = divergenceU * divergenceU;
-			synchronized(this) {
-				divergenceSquaredSum += divergenceUSquared;
+			for (int color = 0; color < numberOfComponents; color++) {
+				double divergenceU = fftArray[color][index];
+				accumulator[0] += divergenceU * divergenceU;
 			}
 		}
 	}
 
+	/**
+	 * Solves Poisson's equation for one color component, which is given by the index.
+	 */
 	private class InverseLaplaceOperator implements CellAction {
+		public void execute(Grid grid, int color) {
+			// Every thread uses its own FFT plans.
+			DoubleFFTWrapper fft = DoubleFFTWrapper.getInstance(numCells);
+			double[] colorSpectrum = spectrum[color];
+			fft.realForward(fftArray[color], colorSpectrum);
+			for (int mode = 0; mode < inverseLaplaceKernel.length; mode++) {
+				colorSpectrum[2 * mode] *= inverseLaplaceKernel[mode]; // real part
+				colorSpectrum[2 * mode + 1] *= inverseLaplaceKernel[mode]; // imaginary part
+			}
+			fft.realInverse(colorSpectrum, fftArray[color], true);
+		}
+	}
+
+	private class UpdateGaugeTransformation implements CellAction {
 		public void execute(Grid grid, int index) {
-			int[] coor = grid.getCellPos(index);
-			int kx = coor[0];
-			int ky = coor[1];
-			int kz = coor[2];
-			if (kx == 0 && ky == 0 && kz == 0) {
-				// zero vector component does not contribute:
-				fftArray[0] = 0; // real part
-				fftArray[1] = 0; // imaginary part
-			} else {
-				// Calculate inverse Laplace operator on the lattice for discrete derivatives:
-				double Nx = grid.getNumCells(0);
-				double Ny = grid.getNumCells(1);
-				double Nz = grid.getNumCells(2);
-
-				double inverseLaplace = -0.5 / ((Math.cos(2 * Math.PI * kx / Nx)
-						+ Math.cos(2 * Math.PI * ky / Ny)
-						+ Math.cos(2 * Math.PI * kz / Nz) - 3.));
-
-				int fftIndex = fft.getFFTArrayIndex(index);
-				fftArray[fftIndex] *= inverseLaplace; // real part
-				fftArray[fftIndex + 1] *= inverseLaplace; // imaginary part
+			// Field generators are antihermitian so multiply psi by -1 to get psidagger
+			// and scale by the step size of the steepest descent.
+			AlgebraElement psidagger = scratch.getAlgebraElements()[0];
+			double factor = -stepSize;
+			for (int color = 0; color < fftArray.length; color++) {
+				psidagger.set(color, factor * fftArray[color][index]);
 			}
+			psidagger.getLinkInto(getG()[index]);
 		}
 	}
 
@@ -1,7 +1,10 @@
 package org.openpixi.pixi.physics.gauge;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import edu.emory.mathcs.jtransforms.fft.DoubleFFT_1D;
 import edu.emory.mathcs.jtransforms.fft.DoubleFFT_2D;
@@ -9,10 +12,25 @@ import edu.emory.mathcs.jtransforms.fft.DoubleFFT_3D;
 
 /**
  * FFT Wrapper for jtransform for arbitrary dimensions (up to 3).
- *
+ * <br>
+ * Besides the complex transforms on interleaved arrays ({@link #complexForward(double[])}) the wrapper provides
+ * transforms of real data ({@link #realForward(double[], double[])}). For real input the spectrum is Hermitian
+ * symmetric, F(-k) = F(k)^*, so only the modes with a non-negative momentum in the last (fastest running) direction
+ * are stored. These are (n/2 + 1) modes in the last direction and all modes in the other directions.
  */
 public class DoubleFFTWrapper {
 
+	/**
+	 * Plan cache of every thread, keyed by the lattice shape. Wrappers keep work buffers and the jtransform plans
+	 * are not thread-safe, therefore every thread gets its own instances.
+	 */
+	private static final ThreadLocal<Map<String, DoubleFFTWrapper>> cache = new ThreadLocal<Map<String, DoubleFFTWrapper>>() {
+		@Override
+		protected Map<String, DoubleFFTWrapper> initialValue() {
+			return new HashMap<String, DoubleFFTWrapper>();
+		}
+	};
+
 	private int[] dimensions;
 	private List<Integer> dimensionsFFT;
 
@@ -20,12 +38,37 @@ public class DoubleFFTWrapper {
 	private DoubleFFT_2D doubleFFT_2D;
 	private DoubleFFT_3D doubleFFT_3D;
 
+	// Plans and buffers of the real transforms (created on first use).
+	private DoubleFFT_1D[] realPlans;
+	private double[] lineBuffer;
+	private int numberOfLines;
+	private int lastSize;
+	private int halfSize;
+
+	/**
+	 * Returns an FFT wrapper for the given lattice shape. Wrappers are cached per thread, so repeated calls with the
+	 * same shape reuse the same plans and work buffers.
+	 *
+	 * @param dimensions dimension and size in each direction
+	 * @return           cached FFT wrapper
+	 */
+	public static DoubleFFTWrapper getInstance(int[] dimensions) {
+		Map<String, DoubleFFTWrapper> wrappers = cache.get();
+		String key = Arrays.toString(dimensions);
+		DoubleFFTWrapper fft = wrappers.get(key);
+		if (fft == null) {
+			fft = new DoubleFFTWrapper(dimensions);
+			wrappers.put(key, fft);
+		}
+		return fft;
+	}
+
 	/**
 	 * Constructor of FFT Wrapper
 	 * @param dimensions dimension and size in each direction
 	 */
 	public DoubleFFTWrapper(int[] dimensions) {
-		this.dimensions = dimensions;
+		this.dimensions = dimensions.clone();
 
 		dimensionsFFT = getEffectiveDimension(dimensions);
 
@@ -92,6 +135,220 @@ public class DoubleFFTWrapper {
 		}
 	}
 
+	/**
+	 * Computes the forward transform of real data. Only the modes with a non-negative momentum in the last
+	 * direction are computed (see {@link #getRealFFTArraySize()} and {@link #getRealFFTArrayIndex(int)}).
+	 *
+	 * @param input     real data, one value for every cell
+	 * @param spectrum  array of size {@link #getRealFFTArraySize()} for the interleaved complex half spectrum
+	 */
+	public void realForward(double[] input, double[] spectrum) {
+		initializeRealTransforms();
+		int numberOfDimensions = dimensionsFFT.size();
+		if (numberOfDimensions == 0) {
+			spectrum[0] = input[0];
+			spectrum[1] = 0.0;
+			return;
+		}
+
+		// Real transform along the last direction.
+		DoubleFFT_1D lastPlan = realPlans[numberOfDimensions - 1];
+		for (int line = 0; line < numberOfLines; line++) {
+			System.arraycopy(input, line * lastSize, lineBuffer, 0, lastSize);
+			lastPlan.realForward(lineBuffer);
+			unpackLine(lineBuffer, spectrum, 2 * line * halfSize);
+		}
+
+		// Complex transforms along the remaining directions.
+		for (int d = 0; d < numberOfDimensions - 1; d++) {
+			transformHalfSpectrum(spectrum, d, true, false);
+		}
+	}
+
+	/**
+	 * Computes the inverse transform of a Hermitian symmetric spectrum which was obtained from
+	 * {@link #realForward(double[], double[])}. The spectrum array is used as work space and is overwritten.
+	 *
+	 * @param spectrum  interleaved complex half spectrum of size {@link #getRealFFTArraySize()}
+	 * @param output    real data, one value for every cell
+	 * @param scale     if true, the result is divided by the number of cells
+	 */
+	public void realInverse(double[] spectrum, double[] output, boolean scale) {
+		initializeRealTransforms();
+		int numberOfDimensions = dimensionsFFT.size();
+		if (numberOfDimensions == 0) {
+			output[0] = spectrum[0];
+			return;
+		}
+
+		for (int d = 0; d < numberOfDimensions - 1; d++) {
+			transformHalfSpectrum(spectrum, d, false, scale);
+		}
+
+		DoubleFFT_1D lastPlan = realPlans[numberOfDimensions - 1];
+		for (int line = 0; line < numberOfLines; line++) {
+			packLine(spectrum, 2 * line * halfSize, lineBuffer);
+			lastPlan.realInverse(lineBuffer, scale);
+			System.arraycopy(lineBuffer, 0, output, line * lastSize, lastSize);
+		}
+	}
+
+	/**
+	 * Return array size of the half spectrum of a real transform.
+	 * Takes into account factor 2 for real and imaginary parts.
+	 * @return
+	 */
+	public int getRealFFTArraySize() {
+		initializeRealTransforms();
+		return 2 * numberOfLines * halfSize;
+	}
+
+	/**
+	 * Return array index in the half spectrum of a real transform. If the momentum of the cell is not stored, the
+	 * index of the opposite momentum is returned and the value has to be complex conjugated
+	 * (see {@link #isRealFFTConjugate(int)}).
+	 * Add 0 to obtain index for real part.
+	 * Add 1 to obtain index for imaginary part.
+	 * @param cellIndex  Index within grid, interpreted as a lattice momentum.
+	 * @return           Index within the half spectrum.
+	 */
+	public int getRealFFTArrayIndex(int cellIndex) {
+		initializeRealTransforms();
+		if (dimensionsFFT.size() == 0) {
+			return 0;
+		}
+		if (isRealFFTConjugate(cellIndex)) {
+			cellIndex = getOppositeMomentumIndex(cellIndex);
+		}
+		int line = cellIndex / lastSize;
+		int k = cellIndex % lastSize;
+		return 2 * (line * halfSize + k);
+	}
+
+	/**
+	 * Checks whether the momentum of a cell is missing from the half spectrum, i.e. whether the spectrum value at
+	 * {@link #getRealFFTArrayIndex(int)} belongs to the opposite momentum and has to be complex conjugated.
+	 * @param cellIndex  Index within grid, interpreted as a lattice momentum.
+	 * @return           true if the value has to be complex conjugated
+	 */
+	public boolean isRealFFTConjugate(int cellIndex) {
+		initializeRealTransforms();
+		if (dimensionsFFT.size() == 0) {
+			return false;
+		}
+		return cellIndex % lastSize >= halfSize;
+	}
+
+	/**
+	 * Returns the lattice index of the momentum -k for the momentum k given by a lattice index.
+	 */
+	private int getOppositeMomentumIndex(int cellIndex) {
+		int result = 0;
+		int stride = 1;
+		for (int d = dimensionsFFT.size() - 1; d >= 0; d--) {
+			int size = dimensionsFFT.get(d);
+			int k = (cellIndex / stride) % size;
+			result += ((size - k) % size) * stride;
+			stride *= size;
+		}
+		return result;
+	}
+
+	private void initializeRealTransforms() {
+		if (realPlans != null) {
+			return;
+		}
+		int numberOfDimensions = dimensionsFFT.size();
+		realPlans = new DoubleFFT_1D[numberOfDimensions];
+		int maximumSize = 1;
+		numberOfLines = 1;
+		for (int d = 0; d < numberOfDimensions; d++) {
+			int size = dimensionsFFT.get(d);
+			realPlans[d] = new DoubleFFT_1D(size);
+			maximumSize = Math.max(maximumSize, size);
+			if (d < numberOfDimensions - 1) {
+				numberOfLines *= size;
+			}
+		}
+		lastSize = (numberOfDimensions > 0) ? dimensionsFFT.get(numberOfDimensions - 1) : 1;
+		halfSize = lastSize / 2 + 1;
+		if (numberOfDimensions == 0) {
+			halfSize = 1;
+		}
+		lineBuffer = new double[2 * maximumSize];
+	}
+
+	/**
+	 * Converts the packed output of the jtransform real transform into n/2 + 1 interleaved complex values.
+	 */
+	private void unpackLine(double[] packed, double[] spectrum, int offset) {
+		spectrum[offset] = packed[0];
+		spectrum[offset + 1] = 0.0;
+		for (int k = 1; k < halfSize - 1; k++) {
+			spectrum[offset + 2 * k] = packed[2 * k];
+			spectrum[offset + 2 * k + 1] = packed[2 * k + 1];
+		}
+		int last = offset + 2 * (halfSize - 1);
+		if (lastSize % 2 == 0) {
+			spectrum[last] = packed[1];
+			spectrum[last + 1] = 0.0;
+		} else {
+			spectrum[last] = packed[lastSize - 1];
+			spectrum[last + 1] = packed[1];
+		}
+	}
+
+	/**
+	 * Inverse of {@link #unpackLine(double[], double[], int)}.
+	 */
+	private void packLine(double[] spectrum, int offset, double[] packed) {
+		packed[0] = spectrum[offset];
+		for (int k = 1; k < halfSize - 1; k++) {
+			packed[2 * k] = spectrum[offset + 2 * k];
+			packed[2 * k + 1] = spectrum[offset + 2 * k + 1];
+		}
+		int last = offset + 2 * (halfSize - 1);
+		if (lastSize % 2 == 0) {
+			packed[1] = spectrum[last];
+		} else {
+			packed[lastSize - 1] = spectrum[last];
+			packed[1] = spectrum[last + 1];
+		}
+	}
+
+	/**
+	 * Applies complex 1D transforms along a direction (other than the last one) of the half spectrum.
+	 */
+	private void transformHalfSpectrum(double[] spectrum, int direction, boolean forward, boolean scale) {
+		int size = dimensionsFFT.get(direction);
+		int stride = halfSize;
+		for (int d = direction + 1; d < dimensionsFFT.size() - 1; d++) {
+			stride *= dimensionsFFT.get(d);
+		}
+		int numberOfBlocks = (numberOfLines * halfSize) / (stride * size);
+		DoubleFFT_1D plan = realPlans[direction];
+		for (int block = 0; block < numberOfBlocks; block++) {
+			for (int j = 0; j < stride; j++) {
+				int start = 2 * (block * size * stride + j);
+				for (int k = 0; k < size; k++) {
+					int index = start + 2 * k * stride;
+					lineBuffer[2 * k] = spectrum[index];
+					lineBuffer[2 * k + 1] = spectrum[index + 1];
+				}
+				if (forward) {
+					plan.complexForward(lineBuffer);
+				} else {
+					plan.complexInverse(lineBuffer, scale);
+				}
+				for (int k = 0; k < size; k++) {
+					int index = start + 2 * k * stride;
+					spectrum[index] = lineBuffer[2 * k];
+					spectrum[index + 1] = lineBuffer[2 * k + 1];
+				}
+			}
+		}
+	}
+
 	/**
 	 * Return array size for FFT.
 	 * Takes into account factor 2 for real and imaginary parts.
@@ -0,0 +1,173 @@
+package org.openpixi.pixi.physics.grid;
+
+import org.openpixi.pixi.math.AlgebraElement;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Cache of the gauge links U_{x,i}(t + dt) (see {@link Grid#getUnext(int, int)}) in the adjoint representation.
+ * <br>
+ * The parallel transport of a particle charge Q along a link is the adjoint action U Q U^\dagger (or U^\dagger Q U).
+ * {@link AlgebraElement#act(org.openpixi.pixi.math.GroupElement)} computes it with two matrix multiplications of
+ * temporary group elements. In CGC simulations many particles cross the same link in the same time step, so instead
+ * the (N^2-1)x(N^2-1) matrix R_ab of the link in the adjoint representation (see
+ * {@link org.openpixi.pixi.math.GroupElement#getAdjointMatrix(double[])}) is computed once and every transport becomes
+ * a real matrix-vector product of the charge components. The matrix is orthogonal, so the transport with U^\dagger
+ * uses its transpose.
+ * <br>
+ * Matrices are computed on first access by any thread and stay valid until the links change. The grid invalidates the
+ * cache whenever it updates the links ({@link Grid#updateGrid(double)}, {@link Grid#storeFields()}, ...). Code which
+ * modifies single links with {@link Grid#setUnext(int, int, org.openpixi.pixi.math.GroupElement)} while the cache is
+ * in use has to call {@link #invalidate()} itself. Memory for the matrices is only allocated for links which have been
+ * accessed.
+ */
+public class AdjointLinkCache {
+
+	private Grid grid;
+	private int numberOfDimensions;
+	private int matrixSize;
+
+	/**
+	 * Matrices of the links at [index * numberOfDimensions + direction].
+	 */
+	private double[][] matrices;
+
+	/**
+	 * State of every link: the current generation if the matrix is valid, minus the current generation if it is being
+	 * computed by some thread and an older generation otherwise.
+	 */
+	private AtomicIntegerArray states;
+
+	private int generation = 1;
+
+	/**
+	 * Creates an empty cache for a grid.
+	 *
+	 * @param grid  grid whose links are cached
+	 */
+	public AdjointLinkCache(Grid grid) {
+		this.grid = grid;
+		this.numberOfDimensions = grid.getNumberOfDimensions();
+		int numberOfComponents = grid.getElementFactory().numberOfComponents;
+		this.matrixSize = numberOfComponents * numberOfComponents;
+		int numberOfLinks = grid.getTotalNumberOfCells() * numberOfDimensions;
+		this.matrices = new double[numberOfLinks][];
+		this.states = new AtomicIntegerArray(numberOfLinks);
+	}
+
+	/**
+	 * Marks all cached matrices as outdated. Must not be called while other threads access the cache.
+	 */
+	public void invalidate() {
+		generation++;
+	}
+
+	/**
+	 * Returns the adjoint matrix of U_{x,i}(t + dt). The returned array must not be modified and is only valid until
+	 * the cache is invalidated.
+	 *
+	 * @param index     lattice index of the link
+	 * @param direction direction of the link
+	 * @return          matrix R_ab in row-major order
+	 */
+	public double[] getMatrix(int index, int direction) {
+		int link = index * numberOfDimensions + direction;
+		int state = states.get(link);
+		if (state != generation) {
+			if (state != -generation && states.compareAndSet(link, state, -generation)) {
+				// This thread computes the matrix.
+				double[] matrix = matrices[link];
+				if (matrix == null) {
+					matrix = new double[matrixSize];
+					matrices[link] = matrix;
+				}
+				grid.getUnext(index, direction).getAdjointMatrix(matrix);
+				states.set(link, generation);
+				return matrix;
+			}
+			// Another thread computes the matrix.
+			while (states.get(link) != generation) {
+				Thread.yield();
+			}
+		}
+		return matrices[link];
+	}
+
+	/**
+	 * Computes the parallel transport U Q U^\dagger of an algebra element.
+	 *
+	 * @param matrix    adjoint matrix of U
+	 * @param source    algebra element Q
+	 * @param result    algebra element in which the result is stored, must not be identical to source
+	 */
+	public static void act(double[] matrix, AlgebraElement source, AlgebraElement result) {
+		int n = source.getAdjointDimension();
+		result.reset();
+		for (int a = 0; a < n; a++) {
+			double value = 0.0;
+			for (int b = 0; b < n; b++) {
+				value += matrix[a * n + b] * source.get(b);
+			}
+			result.set(a, value);
+		}
+	}
+
+	/**
+	 * Computes the parallel transport U^\dagger Q U of an algebra element.
+	 *
+	 * @param matrix    adjoint matrix of U
+	 * @param source    algebra element Q
+	 * @param result    algebra element in which the result is stored, must not be identical to source
+	 */
+	public static void actAdjoint(double[] matrix, AlgebraElement source, AlgebraElement result) {
+		int n = source.getAdjointDimension();
+		result.reset();
+		for (int a = 0; a < n; a++) {
+			double value = 0.0;
+			for (int b = 0; b < n; b++) {
+				value += matrix[b * n + a] * source.get(b);
+			}
+			result.set(a, value);
+		}
+	}
+
+	/**
+	 * Computes the parallel transport U Q U^\dagger of the components of an algebra element in place.
+	 *
+	 * @param matrix    adjoint matrix of U
+	 * @param values    array containing the components of Q
+	 * @param offset    index of the first component of Q
+	 * @param temp      temporary array with N^2-1 entries
+	 */
+	public static void act(double[] matrix, double[] values, int offset, double[] temp) {
+		int n = temp.length;
+		System.arraycopy(values, offset, temp, 0, n);
+		for (int a = 0; a < n; a++) {
+			double value = 0.0;
+			for (int b = 0; b < n; b++) {
+				value += matrix[a * n + b] * temp[b];
+			}
+			values[offset + a] = value;
+		}
+	}
+
+	/**
+	 * Computes the parallel transport U^\dagger Q U of the components of an algebra element in place.
+	 *
+	 * @param matrix    adjoint matrix of U
+	 * @param values    array containing the components of Q
+	 * @param offset    index of the first component of Q
+	 * @param temp      temporary array with N^2-1 entries
+	 */
+	public static void actAdjoint(double[] matrix, double[] values, int offset, double[] temp) {
+		int n = temp.length;
+		System.arraycopy(values, offset, temp, 0, n);
+		for (int a = 0; a < n; a++) {
+			double value = 0.0;
+			for (int b = 0; b < n; b++) {
+				value += matrix[b * n + a] * temp[b];
+			}
+			values[offset + a] = value;
+		}
+	}
+}
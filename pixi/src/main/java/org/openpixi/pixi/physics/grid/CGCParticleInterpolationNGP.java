@@ -94,10 +94,19 @@ public class CGCParticleInterpolationNGP implements  InterpolatorAlgorithm {
 			int cellIndexOld = g.getCellIndex(ngpOld);
 			int cellIndexNew = g.getCellIndex(ngpNew);
 
+			AdjointLinkCache cache = g.getAdjointLinkCache();
 			if(P.vel[direction] > 0) {
 				P.U = g.getUnext(cellIndexOld, direction);
+				if(cache != null) {
+					P.adjointMatrix = cache.getMatrix(cellIndexOld, direction);
+					P.adjointMatrixConjugated = false;
+				}
 			} else {
 				P.U = g.getUnext(cellIndexNew, direction).adj();
+				if(cache != null) {
+					P.adjointMatrix = cache.getMatrix(cellIndexNew, direction);
+					P.adjointMatrixConjugated = true;
+				}
 			}
 			P.updateCharge = true;
 		}
@@ -2,6 +2,7 @@ package org.openpixi.pixi.physics.grid;
 
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.math.ScratchElements;
 import org.openpixi.pixi.physics.particles.CGCSuperParticle;
 import org.openpixi.pixi.physics.particles.IParticle;
 
@@ -11,62 +12,60 @@ import org.openpixi.pixi.physics.particles.IParticle;
  * moves along a grid axis such that there is no ambiguity in defining parallel transport for the color charges of the
  * particles. The super particle classes encapsulate larger collections of particles whose relative positions are fixed
  * during the simulation and whose charges are updated at the same time when they cross into other cells.
+ * <br>
+ * Any lattice axis can be the direction of movement. Currents and charge densities are identical to the ones of
+ * {@link CGCParticleInterpolationNGP} for the equivalent set of {@link org.openpixi.pixi.physics.particles.CGCParticle}s.
+ * In particular, charges which leave the simulation box in either orientation re-enter it at the opposite boundary.
  */
 public class CGCSuperParticleInterpolationNGP implements InterpolatorAlgorithm {
 
 	private boolean useOffset = false;
 
+	private ScratchElements scratch;
+
 	public void interpolateToGrid(IParticle p, Grid g) {
+		CGCSuperParticle P = (CGCSuperParticle) p;
+		int direction = P.direction;
+		int longitudinalNumCells = g.getNumCells(direction);
 		double at = g.getTemporalSpacing();
-		double as = g.getLatticeSpacing(0);
-		int totalNumberOfCells = g.getTotalNumberOfCells();
+		double as = g.getLatticeSpacing(direction);
 
-		CGCSuperParticle P = (CGCSuperParticle) p;
 		if (P.needsUpdate(g.getSimulationSteps())) {
-			int indexOffset = P.getCurrentOffset(g.getSimulationSteps());
+			int longitudinalIndex = P.getCurrentLinkOffset(g.getSimulationSteps());
 
 	        /*
-	         * Set limits for iterating over particle charges inside the super particle:
-	         * As a super particle moves closer to the boundary of the simulation box, some of the particle charges
-	         * associated with that super particle may already lie outside the grid. Setting the start and end of the
-	         * for loop makes sure that the interpolation routines do not create ArrayIndexOutOfBounds exceptions.
+	         * Charges which have left the simulation box are wrapped around the periodic boundary by getCellIndex(),
+	         * the same way as the cell indices of single CGC particles.
 	         *
 	         * Furthermore we can introduce an offset depending on the sub lattice shift of the super particle. This
 	         * shifts the order in which particle charges are interpolated on the grid. As a result different threads
 	         * do not write to the same cell at the same time, which should improve multithreading performance.
 	         */
-			int quickfix = 0;
-			if (P.particlePerCell == 1) {
-				// Quick fix for implicit CGC solver
-				// (For the implicit solver we have dt == dx, and thus particlePerCell == 1)
-				// For some reason, for P.orientation > 0, J was shifted by 1 cell,
-				// so we manually shift in the opposite direction:
-				quickfix = P.particlesPerPlane;
-			}
-			int imin = (indexOffset < 0) ? -indexOffset : 0;
-			int imax = Math.max(Math.min(indexOffset + P.numberOfParticles, totalNumberOfCells - quickfix) - indexOffset, 0);
-			int ireg = imax - imin;
+			int ireg = P.numberOfParticles;
 			int offset = 0;
-			if (useOffset) {
+			if (useOffset && ireg > 0) {
 				offset = ireg * P.subLatticeShift / P.particlePerCell;
 			}
-			if (P.orientation > 0) {
+			AdjointLinkCache cache = g.getAdjointLinkCache();
+			if (cache != null) {
+				transportWithCache(P, g, cache, longitudinalIndex, ireg, offset);
+			} else if (P.orientation > 0) {
 				for (int i = 0; i < ireg; i++) {
-					int j = (i + offset) % ireg + imin;
-					int index = indexOffset + j;
+					int j = (i + offset) % ireg;
+					int index = P.getCellIndex(j, longitudinalIndex, longitudinalNumCells);
 					AlgebraElement J = P.Q[j].mult(as / at);
-					g.addJ(index + quickfix, 0, J); // Optimizations only work for x-direction!
-					GroupElement U = g.getUnext(index, 0);
+					g.addJ(index, direction, J);
+					GroupElement U = g.getUnext(index, direction);
 					P.Q[j].actAssign(U.adj());
 				}
 			} else {
 				for (int i = 0; i < ireg; i++) {
-					int j = (i + offset) % ireg + imin;
-					int index = indexOffset + j;
-					GroupElement U = g.getUnext(index, 0);
+					int j = (i + offset) % ireg;
+					int index = P.getCellIndex(j, longitudinalIndex, longitudinalNumCells);
+					GroupElement U = g.getUnext(index, direction);
 					P.Q[j].actAssign(U);
 					AlgebraElement J = P.Q[j].mult(-as / at);
-					g.addJ(index, 0, J); // Optimizations only work for x-direction!
+					g.addJ(index, direction, J);
 				}
 			}
 		}
@@ -74,24 +73,61 @@ public class CGCSuperParticleInterpolationNGP implements InterpolatorAlgorithm {
 
 	public void interpolateChargedensity(IParticle p, Grid g) {
 		CGCSuperParticle P = (CGCSuperParticle) p;
-		int indexOffset = P.getCurrentNGPOffset(g.getSimulationSteps());
-		int totalNumberOfCells = g.getTotalNumberOfCells();
+		int longitudinalIndex = P.getCurrentNGPOffset(g.getSimulationSteps());
+		int longitudinalNumCells = g.getNumCells(P.direction);
 
-		// Set the limits of the for loop. See comment in interpolateToGrid() for explanation.
-		int imin = (indexOffset < 0) ? -indexOffset : 0;
-		int imax = Math.max(Math.min(indexOffset + P.numberOfParticles, totalNumberOfCells) - indexOffset, 0);
-		int ireg = imax - imin;
+		// See comment in interpolateToGrid() for the periodic boundary and the offset.
+		int ireg = P.numberOfParticles;
 		int offset = 0;
-		if (useOffset) {
+		if (useOffset && ireg > 0) {
 			offset = ireg * P.subLatticeShift / P.particlePerCell;
 		}
 		for (int i = 0; i < ireg; i++) {
-			int j = (i + offset) % ireg + imin;
-			int index = indexOffset + j;
+			int j = (i + offset) % ireg;
+			int index = P.getCellIndex(j, longitudinalIndex, longitudinalNumCells);
 			g.addRho(index, P.Q[j]);
 		}
 	}
 
+	/**
+	 * Same as the loops in {@link #interpolateToGrid(IParticle, Grid)}, but the charges are parallel transported with
+	 * the adjoint matrices of the links.
+	 */
+	private void transportWithCache(CGCSuperParticle P, Grid g, AdjointLinkCache cache, int longitudinalIndex,
+	                                int ireg, int offset) {
+		int direction = P.direction;
+		int longitudinalNumCells = g.getNumCells(direction);
+		double at = g.getTemporalSpacing();
+		double as = g.getLatticeSpacing(direction);
+		AlgebraElement[] algebraElements = getScratch(g).getAlgebraElements();
+		AlgebraElement Q = algebraElements[0];
+		AlgebraElement J = algebraElements[1];
+		for (int i = 0; i < ireg; i++) {
+			int j = (i + offset) % ireg;
+			int index = P.getCellIndex(j, longitudinalIndex, longitudinalNumCells);
+			double[] matrix = cache.getMatrix(index, direction);
+			Q.set(P.Q[j]);
+			if (P.orientation > 0) {
+				J.set(Q);
+				J.multAssign(as / at);
+				g.addJ(index, direction, J);
+				AdjointLinkCache.actAdjoint(matrix, Q, P.Q[j]);
+			} else {
+				AdjointLinkCache.act(matrix, Q, P.Q[j]);
+				J.set(P.Q[j]);
+				J.multAssign(-as / at);
+				g.addJ(index, direction, J);
+			}
+		}
+	}
+
+	private synchronized ScratchElements getScratch(Grid g) {
+		if (scratch == null || scratch.getNumberOfColors() != g.getNumberOfColors()) {
+			scratch = new ScratchElements(g.getElementFactory(), 0, 2);
+		}
+		return scratch;
+	}
+
 	public void interpolateToParticle(IParticle p, Grid g) {
 	    /*
 		Usually this method would tell the particles what gauge links are currently acting on them. In the case of
@@ -41,6 +41,12 @@ public class Cell implements Serializable {
 	private boolean active;
 
 
+	/**
+	 * Constructor for subclasses which do not hold their own field values (e.g. views on {@link FlatGrid}).
+	 */
+	protected Cell() {
+	}
+
 	/**
 	 * Constructor for Cell.
 	 * @param dimensions Number of spatial dimensions (e.g. 3)
@@ -170,6 +176,21 @@ public class Cell implements Serializable {
 		rho.reset();
 	}
 
+	/**
+	 * Resets the cell to the vacuum: unit links, vanishing electric fields, currents and charge.
+	 */
+	public void resetFields() {
+		for (int i = 0; i < dimensions; i++) {
+			U[i].set(factory.groupIdentity(colors));
+			Unext[i].set(factory.groupIdentity(colors));
+			E[i].reset();
+			J[i].reset();
+		}
+		rho.reset();
+		evaluatable = true;
+		active = true;
+	}
+
 	public void reassignLinks() {
 		GroupElement[] temp = U;
 		U = Unext;
@@ -193,14 +214,14 @@ public class Cell implements Serializable {
 		*/
 
 		for(int i = 0; i < E.length; i++) {
-			this.E[i] = other.E[i].copy();
-			this.J[i] = other.J[i].copy();
-			this.U[i] = other.U[i].copy();
-			this.Unext[i] = other.Unext[i].copy();
+			this.E[i] = other.getE(i).copy();
+			this.J[i] = other.getJ(i).copy();
+			this.U[i] = other.getU(i).copy();
+			this.Unext[i] = other.getUnext(i).copy();
 		}
-		this.rho.set(other.rho);
-		this.evaluatable = other.evaluatable;
-		this.active = other.active;
+		this.rho.set(other.getRho());
+		this.evaluatable = other.isEvaluatable();
+		this.active = other.isActive();
 	}
 
 	/**
@@ -0,0 +1,249 @@
+package org.openpixi.pixi.physics.grid;
+
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.ScratchElements;
+import org.openpixi.pixi.parallel.cellaccess.CellAction;
+import org.openpixi.pixi.parallel.cellaccess.CellIterator;
+import org.openpixi.pixi.parallel.particleaccess.ParallelParticleIterator;
+
+import java.util.Arrays;
+
+/**
+ * Private accumulation buffers for the lock-free deposition of currents and charge densities.
+ * <br>
+ * During a deposition (see {@link Grid#beginDeposition()}) every task of the particle iterator which adds currents or
+ * charges to the grid writes into its own buffer instead of the (synchronized) cells. The buffers are indexed by
+ * {@link ParallelParticleIterator#getTaskIndex()} rather than by thread: a task always processes the same particles
+ * in the same order, no matter which thread of the pool runs it. At the end of the deposition the buffers are summed
+ * up in the order of the task indices and added to the grid in parallel ({@link Grid#endDeposition()}), so the
+ * result is bitwise reproducible. Since every page is reduced by a single thread, neither the deposition nor the
+ * reduction needs any lock.
+ * <br>
+ * The buffers are divided into pages of {@link #PAGE_SIZE} cells which are only allocated when a task writes to
+ * them for the first time. Particles processed by a task are usually concentrated in a small part of the grid
+ * (e.g. the nuclei of a CGC simulation), so the memory overhead stays small. Only pages which have been written to
+ * since the last reduction are reduced and cleared.
+ */
+public class DepositionBuffers {
+
+	private static final int PAGE_SHIFT = 12;
+
+	/**
+	 * Number of cells per page.
+	 */
+	public static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+	private int numberOfDimensions;
+	private int numberOfComponents;
+	private int numberOfPages;
+	private int numberOfCells;
+
+	/**
+	 * Buffers indexed by the task index. Entries are created when a task deposits into the grid for the first time.
+	 */
+	private volatile Buffer[] buffers = new Buffer[0];
+
+	private ReduceAction reduceAction;
+
+	/**
+	 * Iterator over the pages, derived from the cell iterator of the grid.
+	 */
+	private CellIterator pageIterator;
+	private CellIterator cellIterator;
+
+	/**
+	 * Creates deposition buffers for a grid.
+	 *
+	 * @param grid  grid for which the currents and charges are accumulated
+	 */
+	public DepositionBuffers(Grid grid) {
+		this.numberOfDimensions = grid.getNumberOfDimensions();
+		this.numberOfComponents = grid.getElementFactory().algebraZero().getAdjointDimension();
+		this.numberOfCells = grid.getTotalNumberOfCells();
+		this.numberOfPages = (numberOfCells + PAGE_SIZE - 1) / PAGE_SIZE;
+
+		reduceAction = new ReduceAction(new ScratchElements(grid.getElementFactory(), 0, 1));
+	}
+
+	/**
+	 * Adds a current to the buffer of the calling task.
+	 *
+	 * @param index Lattice index of the current
+	 * @param dir   Direction of the current
+	 * @param field Current which is added
+	 */
+	public void addJ(int index, int dir, AlgebraElement field) {
+		Buffer buffer = getBuffer();
+		int page = index >> PAGE_SHIFT;
+		double[] values = buffer.currentPages[page];
+		if (values == null) {
+			values = new double[PAGE_SIZE * numberOfDimensions * numberOfComponents];
+			buffer.currentPages[page] = values;
+		}
+		buffer.currentDirty[page] = true;
+		int offset = ((index & (PAGE_SIZE - 1)) * numberOfDimensions + dir) * numberOfComponents;
+		for (int c = 0; c < numberOfComponents; c++) {
+			values[offset + c] += field.get(c);
+		}
+	}
+
+	/**
+	 * Adds a charge to the buffer of the calling task.
+	 *
+	 * @param index Lattice index of the charge
+	 * @param field Charge which is added
+	 */
+	public void addRho(int index, AlgebraElement field) {
+		Buffer buffer = getBuffer();
+		int page = index >> PAGE_SHIFT;
+		double[] values = buffer.chargePages[page];
+		if (values == null) {
+			values = new double[PAGE_SIZE * numberOfComponents];
+			buffer.chargePages[page] = values;
+		}
+		buffer.chargeDirty[page] = true;
+		int offset = (index & (PAGE_SIZE - 1)) * numberOfComponents;
+		for (int c = 0; c < numberOfComponents; c++) {
+			values[offset + c] += field.get(c);
+		}
+	}
+
+	/**
+	 * Adds the contents of all buffers to the grid and clears the buffers. The grid must not be in deposition mode.
+	 *
+	 * @param grid  grid to which the buffers are added
+	 */
+	public void reduce(Grid grid) {
+		if (pageIterator == null || cellIterator != grid.cellIterator) {
+			cellIterator = grid.cellIterator;
+			pageIterator = cellIterator.copy();
+			pageIterator.setNormalMode(new int[]{numberOfPages});
+		}
+		reduceAction.buffers = buffers;
+		pageIterator.execute(grid, reduceAction);
+		reduceAction.buffers = null;
+	}
+
+	/**
+	 * Returns the number of tasks which have deposited into the buffers.
+	 *
+	 * @return  number of buffers
+	 */
+	public int getNumberOfBuffers() {
+		int count = 0;
+		for (Buffer buffer : buffers) {
+			if (buffer != null) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the buffer of the task which is executed by the calling thread.
+	 *
+	 * @return  buffer of the current task
+	 */
+	private Buffer getBuffer() {
+		int slot = ParallelParticleIterator.getTaskIndex();
+		Buffer[] current = buffers;
+		if (slot < current.length && current[slot] != null) {
+			return current[slot];
+		}
+		return createBuffer(slot);
+	}
+
+	private synchronized Buffer createBuffer(int slot) {
+		Buffer[] current = buffers;
+		if (slot >= current.length) {
+			current = Arrays.copyOf(current, slot + 1);
+		}
+		if (current[slot] == null) {
+			current[slot] = new Buffer();
+		}
+		// Publish the (possibly unchanged) array again to make the new entry visible to the other threads
+		buffers = current;
+		return current[slot];
+	}
+
+	private class Buffer {
+		private double[][] currentPages = new double[numberOfPages][];
+		private double[][] chargePages = new double[numberOfPages][];
+		private boolean[] currentDirty = new boolean[numberOfPages];
+		private boolean[] chargeDirty = new boolean[numberOfPages];
+	}
+
+	private class ReduceAction implements CellAction {
+
+		private Buffer[] buffers;
+		private ScratchElements scratch;
+
+		private ReduceAction(ScratchElements scratch) {
+			this.scratch = scratch;
+		}
+
+		/**
+		 * Sums up the contributions of all buffers to the cells of a page in the order of the task indices, adds
+		 * them to the grid and clears the buffers. Pages which have not been written to are skipped.
+		 * @param grid  Reference to the grid
+		 * @param page  Page index
+		 */
+		public void execute(Grid grid, int page) {
+			boolean currentDirty = false;
+			boolean chargeDirty = false;
+			for (Buffer buffer : buffers) {
+				if (buffer != null) {
+					currentDirty |= buffer.currentDirty[page];
+					chargeDirty |= buffer.chargeDirty[page];
+				}
+			}
+			if (!currentDirty && !chargeDirty) {
+				return;
+			}
+
+			AlgebraElement sum = scratch.getAlgebraElements()[0];
+			int firstCell = page << PAGE_SHIFT;
+			int lastCell = Math.min(firstCell + PAGE_SIZE, numberOfCells);
+			for (int index = firstCell; index < lastCell; index++) {
+				int cell = index - firstCell;
+				if (currentDirty) {
+					for (int dir = 0; dir < numberOfDimensions; dir++) {
+						int offset = (cell * numberOfDimensions + dir) * numberOfComponents;
+						sum.reset();
+						for (Buffer buffer : buffers) {
+							if (buffer != null && buffer.currentDirty[page]) {
+								double[] values = buffer.currentPages[page];
+								for (int c = 0; c < numberOfComponents; c++) {
+									sum.set(c, sum.get(c) + values[offset + c]);
+									values[offset + c] = 0.0;
+								}
+							}
+						}
+						grid.addJUnsynchronized(index, dir, sum);
+					}
+				}
+				if (chargeDirty) {
+					int offset = cell * numberOfComponents;
+					sum.reset();
+					for (Buffer buffer : buffers) {
+						if (buffer != null && buffer.chargeDirty[page]) {
+							double[] values = buffer.chargePages[page];
+							for (int c = 0; c < numberOfComponents; c++) {
+								sum.set(c, sum.get(c) + values[offset + c]);
+								values[offset + c] = 0.0;
+							}
+						}
+					}
+					grid.addRhoUnsynchronized(index, sum);
+				}
+			}
+
+			for (Buffer buffer : buffers) {
+				if (buffer != null) {
+					buffer.currentDirty[page] = false;
+					buffer.chargeDirty[page] = false;
+				}
+			}
+		}
+	}
+}
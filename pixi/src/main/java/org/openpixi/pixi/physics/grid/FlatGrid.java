@@ -0,0 +1,512 @@
+package org.openpixi.pixi.physics.grid;
+
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.physics.Settings;
+
+import java.util.Arrays;
+
+/**
+ * Grid with a structure-of-arrays storage backend. Instead of one {@link Cell} object per lattice site (each holding
+ * its own group and algebra element instances) the field values U, Unext, E, J and rho are stored in flat
+ * double arrays which are indexed by cell index, direction and component:
+ * <pre>
+ *     U[(index * numDim + dir) * numberOfGroupParameters + c]
+ *     E[(index * numDim + dir) * numberOfComponents + c]
+ *     rho[index * numberOfComponents + c]
+ * </pre>
+ * Group elements are stored using their parametrization (see {@link GroupElement#get(int)}), algebra elements
+ * are stored by their components with respect to the generators (see {@link AlgebraElement#get(int)}).
+ * <br>
+ * The usual accessors of {@link Grid} act as views on these arrays:
+ * getters return a new element containing a copy of the stored values, setters and adders write through to the
+ * arrays. Therefore changes to an element returned by a getter are <b>not</b> written back to the grid, the
+ * corresponding setter has to be used instead. Hot loops should use the getters which take a buffer (e.g.
+ * {@link #getU(int, int, GroupElement)}), which copy the values into the buffer and do not allocate. {@link #getCell(int)} returns a lightweight Cell view with the same
+ * semantics.
+ */
+public class FlatGrid extends Grid {
+
+	/**
+	 * Number of real parameters per group element
+	 */
+	private int groupSize;
+
+	/**
+	 * Number of real components per algebra element
+	 */
+	private int algebraSize;
+
+	private double[] U;
+	private double[] Unext;
+	private double[] E;
+	private double[] J;
+	private double[] rho;
+
+	private boolean[] evaluatable;
+	private boolean[] active;
+
+	/**
+	 * Locks used to synchronize the deposition of currents and charges. Several cells share the same lock.
+	 */
+	private Object[] locks;
+
+	private static final int NUMBER_OF_LOCKS = 1024;
+
+	public FlatGrid(Settings settings) {
+		super(settings);
+	}
+
+	/**
+	 * Constructor for the FlatGrid class.
+	 * It creates a grid of the same size and deep copies all field values.
+	 * @param grid  Grid from which to copy dimensions
+	 */
+	public FlatGrid(Grid grid) {
+		super(grid);
+	}
+
+	@Override
+	protected void createCells(int length) {
+		groupSize = factory.numberOfGroupParameters;
+		algebraSize = factory.numberOfComponents;
+
+		U = new double[length * numDim * groupSize];
+		Unext = new double[length * numDim * groupSize];
+		E = new double[length * numDim * algebraSize];
+		J = new double[length * numDim * algebraSize];
+		rho = new double[length * algebraSize];
+
+		evaluatable = new boolean[length];
+		active = new boolean[length];
+		Arrays.fill(evaluatable, true);
+		Arrays.fill(active, true);
+
+		locks = new Object[NUMBER_OF_LOCKS];
+		for (int i = 0; i < NUMBER_OF_LOCKS; i++) {
+			locks[i] = new Object();
+		}
+
+		fillIdentity(U);
+		fillIdentity(Unext);
+	}
+
+	@Override
+	public void copyValuesFrom(Grid grid) {
+		if(grid instanceof FlatGrid) {
+			FlatGrid flatGrid = (FlatGrid) grid;
+			System.arraycopy(flatGrid.U, 0, U, 0, U.length);
+			System.arraycopy(flatGrid.Unext, 0, Unext, 0, Unext.length);
+			System.arraycopy(flatGrid.E, 0, E, 0, E.length);
+			System.arraycopy(flatGrid.J, 0, J, 0, J.length);
+			System.arraycopy(flatGrid.rho, 0, rho, 0, rho.length);
+			System.arraycopy(flatGrid.evaluatable, 0, evaluatable, 0, evaluatable.length);
+			System.arraycopy(flatGrid.active, 0, active, 0, active.length);
+		} else {
+			int numberOfCells = grid.getTotalNumberOfCells();
+			for (int ci = 0; ci < numberOfCells; ci++) {
+				getCell(ci).copyFrom(grid.getCell(ci));
+			}
+		}
+		invalidateAdjointLinks();
+	}
+
+	/*
+	 *      Offsets into the flat arrays
+	 */
+
+	private int groupOffset(int index, int dir) {
+		return (index * numDim + dir) * groupSize;
+	}
+
+	private int algebraOffset(int index, int dir) {
+		return (index * numDim + dir) * algebraSize;
+	}
+
+	/*
+	 *      Conversion between elements and flat arrays
+	 */
+
+	private GroupElement readGroupElement(double[] array, int offset, GroupElement g) {
+		for (int c = 0; c < groupSize; c++) {
+			g.set(c, array[offset + c]);
+		}
+		return g;
+	}
+
+	private void writeGroupElement(double[] array, int offset, GroupElement g) {
+		for (int c = 0; c < groupSize; c++) {
+			array[offset + c] = g.get(c);
+		}
+	}
+
+	private AlgebraElement readAlgebraElement(double[] array, int offset, AlgebraElement a) {
+		for (int c = 0; c < algebraSize; c++) {
+			a.set(c, array[offset + c]);
+		}
+		return a;
+	}
+
+	private void writeAlgebraElement(double[] array, int offset, AlgebraElement a) {
+		for (int c = 0; c < algebraSize; c++) {
+			array[offset + c] = a.get(c);
+		}
+	}
+
+	private void addAlgebraElement(double[] array, int offset, AlgebraElement a) {
+		for (int c = 0; c < algebraSize; c++) {
+			array[offset + c] += a.get(c);
+		}
+	}
+
+	private void fillIdentity(double[] links) {
+		GroupElement identity = factory.groupIdentity();
+		int numberOfLinks = links.length / groupSize;
+		for (int l = 0; l < numberOfLinks; l++) {
+			writeGroupElement(links, l * groupSize, identity);
+		}
+	}
+
+	private Object getLock(int index) {
+		return locks[index % NUMBER_OF_LOCKS];
+	}
+
+	/*
+	 *      Accessors
+	 */
+
+	@Override
+	public AlgebraElement getJ(int index, int dir) {
+		return readAlgebraElement(J, algebraOffset(index, dir), factory.algebraZero());
+	}
+
+	@Override
+	public AlgebraElement getJ(int index, int dir, AlgebraElement buffer) {
+		return readAlgebraElement(J, algebraOffset(index, dir), buffer);
+	}
+
+	@Override
+	public void addJ(int index, int dir, AlgebraElement field) {
+		if (activeDeposition != null) {
+			activeDeposition.addJ(index, dir, field);
+			return;
+		}
+		synchronized (getLock(index)) {
+			addAlgebraElement(J, algebraOffset(index, dir), field);
+		}
+	}
+
+	@Override
+	protected void addJUnsynchronized(int index, int dir, AlgebraElement field) {
+		addAlgebraElement(J, algebraOffset(index, dir), field);
+	}
+
+	@Override
+	public AlgebraElement getRho(int index) {
+		return readAlgebraElement(rho, index * algebraSize, factory.algebraZero());
+	}
+
+	@Override
+	public void setRho(int index, AlgebraElement field) {
+		writeAlgebraElement(rho, index * algebraSize, field);
+	}
+
+	@Override
+	public void addRho(int index, AlgebraElement field) {
+		if (activeDeposition != null) {
+			activeDeposition.addRho(index, field);
+			return;
+		}
+		synchronized (getLock(index)) {
+			addAlgebraElement(rho, index * algebraSize, field);
+		}
+	}
+
+	@Override
+	protected void addRhoUnsynchronized(int index, AlgebraElement field) {
+		addAlgebraElement(rho, index * algebraSize, field);
+	}
+
+	@Override
+	public AlgebraElement getE(int index, int dir) {
+		return readAlgebraElement(E, algebraOffset(index, dir), factory.algebraZero());
+	}
+
+	@Override
+	public AlgebraElement getE(int index, int dir, AlgebraElement buffer) {
+		return readAlgebraElement(E, algebraOffset(index, dir), buffer);
+	}
+
+	@Override
+	public void setE(int index, int dir, AlgebraElement field) {
+		writeAlgebraElement(E, algebraOffset(index, dir), field);
+	}
+
+	@Override
+	public void addE(int index, int dir, AlgebraElement field) {
+		addAlgebraElement(E, algebraOffset(index, dir), field);
+	}
+
+	@Override
+	public GroupElement getU(int index, int dir) {
+		return readGroupElement(U, groupOffset(index, dir), factory.groupZero());
+	}
+
+	@Override
+	public GroupElement getU(int index, int dir, GroupElement buffer) {
+		return readGroupElement(U, groupOffset(index, dir), buffer);
+	}
+
+	@Override
+	public void setU(int index, int dir, GroupElement mat) {
+		writeGroupElement(U, groupOffset(index, dir), mat);
+	}
+
+	@Override
+	public GroupElement getUnext(int index, int dir) {
+		return readGroupElement(Unext, groupOffset(index, dir), factory.groupZero());
+	}
+
+	@Override
+	public GroupElement getUnext(int index, int dir, GroupElement buffer) {
+		return readGroupElement(Unext, groupOffset(index, dir), buffer);
+	}
+
+	@Override
+	public void setUnext(int index, int dir, GroupElement mat) {
+		writeGroupElement(Unext, groupOffset(index, dir), mat);
+	}
+
+	@Override
+	public void resetCharge(int index) {
+		Arrays.fill(rho, index * algebraSize, (index + 1) * algebraSize, 0.0);
+	}
+
+	@Override
+	public boolean isEvaluatable(int index) {
+		return evaluatable[index];
+	}
+
+	@Override
+	public boolean isActive(int index) {
+		return active[index];
+	}
+
+	/**
+	 * Returns a view of the cell at a given lattice index. The view does not hold any field values itself.
+	 *
+	 * @param index  Index of the cell
+	 * @return       Cell view at lattice index
+	 */
+	@Override
+	public Cell getCell(int index) {
+		return new CellView(index);
+	}
+
+	@Override
+	public Cell[] getCells() {
+		int numberOfCells = getTotalNumberOfCells();
+		Cell[] views = new Cell[numberOfCells];
+		for (int i = 0; i < numberOfCells; i++) {
+			views[i] = new CellView(i);
+		}
+		return views;
+	}
+
+	/*
+	 *      Bulk operations
+	 */
+
+	@Override
+	public void resetCurrent() {
+		Arrays.fill(J, 0.0);
+	}
+
+	@Override
+	public void resetCharge() {
+		Arrays.fill(rho, 0.0);
+	}
+
+	@Override
+	public void resetUnext() {
+		fillIdentity(Unext);
+		invalidateAdjointLinks();
+	}
+
+	@Override
+	public void resetFields() {
+		fillIdentity(U);
+		fillIdentity(Unext);
+		Arrays.fill(E, 0.0);
+		Arrays.fill(J, 0.0);
+		Arrays.fill(rho, 0.0);
+		Arrays.fill(evaluatable, true);
+		Arrays.fill(active, true);
+		invalidateAdjointLinks();
+	}
+
+	/**
+	 * Stores "new" fields which have been calculated in the last simulation step to the variables of the "old" fields.
+	 * In the flat storage this amounts to swapping the two link arrays.
+	 */
+	@Override
+	public void storeFields() {
+		double[] temp = U;
+		U = Unext;
+		Unext = temp;
+		invalidateAdjointLinks();
+	}
+
+	/**
+	 * Returns the number of bytes used to store the field values of the lattice.
+	 * @return  Size of the flat arrays in bytes
+	 */
+	public long getStorageSize() {
+		long doubles = (long) U.length + Unext.length + E.length + J.length + rho.length;
+		return 8 * doubles + evaluatable.length + active.length;
+	}
+
+	/**
+	 * View on a single cell of the flat storage.
+	 */
+	private class CellView extends Cell {
+
+		private int index;
+
+		private CellView(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public void addJ(int dir, AlgebraElement current) {
+			FlatGrid.this.addJ(index, dir, current);
+		}
+
+		@Override
+		public AlgebraElement getJ(int dir) {
+			return FlatGrid.this.getJ(index, dir);
+		}
+
+		@Override
+		public AlgebraElement getRho() {
+			return FlatGrid.this.getRho(index);
+		}
+
+		@Override
+		public void setRho(AlgebraElement rho) {
+			FlatGrid.this.setRho(index, rho);
+		}
+
+		@Override
+		public void addRho(AlgebraElement rho) {
+			FlatGrid.this.addRho(index, rho);
+		}
+
+		@Override
+		public AlgebraElement getE(int dir) {
+			return FlatGrid.this.getE(index, dir);
+		}
+
+		@Override
+		public void setE(int dir, AlgebraElement field) {
+			FlatGrid.this.setE(index, dir, field);
+		}
+
+		@Override
+		public void addE(int dir, AlgebraElement field) {
+			FlatGrid.this.addE(index, dir, field);
+		}
+
+		@Override
+		public GroupElement getU(int dir) {
+			return FlatGrid.this.getU(index, dir);
+		}
+
+		@Override
+		public void setU(int dir, GroupElement link) {
+			FlatGrid.this.setU(index, dir, link);
+		}
+
+		@Override
+		public GroupElement getUnext(int dir) {
+			return FlatGrid.this.getUnext(index, dir);
+		}
+
+		@Override
+		public void setUnext(int dir, GroupElement link) {
+			FlatGrid.this.setUnext(index, dir, link);
+		}
+
+		@Override
+		public boolean isEvaluatable() {
+			return evaluatable[index];
+		}
+
+		@Override
+		public void setEvaluatable(boolean value) {
+			evaluatable[index] = value;
+		}
+
+		@Override
+		public boolean isActive() {
+			return active[index];
+		}
+
+		@Override
+		public void setActive(boolean value) {
+			active[index] = value;
+		}
+
+		@Override
+		public void resetCurrent() {
+			Arrays.fill(J, algebraOffset(index, 0), algebraOffset(index + 1, 0), 0.0);
+		}
+
+		@Override
+		public void resetUnext(int colors) {
+			GroupElement identity = FlatGrid.this.factory.groupIdentity();
+			for (int i = 0; i < numDim; i++) {
+				writeGroupElement(Unext, groupOffset(index, i), identity);
+			}
+		}
+
+		@Override
+		public void resetCharge() {
+			FlatGrid.this.resetCharge(index);
+		}
+
+		@Override
+		public void reassignLinks() {
+			for (int i = groupOffset(index, 0); i < groupOffset(index + 1, 0); i++) {
+				double temp = U[i];
+				U[i] = Unext[i];
+				Unext[i] = temp;
+			}
+		}
+
+		@Override
+		public void copyFrom(Cell other) {
+			for (int i = 0; i < numDim; i++) {
+				setE(i, other.getE(i));
+				setU(i, other.getU(i));
+				setUnext(i, other.getUnext(i));
+				writeAlgebraElement(J, algebraOffset(index, i), other.getJ(i));
+			}
+			setRho(other.getRho());
+			setEvaluatable(other.isEvaluatable());
+			setActive(other.isActive());
+		}
+
+		/**
+		 * Returns a Cell instance which holds a copy of the values of this view.
+		 *
+		 * @return	copy of the current cell
+		 */
+		@Override
+		public Cell copy() {
+			Cell copiedCell = new Cell(numDim, getNumberOfColors(), FlatGrid.this.factory);
+			copiedCell.copyFrom(this);
+			return copiedCell;
+		}
+	}
+}
@@ -3,6 +3,7 @@ package org.openpixi.pixi.physics.grid;
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.ElementFactory;
 import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.math.ScratchElements;
 import org.openpixi.pixi.parallel.cellaccess.CellAction;
 import org.openpixi.pixi.parallel.cellaccess.CellIterator;
 import org.openpixi.pixi.physics.Settings;
@@ -27,6 +28,7 @@ public class Grid {
 	private ResetCurrentAction resetCurrent = new ResetCurrentAction();
 	private StoreFieldsAction storeFields = new StoreFieldsAction();
 	private ResetUnext resetUnext = new ResetUnext();
+	private ResetFieldsAction resetFields = new ResetFieldsAction();
 	/**
 	 * Cell array. This one dimensional array is used to represent the d-dimensional grid. The cells are indexed by
 	 * their cell ids. Cell ids can be computed from lattice coordinates with the {@link #getCellIndex(int[])} method.
@@ -83,11 +85,60 @@ public class Grid {
 	 */
 	protected int cummulatedCellCount[];
 
+	/**
+	 * If true, {@link #shift(int, int, int)} looks up neighbouring cells in {@link #neighbourTable} instead of
+	 * computing them.
+	 */
+	protected boolean useNeighbourTable = false;
+
+	/**
+	 * Precomputed indices of the neighbouring cells with periodic boundary conditions:
+	 * <pre>
+	 * neighbourTable[2 * (index * numDim + direction)]     = shift(index, direction, -1)
+	 * neighbourTable[2 * (index * numDim + direction) + 1] = shift(index, direction, 1)
+	 * </pre>
+	 * The neighbours of a cell are stored next to each other because stencils usually access all directions at once.
+	 */
+	protected int[] neighbourTable;
+
+	/**
+	 * If true, particles deposit currents and charges into thread-private buffers instead of the synchronized cells.
+	 * See {@link #beginDeposition()}.
+	 */
+	protected boolean useLockFreeDeposition = false;
+
+	/**
+	 * Thread-private buffers used for the lock-free deposition. Created on first use.
+	 */
+	private DepositionBuffers depositionBuffers;
+
+	/**
+	 * Buffers into which {@link #addJ(int, int, AlgebraElement)} and {@link #addRho(int, AlgebraElement)} are
+	 * redirected. Only set between {@link #beginDeposition()} and {@link #endDeposition()}.
+	 */
+	protected DepositionBuffers activeDeposition;
+
+	/**
+	 * If true, particles parallel transport their charges with the adjoint matrices of the links. See
+	 * {@link #getAdjointLinkCache()}.
+	 */
+	protected boolean useAdjointLinkCache = false;
+
+	/**
+	 * Cache of the links in the adjoint representation. Created on first use.
+	 */
+	private volatile AdjointLinkCache adjointLinkCache;
+
 	/**
 	 * Factory for SU(n) group and algebra elements.
 	 */
 	protected ElementFactory factory;
 
+	/**
+	 * Per-thread scratch elements used by the allocation-free plaquette and staple computations.
+	 */
+	private ScratchElements scratch;
+
 	/**
 	 * Number of passed simulation steps.
 	 */
@@ -127,6 +178,19 @@ public class Grid {
 		return cells[index].getJ(dir);
 	}
 
+	/**
+	 * Returns the (dir)-component of the current without creating a new element. Grids which store element instances return
+	 * the stored instance, grids which only store the components (see {@link FlatGrid}) copy them into the given
+	 * buffer and return it. In both cases the returned element must not be modified.
+	 * @param index     Lattice index of the current
+	 * @param dir       Index of the component
+	 * @param buffer    AlgebraElement which may be used to hold the current
+	 * @return          AlgebraElement containing the current
+	 */
+	public AlgebraElement getJ(int index, int dir, AlgebraElement buffer) {
+		return getJ(index, dir);
+	}
+
 	/**
 	 * Adds a AlgebraElement instance to the (dir)-component of the current.
 	 * @param index     Lattice index of the current
@@ -134,9 +198,24 @@ public class Grid {
 	 * @param field     AlgebraElement to be added to the (dir)-component of the current.
 	 */
 	public void addJ(int index, int dir, AlgebraElement field) {
+		if (activeDeposition != null) {
+			activeDeposition.addJ(index, dir, field);
+			return;
+		}
 		cells[index].addJ(dir, field);
 	}
 
+	/**
+	 * Adds a AlgebraElement instance to the (dir)-component of the current without any synchronization. Must only be
+	 * used if no other thread writes to the same cell at the same time.
+	 * @param index     Lattice index of the current
+	 * @param dir       Index of the component
+	 * @param field     AlgebraElement to be added to the (dir)-component of the current.
+	 */
+	protected void addJUnsynchronized(int index, int dir, AlgebraElement field) {
+		cells[index].getJ(dir).addAssign(field);
+	}
+
 	/**
 	 * Returns the AlgebraElement instance of the charge density.
 	 * @param index     Lattice index of the charge density
@@ -161,9 +240,99 @@ public class Grid {
 	 * @param field     AlgebraElement instance which should be added.
 	 */
 	public void addRho(int index, AlgebraElement field) {
+		if (activeDeposition != null) {
+			activeDeposition.addRho(index, field);
+			return;
+		}
 		cells[index].addRho(field);
 	}
 
+	/**
+	 * Adds a AlgebraElement to the charge density without any synchronization. Must only be used if no other thread
+	 * writes to the same cell at the same time.
+	 * @param index     Lattice index of the charge density
+	 * @param field     AlgebraElement instance which should be added.
+	 */
+	protected void addRhoUnsynchronized(int index, AlgebraElement field) {
+		cells[index].getRho().addAssign(field);
+	}
+
+	/**
+	 * Starts the deposition of currents or charges by particles. If lock-free deposition is enabled, all calls of
+	 * {@link #addJ(int, int, AlgebraElement)} and {@link #addRho(int, AlgebraElement)} write into thread-private
+	 * buffers until {@link #endDeposition()} is called. Otherwise this method does nothing.
+	 */
+	public void beginDeposition() {
+		if (useLockFreeDeposition) {
+			if (depositionBuffers == null) {
+				depositionBuffers = new DepositionBuffers(this);
+			}
+			activeDeposition = depositionBuffers;
+		}
+	}
+
+	/**
+	 * Ends the deposition started with {@link #beginDeposition()} and adds the thread-private buffers to the grid.
+	 */
+	public void endDeposition() {
+		if (activeDeposition != null) {
+			activeDeposition = null;
+			depositionBuffers.reduce(this);
+		}
+	}
+
+	/**
+	 * Enables or disables the deposition of currents and charges into thread-private buffers.
+	 * @param useLockFreeDeposition true if the lock-free deposition should be used.
+	 */
+	public void setLockFreeDeposition(boolean useLockFreeDeposition) {
+		this.useLockFreeDeposition = useLockFreeDeposition;
+	}
+
+	public boolean useLockFreeDeposition() {
+		return useLockFreeDeposition;
+	}
+
+	/**
+	 * Returns the cache of the links U_{x,i}(t + dt) in the adjoint representation, which is used by the particles
+	 * for the parallel transport of their charges.
+	 * @return  Cache of the adjoint links or null if the cache is disabled.
+	 */
+	public AdjointLinkCache getAdjointLinkCache() {
+		if (!useAdjointLinkCache) {
+			return null;
+		}
+		if (adjointLinkCache == null) {
+			synchronized (this) {
+				if (adjointLinkCache == null) {
+					adjointLinkCache = new AdjointLinkCache(this);
+				}
+			}
+		}
+		return adjointLinkCache;
+	}
+
+	/**
+	 * Enables or disables the cache of the links in the adjoint representation.
+	 * @param useAdjointLinkCache true if the cache should be used.
+	 */
+	public void setAdjointLinkCache(boolean useAdjointLinkCache) {
+		this.useAdjointLinkCache = useAdjointLinkCache;
+	}
+
+	public boolean useAdjointLinkCache() {
+		return useAdjointLinkCache;
+	}
+
+	/**
+	 * Marks the cached adjoint links as outdated. Has to be called whenever the links U_{x,i}(t + dt) change.
+	 */
+	protected void invalidateAdjointLinks() {
+		if (adjointLinkCache != null) {
+			adjointLinkCache.invalidate();
+		}
+	}
+
 	/**
 	 * Returns the AlgebraElement instance of the (dir)-component of the electric field.
 	 * @param index     Lattice index of the electric field
@@ -174,6 +343,19 @@ public class Grid {
 		return cells[index].getE(dir);
 	}
 
+	/**
+	 * Returns the (dir)-component of the electric field without creating a new element. Grids which store element instances return
+	 * the stored instance, grids which only store the components (see {@link FlatGrid}) copy them into the given
+	 * buffer and return it. In both cases the returned element must not be modified.
+	 * @param index     Lattice index of the electric field
+	 * @param dir       Index of the component
+	 * @param buffer    AlgebraElement which may be used to hold the electric field
+	 * @return          AlgebraElement containing the electric field
+	 */
+	public AlgebraElement getE(int index, int dir, AlgebraElement buffer) {
+		return getE(index, dir);
+	}
+
 	/**
 	 * Sets the AlgebraElement instance of the (dir)-component of the electric field.
 	 * @param index     Lattice index of the electric field
@@ -230,6 +412,19 @@ public class Grid {
 		return cells[index].getU(dir);
 	}
 
+	/**
+	 * Returns the gauge link at time (t) at a given lattice index in a given direction without creating a new element. Grids which store element instances return
+	 * the stored instance, grids which only store the components (see {@link FlatGrid}) copy them into the given
+	 * buffer and return it. In both cases the returned element must not be modified.
+	 * @param index     Lattice index of the gauge link
+	 * @param dir       Direction of the gauge link
+	 * @param buffer    GroupElement which may be used to hold the gauge link
+	 * @return          GroupElement containing the gauge link
+	 */
+	public GroupElement getU(int index, int dir, GroupElement buffer) {
+		return getU(index, dir);
+	}
+
 	/**
 	 * Sets the gauge link at time (t) at given lattice index in given direction to a new value.
 	 * @param index Lattice index of the gauge link
@@ -250,6 +445,19 @@ public class Grid {
 		return cells[index].getUnext(dir);
 	}
 
+	/**
+	 * Returns the gauge link at time (t+dt) at a given lattice index in a given direction without creating a new element. Grids which store element instances return
+	 * the stored instance, grids which only store the components (see {@link FlatGrid}) copy them into the given
+	 * buffer and return it. In both cases the returned element must not be modified.
+	 * @param index     Lattice index of the gauge link
+	 * @param dir       Direction of the gauge link
+	 * @param buffer    GroupElement which may be used to hold the gauge link
+	 * @return          GroupElement containing the gauge link
+	 */
+	public GroupElement getUnext(int index, int dir, GroupElement buffer) {
+		return getUnext(index, dir);
+	}
+
 	/**
 	 * Sets the gauge link at time (t+dt) at given lattice index in given direction to a new value.
 	 * @param index Lattice index of the gauge link
@@ -441,7 +649,42 @@ public class Grid {
 	 * @param settings  Settings instance
 	 */
 	public Grid(Settings settings) {
+		readSettings(settings);
+		createGrid();
+		initializeIterators(settings);
+	}
 
+	/**
+	 * Reinitializes the grid with new settings, e.g. for the next event of an ensemble. If the number of colors and
+	 * the lattice size are unchanged, the allocated cells are reused and all fields are reset to the vacuum (unit
+	 * links, vanishing electric fields, currents and charges). Otherwise the cells are created anew.
+	 * @param settings  Settings instance
+	 */
+	public void reset(Settings settings) {
+		boolean sameLattice = (numCol == settings.getNumberOfColors() && numDim == settings.getNumberOfDimensions());
+		for (int i = 0; sameLattice && i < numDim; i++) {
+			sameLattice = (numCells[i] == settings.getGridCells(i));
+		}
+
+		readSettings(settings);
+		if (sameLattice) {
+			setUseNeighbourTable(useNeighbourTable);
+		} else {
+			adjointLinkCache = null;
+			createGrid();
+		}
+		initializeIterators(settings);
+		if (sameLattice) {
+			resetFields();
+		}
+		simulationSteps = 0;
+	}
+
+	/**
+	 * Reads the lattice parameters from the settings.
+	 * @param settings  Settings instance
+	 */
+	private void readSettings(Settings settings) {
 		gaugeCoupling = settings.getCouplingConstant();
 		numCol = settings.getNumberOfColors();
 		numDim = settings.getNumberOfDimensions();
@@ -462,14 +705,21 @@ public class Grid {
 			numCells[i] = settings.getGridCells(i);
 		}
 
-		createGrid();
-				
+		useNeighbourTable = settings.useNeighbourTable();
+		useLockFreeDeposition = settings.useLockFreeDeposition();
+		useAdjointLinkCache = settings.useAdjointLinkCache();
+	}
+
+	/**
+	 * Sets up the FieldSolver and the CellIterator.
+	 * @param settings  Settings instance
+	 */
+	private void initializeIterators(Settings settings) {
 		this.fsolver = settings.getFieldSolver();
 		this.fsolver.initializeIterator(settings.getCellIterator(), numCells);
 
 		this.cellIterator = settings.getCellIterator();
 		this.cellIterator.setNormalMode(numCells);
-		
 	}
 
 	/**
@@ -498,6 +748,9 @@ public class Grid {
 			numCells[i] = grid.numCells[i];
 		}
 
+		useNeighbourTable = grid.useNeighbourTable;
+		useLockFreeDeposition = grid.useLockFreeDeposition;
+		useAdjointLinkCache = grid.useAdjointLinkCache;
 		createGrid();
 
 		copyValuesFrom(grid);
@@ -513,8 +766,9 @@ public class Grid {
 	public void copyValuesFrom(Grid grid) {
 		int numberOfCells = grid.getTotalNumberOfCells();
 		for (int ci = 0; ci < numberOfCells; ci++) {
-			cells[ci].copyFrom(grid.cells[ci]);
+			cells[ci].copyFrom(grid.getCell(ci));
 		}
+		invalidateAdjointLinks();
 	}
 
 	/**
@@ -523,6 +777,7 @@ public class Grid {
 	public void createGrid() {
 
 		factory = new ElementFactory(numCol);
+		scratch = new ScratchElements(factory, 5, 0);
 
 		int length = 1;
 		for(int i = 0; i < numDim; i++) {
@@ -535,6 +790,53 @@ public class Grid {
 			cummulatedCellCount[i] = cummulatedCellCount[i + 1] * numCells[i];
 		}
 
+		neighbourTable = null;
+		depositionBuffers = null;
+		if (useNeighbourTable) {
+			createNeighbourTable(length);
+		}
+
+		createCells(length);
+	}
+
+	/**
+	 * Precomputes the neighbour indices of every cell for {@link #shift(int, int, int)}.
+	 * @param length    Total number of cells
+	 */
+	private void createNeighbourTable(int length) {
+		int[] table = new int[2 * length * numDim];
+		for (int index = 0; index < length; index++) {
+			for (int direction = 0; direction < numDim; direction++) {
+				table[2 * (index * numDim + direction)] = computeShift(index, direction, -1);
+				table[2 * (index * numDim + direction) + 1] = computeShift(index, direction, 1);
+			}
+		}
+		neighbourTable = table;
+	}
+
+	/**
+	 * Enables or disables the precomputed neighbour table used by {@link #shift(int, int, int)}. The table needs
+	 * 2 * numberOfDimensions integers per cell.
+	 * @param useNeighbourTable true to look up neighbours in a table
+	 */
+	public void setUseNeighbourTable(boolean useNeighbourTable) {
+		this.useNeighbourTable = useNeighbourTable;
+		if (useNeighbourTable && neighbourTable == null) {
+			createNeighbourTable(getTotalNumberOfCells());
+		} else if (!useNeighbourTable) {
+			neighbourTable = null;
+		}
+	}
+
+	public boolean isUsingNeighbourTable() {
+		return useNeighbourTable;
+	}
+
+	/**
+	 * Allocates the storage for the field values of all cells.
+	 * @param length    Total number of cells
+	 */
+	protected void createCells(int length) {
 		cells = new Cell[length];
 
 		for(int i = 0; i < length; i++) {
@@ -550,6 +852,7 @@ public class Grid {
 	 */
 	public void updateGrid(double tstep) {
 		getFsolver().step(this, tstep);
+		invalidateAdjointLinks();
 	}
 
 	/**
@@ -560,6 +863,7 @@ public class Grid {
 	 */
 	public void updateLinks(double tstep) {
 		getFsolver().stepLinks(this, tstep);
+		invalidateAdjointLinks();
 	}
 
 	/**
@@ -574,6 +878,7 @@ public class Grid {
 	 */
 	public void resetUnext() {
 		cellIterator.execute(this, resetUnext);
+		invalidateAdjointLinks();
 	}
 
 	/**
@@ -583,11 +888,21 @@ public class Grid {
 		cellIterator.execute(this, resetCharge);
 	}
 
+	/**
+	 * Resets every cell to the vacuum: unit links U and Unext, vanishing electric fields, currents and charges. All
+	 * cells become evaluatable and active.
+	 */
+	public void resetFields() {
+		cellIterator.execute(this, resetFields);
+		invalidateAdjointLinks();
+	}
+
 	/**
 	 * Stores "new" fields which have been calculated in the last simulation step to the variables of the "old" fields.
 	 */
 	public void storeFields() {
 		cellIterator.execute(this, storeFields);
+		invalidateAdjointLinks();
 	}
 
 	/**
@@ -605,6 +920,26 @@ public class Grid {
 	 * @return      	Plaquette as GroupElement with correct orientation
 	 */
 	public GroupElement getPlaquette(int index, int d1, int d2, int o1, int o2, int timeIndex)
+	{
+		GroupElement U = factory.groupZero();
+		getPlaquette(index, d1, d2, o1, o2, timeIndex, U);
+		return U;
+	}
+
+	/**
+	 * Calculates the plaquette starting at lattice index in the plane of d1 and d2 with orientations o1, o2 and
+	 * writes it into a destination GroupElement. Same as
+	 * {@link #getPlaquette(int, int, int, int, int, int)}, but no new group elements are created.
+	 *
+	 * @param index 	Lattice index from where the plaquette starts
+	 * @param d1    	Index of the first direction
+	 * @param d2    	Index of the second direction
+	 * @param o1    	Orientation of the first direction
+	 * @param o2    	Orientation of the second direction
+	 * @param timeIndex Option to select between U (timeIndex = 0) and Unext (timeIndex != 0).
+	 * @param result	GroupElement in which the plaquette is stored
+	 */
+	public void getPlaquette(int index, int d1, int d2, int o1, int o2, int timeIndex, GroupElement result)
 	{
 		/*
 			The four lattice indices associated with the plaquette.
@@ -615,28 +950,38 @@ public class Grid {
 		int x4 = shift(x3, d1, -o1);
 
 		/*
-			The four gauge links associated with the plaquette.
+			Plaquette calculation: U = U1 U2 U3 U4
 		 */
 
-		GroupElement U1 = getLink(x1, d1, o1, timeIndex);
-		GroupElement U2 = getLink(x2, d2, o2, timeIndex);
-		GroupElement U3 = getLink(x3, d1, -o1, timeIndex);
-		GroupElement U4 = getLink(x4, d2, -o2, timeIndex);
-
-		/*
-			Plaquette calculation
-		 */
-
-
-		GroupElement U = factory.groupIdentity();
-		U.multAssign(U1);
-		U.multAssign(U2);
-		U.multAssign(U3);
-		U.multAssign(U4);
-
-		return U;
+		GroupElement[] temp = scratch.getGroupElements();
+		temp[0].setIdentity();
+		multLink(temp[0], x1, d1, o1, timeIndex, temp[1]);
+		multLink(temp[1], x2, d2, o2, timeIndex, temp[0]);
+		multLink(temp[0], x3, d1, -o1, timeIndex, temp[1]);
+		multLink(temp[1], x4, d2, -o2, timeIndex, result);
+	}
 
-		//return U1.mult(U2.mult(U3.mult(U4)));
+	/**
+	 * Multiplies a GroupElement from the right with the gauge link starting at a lattice index in a certain direction
+	 * and orientation (see {@link #getLink(int, int, int, int)}) and writes the product into a destination.
+	 *
+	 * @param left          GroupElement which is multiplied from the right
+	 * @param index         Lattice index from which the link starts from
+	 * @param direction     Direction of the link
+	 * @param orientation   Orientation of the link (-1 or 1)
+	 * @param timeIndex     Option to select between U (timeIndex = 0) and Unext (timeIndex != 0).
+	 * @param result        GroupElement in which the product is stored
+	 */
+	private void multLink(GroupElement left, int index, int direction, int orientation, int timeIndex, GroupElement result) {
+		GroupElement buffer = scratch.getGroupElements()[3];
+		if(orientation < 0) {
+			int shiftedIndex = shift(index, direction, orientation);
+			GroupElement link = (timeIndex == 0) ? getU(shiftedIndex, direction, buffer) : getUnext(shiftedIndex, direction, buffer);
+			left.multAdjInto(link, result);
+		} else {
+			GroupElement link = (timeIndex == 0) ? getU(index, direction, buffer) : getUnext(index, direction, buffer);
+			left.multInto(link, result);
+		}
 	}
 
 	/**
@@ -672,6 +1017,24 @@ public class Grid {
 	 */
 	public GroupElement getStapleSum(int index, int d) {
 		GroupElement S = factory.groupZero();
+		getStapleSum(index, d, S);
+		return S;
+	}
+
+	/**
+	 * Computes the sum of staples surrounding a particular gauge link and writes it into a destination GroupElement.
+	 * Same as {@link #getStapleSum(int, int)}, but no new group elements are created.
+	 * @param index     Lattice index
+	 * @param d         Direction
+	 * @param result    GroupElement in which the sum of all surrounding staples is stored
+	 */
+	public void getStapleSum(int index, int d, GroupElement result) {
+		GroupElement[] temp = scratch.getGroupElements();
+		GroupElement U1 = temp[0];
+		GroupElement U2 = temp[1];
+		GroupElement A = temp[3];
+		GroupElement B = temp[4];
+		result.setZero();
 		int ci1 = shift(index, d, 1);
 		int ci2, ci3, ci4;
 		for (int i = 0; i < numDim; i++) {
@@ -679,18 +1042,17 @@ public class Grid {
 				ci2 = shift(index, i, 1);
 				ci3 = shift(ci1, i, -1);
 				ci4 = shift(index, i, -1);
-				GroupElement U1 = getU(ci1, i).mult(getU(ci2, d).adj());
-				U1.multAssign(getU(index, i).adj());
-				GroupElement U2 = getU(ci4, d).mult(getU(ci3, i));
+				getU(ci1, i, A).multAdjInto(getU(ci2, d, B), U1);
+				U1.multAdjInto(getU(index, i, A), U1);
+				getU(ci4, d, A).multInto(getU(ci3, i, B), U2);
 				U2.adjAssign();
-				U2.multAssign(getU(ci4, i));
+				U2.multAssign(getU(ci4, i, A));
 				double areaFactor = 1.0 / Math.pow(getLatticeSpacing(i), 2);
 				U1.addAssign(U2);
 				U1.multAssign(areaFactor);
-				S.addAssign(U1);
+				result.addAssign(U1);
 			}
 		}
-		return S;
 	}
 
 	/**
@@ -713,14 +1075,14 @@ public class Grid {
 		{
 			if(orientation < 0)
 			{
-				return getCell(shift(index, direction, orientation)).getU(direction).adj();
+				return getU(shift(index, direction, orientation), direction).adj();
 			}
-			return getCell(index).getU(direction);
+			return getU(index, direction);
 		} else {
 			if(orientation < 0) {
-				return getCell(shift(index, direction, orientation)).getUnext(direction).adj();
+				return getUnext(shift(index, direction, orientation), direction).adj();
 			}
-			return getCell(index).getUnext(direction);
+			return getUnext(index, direction);
 		}
 	}
 
@@ -798,6 +1160,17 @@ public class Grid {
 	 * @return              Index of shifted coordinate with respect to periodic boundary conditions.
 	 */
 	public int shift(int index, int direction, int orientation)
+	{
+		if (neighbourTable != null && orientation != 0) {
+			return neighbourTable[2 * (index * numDim + direction) + ((orientation > 0) ? 1 : 0)];
+		}
+		return computeShift(index, direction, orientation);
+	}
+
+	/**
+	 * Computes the shifted lattice index without the neighbour table. See {@link #shift(int, int, int)}.
+	 */
+	private int computeShift(int index, int direction, int orientation)
 	{
 		int result = index;
 		int directionIndex = index / cummulatedCellCount[direction + 1];
@@ -865,6 +1238,16 @@ public class Grid {
 		}
 	}
 
+	/**
+	 * ResetFieldsAction is used by the CellIterator to reset all cells to the vacuum.
+	 */
+	private class ResetFieldsAction implements CellAction {
+
+		public void execute(Grid grid, int index) {
+			grid.getCell(index).resetFields();
+		}
+	}
+
 	/**
 	 * Returns the electric field computed from the temporal plaquette (i.e. U and Unext).
 	 *
@@ -897,6 +1280,21 @@ public class Grid {
 	 * @return          B^2 calculated from the spatial plaquette
 	 */
 	public AlgebraElement getB(int index, int direction, int timeIndex) {
+		AlgebraElement B = factory.algebraZero();
+		getB(index, direction, timeIndex, B);
+		return B;
+	}
+
+	/**
+	 * Calculates the magnetic field from the spatial plaquette starting at a lattice index in a direction and writes it
+	 * into a destination AlgebraElement. Same as {@link #getB(int, int, int)}, but no new elements are created.
+	 *
+	 * @param index    	Lattice index from where the plaquette starts
+	 * @param direction	Index of the direction
+	 * @param timeIndex	Option to compute B from U (timeIndex = 0) or Unext (timeIndex != 0)
+	 * @param result	AlgebraElement in which the magnetic field is stored
+	 */
+	public void getB(int index, int direction, int timeIndex, AlgebraElement result) {
 		int j=0, k=0;
 		switch (direction) {
 		case 0:
@@ -914,7 +1312,10 @@ public class Grid {
 			k = 1;
 			break;
 		}
-		return getPlaquette(index, j, k, 1, 1, timeIndex).proj().mult(getLatticeSpacing(direction) / getCellArea(j, k));
+		GroupElement plaquette = scratch.getGroupElements()[2];
+		getPlaquette(index, j, k, 1, 1, timeIndex, plaquette);
+		plaquette.projInto(result);
+		result.multAssign(getLatticeSpacing(direction) / getCellArea(j, k));
 	}
 
 	/**
@@ -976,29 +1377,25 @@ public class Grid {
 	public void setEvaluationRegion(int[] regionPoint1, int[] regionPoint2) {
 		int totalNumberOfCells = getTotalNumberOfCells();
 		for (int i = 0; i < totalNumberOfCells; i++) {
-			int[] gridPos = getCellPos(i);
-			cells[i].setEvaluatable(true);
-			for (int j = 0; j < numDim; j++) {
-				if(gridPos[j] < regionPoint1[j] || regionPoint2[j] < gridPos[j]) {
-					cells[i].setEvaluatable(false);
-					break;
-				}
-			}
+			getCell(i).setEvaluatable(isInRegion(i, regionPoint1, regionPoint2));
 		}
 	}
 
 	public void setActiveRegion(int[] regionPoint1, int[] regionPoint2) {
 		int totalNumberOfCells = getTotalNumberOfCells();
 		for (int i = 0; i < totalNumberOfCells; i++) {
-			int[] gridPos = getCellPos(i);
-			cells[i].setActive(true);
-			for (int j = 0; j < numDim; j++) {
-				if(gridPos[j] < regionPoint1[j] || regionPoint2[j] < gridPos[j]) {
-					cells[i].setActive(false);
-					break;
-				}
+			getCell(i).setActive(isInRegion(i, regionPoint1, regionPoint2));
+		}
+	}
+
+	private boolean isInRegion(int index, int[] regionPoint1, int[] regionPoint2) {
+		int[] gridPos = getCellPos(index);
+		for (int j = 0; j < numDim; j++) {
+			if(gridPos[j] < regionPoint1[j] || regionPoint2[j] < gridPos[j]) {
+				return false;
 			}
 		}
+		return true;
 	}
 
 	/**
@@ -15,6 +15,10 @@ public abstract class Interpolation {
 		this.interpolator = interpolator;
 	}
 
+	public InterpolatorAlgorithm getInterpolatorAlgorithm() {
+		return interpolator;
+	}
+
 	public abstract void interpolateToGrid(List<IParticle> particles, Grid grid);
 
 	public abstract void interpolateToParticle(List<IParticle> particles, Grid grid);
@@ -32,7 +32,9 @@ public class LocalInterpolation extends Interpolation {
 		//grid.resetCurrent();
 		this.grid = grid;
 		this.timeStep = grid.getTemporalSpacing();
+		grid.beginDeposition();
 		particleIterator.execute(particles, interpolateToGrid);
+		grid.endDeposition();
 	}
 
 	@Override
@@ -45,7 +47,9 @@ public class LocalInterpolation extends Interpolation {
 	public void interpolateChargedensity(List<IParticle> particles, Grid grid) {
 		//grid.resetCharge();
 		this.grid = grid;
+		grid.beginDeposition();
 		particleIterator.execute(particles, interpolateChargedensity);
+		grid.endDeposition();
 	}
 
 	private class InterpolateToGrid implements ParticleAction {
@@ -0,0 +1,119 @@
+package org.openpixi.pixi.physics.grid;
+
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.math.ScratchElements;
+import org.openpixi.pixi.physics.particles.IParticle;
+import org.openpixi.pixi.physics.particles.PackedCGCParticles;
+
+/**
+ * NGP interpolation for {@link PackedCGCParticles}. Currents and charge densities are the same as the ones of
+ * {@link CGCParticleInterpolationNGP} for the equivalent {@link org.openpixi.pixi.physics.particles.CGCParticle}s.
+ * The charges are parallel transported right after they have been deposited on the grid (see
+ * {@link CGCSuperParticleInterpolationNGP}), so nothing has to be done in {@link #interpolateToParticle}.
+ */
+public class PackedCGCParticleInterpolationNGP implements InterpolatorAlgorithm {
+
+	private ScratchElements scratch;
+
+	public void interpolateToGrid(IParticle p, Grid g) {
+		PackedCGCParticles P = (PackedCGCParticles) p;
+		int direction = P.direction;
+		double at = g.getTemporalSpacing();
+		double as = g.getLatticeSpacing(direction);
+		AlgebraElement[] algebraElements = getScratch(g).getAlgebraElements();
+		AlgebraElement Q = algebraElements[0];
+		AlgebraElement J = algebraElements[1];
+
+		AdjointLinkCache cache = g.getAdjointLinkCache();
+		if (cache != null) {
+			transportWithCache(P, g, cache, J);
+			return;
+		}
+
+		int size = P.size();
+		for (int i = 0; i < size; i++) {
+			int ngpOld = PackedCGCParticles.getNearestGridPoint(P.pos0[i], as);
+			int ngpNew = PackedCGCParticles.getNearestGridPoint(P.pos1[i], as);
+			if (ngpOld != ngpNew) {
+				P.getCharge(i, Q);
+				if (P.orientation > 0) {
+					int index = P.getCellIndex(i, ngpOld);
+					J.set(Q);
+					J.multAssign(as / at);
+					g.addJ(index, direction, J);
+					GroupElement U = g.getUnext(index, direction);
+					Q.actAssign(U.adj());
+				} else {
+					int index = P.getCellIndex(i, ngpNew);
+					GroupElement U = g.getUnext(index, direction);
+					Q.actAssign(U);
+					J.set(Q);
+					J.multAssign(- as / at);
+					g.addJ(index, direction, J);
+				}
+				P.setCharge(i, Q);
+			}
+		}
+	}
+
+	/**
+	 * Same as {@link #interpolateToGrid(IParticle, Grid)}, but the packed charges are parallel transported in place
+	 * with the adjoint matrices of the links.
+	 */
+	private void transportWithCache(PackedCGCParticles P, Grid g, AdjointLinkCache cache, AlgebraElement J) {
+		int direction = P.direction;
+		double at = g.getTemporalSpacing();
+		double as = g.getLatticeSpacing(direction);
+		double[] temp = new double[P.numberOfComponents];
+
+		int size = P.size();
+		for (int i = 0; i < size; i++) {
+			int ngpOld = PackedCGCParticles.getNearestGridPoint(P.pos0[i], as);
+			int ngpNew = PackedCGCParticles.getNearestGridPoint(P.pos1[i], as);
+			if (ngpOld != ngpNew) {
+				int offset = i * P.numberOfComponents;
+				if (P.orientation > 0) {
+					int index = P.getCellIndex(i, ngpOld);
+					P.getCharge(i, J);
+					J.multAssign(as / at);
+					g.addJ(index, direction, J);
+					AdjointLinkCache.actAdjoint(cache.getMatrix(index, direction), P.Q, offset, temp);
+				} else {
+					int index = P.getCellIndex(i, ngpNew);
+					AdjointLinkCache.act(cache.getMatrix(index, direction), P.Q, offset, temp);
+					P.getCharge(i, J);
+					J.multAssign(- as / at);
+					g.addJ(index, direction, J);
+				}
+			}
+		}
+	}
+
+	public void interpolateChargedensity(IParticle p, Grid g) {
+		PackedCGCParticles P = (PackedCGCParticles) p;
+		double as = g.getLatticeSpacing(P.direction);
+		AlgebraElement Q = getScratch(g).getAlgebraElements()[0];
+
+		int size = P.size();
+		for (int i = 0; i < size; i++) {
+			int index = P.getCellIndex(i, PackedCGCParticles.getNearestGridPoint(P.pos0[i], as));
+			P.getCharge(i, Q);
+			g.addRho(index, Q);
+		}
+	}
+
+	public void interpolateToParticle(IParticle p, Grid g) {
+		/*
+		Usually this method would tell the particles what gauge links are currently acting on them. In the case of
+		packed particles, parallel transport is taken care of by interpolateToGrid().
+		 */
+	}
+
+	private synchronized ScratchElements getScratch(Grid g) {
+		if (scratch == null || scratch.getNumberOfColors() != g.getNumberOfColors()) {
+			scratch = new ScratchElements(g.getElementFactory(), 0, 2);
+		}
+		return scratch;
+	}
+}
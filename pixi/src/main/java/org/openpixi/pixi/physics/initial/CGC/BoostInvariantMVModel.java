@@ -0,0 +1,196 @@
+package org.openpixi.pixi.physics.initial.CGC;
+
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.ElementFactory;
+import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.math.SU2GroupElement;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.fields.NewLCPoissonSolver;
+import org.openpixi.pixi.physics.fields.currentgenerators.MVModel;
+import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.physics.initial.IInitialCondition;
+import org.openpixi.pixi.physics.util.GridFunctions;
+
+import java.util.Random;
+
+/**
+ * Boost-invariant initial conditions for the collision of two MV model nuclei, to be used with
+ * {@link org.openpixi.pixi.physics.fields.BoostInvariantSolver}.
+ * <br>
+ * The Wilson lines V_1 and V_2 of both nuclei are generated exactly as in
+ * {@link org.openpixi.pixi.physics.fields.currentgenerators.DualMVModel} (same random charge densities for the same
+ * seeds, same regulated Poisson equation), but only on the transversal lattice. The fields in the forward light cone
+ * at tau = 0+ follow from the matching conditions
+ * <pre>     U_i = (U_1,i + U_2,i) (U_1,i^\dagger + U_2,i^\dagger)^{-1},     E_i = 0,
+ *     E_eta = 1/(2 g a^2) sum_i proj[(U_1,i - U_2,i)(U_i^\dagger - 1) - (U_{x-i},i^\dagger - 1)(U_1,{x-i},i - U_2,{x-i},i)],</pre>
+ * where U_n,i = V_n,x V_n,{x+i}^\dagger are the pure gauge links of the single nuclei. The rapidity link is the
+ * identity. The grid has to consist of a single cell in the longitudinal (rapidity) direction. This only works for
+ * SU(2), because the inverse of a sum of group elements is in general not an element of the group.
+ */
+public class BoostInvariantMVModel implements IInitialCondition {
+
+	/**
+	 * Longitudinal (rapidity) direction. Values range from 0 to numberOfDimensions-1.
+	 */
+	private int direction;
+
+	/**
+	 * \mu parameter of the MV model.
+	 */
+	private double mu;
+
+	/**
+	 * Seeds for the random variables.
+	 */
+	private boolean useSeed = false;
+	private int seed1;
+	private int seed2;
+
+	/**
+	 * Low pass filter for the Poisson solver.
+	 */
+	private double lowPassCoefficient;
+
+	/**
+	 * Infrared regulator for the Poisson solver.
+	 */
+	private double infraredCoefficient;
+
+	/**
+	 * Option whether to use the \mu^2 (true) or the g^2 \mu^2 (false) normalization for the Gaussian
+	 * probability distribution of the color charge densities.
+	 */
+	private boolean useAlternativeNormalization;
+
+	public BoostInvariantMVModel(int direction, double mu, double lowPassCoefficient, double infraredCoefficient,
+								 boolean useSeed, int seed1, int seed2, boolean useAlternativeNormalization) {
+		this.direction = direction;
+		this.mu = mu;
+		this.lowPassCoefficient = lowPassCoefficient;
+		this.infraredCoefficient = infraredCoefficient;
+		this.useSeed = useSeed;
+		this.seed1 = seed1;
+		this.seed2 = seed2;
+		this.useAlternativeNormalization = useAlternativeNormalization;
+	}
+
+	public void applyInitialCondition(Simulation s) {
+		Grid grid = s.grid;
+		if (grid.getNumCells(direction) != 1) {
+			throw new RuntimeException("BoostInvariantMVModel: the grid needs a single cell in the longitudinal direction.");
+		}
+		if (s.getNumberOfColors() != 2) {
+			throw new RuntimeException("BoostInvariantMVModel: only SU(2) is supported.");
+		}
+
+		int[] transNumCells = GridFunctions.reduceGridPos(grid.getNumCells(), direction);
+		double g = s.getCouplingConstant();
+		double as = grid.getLatticeSpacing((direction + 1) % grid.getNumberOfDimensions());
+		double aeta = grid.getLatticeSpacing(direction);
+
+		GroupElement[] V1 = computeWilsonLines(grid.getElementFactory(), transNumCells, g, as, seed1);
+		GroupElement[] V2 = computeWilsonLines(grid.getElementFactory(), transNumCells, g, as, seed2);
+
+		GroupElement[][] transverseLinks = computeTransverseLinks(V1, V2, transNumCells);
+		AlgebraElement[] longitudinalFields = computeLongitudinalFields(V1, V2, transverseLinks, transNumCells);
+
+		// E_eta in lattice units: g a_eta E^eta = a_eta / (2 a^2) * proj[...]
+		double longitudinalFactor = aeta / (2.0 * as * as);
+		for (int index = 0; index < grid.getTotalNumberOfCells(); index++) {
+			int i = GridFunctions.getCellIndex(GridFunctions.reduceGridPos(grid.getCellPos(index), direction), transNumCells);
+			int ts = 0;
+			for (int j = 0; j < grid.getNumberOfDimensions(); j++) {
+				if (j != direction) {
+					grid.setU(index, j, transverseLinks[ts][i].copy());
+					grid.setE(index, j, grid.getElementFactory().algebraZero());
+					ts++;
+				}
+			}
+			grid.setU(index, direction, grid.getElementFactory().groupIdentity());
+			grid.setE(index, direction, longitudinalFields[i].mult(longitudinalFactor));
+		}
+	}
+
+	/**
+	 * Generates the Wilson lines V_x = exp(- g phi_x) of a single MV model nucleus on the transversal lattice.
+	 */
+	private GroupElement[] computeWilsonLines(ElementFactory factory, int[] transNumCells, double g, double as, int seed) {
+		Random rand = new Random();
+		if (useSeed) {
+			rand.setSeed(seed);
+		}
+		AlgebraElement[] chargeDensity = MVModel.createTransversalChargeDensity(factory, transNumCells, mu, g, as,
+				useAlternativeNormalization, rand);
+		AlgebraElement[] phi = NewLCPoissonSolver.computeTransversalPotential(chargeDensity, transNumCells, as,
+				lowPassCoefficient, infraredCoefficient, factory);
+
+		GroupElement[] V = new GroupElement[phi.length];
+		for (int i = 0; i < phi.length; i++) {
+			V[i] = phi[i].mult(- g).getLink();
+		}
+		return V;
+	}
+
+	/**
+	 * Computes the transverse links U_i = (U_1,i + U_2,i) (U_1,i^\dagger + U_2,i^\dagger)^{-1} from the Wilson lines of
+	 * both nuclei. Only works for SU(2).
+	 *
+	 * @param V1            Wilson lines of the first nucleus
+	 * @param V2            Wilson lines of the second nucleus
+	 * @param transNumCells size of the transversal lattice
+	 * @return              transverse links, indexed by transverse direction and transversal cell index
+	 */
+	public static GroupElement[][] computeTransverseLinks(GroupElement[] V1, GroupElement[] V2, int[] transNumCells) {
+		int transverseNumberOfCells = GridFunctions.getTotalNumberOfCells(transNumCells);
+		GroupElement[][] transverseLinks = new GroupElement[transNumCells.length][transverseNumberOfCells];
+		for (int i = 0; i < transverseNumberOfCells; i++) {
+			for (int ts = 0; ts < transNumCells.length; ts++) {
+				int is = GridFunctions.shift(i, ts, 1, transNumCells);
+				GroupElement U1 = V1[i].mult(V1[is].adj());
+				GroupElement U2 = V2[i].mult(V2[is].adj());
+
+				SU2GroupElement sum = (SU2GroupElement) U1.add(U2);
+				SU2GroupElement sumInv = ((SU2GroupElement) sum.adj()).inv();
+				transverseLinks[ts][i] = sum.mult(sumInv);
+			}
+		}
+		return transverseLinks;
+	}
+
+	/**
+	 * Computes the longitudinal electric field (without normalization)
+	 * <pre>     sum_i proj[(U_1,i - U_2,i)(U_i^\dagger - 1) - (U_{x-i},i^\dagger - 1)(U_1,{x-i},i - U_2,{x-i},i)]</pre>
+	 * from the Wilson lines of both nuclei and the transverse links of the forward light cone.
+	 *
+	 * @param V1                Wilson lines of the first nucleus
+	 * @param V2                Wilson lines of the second nucleus
+	 * @param transverseLinks   transverse links from {@link #computeTransverseLinks(GroupElement[], GroupElement[], int[])}
+	 * @param transNumCells     size of the transversal lattice
+	 * @return                  longitudinal electric field for every transversal cell
+	 */
+	public static AlgebraElement[] computeLongitudinalFields(GroupElement[] V1, GroupElement[] V2,
+			GroupElement[][] transverseLinks, int[] transNumCells) {
+		int transverseNumberOfCells = GridFunctions.getTotalNumberOfCells(transNumCells);
+		ElementFactory factory = new ElementFactory(V1[0].getNumberOfColors());
+		GroupElement identity = factory.groupIdentity();
+		AlgebraElement[] longitudinalFields = new AlgebraElement[transverseNumberOfCells];
+		for (int i = 0; i < transverseNumberOfCells; i++) {
+			GroupElement temp = factory.groupZero();
+			for (int ts = 0; ts < transNumCells.length; ts++) {
+				int is = GridFunctions.shift(i, ts, -1, transNumCells);
+				GroupElement Um1 = transverseLinks[ts][i].adj().sub(identity);
+				GroupElement diff1 = getPureGaugeLink(V1, i, ts, transNumCells).sub(getPureGaugeLink(V2, i, ts, transNumCells));
+				GroupElement Um2 = transverseLinks[ts][is].adj().sub(identity);
+				GroupElement diff2 = getPureGaugeLink(V1, is, ts, transNumCells).sub(getPureGaugeLink(V2, is, ts, transNumCells));
+				temp.addAssign(diff1.mult(Um1).sub(Um2.mult(diff2)));
+			}
+			longitudinalFields[i] = temp.proj();
+		}
+		return longitudinalFields;
+	}
+
+	private static GroupElement getPureGaugeLink(GroupElement[] V, int i, int ts, int[] transNumCells) {
+		int is = GridFunctions.shift(i, ts, 1, transNumCells);
+		return V[i].mult(V[is].adj());
+	}
+}
@@ -81,6 +81,9 @@ public class CGCInitialCondition implements IInitialCondition {
 			case TemporalOptimizedImplicitCGCNGP:
 				initialParticleCreator = new LightConeNGPSuperParticleCreator();
 				break;
+			case TemporalPackedCGCNGP:
+				initialParticleCreator = new LightConeNGPPackedParticleCreator();
+				break;
 			default:
 				throw new RuntimeException("CGCInitialCondition: simulation type not supported!");
 		}
@@ -1,5 +1,9 @@
 package org.openpixi.pixi.physics.initial.CGC;
 
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.ElementFactory;
+import org.openpixi.pixi.parallel.indexaccess.IndexAction;
+import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.gauge.DoubleFFTWrapper;
 import org.openpixi.pixi.physics.util.GridFunctions;
 
@@ -25,12 +29,9 @@ public class FourierFunctions {
 		int longitudinalNumCells = numCells[direction];
 		int[] transverseNumCells = GridFunctions.reduceGridPos(numCells, direction);
 
-		DoubleFFTWrapper fft = new DoubleFFTWrapper(numCells);
-		double[] rhoReg = new double[fft.getFFTArraySize()]; // hardcoded for 3D, I know.
-		for (int i = 0; i < totalCells; i++) {
-			rhoReg[fft.getFFTArrayIndex(i)] = rho[i];
-		}
-		fft.complexForward(rhoReg);
+		DoubleFFTWrapper fft = DoubleFFTWrapper.getInstance(numCells);
+		double[] rhoReg = new double[fft.getRealFFTArraySize()]; // hardcoded for 3D, I know.
+		fft.realForward(rho, rhoReg);
 
 		// Remove global charge
 		rhoReg[0] = 0.0;
@@ -38,6 +39,10 @@ public class FourierFunctions {
 
 		// Apply momentum regulation
 		for (int i = 0; i < totalCells; i++) {
+			if (fft.isRealFFTConjugate(i)) {
+				// only half of the spectrum is stored for real data
+				continue;
+			}
 			int[] gridPos = GridFunctions.getCellPos(i, numCells);
 			int longPos = gridPos[direction];
 			int[] transPos = GridFunctions.reduceGridPos(gridPos, direction);
@@ -51,18 +56,15 @@ public class FourierFunctions {
 			if(kT2 <=  UVT * UVT && kL <= UVL && kT2 > 0) {
 				// Apply 'soft' IR regulation
 				double regulator = kTeff2 / (kTeff2 + IR * IR);
-				rhoReg[fft.getFFTArrayIndex(i)] *= regulator;
-				rhoReg[fft.getFFTArrayIndex(i)+1] *= regulator;
+				rhoReg[fft.getRealFFTArrayIndex(i)] *= regulator;
+				rhoReg[fft.getRealFFTArrayIndex(i)+1] *= regulator;
 			} else {
-				rhoReg[fft.getFFTArrayIndex(i)] = 0.0;
-				rhoReg[fft.getFFTArrayIndex(i)+1] = 0.0;
+				rhoReg[fft.getRealFFTArrayIndex(i)] = 0.0;
+				rhoReg[fft.getRealFFTArrayIndex(i)+1] = 0.0;
 			}
 		}
 
-		fft.complexInverse(rhoReg, true);
-		for (int i = 0; i < totalCells; i++) {
-			rho[i] = rhoReg[fft.getFFTArrayIndex(i)];
-		}
+		fft.realInverse(rhoReg, rho, true);
 		return rho;
 	}
 
@@ -89,12 +91,9 @@ public class FourierFunctions {
 		int longitudinalNumCells = numCells[direction];
 		int[] transverseNumCells = GridFunctions.reduceGridPos(numCells, direction);
 
-		DoubleFFTWrapper fft = new DoubleFFTWrapper(numCells);
-		double[] rhoReg = new double[fft.getFFTArraySize()]; // hardcoded for 3D, I know.
-		for (int i = 0; i < totalCells; i++) {
-			rhoReg[fft.getFFTArrayIndex(i)] = rho[i];
-		}
-		fft.complexForward(rhoReg);
+		DoubleFFTWrapper fft = DoubleFFTWrapper.getInstance(numCells);
+		double[] rhoReg = new double[fft.getRealFFTArraySize()]; // hardcoded for 3D, I know.
+		fft.realForward(rho, rhoReg);
 
 		// Remove global charge
 		rhoReg[0] = 0.0;
@@ -102,6 +101,10 @@ public class FourierFunctions {
 
 		// Apply momentum regulation
 		for (int i = 0; i < totalCells; i++) {
+			if (fft.isRealFFTConjugate(i)) {
+				// only half of the spectrum is stored for real data
+				continue;
+			}
 			int[] gridPos = GridFunctions.getCellPos(i, numCells);
 			int longPos = gridPos[direction];
 			int[] transPos = GridFunctions.reduceGridPos(gridPos, direction);
@@ -116,18 +119,15 @@ public class FourierFunctions {
 				// Apply 'soft' IR regulation
 				double regulator = kTeff2 / (kTeff2 + IR * IR);
 				double longRegulator = Math.exp(-0.25*kL*kL*longWidth*longWidth);
-				rhoReg[fft.getFFTArrayIndex(i)] *= regulator*longRegulator;
-				rhoReg[fft.getFFTArrayIndex(i)+1] *= regulator*longRegulator;
+				rhoReg[fft.getRealFFTArrayIndex(i)] *= regulator*longRegulator;
+				rhoReg[fft.getRealFFTArrayIndex(i)+1] *= regulator*longRegulator;
 			} else {
-				rhoReg[fft.getFFTArrayIndex(i)] = 0.0;
-				rhoReg[fft.getFFTArrayIndex(i)+1] = 0.0;
+				rhoReg[fft.getRealFFTArrayIndex(i)] = 0.0;
+				rhoReg[fft.getRealFFTArrayIndex(i)+1] = 0.0;
 			}
 		}
 
-		fft.complexInverse(rhoReg, true);
-		for (int i = 0; i < totalCells; i++) {
-			rho[i] = rhoReg[fft.getFFTArrayIndex(i)];
-		}
+		fft.realInverse(rhoReg, rho, true);
 		return rho;
 	}
 
@@ -147,26 +147,96 @@ public class FourierFunctions {
 	public static double[] solvePoisson2D(double[] rho, int[] transNumCells, double aT) {
 		int totalCells = transNumCells[0] * transNumCells[1];
 
-		DoubleFFTWrapper fft = new DoubleFFTWrapper(transNumCells);
-		double[] phiFFT = new double[fft.getFFTArraySize()];
-		for (int i = 0; i < totalCells; i++) {
-			phiFFT[fft.getFFTArrayIndex(i)] = rho[i];
-		}
-		fft.complexForward(phiFFT);
+		DoubleFFTWrapper fft = DoubleFFTWrapper.getInstance(transNumCells);
+		double[] phiFFT = new double[fft.getRealFFTArraySize()];
+		fft.realForward(rho, phiFFT);
 
 		phiFFT[0] = 0.0;
 		phiFFT[1] = 0.0;
 		for (int i = 1; i < totalCells; i++) {
+			if (fft.isRealFFTConjugate(i)) {
+				continue;
+			}
 			double kTeff2 = computeEffectiveTransverseMomentumSquared(i, transNumCells, aT);
-			phiFFT[fft.getFFTArrayIndex(i)]   *= 1.0 / kTeff2;
-			phiFFT[fft.getFFTArrayIndex(i)+1] *= 1.0 / kTeff2;
+			phiFFT[fft.getRealFFTArrayIndex(i)]   *= 1.0 / kTeff2;
+			phiFFT[fft.getRealFFTArrayIndex(i)+1] *= 1.0 / kTeff2;
 		}
-		fft.complexInverse(phiFFT, true);
 
 		double[] phi = new double[totalCells];
-		for (int i = 0; i < totalCells; i++) {
-			phi[i] = phiFFT[fft.getFFTArrayIndex(i)];
+		fft.realInverse(phiFFT, phi, true);
+
+		return phi;
+	}
+
+	/**
+	 * Solves the 2D transverse Poisson equation for every longitudinal slice and every color component of a 3D charge
+	 * density. The result is the same as calling {@link #solvePoisson2D(double[], int[], double)} sheet by sheet, but
+	 * the slices are distributed among the threads of the simulation. Every thread reuses its FFT plans
+	 * (see {@link DoubleFFTWrapper#getInstance(int[])}) and work arrays for all colors of a slice, and the inverse
+	 * lattice Laplacian is only computed once.
+	 *
+	 * @param s                 Reference to the Simulation object
+	 * @param chargeDensity     3D charge density
+	 * @param aT                transverse lattice spacing
+	 * @return                  solution phi for every cell of the grid
+	 */
+	public static AlgebraElement[] solvePoissonSheets(Simulation s, final IInitialChargeDensity chargeDensity, double aT) {
+		final int direction = chargeDensity.getDirection();
+		final int[] numCells = s.grid.getNumCells();
+		final int[] transverseNumCells = GridFunctions.reduceGridPos(numCells, direction);
+		final int totalTransverseCells = GridFunctions.getTotalNumberOfCells(transverseNumCells);
+		final ElementFactory factory = s.grid.getElementFactory();
+		final AlgebraElement[] phi = new AlgebraElement[s.grid.getTotalNumberOfCells()];
+
+		// Cell indices of the transverse plane z = 0 and distance between two planes.
+		final int[] transverseCellIndices = new int[totalTransverseCells];
+		for (int i = 0; i < totalTransverseCells; i++) {
+			int[] gridPos = GridFunctions.insertGridPos(GridFunctions.getCellPos(i, transverseNumCells), direction, 0);
+			transverseCellIndices[i] = GridFunctions.getCellIndex(gridPos, numCells);
 		}
+		int[] unitPos = new int[numCells.length];
+		unitPos[direction] = 1;
+		final int longitudinalStride = GridFunctions.getCellIndex(unitPos, numCells);
+
+		// Inverse of the lattice Laplacian in momentum space.
+		final double[] inverseLaplacian = new double[totalTransverseCells];
+		for (int i = 1; i < totalTransverseCells; i++) {
+			inverseLaplacian[i] = 1.0 / computeEffectiveTransverseMomentumSquared(i, transverseNumCells, aT);
+		}
+
+		s.getIndexIterator().execute(numCells[direction], new IndexAction() {
+			public void execute(int z) {
+				DoubleFFTWrapper fft = DoubleFFTWrapper.getInstance(transverseNumCells);
+				double[] values = new double[totalTransverseCells];
+				double[] spectrum = new double[fft.getRealFFTArraySize()];
+				int offset = z * longitudinalStride;
+				for (int i = 0; i < totalTransverseCells; i++) {
+					phi[transverseCellIndices[i] + offset] = factory.algebraZero();
+				}
+
+				for (int c = 0; c < factory.numberOfComponents; c++) {
+					for (int i = 0; i < totalTransverseCells; i++) {
+						values[i] = chargeDensity.getChargeDensity(transverseCellIndices[i] + offset).get(c);
+					}
+
+					fft.realForward(values, spectrum);
+					spectrum[0] = 0.0;
+					spectrum[1] = 0.0;
+					for (int i = 1; i < totalTransverseCells; i++) {
+						if (fft.isRealFFTConjugate(i)) {
+							continue;
+						}
+						spectrum[fft.getRealFFTArrayIndex(i)]   *= inverseLaplacian[i];
+						spectrum[fft.getRealFFTArrayIndex(i)+1] *= inverseLaplacian[i];
+					}
+					fft.realInverse(spectrum, values, true);
+
+					for (int i = 0; i < totalTransverseCells; i++) {
+						phi[transverseCellIndices[i] + offset].set(c, values[i]);
+					}
+				}
+			}
+		});
 
 		return phi;
 	}
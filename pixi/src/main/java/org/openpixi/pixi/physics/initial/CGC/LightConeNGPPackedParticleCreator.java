@@ -0,0 +1,47 @@
+package org.openpixi.pixi.physics.initial.CGC;
+
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.particles.CGCParticle;
+import org.openpixi.pixi.physics.particles.IParticle;
+import org.openpixi.pixi.physics.particles.PackedCGCParticles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This particle generator creates the same particles as {@link LightConeNGPParticleCreator}, but stores them in
+ * {@link PackedCGCParticles} containers. The particles are split into one container per thread, keeping the order in
+ * which they have been created.
+ */
+public class LightConeNGPPackedParticleCreator extends LightConeNGPParticleCreator {
+
+	@Override
+	public void initializeParticles(Simulation s, int particlesPerLink) {
+		int firstParticle = s.particles.size();
+		super.initializeParticles(s, particlesPerLink);
+
+		// Replace the new CGCParticles with packed containers.
+		List<IParticle> newParticles = s.particles.subList(firstParticle, s.particles.size());
+		ArrayList<IParticle> particles = new ArrayList<IParticle>(newParticles);
+		newParticles.clear();
+
+		int numberOfParticles = particles.size();
+		int numberOfContainers = Math.max(Math.min(s.numberOfThreads, numberOfParticles), 1);
+		int[] numCells = s.grid.getNumCells();
+		double[] latticeSpacings = s.grid.getLatticeSpacings();
+
+		int start = 0;
+		for (int j = 0; j < numberOfContainers; j++) {
+			int end = (int) ((long) numberOfParticles * (j + 1) / numberOfContainers);
+			PackedCGCParticles container = new PackedCGCParticles(direction, orientation, s.getNumberOfColors(),
+					numCells, end - start);
+			for (int i = start; i < end; i++) {
+				container.add((CGCParticle) particles.get(i), numCells, latticeSpacings);
+				// Release the particle object as soon as it has been packed.
+				particles.set(i, null);
+			}
+			s.particles.add(container);
+			start = end;
+		}
+	}
+}
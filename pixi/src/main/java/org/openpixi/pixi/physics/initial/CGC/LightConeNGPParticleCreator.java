@@ -6,7 +6,6 @@ import org.openpixi.pixi.physics.fields.NewLCPoissonSolver;
 import org.openpixi.pixi.physics.fields.currentgenerators.ICurrentGenerator;
 import org.openpixi.pixi.physics.initial.CGC.IParticleCreator;
 import org.openpixi.pixi.physics.particles.CGCParticle;
-import org.openpixi.pixi.physics.particles.IParticle;
 import org.openpixi.pixi.physics.util.GridFunctions;
 
 import java.util.ArrayList;
@@ -109,13 +108,14 @@ public class LightConeNGPParticleCreator implements IParticleCreator {
 	 */
 	public void initializeParticles(Simulation s, int particlesPerLink) {
 		// Find max charges in transverse planes for each longitudinal coordinate and global charge maximum.
-		int lnum = s.grid.getNumCells(0);
+		int lnum = s.grid.getNumCells(direction);
 		double[] maxCharges = new double[lnum];
 		double globalMax = 0.0;
 		for (int z = 0; z < lnum; z++) {
 			double max = 0.0;
 			for (int j = 0; j < totalTransversalCells; j++) {
-				int index = z * totalTransversalCells + j;
+				int[] gridPos = GridFunctions.insertGridPos(GridFunctions.getCellPos(j, transversalNumCells), direction, z);
+				int index = s.grid.getCellIndex(gridPos);
 				double charge = Math.sqrt(gaussConstraint[index].square());
 				if (max < charge) {
 					max = charge;
@@ -153,10 +153,33 @@ public class LightConeNGPParticleCreator implements IParticleCreator {
 		for (int i = 0; i < totalTransversalCells; i++) {
 			longitudinalParticleList.add(new ArrayList<CGCParticle>());
 		}
+		// With sparse seeding, transversal cells whose charges stay below the threshold in the whole block are skipped.
+		boolean[] seedTransversalCell = new boolean[totalTransversalCells];
+		for (int i = 0; i < totalTransversalCells; i++) {
+			seedTransversalCell[i] = true;
+		}
+		if (s.useSparseParticleSeeding()) {
+			double threshold = s.getParticleChargeThreshold() * particlesPerLink;
+			for (int i = 0; i < totalTransversalCells; i++) {
+				double max = 0.0;
+				for (int z = zStart; z <= zEnd; z++) {
+					int[] gridPos = GridFunctions.insertGridPos(GridFunctions.getCellPos(i, transversalNumCells), direction, z);
+					double charge = Math.sqrt(gaussConstraint[s.grid.getCellIndex(gridPos)].square());
+					if (max < charge) {
+						max = charge;
+					}
+				}
+				seedTransversalCell[i] = (max > threshold);
+			}
+		}
+
 		// Traverse through charge density and add particles by sampling the charge distribution
 		double t0 = 0.0;	// Particles should be initialized at t = 0 and t = dt.
 		for (int z = zStart; z <= zEnd; z++) {
 			for (int i = 0; i < totalTransversalCells; i++) {
+				if (!seedTransversalCell[i]) {
+					continue;
+				}
 				int[] transGridPos = GridFunctions.getCellPos(i, transversalNumCells);
 				int[] gridPos = GridFunctions.insertGridPos(transGridPos, direction, z);
 				int index = s.grid.getCellIndex(gridPos);
@@ -227,9 +250,10 @@ public class LightConeNGPParticleCreator implements IParticleCreator {
 		}
 
 		// Make sure particle charges Q0 and Q1 are the same.
-		for(IParticle p : s.particles) {
-			CGCParticle P = (CGCParticle) p;
-			P.Q1 = P.Q0.copy();
+		for (ArrayList<CGCParticle> particleList : longitudinalParticleList) {
+			for (CGCParticle P : particleList) {
+				P.Q1 = P.Q0.copy();
+			}
 		}
 
 	}
@@ -94,7 +94,8 @@ public class LightConeNGPSuperParticleCreator implements IParticleCreator {
 	 * Initializes the particles according to the field initial conditions. The charge density is computed from the
 	 * Gauss law violations of the initial fields. The particles are then sampled from this charge density.
 	 * Particles in transverse planes which cross NGP boundaries at the same time during the simulation are consolidated
-	 * in super particles.
+	 * in super particles. The charges are the same as the ones of {@link LightConeNGPParticleCreator}, so both
+	 * creators lead to identical currents.
 	 *
 	 * @param s
 	 * @param particlesPerLink
@@ -107,14 +108,18 @@ public class LightConeNGPSuperParticleCreator implements IParticleCreator {
 		law at the boundaries of the regions, but these errors are (supposed to be) negligible.
 		 */
 
+		// Cell indices of the transversal plane and stride of the longitudinal direction.
+		int[] transversalCellIndices = CGCSuperParticle.getTransversalCellIndices(s.grid.getNumCells(), direction);
+		int longitudinalStride = CGCSuperParticle.getLongitudinalStride(s.grid.getNumCells(), direction);
+
 		// Find max charges in transverse planes for each longitudinal coordinate and global charge maximum.
-		int lnum = s.grid.getNumCells(0);
+		int lnum = s.grid.getNumCells(direction);
 		double[] maxCharges = new double[lnum];
 		double globalMax = 0.0;
 		for (int z = 0; z < lnum; z++) {
 			double max = 0.0;
 			for (int j = 0; j < totalTransversalCells; j++) {
-				int index = z * totalTransversalCells + j;
+				int index = transversalCellIndices[j] + z * longitudinalStride;
 				double charge = Math.sqrt(gaussConstraint[index].square());
 				if (max < charge) {
 					max = charge;
@@ -145,10 +150,8 @@ public class LightConeNGPSuperParticleCreator implements IParticleCreator {
 			}
 		}
 
-		// Set width of particle block.
-		int blockWidth = zEnd - zStart;
-
-		// Spawn super particles.
+		// Set width of particle block. The planes zStart to zEnd are occupied (same as in LightConeNGPParticleCreator).
+		int blockWidth = zEnd - zStart + 1;
 
 		// Number of subdivisions of the particle block
 		int numberOfSubdivisions = Math.min(s.numberOfThreads, blockWidth);
@@ -156,67 +159,49 @@ public class LightConeNGPSuperParticleCreator implements IParticleCreator {
 		// Compute efficient partitioning of the block width
 		int ws = blockWidth / numberOfSubdivisions;         // width of small subdivision
 		int wl = blockWidth / numberOfSubdivisions + 1;     // width of large subdivision
-		int ps = ws * totalTransversalCells;                // particle number per small subdivision
-		int pl = wl * totalTransversalCells;                // particle number oer large subdivision
-		int ns = numberOfSubdivisions * wl - blockWidth;    // number of small subdivisions
 		int nl = blockWidth - numberOfSubdivisions * ws;    // number of large subdivisions
 
 		int numberOfSuperParticles = numberOfSubdivisions * particlesPerCell;
-		int indexOffset = zStart * totalTransversalCells;
 		int numberOfLongitudinalParticles = blockWidth * particlesPerCell;
 
 		// Create lists for particle refinement.
 		AlgebraElement[][] longitudinalParticleArray = new AlgebraElement[totalTransversalCells][numberOfLongitudinalParticles];
-		for (int i = 0; i < totalTransversalCells; i++) {
-			for (int j = 0; j < numberOfLongitudinalParticles; j++) {
-				longitudinalParticleArray[i][j] = s.grid.getElementFactory().algebraZero();
-			}
-		}
 
 		// Spawn super particles.
 		CGCSuperParticle[] superParticles = new CGCSuperParticle[numberOfSuperParticles];
+		int planeOffset = zStart;
 		for (int j = 0; j < numberOfSubdivisions; j++) {
+			int width = (j < nl) ? wl : ws;
+
 			// Initialize super particles for subdivision of the particle block.
 			for (int k = 0; k < particlesPerCell; k++) {
-				if (j < nl) {
-					superParticles[particlesPerCell * j + k] = new CGCSuperParticle(orientation,
-							pl,
-							indexOffset,
-							totalTransversalCells,
-							k,
-							particlesPerCell);
-				} else {
-					superParticles[particlesPerCell * j + k] = new CGCSuperParticle(orientation,
-							ps,
-							indexOffset,
-							totalTransversalCells,
-							k,
-							particlesPerCell);
-				}
+				superParticles[particlesPerCell * j + k] = new CGCSuperParticle(direction,
+						orientation,
+						width * totalTransversalCells,
+						planeOffset,
+						k,
+						particlesPerCell,
+						transversalCellIndices,
+						longitudinalStride);
 				s.particles.add(superParticles[particlesPerCell * j + k]);
 			}
 
-			// Set super particle charges for subdivision.
-			int maxParticleNum = (j < nl) ? pl : ps;
-			for (int i = 0; i < maxParticleNum; i++) {
-				int index = indexOffset + i;
+			// Set super particle charges for subdivision. All charges of a plane are sampled from the lattice site of
+			// the plane.
+			for (int i = 0; i < width * totalTransversalCells; i++) {
+				int transverseIndex = i % totalTransversalCells;
+				int z = planeOffset + i / totalTransversalCells;
+				int index = transversalCellIndices[transverseIndex] + z * longitudinalStride;
 				for (int k = 0; k < particlesPerCell; k++) {
-					int ngp = (k < particlesPerCell / 2) ? index : s.grid.shift(index, 0, 1);
-					AlgebraElement charge = gaussConstraint[ngp].copy();
+					AlgebraElement charge = gaussConstraint[index].copy();
 					charge.multAssign(1.0 / particlesPerCell);
 					superParticles[j * particlesPerCell + k].Q[i] = charge;
 
-					int transverseIndex = index % totalTransversalCells;
-					int shiftedIndex = index - zStart * totalTransversalCells;
-					int longitudinalIndex = (int) Math.floor(shiftedIndex / totalTransversalCells) * particlesPerCell + k;
-					longitudinalParticleArray[transverseIndex][longitudinalIndex] = superParticles[j * particlesPerCell + k].Q[i];
+					int longitudinalIndex = (z - zStart) * particlesPerCell + k;
+					longitudinalParticleArray[transverseIndex][longitudinalIndex] = charge;
 				}
 			}
-			if (j < nl) {
-				indexOffset += pl;
-			} else {
-				indexOffset += ps;
-			}
+			planeOffset += width;
 		}
 
 		// Charge refinement
@@ -243,7 +228,7 @@ public class LightConeNGPSuperParticleCreator implements IParticleCreator {
 	}
 
 	private void refine2(int i, AlgebraElement[] list, int particlesPerLink) {
-		int jmod = (i + particlesPerLink / 2) % particlesPerLink;
+		int jmod = i % particlesPerLink;
 		int n = list.length;
 		// Refinement can not be applied to the last charge in an NGP cell.
 		if (jmod >= 0 && jmod < particlesPerLink - 1) {
@@ -270,7 +255,7 @@ public class LightConeNGPSuperParticleCreator implements IParticleCreator {
 
 
 	private void refine4(int i, AlgebraElement[] list, int particlesPerLink) {
-		int jmod = (i + particlesPerLink / 2) % particlesPerLink;
+		int jmod = i % particlesPerLink;
 		int n = list.length;
 		// Refinement can not be applied to the last charge in an NGP cell.
 		if (jmod >= 0 && jmod < particlesPerLink - 1) {
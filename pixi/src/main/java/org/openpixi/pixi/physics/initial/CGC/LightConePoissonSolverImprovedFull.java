@@ -2,6 +2,8 @@ package org.openpixi.pixi.physics.initial.CGC;
 
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.parallel.cellaccess.CellAction;
+import org.openpixi.pixi.parallel.indexaccess.IndexAction;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.physics.util.GridFunctions;
@@ -38,54 +40,22 @@ public class LightConePoissonSolverImprovedFull implements ICGCPoissonSolver {
 	 * @param chargeDensity Reference to an IInitialChargeDensity object.
 	 */
 	public void solve(IInitialChargeDensity chargeDensity) {
-		AlgebraElement[] phi0;
-		GroupElement[] V;
+		final AlgebraElement[] phi0;
+		final GroupElement[] V;
 
-		int direction = chargeDensity.getDirection();
-		int orientation = chargeDensity.getOrientation();
+		final int direction = chargeDensity.getDirection();
+		final int orientation = chargeDensity.getOrientation();
 
-		int longitudinalNumCells = s.grid.getNumCells(direction);
-		int[] transverseNumCells = GridFunctions.reduceGridPos(s.grid.getNumCells(), direction);
+		final int longitudinalNumCells = s.grid.getNumCells(direction);
+		final int[] transverseNumCells = GridFunctions.reduceGridPos(s.grid.getNumCells(), direction);
 		int totalTransverseCells = GridFunctions.getTotalNumberOfCells(transverseNumCells);
-		int numberOfColors = s.getNumberOfColors();
-		int numberOfComponents = (numberOfColors > 1) ? numberOfColors * numberOfColors - 1 : 1;
 
 		// Longitudinal and transverse lattice spacing
-		double aL = s.grid.getLatticeSpacing(direction);
+		final double aL = s.grid.getLatticeSpacing(direction);
 		double aT = s.grid.getLatticeSpacing((direction + 1) % s.getNumberOfDimensions());
 
 		// Solve for phi at t = - at/2 'sheet by sheet'
-		phi0 = new AlgebraElement[s.grid.getTotalNumberOfCells()];
-		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
-			phi0[i] = s.grid.getElementFactory().algebraZero();
-		}
-
-		for (int z = 0; z < longitudinalNumCells; z++) {
-			for (int c = 0; c < numberOfComponents; c++) {
-				// Prepare 2D charge density.
-				double[] rho2D = new double[totalTransverseCells];
-				for (int i = 0; i < totalTransverseCells; i++) {
-					int[] transGridPos = GridFunctions.getCellPos(i, transverseNumCells);
-					int[] gridPos = GridFunctions.insertGridPos(transGridPos, direction, z);
-					int index = s.grid.getCellIndex(gridPos);
-
-					rho2D[i] = chargeDensity.getChargeDensity(index).get(c);
-				}
-
-				// Solve Poisson equation
-				double[] phi2D = FourierFunctions.solvePoisson2D(rho2D, transverseNumCells, aT);
-
-				// Put result into phi0.
-				for (int i = 0; i < totalTransverseCells; i++) {
-					int[] transGridPos = GridFunctions.getCellPos(i, transverseNumCells);
-					int[] gridPos = GridFunctions.insertGridPos(transGridPos, direction, z);
-					int index = s.grid.getCellIndex(gridPos);
-
-					// Already include gauge factor for Wilson line here.
-					phi0[index].set(c, phi2D[i]);
-				}
-			}
-		}
+		phi0 = FourierFunctions.solvePoissonSheets(s, chargeDensity, aT);
 
 		// Compute V at t = - at/2 by constructing the Wilson line from gauge links.
 		// New interpretation of the field phi: It sits in between two lattice points (staggered grid).
@@ -96,63 +66,66 @@ public class LightConePoissonSolverImprovedFull implements ICGCPoissonSolver {
 		}
 
 		// Number of sub lattice sites. Should be at least 4.
-		int M = 32;
-		for (int k = 1; k < longitudinalNumCells; k++) {
-			int z = (orientation < 0) ? k : (longitudinalNumCells - k - 1);
-			for (int i = 0; i < totalTransverseCells; i++) {
-				// Current position
+		// The Wilson lines at different transverse positions are independent and computed in parallel.
+		final int M = 32;
+		s.getIndexIterator().execute(totalTransverseCells, new IndexAction() {
+			public void execute(int i) {
 				int[] transGridPos = GridFunctions.getCellPos(i, transverseNumCells);
-				int[] gridPos = GridFunctions.insertGridPos(transGridPos, direction, z);
-				int index = s.grid.getCellIndex(gridPos);
-
-				// Last position in longitudinal direction at same transverse position.
-				int indexL = s.grid.shift(index, direction, orientation);
-
-				// Compute V from V directly behind it in the longitudinal direction using phi between two grid points.
-				// Staggered grid: for orientation +1, do not shift. For orientation -1, shift in 'backwards'.
-				GroupElement gaugeLink = V[indexL].copy();
+				for (int k = 1; k < longitudinalNumCells; k++) {
+					int z = (orientation < 0) ? k : (longitudinalNumCells - k - 1);
+					// Current position
+					int[] gridPos = GridFunctions.insertGridPos(transGridPos, direction, z);
+					int index = s.grid.getCellIndex(gridPos);
 
-				GroupElement W;
-				if(orientation == -1) {
-					int i3 = index;
-					int i2 = s.grid.shift(i3, direction, -1);
-					int i1 = s.grid.shift(i2, direction, -1);
-
-					AlgebraElement P1 = phi0[i1];
-					AlgebraElement P2 = phi0[i2];
-					AlgebraElement P3 = phi0[i3];
-
-					double z1 = z - 1;
-					double z2 = z - 0.5;
-					double z3 = z;
-
-					// Since the Wilson line from (n) to (n+1) crosses an NGP boundary, the Wilson line has to be split
-					// up into two parts.
-					W = W(z1, z2, M / 2, P1, P2, aL);
-					W.multAssign(W(z2, z3, M / 2, P2, P3, aL));
-				} else {
-					int i2 = index;
-					int i1 = s.grid.shift(i2, direction, -1);
-					int i3 = s.grid.shift(i2, direction, +1);
-
-					AlgebraElement P1 = phi0[i1];
-					AlgebraElement P2 = phi0[i2];
-					AlgebraElement P3 = phi0[i3];
-
-					double z1 = z + 1;
-					double z2 = z + 0.5;
-					double z3 = z;
-
-					// Since the Wilson line from (n) to (n+1) crosses an NGP boundary, the Wilson line has to be split
-					// up into two parts.
-					W = W(z1, z2, M / 2, P2, P3, aL);
-					W.multAssign(W(z2, z3, M / 2, P1, P2, aL));
+					// Last position in longitudinal direction at same transverse position.
+					int indexL = s.grid.shift(index, direction, orientation);
+
+					// Compute V from V directly behind it in the longitudinal direction using phi between two grid points.
+					// Staggered grid: for orientation +1, do not shift. For orientation -1, shift in 'backwards'.
+					GroupElement gaugeLink = V[indexL].copy();
+
+					GroupElement W;
+					if(orientation == -1) {
+						int i3 = index;
+						int i2 = s.grid.shift(i3, direction, -1);
+						int i1 = s.grid.shift(i2, direction, -1);
+
+						AlgebraElement P1 = phi0[i1];
+						AlgebraElement P2 = phi0[i2];
+						AlgebraElement P3 = phi0[i3];
+
+						double z1 = z - 1;
+						double z2 = z - 0.5;
+						double z3 = z;
+
+						// Since the Wilson line from (n) to (n+1) crosses an NGP boundary, the Wilson line has to be split
+						// up into two parts.
+						W = W(z1, z2, M / 2, P1, P2, aL);
+						W.multAssign(W(z2, z3, M / 2, P2, P3, aL));
+					} else {
+						int i2 = index;
+						int i1 = s.grid.shift(i2, direction, -1);
+						int i3 = s.grid.shift(i2, direction, +1);
+
+						AlgebraElement P1 = phi0[i1];
+						AlgebraElement P2 = phi0[i2];
+						AlgebraElement P3 = phi0[i3];
+
+						double z1 = z + 1;
+						double z2 = z + 0.5;
+						double z3 = z;
+
+						// Since the Wilson line from (n) to (n+1) crosses an NGP boundary, the Wilson line has to be split
+						// up into two parts.
+						W = W(z1, z2, M / 2, P2, P3, aL);
+						W.multAssign(W(z2, z3, M / 2, P1, P2, aL));
+					}
+
+					gaugeLink.multAssign(W);
+					V[index] = gaugeLink;
 				}
-
-				gaugeLink.multAssign(W);
-				V[index] = gaugeLink;
 			}
-		}
+		});
 
 		// Store V at longitudinal boundary behind nucleus.
 		VT = new GroupElement[totalTransverseCells];
@@ -167,95 +140,110 @@ public class LightConePoissonSolverImprovedFull implements ICGCPoissonSolver {
 		}
 
 		// Make a copy of the grid. Ugly, but needed for Gauss constraint calculation.
-		Grid gridCopy = new Grid(s.grid);
+		final Grid gridCopy = new Grid(s.grid);
 		//gridCopy.createGrid();
 
+		// The remaining steps only depend on the cell itself and its neighbours and are executed by the cell iterator.
+		final Grid grid = s.grid;
+		final int numberOfDimensions = s.getNumberOfDimensions();
+
 		// Set gauge links at t = - at/2
-		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
-			for (int d = 0; d < s.getNumberOfDimensions(); d++) {
-				if(d != direction) {
-					int is = s.grid.shift(i, d, 1);
-					GroupElement V1 = V[i];
-					GroupElement V2 = V[is];
-
-					GroupElement U = s.grid.getU(i, d);
-					// U_x,i = V_x V_{x+i}^t
-					s.grid.setU(i, d, V1.mult(U).mult(V2.adj()));
-					// Also write to copy of the grid.
-					gridCopy.setU(i, d, V1.mult(V2.adj()));
+		grid.getCellIterator().execute(grid, new CellAction() {
+			public void execute(Grid g, int i) {
+				for (int d = 0; d < numberOfDimensions; d++) {
+					if(d != direction) {
+						int is = grid.shift(i, d, 1);
+						GroupElement V1 = V[i];
+						GroupElement V2 = V[is];
+
+						GroupElement U = grid.getU(i, d);
+						// U_x,i = V_x V_{x+i}^t
+						grid.setU(i, d, V1.mult(U).mult(V2.adj()));
+						// Also write to copy of the grid.
+						gridCopy.setU(i, d, V1.mult(V2.adj()));
+					}
 				}
 			}
-		}
+		});
 
 		// Compute V at at/2 from V at -at/2 (improved using linear interpolation and path ordering).
 
-		int Mfrac = (int) (M * s.grid.getTemporalSpacing() / aL * 0.5);
-		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
-			// Compute time evolution operator using linear interpolation of the phi's and path ordering.
-			int[] pos = s.grid.getCellPos(i);
-			int zi = pos[direction];
-
-			GroupElement W;
-			int i1, i2;
-			double z1, z2;
-			if(orientation == -1) {
-				i1 = s.grid.shift(i, direction, -1);
-				i2 = i;
-
-				z1 = zi;
-				z2 = z1 + s.getTimeStep() / aL;
-			} else {
-				i1 = s.grid.shift(i, direction, -1);
-				i2 = i;
-
-				z1 = zi;
-				z2 = z1 - s.getTimeStep() / aL;
-			}
+		final int Mfrac = (int) (M * s.grid.getTemporalSpacing() / aL * 0.5);
+		final double timeStep = s.getTimeStep();
+		grid.getCellIterator().execute(grid, new CellAction() {
+			public void execute(Grid g, int i) {
+				// Compute time evolution operator using linear interpolation of the phi's and path ordering.
+				int[] pos = grid.getCellPos(i);
+				int zi = pos[direction];
+
+				GroupElement W;
+				int i1, i2;
+				double z1, z2;
+				if(orientation == -1) {
+					i1 = grid.shift(i, direction, -1);
+					i2 = i;
+
+					z1 = zi;
+					z2 = z1 + timeStep / aL;
+				} else {
+					i1 = grid.shift(i, direction, -1);
+					i2 = i;
 
-			AlgebraElement P1 = phi0[i1];
-			AlgebraElement P2 = phi0[i2];
+					z1 = zi;
+					z2 = z1 - timeStep / aL;
+				}
 
-			// Compute "extra path" of the Wilson at t = +at/2 using the same method as before.
-			W = W(z1, z2, Mfrac, P1, P2, aL);
+				AlgebraElement P1 = phi0[i1];
+				AlgebraElement P2 = phi0[i2];
 
-			// Evolve the Wilson line along the "extra path".
-			V[i].multAssign(W);
-		}
+				// Compute "extra path" of the Wilson at t = +at/2 using the same method as before.
+				W = W(z1, z2, Mfrac, P1, P2, aL);
+
+				// Evolve the Wilson line along the "extra path".
+				V[i].multAssign(W);
+			}
+		});
 
 		// Set gauge links at t = at/2
-		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
-			for (int d = 0; d < s.getNumberOfDimensions(); d++) {
-				if(d != direction) {
-					int is = s.grid.shift(i, d, 1);
-					GroupElement V1 = V[i];
-					GroupElement V2 = V[is];
-
-					GroupElement U = s.grid.getUnext(i, d);
-					// U_x,i = V_x V_{x+i}^t
-					s.grid.setUnext(i, d, V1.mult(U).mult(V2.adj()));
-					// Also write to copy of the grid.
-					gridCopy.setUnext(i, d, V1.mult(V2.adj()));
+		grid.getCellIterator().execute(grid, new CellAction() {
+			public void execute(Grid g, int i) {
+				for (int d = 0; d < numberOfDimensions; d++) {
+					if(d != direction) {
+						int is = grid.shift(i, d, 1);
+						GroupElement V1 = V[i];
+						GroupElement V2 = V[is];
+
+						GroupElement U = grid.getUnext(i, d);
+						// U_x,i = V_x V_{x+i}^t
+						grid.setUnext(i, d, V1.mult(U).mult(V2.adj()));
+						// Also write to copy of the grid.
+						gridCopy.setUnext(i, d, V1.mult(V2.adj()));
+					}
 				}
 			}
-		}
+		});
 
 		// Compute electric field at t = 0
-		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
-			for (int j = 0; j < s.getNumberOfDimensions(); j++) {
-				s.grid.setE(i, j, s.grid.getEFromLinks(i, j));
-				gridCopy.setE(i, j, gridCopy.getEFromLinks(i, j));
+		grid.getCellIterator().execute(grid, new CellAction() {
+			public void execute(Grid g, int i) {
+				for (int j = 0; j < numberOfDimensions; j++) {
+					grid.setE(i, j, grid.getEFromLinks(i, j));
+					gridCopy.setE(i, j, gridCopy.getEFromLinks(i, j));
+				}
 			}
-		}
+		});
 
 		// Compute Gauss constraint from grid copy
-		gaussViolation = new AlgebraElement[s.grid.getTotalNumberOfCells()];
-		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
-			if(gridCopy.isActive(i)) {
-				this.gaussViolation[i] = gridCopy.getGaussConstraint(i);
-			} else {
-				this.gaussViolation[i] = gridCopy.getElementFactory().algebraZero();
+		gaussViolation = new AlgebraElement[grid.getTotalNumberOfCells()];
+		grid.getCellIterator().execute(grid, new CellAction() {
+			public void execute(Grid g, int i) {
+				if(gridCopy.isActive(i)) {
+					gaussViolation[i] = gridCopy.getGaussConstraint(i);
+				} else {
+					gaussViolation[i] = gridCopy.getElementFactory().algebraZero();
+				}
 			}
-		}
+		});
 	}
 
 	/**
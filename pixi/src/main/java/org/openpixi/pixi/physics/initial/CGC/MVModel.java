@@ -2,7 +2,9 @@ package org.openpixi.pixi.physics.initial.CGC;
 
 import org.apache.commons.math3.analysis.function.Gaussian;
 import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.parallel.indexaccess.IndexAction;
 import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.util.RandomStreams;
 
 import java.util.Random;
 
@@ -118,17 +120,27 @@ public class MVModel implements IInitialChargeDensity {
 			rand.setSeed(seed);
 		}
 
+		// Parallel sampling uses independent random streams for every color component and block of cells.
+		RandomStreams streams = null;
+		if (s.useParallelRandomStreams()) {
+			streams = new RandomStreams(useSeed ? seed : rand.nextLong());
+		}
+
 		for (int j = 0; j < numberOfComponents; j++) {
 			double[] tempRho = new double[s.grid.getTotalNumberOfCells()];
 
 			// Place random charges on the grid (with longitudinal randomness and profile).
 			Gaussian gauss = new Gaussian(location, longitudinalWidth);
 			double randomColorWidth = mu * s.getCouplingConstant() / Math.sqrt(aL * aT * aT);
-			for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
-				int[] pos = s.grid.getCellPos(i);
-				double longPos = pos[direction] * s.grid.getLatticeSpacing(direction);
-				double profile = Math.sqrt(gauss.value(longPos));
-				tempRho[i] = rand.nextGaussian() * randomColorWidth * profile;
+			if (streams != null) {
+				sampleCharges(s, streams, j, tempRho, gauss, randomColorWidth);
+			} else {
+				for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+					int[] pos = s.grid.getCellPos(i);
+					double longPos = pos[direction] * s.grid.getLatticeSpacing(direction);
+					double profile = Math.sqrt(gauss.value(longPos));
+					tempRho[i] = rand.nextGaussian() * randomColorWidth * profile;
+				}
 			}
 
 			// Apply soft momentum regulation in Fourier space.
@@ -156,6 +168,34 @@ public class MVModel implements IInitialChargeDensity {
 		// Done!
 	}
 
+	/**
+	 * Samples the random charges of a color component in parallel. Every block of cells is sampled from its own
+	 * random stream, so the result does not depend on the number of threads.
+	 *
+	 * @param s                 simulation
+	 * @param streams           random streams
+	 * @param component         color component
+	 * @param tempRho           array which is filled with the charges
+	 * @param gauss             longitudinal profile
+	 * @param randomColorWidth  width of the random charges
+	 */
+	private void sampleCharges(final Simulation s, final RandomStreams streams, final int component,
+	                           final double[] tempRho, final Gaussian gauss, final double randomColorWidth) {
+		final int totalCells = s.grid.getTotalNumberOfCells();
+		final double aL = s.grid.getLatticeSpacing(direction);
+		s.getIndexIterator().execute(RandomStreams.getNumberOfBlocks(totalCells), new IndexAction() {
+			public void execute(int block) {
+				RandomStreams.Stream stream = streams.getStream(component, block);
+				int end = RandomStreams.getBlockEnd(block, totalCells);
+				for (int i = RandomStreams.getBlockStart(block); i < end; i++) {
+					int[] pos = s.grid.getCellPos(i);
+					double profile = Math.sqrt(gauss.value(pos[direction] * aL));
+					tempRho[i] = stream.nextGaussian() * randomColorWidth * profile;
+				}
+			}
+		});
+	}
+
 	public AlgebraElement getChargeDensity(int index) {
 		return rho[index];
 	}
@@ -3,6 +3,7 @@ package org.openpixi.pixi.physics.initial.CGC;
 import org.openpixi.pixi.diagnostics.FileFunctions;
 import org.openpixi.pixi.math.GroupElement;
 import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.measurements.WilsonLineCorrelator;
 import org.openpixi.pixi.physics.util.GridFunctions;
 
 import java.io.File;
@@ -60,7 +61,7 @@ public class WilsonLineObservables {
 
 	/**
 	 * Computes the dipole correlation function using binning and writes the results to a file.
-	 * Not implemented yet.
+	 * The correlation function is computed for all separations at once using FFTs (see {@link WilsonLineCorrelator}).
 	 *
 	 * @param filename  name of the output file
 	 */
@@ -75,40 +76,13 @@ public class WilsonLineObservables {
 		// Bin the results to get the correlator as a function of distance.
 		int numBins = (int) Math.sqrt(totalCells) / 2;
 		double[] trVVbinned = new double[numBins];
-		int[] counter = new int[numBins];
+		long[] counter = new long[numBins];
 		double maximumDistance = Math.min(numCells[0] * as[0], numCells[1] * as[1]) * 0.5;
 		double ds = maximumDistance / ((double) numBins);
 
-		for (int i = 0; i < numBins; i++) {
-			trVVbinned[i] = 0.0;
-			counter[i] = 0;
-		}
-
-		for (int i = 0; i < totalCells; i++) {
-			GroupElement V1 = V[i];
-			int[] x = GridFunctions.getCellPos(i, numCells);
-			for (int j = 0; j < totalCells; j++) {
-				int[] y = GridFunctions.getCellPos(j, numCells);
-				double[] dxy = new double[2];
-				double dist = 0.0;
-				for (int k = 0; k < 2; k++) {
-					dxy[k] = Math.abs(x[k] - y[k]);
-					// Wrap distance around periodic boundary.
-					if(dxy[k] > numCells[k] / 2) {
-						dxy[k] -= numCells[k];
-					}
-					dist += dxy[k] * dxy[k] * as[k] * as[k];
-				}
-				dist = Math.sqrt(dist);
-				int bin = (int) (dist / ds);
-				if(bin < numBins) {
-					GroupElement V2 = V[j].adj();
-					trVVbinned[bin] += V1.mult(V2).getRealTrace();
-					counter[bin]++;
-				}
-
-			}
-		}
+		WilsonLineCorrelator correlator = new WilsonLineCorrelator(numCells);
+		double[] correlation = correlator.computeCorrelation(V);
+		correlator.bin(correlation, as, ds, trVVbinned, counter);
 
 		for (int i = 0; i < numBins; i++) {
 			trVVbinned[i] /= (double) counter[i];
@@ -0,0 +1,188 @@
+package org.openpixi.pixi.physics.measurements;
+
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.ScratchElements;
+import org.openpixi.pixi.parallel.cellaccess.ReductionCellAction;
+import org.openpixi.pixi.physics.grid.Grid;
+
+/**
+ * Computes bulk observables of the gauge fields in a single parallel traversal of the grid:
+ * <ul>
+ *     <li>the lattice averages of E^2 and B^2 for every direction (same as
+ *     {@link FieldMeasurements#calculateEsquared(Grid, int)} and {@link FieldMeasurements#calculateBsquared(Grid, int)}),</li>
+ *     <li>the diagonal pressure components derived from them,</li>
+ *     <li>the Gauss constraint violation (same as {@link FieldMeasurements#calculateGaussConstraint(Grid)}),</li>
+ *     <li>optionally the local energy density of every cell.</li>
+ * </ul>
+ * Only evaluatable cells contribute. The magnetic field at both time indices is computed only once per cell and
+ * direction.
+ */
+public class BulkObservables {
+
+	private boolean computeGaussViolation;
+	private boolean computeEnergyDensity;
+
+	private int numberOfDimensions;
+	private double[] eSquared;
+	private double[] bSquared;
+	private double gaussViolation;
+	private double[] energyDensity;
+
+	private ObservablesComputation computation = new ObservablesComputation();
+
+	/**
+	 * Creates a new instance which computes E^2, B^2 and the pressure components.
+	 *
+	 * @param computeGaussViolation	Also compute the Gauss constraint violation
+	 * @param computeEnergyDensity	Also store the local energy density of every cell
+	 */
+	public BulkObservables(boolean computeGaussViolation, boolean computeEnergyDensity) {
+		this.computeGaussViolation = computeGaussViolation;
+		this.computeEnergyDensity = computeEnergyDensity;
+	}
+
+	/**
+	 * Computes all observables for the current state of the grid.
+	 *
+	 * @param grid	Reference to the Grid instance
+	 */
+	public void calculate(Grid grid) {
+		computation.initialize(grid);
+		double[] result = grid.getCellIterator().reduce(grid, computation);
+
+		int totalNumberOfCells = grid.getTotalNumberOfCells();
+		for (int i = 0; i < numberOfDimensions; i++) {
+			eSquared[i] = result[i] / totalNumberOfCells;
+			bSquared[i] = result[numberOfDimensions + i] / totalNumberOfCells;
+		}
+		gaussViolation = result[2 * numberOfDimensions] / totalNumberOfCells;
+	}
+
+	/**
+	 * Returns the lattice average of E^2 in a direction.
+	 */
+	public double getEsquared(int direction) {
+		return eSquared[direction];
+	}
+
+	/**
+	 * Returns the lattice average of B^2 in a direction (averaged over both time indices).
+	 */
+	public double getBsquared(int direction) {
+		return bSquared[direction];
+	}
+
+	/**
+	 * Returns the lattice average of E^2 summed over all directions.
+	 */
+	public double getEsquared() {
+		double sum = 0.0;
+		for (int i = 0; i < numberOfDimensions; i++) {
+			sum += eSquared[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Returns the lattice average of B^2 summed over all directions.
+	 */
+	public double getBsquared() {
+		double sum = 0.0;
+		for (int i = 0; i < numberOfDimensions; i++) {
+			sum += bSquared[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Returns the diagonal component of the pressure in a direction, i.e. the sum of E^2 and B^2 of the transverse
+	 * directions minus E^2 and B^2 of the direction itself.
+	 */
+	public double getPressure(int direction) {
+		double pressure = 0.0;
+		for (int i = 0; i < numberOfDimensions; i++) {
+			double sign = (i == direction) ? -1.0 : 1.0;
+			pressure += sign * (eSquared[i] + bSquared[i]);
+		}
+		return pressure;
+	}
+
+	/**
+	 * Returns the lattice average of the squared Gauss constraint violation. This is zero if the Gauss violation
+	 * is not computed.
+	 */
+	public double getGaussViolation() {
+		return gaussViolation;
+	}
+
+	/**
+	 * Returns the local energy density of every cell or null if it is not computed. The array is reused by the
+	 * next call of {@link #calculate(Grid)}.
+	 */
+	public double[] getEnergyDensity() {
+		return energyDensity;
+	}
+
+	/**
+	 * The accumulator holds E^2 for every direction, B^2 for every direction and the Gauss violation. The local
+	 * energy density is written directly into the array, since every cell is executed by exactly one thread.
+	 */
+	private class ObservablesComputation implements ReductionCellAction {
+
+		private double[] unitFactor;
+		private ScratchElements scratch;
+
+		public void initialize(Grid grid) {
+			numberOfDimensions = grid.getNumberOfDimensions();
+			if (eSquared == null || eSquared.length != numberOfDimensions) {
+				eSquared = new double[numberOfDimensions];
+				bSquared = new double[numberOfDimensions];
+			}
+			if (computeEnergyDensity && (energyDensity == null || energyDensity.length != grid.getTotalNumberOfCells())) {
+				energyDensity = new double[grid.getTotalNumberOfCells()];
+			}
+			unitFactor = new double[numberOfDimensions];
+			for (int i = 0; i < numberOfDimensions; i++) {
+				unitFactor[i] = Math.pow(grid.getLatticeUnitFactor(i), -2);
+			}
+			if (scratch == null || scratch.getNumberOfColors() != grid.getNumberOfColors()) {
+				scratch = new ScratchElements(grid.getElementFactory(), 0, 2);
+			}
+		}
+
+		public int getAccumulatorSize() {
+			return 2 * numberOfDimensions + 1;
+		}
+
+		public void execute(Grid grid, int index, double[] accumulator) {
+			if (grid.isEvaluatable(index)) {
+				AlgebraElement[] algebraElements = scratch.getAlgebraElements();
+				AlgebraElement B0 = algebraElements[0];
+				AlgebraElement B1 = algebraElements[1];
+				double energy = 0.0;
+				for (int i = 0; i < numberOfDimensions; i++) {
+					double Esq = grid.getE(index, i).square();
+					grid.getB(index, i, 0, B0);
+					grid.getB(index, i, 1, B1);
+
+					accumulator[i] += Esq * unitFactor[i];
+					accumulator[numberOfDimensions + i] += 0.5 * (B0.square() + B1.square()) * unitFactor[i];
+
+					if (computeEnergyDensity) {
+						// local energy density uses the time averaged magnetic field
+						B0.addAssign(B1);
+						energy += (0.5 * Esq + 0.25 * B0.square()) * unitFactor[i];
+					}
+				}
+				if (computeGaussViolation) {
+					accumulator[2 * numberOfDimensions] += grid.getGaussConstraintSquared(index);
+				}
+				if (computeEnergyDensity) {
+					energyDensity[index] = energy;
+				}
+			} else if (computeEnergyDensity) {
+				energyDensity[index] = 0.0;
+			}
+		}
+	}
+}
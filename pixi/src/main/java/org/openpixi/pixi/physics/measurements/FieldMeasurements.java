@@ -2,7 +2,7 @@ package org.openpixi.pixi.physics.measurements;
 
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.physics.grid.Grid;
-import org.openpixi.pixi.parallel.cellaccess.CellAction;
+import org.openpixi.pixi.parallel.cellaccess.ReductionCellAction;
 
 
 public class FieldMeasurements {
@@ -25,47 +25,50 @@ public class FieldMeasurements {
 
 	public double calculateEsquared(Grid grid) {
 		Esquared.reset(grid);
-		grid.getCellIterator().execute(grid, Esquared);
+		Esquared.values = grid.getCellIterator().reduce(grid, Esquared);
         return Esquared.getSum();
 	}
 	
 	public double calculateBsquared(Grid grid) {
 		Bsquared.reset(grid);
-		grid.getCellIterator().execute(grid, Bsquared);
+		Bsquared.values = grid.getCellIterator().reduce(grid, Bsquared);
         return Bsquared.getSum();
 	}
 	
 	public double calculateEsquared(Grid grid, int dir) {
 		Esquared.reset(grid);
-		grid.getCellIterator().execute(grid, Esquared);
+		Esquared.values = grid.getCellIterator().reduce(grid, Esquared);
         return Esquared.getSum(dir);
 	}
 	
 	public double calculateBsquared(Grid grid, int dir) {
 		Bsquared.reset(grid);
-		grid.getCellIterator().execute(grid, Bsquared);
+		Bsquared.values = grid.getCellIterator().reduce(grid, Bsquared);
         return Bsquared.getSum(dir);
 	}
 	
 	public double calculateGaussConstraint(Grid grid) {
 		GaussConstraint.reset(grid);
-		grid.getCellIterator().execute(grid, GaussConstraint);
+		GaussConstraint.sum = grid.getCellIterator().reduce(grid, GaussConstraint)[0];
         return GaussConstraint.getSum();
 	}
 
 	public double calculateTotalCharge(Grid grid) {
 		totalCharge.reset(grid);
-		grid.getCellIterator().execute(grid, totalCharge);
+		double[] charge = grid.getCellIterator().reduce(grid, totalCharge);
+		for (int c = 0; c < charge.length; c++) {
+			totalCharge.charge.set(c, charge[c]);
+		}
 		return totalCharge.getSum();
 	}
 
 	public double calculateTotalChargeSquared(Grid grid) {
 		totalChargeSquared.reset(grid);
-		grid.getCellIterator().execute(grid, totalChargeSquared);
+		totalChargeSquared.charge = grid.getCellIterator().reduce(grid, totalChargeSquared)[0];
 		return totalChargeSquared.getSum();
 	}
 
-	private class EFieldSquared implements CellAction {
+	private class EFieldSquared implements ReductionCellAction {
 		private double[] values;
 		private double[] unitFactors;
 		private int totalNumberOfCells;
@@ -94,25 +97,21 @@ public class FieldMeasurements {
         	return values[dir] / totalNumberOfCells;
         }
 
-        public void execute(Grid grid, int index) {
+        public int getAccumulatorSize() {
+			return values.length;
+		}
+
+        public void execute(Grid grid, int index, double[] accumulator) {
 			if(grid.isEvaluatable(index)) {
 				int numDir = grid.getNumberOfDimensions();
-				double[] res = new double[numDir];
 				for (int i = 0; i < numDir; i++) {
-					res[i] += grid.getE(index, i).square() * unitFactors[i];
-				}
-
-				// Synchronized summation.
-				synchronized (this) {
-					for (int i = 0; i < numDir; i++) {
-						values[i] += res[i];
-					}
+					accumulator[i] += grid.getE(index, i).square() * unitFactors[i];
 				}
 			}
 		}
 	}
 
-	private class BFieldSquared implements CellAction {
+	private class BFieldSquared implements ReductionCellAction {
 		private double[] values;
 		private double[] unitFactors;
 		private int totalNumberOfCells;
@@ -141,25 +140,21 @@ public class FieldMeasurements {
 			return values[dir] / totalNumberOfCells;
 		}
 
-		public void execute(Grid grid, int index) {
+		public int getAccumulatorSize() {
+			return values.length;
+		}
+
+		public void execute(Grid grid, int index, double[] accumulator) {
 			if(grid.isEvaluatable(index)) {
 				int numDir = grid.getNumberOfDimensions();
-				double[] res = new double[numDir];
 				for (int i = 0; i < numDir; i++) {
-					res[i] += 0.5 * (grid.getB(index, i, 0).square() + grid.getB(index, i, 1).square()) * unitFactors[i];
-				}
-
-				// Synchronized summation.
-				synchronized (this) {
-					for (int i = 0; i < numDir; i++) {
-						values[i] += res[i];
-					}
+					accumulator[i] += 0.5 * (grid.getB(index, i, 0).square() + grid.getB(index, i, 1).square()) * unitFactors[i];
 				}
 			}
 		}
 	}
 
-	private class GaussLaw implements CellAction {
+	private class GaussLaw implements ReductionCellAction {
 
 		private double sum;
 		private int totalNumberOfCells;
@@ -174,17 +169,18 @@ public class FieldMeasurements {
 	        return sum / totalNumberOfCells;
         }
         
-        public void execute(Grid grid, int index) {
+        public int getAccumulatorSize() {
+			return 1;
+		}
+
+        public void execute(Grid grid, int index, double[] accumulator) {
 			if(grid.isEvaluatable(index)) {
-				double result = grid.getGaussConstraintSquared(index);
-				synchronized (this) {
-					sum += result;   // Synchronisierte Summenbildung
-				}
+				accumulator[0] += grid.getGaussConstraintSquared(index);
 			}
 		}
 	}
 
-	private class TotalCharge implements CellAction  {
+	private class TotalCharge implements ReductionCellAction  {
 
 		private AlgebraElement charge;
 		private int totalNumberOfCells;
@@ -198,16 +194,21 @@ public class FieldMeasurements {
 			return Math.sqrt(charge.square()) / totalNumberOfCells;
 		}
 
-		public void execute(Grid grid, int index) {
+		public int getAccumulatorSize() {
+			return charge.getAdjointDimension();
+		}
+
+		public void execute(Grid grid, int index, double[] accumulator) {
 			if(grid.isEvaluatable(index)) {
-				synchronized (this) {
-					charge.addAssign(grid.getRho(index));   // Synchronisierte Summenbildung
+				AlgebraElement rho = grid.getRho(index);
+				for (int c = 0; c < accumulator.length; c++) {
+					accumulator[c] += rho.get(c);
 				}
 			}
 		}
 	}
 
-	private class TotalChargeSquared implements CellAction  {
+	private class TotalChargeSquared implements ReductionCellAction  {
 
 		private double charge;
 		private int totalNumberOfCells;
@@ -221,11 +222,13 @@ public class FieldMeasurements {
 			return Math.sqrt(charge) / totalNumberOfCells;
 		}
 
-		public void execute(Grid grid, int index) {
+		public int getAccumulatorSize() {
+			return 1;
+		}
+
+		public void execute(Grid grid, int index, double[] accumulator) {
 			if(grid.isEvaluatable(index)) {
-				synchronized (this) {
-					charge += grid.getRho(index).square();   // Synchronisierte Summenbildung
-				}
+				accumulator[0] += grid.getRho(index).square();
 			}
 		}
 	}
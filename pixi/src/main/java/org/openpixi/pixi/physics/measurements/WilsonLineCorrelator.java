@@ -0,0 +1,127 @@
+package org.openpixi.pixi.physics.measurements;
+
+import org.openpixi.pixi.math.ElementFactory;
+import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.physics.gauge.DoubleFFTWrapper;
+import org.openpixi.pixi.physics.util.GridFunctions;
+
+/**
+ * Computes the correlation function
+ * <pre>     C(r) = 1/N sum_x Re tr(V_x V_{x+r}^\dagger)</pre>
+ * of a field of group elements (e.g. Wilson lines on the transverse plane) for all separations r at once.
+ * <br>
+ * The real trace of a product U V^\dagger is proportional to the scalar product of the real parameters of U and V
+ * (see {@link GroupElement#get(int)}). Therefore the correlator is a sum of auto-correlations of the parameter fields.
+ * Each of them is obtained from the power spectrum of the field, which reduces the cost from O(N^2) to O(N log N).
+ * Periodic boundary conditions are assumed.
+ */
+public class WilsonLineCorrelator {
+
+	private int[] numCells;
+	private int totalCells;
+
+	/**
+	 * Work arrays.
+	 */
+	private double[] field;
+	private double[] spectrum;
+	private double[] powerSpectrum;
+
+	/**
+	 * Constructor.
+	 * @param numCells  lattice size in every direction
+	 */
+	public WilsonLineCorrelator(int[] numCells) {
+		this.numCells = numCells.clone();
+		this.totalCells = GridFunctions.getTotalNumberOfCells(numCells);
+
+		DoubleFFTWrapper fft = DoubleFFTWrapper.getInstance(this.numCells);
+		field = new double[totalCells];
+		spectrum = new double[fft.getRealFFTArraySize()];
+		powerSpectrum = new double[fft.getRealFFTArraySize()];
+	}
+
+	/**
+	 * Computes the correlation function for every lattice separation r. The separation is encoded as a cell index
+	 * (see {@link GridFunctions#getCellPos(int, int[])}).
+	 *
+	 * @param V group elements, one for every cell
+	 * @return  correlation function C(r), averaged over all positions x
+	 */
+	public double[] computeCorrelation(GroupElement[] V) {
+		DoubleFFTWrapper fft = DoubleFFTWrapper.getInstance(numCells);
+		int colors = V[0].getNumberOfColors();
+		int numberOfParameters = ElementFactory.groupParameters(colors);
+
+		for (int k = 0; k < powerSpectrum.length; k++) {
+			powerSpectrum[k] = 0.0;
+		}
+
+		// Sum up the power spectra of all parameter fields.
+		for (int p = 0; p < numberOfParameters; p++) {
+			for (int i = 0; i < totalCells; i++) {
+				field[i] = V[i].get(p);
+			}
+			fft.realForward(field, spectrum);
+			for (int k = 0; k < powerSpectrum.length; k += 2) {
+				powerSpectrum[k] += spectrum[k] * spectrum[k] + spectrum[k + 1] * spectrum[k + 1];
+			}
+		}
+
+		// The inverse transform of the power spectrum gives sum_x sum_p V_x^p V_{x+r}^p.
+		double[] correlation = new double[totalCells];
+		fft.realInverse(powerSpectrum, correlation, true);
+
+		// Convert the scalar product of the parameters to the real trace and average over x.
+		double normalization = getTraceNormalization(V[0]) / totalCells;
+		for (int i = 0; i < totalCells; i++) {
+			correlation[i] *= normalization;
+		}
+		return correlation;
+	}
+
+	/**
+	 * Bins the correlation function by the length of the separation |r|. Separations are wrapped around the periodic
+	 * boundaries. Separations which do not fit into the bins are ignored.
+	 *
+	 * @param correlation   correlation function from {@link #computeCorrelation(GroupElement[])}
+	 * @param as            lattice spacing in every direction
+	 * @param binWidth      width of the bins
+	 * @param binned        sums of the correlation function in every bin, weighted by the number of pairs
+	 * @param counter       number of pairs (x, x+r) in every bin
+	 */
+	public void bin(double[] correlation, double[] as, double binWidth, double[] binned, long[] counter) {
+		for (int i = 0; i < totalCells; i++) {
+			int[] r = GridFunctions.getCellPos(i, numCells);
+			double distance = 0.0;
+			for (int k = 0; k < numCells.length; k++) {
+				int dr = r[k];
+				// Wrap distance around periodic boundary.
+				if (dr > numCells[k] / 2) {
+					dr -= numCells[k];
+				}
+				distance += dr * dr * as[k] * as[k];
+			}
+			distance = Math.sqrt(distance);
+			int bin = (int) (distance / binWidth);
+			if (bin < binned.length) {
+				binned[bin] += correlation[i] * totalCells;
+				counter[bin] += totalCells;
+			}
+		}
+	}
+
+	/**
+	 * Returns the factor c with Re tr(U V^\dagger) = c sum_p U^p V^p, which depends on the parametrization of the
+	 * group elements.
+	 */
+	private double getTraceNormalization(GroupElement U) {
+		GroupElement identity = new ElementFactory(U.getNumberOfColors()).groupIdentity();
+		int numberOfParameters = ElementFactory.groupParameters(U.getNumberOfColors());
+		double sum = 0.0;
+		for (int p = 0; p < numberOfParameters; p++) {
+			sum += identity.get(p) * identity.get(p);
+		}
+		return identity.getRealTrace() / sum;
+	}
+}
@@ -0,0 +1,83 @@
+package org.openpixi.pixi.physics.movement;
+
+import org.openpixi.pixi.parallel.particleaccess.ParticleAction;
+import org.openpixi.pixi.parallel.particleaccess.ParticleIterator;
+import org.openpixi.pixi.physics.force.Force;
+import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.physics.grid.Interpolation;
+import org.openpixi.pixi.physics.grid.InterpolatorAlgorithm;
+import org.openpixi.pixi.physics.movement.boundary.IParticleBoundaryConditions;
+import org.openpixi.pixi.physics.movement.solver.ParticleSolver;
+import org.openpixi.pixi.physics.particles.IParticle;
+
+import java.util.List;
+
+/**
+ * Performs the complete particle part of a simulation step in a single traversal of the particle list.
+ * <br>
+ * The staged path of {@link org.openpixi.pixi.physics.Simulation#step()} iterates over all particles once for every
+ * stage (reassignment, charge density, position update, interpolation to the particle, charge update and current
+ * deposition), with a barrier between the stages. All of these stages only read the fields of the grid and the state
+ * of the particle itself, so they can be executed one after another for each particle instead. Every particle is
+ * loaded only once and the threads only synchronize once per step.
+ * <br>
+ * The particle solver, boundary conditions and interpolation algorithm are taken from the {@link ParticleMover} and
+ * {@link Interpolation} of the simulation, so both paths always use the same algorithms. Charge density and currents
+ * have to be reset before calling {@link #execute(List, Force, Grid, double)}.
+ */
+public class FusedParticleStep {
+
+	private ParticleMover mover;
+	private Interpolation interpolation;
+	private ParticleIterator particleIterator;
+
+	/* These are set in each step to enable the inner class to read them. */
+	private Force force;
+	private Grid grid;
+	private double timeStep;
+	private ParticleSolver particleSolver;
+	private IParticleBoundaryConditions boundaries;
+	private InterpolatorAlgorithm interpolator;
+
+	private Step step = new Step();
+
+	public FusedParticleStep(ParticleMover mover, Interpolation interpolation, ParticleIterator particleIterator) {
+		this.mover = mover;
+		this.interpolation = interpolation;
+		this.particleIterator = particleIterator;
+	}
+
+	/**
+	 * Reassigns the particles, interpolates the charge density, moves the particles, updates their charges and
+	 * deposits the currents.
+	 *
+	 * @param particles list of particles
+	 * @param force     force acting on the particles
+	 * @param grid      grid on which charge density and currents are deposited
+	 * @param timeStep  time step
+	 */
+	public void execute(List<IParticle> particles, Force force, Grid grid, double timeStep) {
+		this.force = force;
+		this.grid = grid;
+		this.timeStep = timeStep;
+		this.particleSolver = mover.getParticleSolver();
+		this.boundaries = mover.getBoundaryConditions();
+		this.interpolator = interpolation.getInterpolatorAlgorithm();
+
+		grid.beginDeposition();
+		particleIterator.execute(particles, step);
+		grid.endDeposition();
+	}
+
+	private class Step implements ParticleAction {
+		public void execute(IParticle particle) {
+			particle.reassignValues();
+			interpolator.interpolateChargedensity(particle, grid);
+			particleSolver.updatePosition(particle, force, timeStep);
+			boundaries.applyOnParticle(particle);
+			interpolator.interpolateToParticle(particle, grid);
+			particleSolver.updateCharge(particle, force, timeStep);
+			interpolator.interpolateToGrid(particle, grid);
+		}
+	}
+}
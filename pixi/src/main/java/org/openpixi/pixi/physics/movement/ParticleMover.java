@@ -39,6 +39,10 @@ public class ParticleMover {
 		this.particleSolver = psolver;
 	}
 
+	public IParticleBoundaryConditions getBoundaryConditions() {
+		return boundaries;
+	}
+
 
 	public ParticleMover(
 			ParticleSolver particleSolver,
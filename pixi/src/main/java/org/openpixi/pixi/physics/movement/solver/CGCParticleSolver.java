@@ -2,6 +2,7 @@ package org.openpixi.pixi.physics.movement.solver;
 
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.physics.force.Force;
+import org.openpixi.pixi.physics.grid.AdjointLinkCache;
 import org.openpixi.pixi.physics.particles.CGCParticle;
 import org.openpixi.pixi.physics.particles.IParticle;
 
@@ -25,7 +26,17 @@ public class CGCParticleSolver implements ParticleSolver {
 		CGCParticle P = (CGCParticle) p;
 		if(P.updateCharge) {
 			// Charge has to be parallel transported.
-			P.Q1 = P.Q0.act(P.U.adj());
+			if(P.adjointMatrix != null) {
+				// U^\dagger Q U with the cached adjoint matrix of U (or of U^\dagger).
+				if(P.adjointMatrixConjugated) {
+					AdjointLinkCache.act(P.adjointMatrix, P.Q0, P.Q1);
+				} else {
+					AdjointLinkCache.actAdjoint(P.adjointMatrix, P.Q0, P.Q1);
+				}
+				P.adjointMatrix = null;
+			} else {
+				P.Q1 = P.Q0.act(P.U.adj());
+			}
 			P.updateCharge = false;
 		} else {
 			// No update needed, just switch Q1 and Q0.
@@ -4,7 +4,9 @@ import org.openpixi.pixi.physics.force.Force;
 import org.openpixi.pixi.physics.particles.IParticle;
 
 /**
- * Particle solver for the CGCSuperParticle class. Due to optimizations this class doesn't really do anything.
+ * Particle solver for the CGCSuperParticle class. Due to optimizations this class doesn't really do anything: the
+ * positions of super particles follow from the simulation step (in any longitudinal direction) and parallel transport
+ * of the charges is done in {@link org.openpixi.pixi.physics.grid.CGCSuperParticleInterpolationNGP}.
  */
 public class CGCSuperParticleSolver implements ParticleSolver {
 
@@ -0,0 +1,36 @@
+package org.openpixi.pixi.physics.movement.solver;
+
+import org.openpixi.pixi.physics.force.Force;
+import org.openpixi.pixi.physics.particles.IParticle;
+import org.openpixi.pixi.physics.particles.PackedCGCParticles;
+
+/**
+ * Particle solver for the PackedCGCParticles class. The particles move with the speed of light along the longitudinal
+ * direction. Parallel transport of the charges is done in
+ * {@link org.openpixi.pixi.physics.grid.PackedCGCParticleInterpolationNGP}.
+ */
+public class PackedCGCParticleSolver implements ParticleSolver {
+
+	public void updatePosition(IParticle p, Force f, double dt) {
+		PackedCGCParticles P = (PackedCGCParticles) p;
+		double velocity = 1.0 * P.orientation;
+		double[] pos0 = P.pos0;
+		double[] pos1 = P.pos1;
+		int size = P.size();
+		for (int i = 0; i < size; i++) {
+			pos1[i] = pos0[i] + velocity * dt;
+		}
+	}
+
+	public void updateCharge(IParticle p, Force f, double dt) {
+		// Nothing to update here. Look into PackedCGCParticleInterpolationNGP.
+	}
+
+	public void prepare(IParticle p, Force f, double step) {
+		// Not implemented.
+	}
+
+	public void complete(IParticle p, Force f, double step) {
+		// Not implemented.
+	}
+}
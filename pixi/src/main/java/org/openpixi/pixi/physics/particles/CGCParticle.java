@@ -13,6 +13,17 @@ public class CGCParticle extends YangMillsParticle {
 	public GroupElement U;
 	public boolean updateCharge;
 
+	/**
+	 * Adjoint matrix of the link from which U has been taken (see
+	 * {@link org.openpixi.pixi.physics.grid.AdjointLinkCache}), or null if the charge is transported with U.
+	 */
+	public double[] adjointMatrix;
+
+	/**
+	 * True if U is the hermitian conjugate of the link described by adjointMatrix.
+	 */
+	public boolean adjointMatrixConjugated;
+
 	public CGCParticle(int numberOfDimensions, int numberOfColors, int direction) {
 		super(numberOfDimensions, numberOfColors);
 		this.direction = direction;
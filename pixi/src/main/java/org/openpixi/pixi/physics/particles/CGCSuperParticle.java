@@ -1,12 +1,24 @@
 package org.openpixi.pixi.physics.particles;
 
 import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.physics.util.GridFunctions;
 
 import java.awt.*;
 
 /**
  * This particle class describes not single particles, but larger collections of particles as 'super particles'.
  * It enables us to make use of optimizations specific to CGC simulations with fixed particle trajectories.
+ * <br>
+ * All particles of a super particle move along the same lattice axis (the longitudinal direction) and have the same
+ * position within a cell. The charges are stored plane by plane in a contiguous array: the charge with index j belongs
+ * to the transversal cell j % particlesPerPlane in the longitudinal plane j / particlesPerPlane (relative to the first
+ * plane of the super particle). The cell index is obtained from a table of transversal cell indices and the stride of
+ * the longitudinal direction, so any lattice axis can be used.
+ * <br>
+ * Positions are measured in units of a / particlePerCell along the longitudinal direction. Particles with sub lattice
+ * shift k initially sit at (k - particlePerCell / 2) / particlePerCell relative to the lattice site of their plane,
+ * which is the same placement as the one used for {@link CGCParticle} by
+ * {@link org.openpixi.pixi.physics.initial.CGC.LightConeNGPParticleCreator}.
  */
 public class CGCSuperParticle implements IParticle {
 
@@ -15,6 +27,11 @@ public class CGCSuperParticle implements IParticle {
 	 */
 	public AlgebraElement[] Q;
 
+	/**
+	 * Longitudinal direction of movement. Values range from 0 to numberOfDimensions-1.
+	 */
+	public int direction;
+
 	/**
 	 * Orientation of the super particle (-1 or +1).
 	 */
@@ -26,9 +43,9 @@ public class CGCSuperParticle implements IParticle {
 	public int numberOfParticles;
 
 	/**
-	 * Longitudinal offset from z = 0 in terms of lattice indices.
+	 * Longitudinal lattice index of the first plane of the super particle at t = 0.
 	 */
-	public int indexOffset;
+	public int longitudinalOffset;
 
 	/**
 	 * Number of particles within a transverse plane.
@@ -45,50 +62,125 @@ public class CGCSuperParticle implements IParticle {
 	 */
 	public int particlePerCell;
 
-	public CGCSuperParticle(int orientation,
+	/**
+	 * Cell indices of the transversal cells in the longitudinal plane 0. Can be shared by several super particles.
+	 */
+	public int[] transversalCellIndices;
+
+	/**
+	 * Difference of the cell indices of neighbouring longitudinal planes.
+	 */
+	public int longitudinalStride;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param direction                 longitudinal direction
+	 * @param orientation               orientation of movement (-1 or +1)
+	 * @param numberOfParticles         total number of particles
+	 * @param longitudinalOffset        longitudinal lattice index of the first plane at t = 0
+	 * @param subLatticeShift           position of the particles within a cell
+	 * @param particlePerCell           number of particles per cell
+	 * @param transversalCellIndices    cell indices of the transversal cells in the longitudinal plane 0
+	 *                                  (see {@link #getTransversalCellIndices(int[], int)})
+	 * @param longitudinalStride        difference of the cell indices of neighbouring longitudinal planes
+	 *                                  (see {@link #getLongitudinalStride(int[], int)})
+	 */
+	public CGCSuperParticle(int direction,
+	                        int orientation,
 	                        int numberOfParticles,
-	                        int indexOffset,
-	                        int particlesPerPlane,
+	                        int longitudinalOffset,
 	                        int subLatticeShift,
-	                        int particlePerCell) {
+	                        int particlePerCell,
+	                        int[] transversalCellIndices,
+	                        int longitudinalStride) {
+		this.direction = direction;
 		this.orientation = orientation;
 		this.numberOfParticles = numberOfParticles;
-		this.indexOffset = indexOffset;
-		this.particlesPerPlane = particlesPerPlane;
+		this.longitudinalOffset = longitudinalOffset;
+		this.particlesPerPlane = transversalCellIndices.length;
 		this.subLatticeShift = subLatticeShift;
 		this.particlePerCell = particlePerCell;
+		this.transversalCellIndices = transversalCellIndices;
+		this.longitudinalStride = longitudinalStride;
 
 		this.Q = new AlgebraElement[numberOfParticles];
 
 	}
 
 	/**
-	 * Returns index offset at simulation time t. Add the particle index to get the cell index.
+	 * Returns the cell indices of all transversal cells in the longitudinal plane 0. The transversal cells are ordered
+	 * like the cells of the transversal lattice, i.e. the same way as {@link GridFunctions#reduceGridPos(int[], int)}.
 	 *
-	 * @param t current simulation step
-	 * @return index offset since beginning of simulation.
+	 * @param numCells  size of the grid
+	 * @param direction longitudinal direction
+	 * @return          cell indices of the transversal cells
 	 */
-	public int getCurrentOffset(int t) {
-		if (orientation > 0) {
-			return indexOffset + ((t + subLatticeShift) / particlePerCell) * particlesPerPlane;
+	public static int[] getTransversalCellIndices(int[] numCells, int direction) {
+		int[] transversalNumCells = GridFunctions.reduceGridPos(numCells, direction);
+		int totalTransversalCells = GridFunctions.getTotalNumberOfCells(transversalNumCells);
+		int[] indices = new int[totalTransversalCells];
+		for (int i = 0; i < totalTransversalCells; i++) {
+			int[] gridPos = GridFunctions.insertGridPos(GridFunctions.getCellPos(i, transversalNumCells), direction, 0);
+			indices[i] = GridFunctions.getCellIndex(gridPos, numCells);
 		}
-		int shift = ((int) Math.floor((-t + subLatticeShift) / (1.0 * particlePerCell))) * particlesPerPlane;
-		return indexOffset + shift;
+		return indices;
 	}
 
 	/**
-	 * Returns the ngp index offset at simulation time t. Add the particle index to get the current ngp index.
+	 * Returns the difference of the cell indices of neighbouring longitudinal planes.
+	 *
+	 * @param numCells  size of the grid
+	 * @param direction longitudinal direction
+	 * @return          stride of the longitudinal direction
+	 */
+	public static int getLongitudinalStride(int[] numCells, int direction) {
+		int[] gridPos = new int[numCells.length];
+		gridPos[direction] = 1;
+		return GridFunctions.getCellIndex(gridPos, numCells);
+	}
+
+	/**
+	 * Returns the position of the first plane at simulation step t in units of a / particlePerCell.
+	 */
+	private int getSubLatticePosition(int t) {
+		return longitudinalOffset * particlePerCell + subLatticeShift - particlePerCell / 2 + orientation * t;
+	}
+
+	/**
+	 * Returns the nearest grid point of a position given in units of a / particlePerCell. Positions exactly between
+	 * two lattice sites are assigned to the upper one.
+	 */
+	private int getNearestGridPoint(int position) {
+		int numerator = 2 * position + particlePerCell;
+		int denominator = 2 * particlePerCell;
+		int ngp = numerator / denominator;
+		if (numerator % denominator < 0) {
+			ngp--;
+		}
+		return ngp;
+	}
+
+	/**
+	 * Returns the longitudinal ngp index of the first plane at simulation time t. Add the plane of a particle to get
+	 * its current ngp index (see {@link #getCellIndex(int, int, int)}).
 	 *
 	 * @param t current simulation step
-	 * @return ngp index offset since beginning of simulation.
+	 * @return longitudinal ngp index of the first plane.
 	 */
 	public int getCurrentNGPOffset(int t) {
-		int currentOffset = getCurrentOffset(t);
-		if (orientation > 0) {
-			return currentOffset + ((((t + subLatticeShift) % particlePerCell) < particlePerCell / 2) ? 0 : particlesPerPlane);
-		}
-		int shift = ((((t - subLatticeShift + particlePerCell + particlePerCell / 2 - 1) % particlePerCell) < particlePerCell / 2) ? 0 : particlesPerPlane);
-		return currentOffset + shift;
+		return getNearestGridPoint(getSubLatticePosition(t));
+	}
+
+	/**
+	 * Returns the longitudinal index of the links which are crossed by the particles of the first plane in the *next*
+	 * simulation step. Only meaningful if {@link #needsUpdate(int)} is true.
+	 *
+	 * @param t current simulation step
+	 * @return longitudinal link index of the first plane.
+	 */
+	public int getCurrentLinkOffset(int t) {
+		return Math.min(getCurrentNGPOffset(t), getCurrentNGPOffset(t + 1));
 	}
 
 	/**
@@ -98,10 +190,24 @@ public class CGCSuperParticle implements IParticle {
 	 * @return true/false if particle needs an update or needs to be interpolated to the grid.
 	 */
 	public boolean needsUpdate(int t) {
-		if (orientation > 0) {
-			return 0 == (t + subLatticeShift + particlePerCell / 2 + 1) % particlePerCell;
+		return getCurrentNGPOffset(t) != getCurrentNGPOffset(t + 1);
+	}
+
+	/**
+	 * Returns the cell index of a particle charge. The longitudinal index is wrapped around the periodic boundary,
+	 * like in {@link org.openpixi.pixi.physics.grid.Grid#getCellIndex(int[])}.
+	 *
+	 * @param j                     index of the particle charge
+	 * @param longitudinalIndex     longitudinal index of the first plane
+	 * @param longitudinalNumCells  number of cells in the longitudinal direction
+	 * @return                      cell index
+	 */
+	public int getCellIndex(int j, int longitudinalIndex, int longitudinalNumCells) {
+		int l = (longitudinalIndex + j / particlesPerPlane) % longitudinalNumCells;
+		if (l < 0) {
+			l += longitudinalNumCells;
 		}
-		return 0 == (t - subLatticeShift + particlePerCell / 2) % particlePerCell;
+		return transversalCellIndices[j % particlesPerPlane] + l * longitudinalStride;
 	}
 
 	// GETTERS
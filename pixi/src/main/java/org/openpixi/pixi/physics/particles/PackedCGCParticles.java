@@ -0,0 +1,375 @@
+package org.openpixi.pixi.physics.particles;
+
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.physics.util.GridFunctions;
+
+import java.awt.*;
+
+/**
+ * Packed storage for a group of CGC particles which move with the speed of light along the same lattice axis and in
+ * the same direction. Instead of one {@link CGCParticle} object per particle (with its own position, velocity and
+ * acceleration arrays, two charge objects, a gauge link, a color and a radius) the state of all particles is stored in
+ * a few primitive columns:
+ * <pre>
+ *     pos0[i], pos1[i]                         longitudinal position at t and t + dt
+ *     transversalCellIndices[i]                cell index of the transversal position in the longitudinal plane 0
+ *     Q[i * numberOfComponents + c]            color charge (components with respect to the generators)
+ * </pre>
+ * The transversal positions of light-cone particles never change, so they are stored as cell indices. The velocity
+ * follows from the orientation. As for {@link CGCSuperParticle}, the parallel transport of the charges is done in the
+ * interpolation algorithm ({@link org.openpixi.pixi.physics.grid.PackedCGCParticleInterpolationNGP}), so a single
+ * charge column suffices.
+ * <br>
+ * A container is a single entry in the particle list of the simulation. Particles are accessed by their index
+ * (0 &le; i &lt; {@link #size()}) using the accessors below. Several containers are used to distribute the work among
+ * threads.
+ * <br>
+ * The container has no position, velocity, radius or color of its own. The corresponding getters of {@link IParticle}
+ * return neutral values (zero dimensions, position 0), so generic code like the particle boundaries leaves it alone.
+ * The setters throw an {@link UnsupportedOperationException}, except for shifts by zero which are ignored.
+ */
+public class PackedCGCParticles implements IParticle {
+
+	/**
+	 * Longitudinal direction of movement. Values range from 0 to numberOfDimensions-1.
+	 */
+	public int direction;
+
+	/**
+	 * Orientation of movement (-1 or +1).
+	 */
+	public int orientation;
+
+	/**
+	 * Longitudinal positions at time t.
+	 */
+	public double[] pos0;
+
+	/**
+	 * Longitudinal positions at time t + dt.
+	 */
+	public double[] pos1;
+
+	/**
+	 * Cell indices of the transversal positions in the longitudinal plane 0.
+	 */
+	public int[] transversalCellIndices;
+
+	/**
+	 * Packed color charges.
+	 */
+	public double[] Q;
+
+	/**
+	 * Number of real components per charge.
+	 */
+	public int numberOfComponents;
+
+	/**
+	 * Number of colors of the charges.
+	 */
+	public int numberOfColors;
+
+	/**
+	 * Difference of the cell indices of neighbouring longitudinal planes.
+	 */
+	public int longitudinalStride;
+
+	/**
+	 * Number of cells in the longitudinal direction.
+	 */
+	public int longitudinalNumCells;
+
+	/**
+	 * Number of stored particles.
+	 */
+	private int size;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param direction         longitudinal direction of movement
+	 * @param orientation       orientation of movement (-1 or +1)
+	 * @param numberOfColors    number of colors of the charges
+	 * @param numCells          size of the grid
+	 * @param capacity          maximum number of particles
+	 */
+	public PackedCGCParticles(int direction, int orientation, int numberOfColors, int[] numCells, int capacity) {
+		this.direction = direction;
+		this.orientation = orientation;
+		this.numberOfColors = numberOfColors;
+		this.numberOfComponents = (numberOfColors > 1) ? numberOfColors * numberOfColors - 1 : 1;
+		this.longitudinalStride = CGCSuperParticle.getLongitudinalStride(numCells, direction);
+		this.longitudinalNumCells = numCells[direction];
+
+		this.pos0 = new double[capacity];
+		this.pos1 = new double[capacity];
+		this.transversalCellIndices = new int[capacity];
+		this.Q = new double[capacity * numberOfComponents];
+		this.size = 0;
+	}
+
+	/**
+	 * Copy constructor, see {@link #copy()}.
+	 *
+	 * @param other container which is copied
+	 */
+	private PackedCGCParticles(PackedCGCParticles other) {
+		this.direction = other.direction;
+		this.orientation = other.orientation;
+		this.numberOfColors = other.numberOfColors;
+		this.numberOfComponents = other.numberOfComponents;
+		this.longitudinalStride = other.longitudinalStride;
+		this.longitudinalNumCells = other.longitudinalNumCells;
+
+		this.pos0 = other.pos0.clone();
+		this.pos1 = other.pos1.clone();
+		this.transversalCellIndices = other.transversalCellIndices.clone();
+		this.Q = other.Q.clone();
+		this.size = other.size;
+	}
+
+	/**
+	 * Adds a particle to the container.
+	 *
+	 * @param position0             longitudinal position at time t
+	 * @param position1             longitudinal position at time t + dt
+	 * @param transversalCellIndex  cell index of the transversal position in the longitudinal plane 0
+	 * @param charge                color charge
+	 * @return                      index of the new particle
+	 */
+	public int add(double position0, double position1, int transversalCellIndex, AlgebraElement charge) {
+		if (size == pos0.length) {
+			throw new RuntimeException("PackedCGCParticles: capacity exceeded.");
+		}
+		int i = size;
+		pos0[i] = position0;
+		pos1[i] = position1;
+		transversalCellIndices[i] = transversalCellIndex;
+		setCharge(i, charge);
+		size++;
+		return i;
+	}
+
+	/**
+	 * Adds a {@link CGCParticle} to the container. The particle has to move along the direction of the container.
+	 *
+	 * @param p         particle
+	 * @param numCells  size of the grid
+	 * @param as        lattice spacings of the grid
+	 * @return          index of the new particle
+	 */
+	public int add(CGCParticle p, int[] numCells, double[] as) {
+		int[] transversalPosition = GridFunctions.nearestGridPoint(p.pos0, as);
+		transversalPosition[direction] = 0;
+		int transversalCellIndex = GridFunctions.getCellIndex(transversalPosition, numCells);
+		return add(p.pos0[direction], p.pos1[direction], transversalCellIndex, p.Q0);
+	}
+
+	/**
+	 * Returns the number of stored particles.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Writes the charge of a particle into an algebra element. The element is reset first, because setting the
+	 * components does not remove a trace part of the previous value (e.g. of an SU(3) element).
+	 *
+	 * @param i         index of the particle
+	 * @param result    algebra element which is overwritten with the charge
+	 */
+	public void getCharge(int i, AlgebraElement result) {
+		int offset = i * numberOfComponents;
+		result.reset();
+		for (int c = 0; c < numberOfComponents; c++) {
+			result.set(c, Q[offset + c]);
+		}
+	}
+
+	/**
+	 * Sets the charge of a particle.
+	 *
+	 * @param i         index of the particle
+	 * @param charge    new charge
+	 */
+	public void setCharge(int i, AlgebraElement charge) {
+		int offset = i * numberOfComponents;
+		for (int c = 0; c < numberOfComponents; c++) {
+			Q[offset + c] = charge.get(c);
+		}
+	}
+
+	/**
+	 * Returns the longitudinal index of the nearest grid point of a longitudinal position.
+	 *
+	 * @param position  longitudinal position
+	 * @param as        longitudinal lattice spacing
+	 * @return          longitudinal lattice index (not wrapped around the periodic boundary)
+	 */
+	public static int getNearestGridPoint(double position, double as) {
+		return (int) Math.rint(position / as);
+	}
+
+	/**
+	 * Returns the cell index of a particle at a given longitudinal lattice index. The longitudinal index is wrapped
+	 * around the periodic boundary, like in {@link org.openpixi.pixi.physics.grid.Grid#getCellIndex(int[])}.
+	 *
+	 * @param i                 index of the particle
+	 * @param longitudinalIndex longitudinal lattice index
+	 * @return                  cell index
+	 */
+	public int getCellIndex(int i, int longitudinalIndex) {
+		int l = longitudinalIndex % longitudinalNumCells;
+		if (l < 0) {
+			l += longitudinalNumCells;
+		}
+		return transversalCellIndices[i] + l * longitudinalStride;
+	}
+
+	/**
+	 * Swaps the positions at t and t + dt.
+	 */
+	public void reassignValues() {
+		double[] temp = pos0;
+		pos0 = pos1;
+		pos1 = temp;
+	}
+
+	// GETTERS
+
+	public double getPosition(int i) {
+		return 0;
+	}
+
+	public double getPrevPosition(int i) {
+		return 0;
+	}
+
+	public double getVelocity(int i) {
+		return 0;
+	}
+
+	public double[] getPosition() {
+		return new double[]{0};
+	}
+
+	public double[] getPrevPosition() {
+		return new double[]{0};
+	}
+
+	public double[] getVelocity() {
+		return new double[]{0};
+	}
+
+	public double getRadius() {
+		return 0;
+	}
+
+	public Color getDisplayColor() {
+		return Color.BLACK;
+	}
+
+	public int getNumberOfDimensions() {
+		return 0;
+	}
+
+	// SETTERS
+
+	/**
+	 * Not supported, the positions of the particles are stored in {@link #pos0} and {@link #pos1}.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	public void setPosition(int i, double value) {
+		throw new UnsupportedOperationException("PackedCGCParticles: setPosition() is not supported.");
+	}
+
+	/**
+	 * Ignores shifts by zero (e.g. from the particle boundaries, which see the container at position 0). Other shifts
+	 * are not supported.
+	 *
+	 * @throws UnsupportedOperationException if the shift is not zero
+	 */
+	public void addPosition(int i, double value) {
+		if (value != 0.0) {
+			throw new UnsupportedOperationException("PackedCGCParticles: addPosition() is not supported.");
+		}
+	}
+
+	/**
+	 * Not supported, the positions of the particles are stored in {@link #pos0} and {@link #pos1}.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	public void setPrevPosition(int i, double value) {
+		throw new UnsupportedOperationException("PackedCGCParticles: setPrevPosition() is not supported.");
+	}
+
+	/**
+	 * Ignores shifts by zero (e.g. from the particle boundaries, which see the container at position 0). Other shifts
+	 * are not supported.
+	 *
+	 * @throws UnsupportedOperationException if the shift is not zero
+	 */
+	public void addPrevPosition(int i, double value) {
+		if (value != 0.0) {
+			throw new UnsupportedOperationException("PackedCGCParticles: addPrevPosition() is not supported.");
+		}
+	}
+
+	/**
+	 * Not supported, the velocity follows from the {@link #orientation}.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	public void setVelocity(int i, double value) {
+		throw new UnsupportedOperationException("PackedCGCParticles: setVelocity() is not supported.");
+	}
+
+	/**
+	 * Not supported, the velocity follows from the {@link #orientation}.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	public void addVelocity(int i, double value) {
+		throw new UnsupportedOperationException("PackedCGCParticles: addVelocity() is not supported.");
+	}
+
+	/**
+	 * Not supported, the container only stores longitudinal positions.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	public void setNumberOfDimensions(int numberOfDimensions) {
+		throw new UnsupportedOperationException("PackedCGCParticles: setNumberOfDimensions() is not supported.");
+	}
+
+	/**
+	 * Not supported, the particles are not displayed.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	public void setRadius(double r) {
+		throw new UnsupportedOperationException("PackedCGCParticles: setRadius() is not supported.");
+	}
+
+	/**
+	 * Not supported, the particles are not displayed.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	public void setDisplayColor(Color color) {
+		throw new UnsupportedOperationException("PackedCGCParticles: setDisplayColor() is not supported.");
+	}
+
+	/**
+	 * Returns a deep copy of the container with the same capacity.
+	 *
+	 * @return  copy of the container
+	 */
+	public IParticle copy() {
+		return new PackedCGCParticles(this);
+	}
+}
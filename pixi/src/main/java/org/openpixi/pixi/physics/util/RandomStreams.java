@@ -0,0 +1,141 @@
+package org.openpixi.pixi.physics.util;
+
+/**
+ * Counter-based source of independent, reproducible random number streams.
+ * <br>
+ * A single {@link java.util.Random} has to be used in a fixed order to obtain reproducible results, which forces the
+ * sampling of random color charges to be sequential. Here every stream is identified by a key (color component and
+ * block of cells) and its n-th random number is a hash of (seed, key, n). The numbers drawn for a block of cells
+ * therefore do not depend on which thread samples the block or in which order the blocks are processed, so results
+ * are bit-identical for a given seed independent of the number of threads.
+ * <br>
+ * The hash is the finalizer of the SplitMix64 generator, which passes BigCrush when applied to a counter. The keys
+ * of the streams are hashed as well, so that streams of neighbouring blocks or components are uncorrelated.
+ */
+public class RandomStreams {
+
+	/**
+	 * Number of cells which are sampled by a single stream.
+	 */
+	public static final int BLOCK_SIZE = 1024;
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private final long seed;
+
+	/**
+	 * Creates a family of random streams.
+	 *
+	 * @param seed  seed from which all streams are derived
+	 */
+	public RandomStreams(long seed) {
+		this.seed = mix(seed);
+	}
+
+	/**
+	 * Returns the stream of a color component and a block of cells. Two calls with the same arguments return
+	 * streams which produce the same random numbers.
+	 *
+	 * @param component color component
+	 * @param block     index of the block of cells (see {@link #getNumberOfBlocks(int)})
+	 * @return          new stream positioned at its first random number
+	 */
+	public Stream getStream(int component, int block) {
+		long key = mix(seed + GOLDEN_GAMMA * (component + 1));
+		key = mix(key + GOLDEN_GAMMA * (block + 1));
+		return new Stream(key);
+	}
+
+	/**
+	 * Returns the number of blocks of size {@link #BLOCK_SIZE} needed to cover a number of cells.
+	 *
+	 * @param numberOfCells number of cells
+	 * @return              number of blocks
+	 */
+	public static int getNumberOfBlocks(int numberOfCells) {
+		return (numberOfCells + BLOCK_SIZE - 1) / BLOCK_SIZE;
+	}
+
+	/**
+	 * Returns the first cell index of a block.
+	 *
+	 * @param block block index
+	 * @return      first cell index
+	 */
+	public static int getBlockStart(int block) {
+		return block * BLOCK_SIZE;
+	}
+
+	/**
+	 * Returns the cell index following the last cell of a block.
+	 *
+	 * @param block         block index
+	 * @param numberOfCells total number of cells
+	 * @return              last cell index + 1
+	 */
+	public static int getBlockEnd(int block, int numberOfCells) {
+		return Math.min((block + 1) * BLOCK_SIZE, numberOfCells);
+	}
+
+	/**
+	 * SplitMix64 finalizer (variant 13 of D. Stafford's mixing functions).
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * A single random stream. A stream is not thread-safe and should only be used by the thread which created it.
+	 */
+	public static class Stream {
+
+		private final long key;
+		private long counter;
+		private double nextNextGaussian;
+		private boolean haveNextNextGaussian = false;
+
+		private Stream(long key) {
+			this.key = key;
+			this.counter = 0;
+		}
+
+		/**
+		 * Returns the next uniformly distributed long value.
+		 */
+		public long nextLong() {
+			counter++;
+			return mix(key + GOLDEN_GAMMA * counter);
+		}
+
+		/**
+		 * Returns the next uniformly distributed double value between 0 (inclusive) and 1 (exclusive).
+		 */
+		public double nextDouble() {
+			return (nextLong() >>> 11) * 0x1.0p-53;
+		}
+
+		/**
+		 * Returns the next normally distributed double value with mean 0 and standard deviation 1. The same polar
+		 * method as in {@link java.util.Random#nextGaussian()} is used, including the use of {@link StrictMath} for
+		 * platform-independent results.
+		 */
+		public double nextGaussian() {
+			if (haveNextNextGaussian) {
+				haveNextNextGaussian = false;
+				return nextNextGaussian;
+			}
+			double v1, v2, s;
+			do {
+				v1 = 2 * nextDouble() - 1;
+				v2 = 2 * nextDouble() - 1;
+				s = v1 * v1 + v2 * v2;
+			} while (s >= 1 || s == 0);
+			double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+			nextNextGaussian = v2 * multiplier;
+			haveNextNextGaussian = true;
+			return v1 * multiplier;
+		}
+	}
+}
@@ -20,14 +20,19 @@ package org.openpixi.pixi.ui;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import org.openpixi.pixi.diagnostics.Diagnostics;
+import org.openpixi.pixi.diagnostics.EnsembleAverage;
+import org.openpixi.pixi.diagnostics.EnsembleDiagnostics;
 import org.openpixi.pixi.physics.Debug;
 import org.openpixi.pixi.physics.Settings;
 import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.ui.util.*;
 import org.openpixi.pixi.ui.util.yaml.YamlParser;
 
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Locale;
 
 public class MainBatch {
@@ -37,9 +42,15 @@ public class MainBatch {
 	 */
 	public static int iterations;
 	private static Simulation simulation;
+	private static Settings settings;
 
 	private static final long GIGABYTE = 1024L * 1024L * 1024L;
 
+	/**
+	 * Placeholder in the configuration which is replaced by the number of the event (starting with 1).
+	 */
+	public static final String EVENT_PLACEHOLDER = "%i%";
+
 
 	/**
 	 * This class takes an input parameter which specifies the YAML file.
@@ -52,6 +63,13 @@ public class MainBatch {
 	 * <pre>
 	 * java -cp target/pixi-0.6-SNAPSHOT.jar org.openpixi.pixi.ui.MainBatch "One_particle_Test.yaml"
 	 * </pre>
+	 *
+	 * If the configuration sets numberOfEvents to N > 1, N independent events are simulated one after another in the
+	 * same process. Every event is configured anew with {@link #EVENT_PLACEHOLDER} replaced by the number of the
+	 * event, which can be used for different random seeds (e.g. "randomSeed1: 1%i%"). The grid and the threads of the
+	 * first event are reused by the following events. Diagnostics which implement {@link EnsembleDiagnostics} average
+	 * their output over all events and only write the result after the last event. If an event fails with an
+	 * IOException, the following events are still simulated and the average is written over the completed events.
 	 */
 	public static void main(String[] args) throws FileNotFoundException, IOException, InterruptedException {
 
@@ -101,28 +119,80 @@ public class MainBatch {
 	public static void runSimulationFromString(String configurationString) {
 		initializeSimulationFromString(configurationString);
 
+		int numberOfEvents = settings.getNumberOfEvents();
+		ArrayList<EnsembleAverage> averages = null;
+		if (numberOfEvents > 1) {
+			averages = createEnsembleAverages();
+		}
+		ArrayList<Integer> failedEvents = new ArrayList<Integer>();
+
+		long t0 = System.nanoTime();
+		for (int event = 1; event <= numberOfEvents; event++) {
+			if (event > 1) {
+				initializeEventFromString(configurationString, event);
+			}
+			// The samples of an event only enter the ensemble once the event has been completed.
+			ArrayList<EnsembleAverage> eventAverages = null;
+			if (averages != null) {
+				System.out.println("MainBatch: Event " + event + "/" + numberOfEvents);
+				eventAverages = createEnsembleAverages();
+				setEnsembleAverages(eventAverages);
+			}
+
+			try {
+				runSimulation();
+				simulation.closeOutput();
+			} catch (IOException e) {
+				System.out.println("MainBatch: Event " + event + " failed: " + e.getMessage());
+				failedEvents.add(event);
+				closeOutputAfterError();
+				continue;
+			}
+			if (averages != null) {
+				for (int i = 0; i < averages.size(); i++) {
+					averages.get(i).add(eventAverages.get(i));
+				}
+			}
+		}
+
+		if (averages != null) {
+			int completedEvents = numberOfEvents - failedEvents.size();
+			if (completedEvents > 0) {
+				writeEnsembleAverages(averages);
+			}
+			if (!failedEvents.isEmpty()) {
+				System.out.println("MainBatch: Ensemble average over " + completedEvents + " of " + numberOfEvents
+						+ " events, failed events: " + failedEvents);
+			}
+		}
+		settings.terminateThreads();
+
+		if (numberOfEvents > 1) {
+			long t1 = System.nanoTime();
+			int dt = (int) ((t1 - t0) / 1000 / 1000 / 1000);
+			System.out.println("MainBatch: Ensemble time: " + dt + " s (" + numberOfEvents + " events)");
+		}
+	}
+
+	private static void runSimulation() throws IOException {
 		// Simulation run and time measurement
 		long t0 = System.nanoTime();
 		Runtime runtime = Runtime.getRuntime();
-		try {
-			while(simulation.continues()) {
-				long stept0 = System.nanoTime();
-				simulation.step();
-
-				// Some diagnostic stuff
-				int stepdt = (int) ((System.nanoTime() - stept0) / 1000 / 1000);
-				double currentTime = simulation.totalSimulationTime;
-				double totalTime = simulation.getIterations() * simulation.getTimeStep();
-				double memory = ((int) (100 * runtime.totalMemory() / GIGABYTE)) / 100.0;
-				int mempercent = (int) (100 * runtime.totalMemory() / runtime.maxMemory());
-
-				System.out.println("MainBatch: step " + currentTime + "/" + totalTime + " (" + stepdt + "ms)");
-				System.out.println("MainBatch: memory: " + memory + "gb (" + mempercent + "%)");
-			}
-			simulation.run();
-		} catch (IOException e) {
-			System.out.println("MainBatch: something went wrong.");
+		while(simulation.continues()) {
+			long stept0 = System.nanoTime();
+			simulation.step();
+
+			// Some diagnostic stuff
+			int stepdt = (int) ((System.nanoTime() - stept0) / 1000 / 1000);
+			double currentTime = simulation.totalSimulationTime;
+			double totalTime = simulation.getIterations() * simulation.getTimeStep();
+			double memory = ((int) (100 * runtime.totalMemory() / GIGABYTE)) / 100.0;
+			int mempercent = (int) (100 * runtime.totalMemory() / runtime.maxMemory());
+
+			System.out.println("MainBatch: step " + currentTime + "/" + totalTime + " (" + stepdt + "ms)");
+			System.out.println("MainBatch: memory: " + memory + "gb (" + mempercent + "%)");
 		}
+		simulation.run();
 
 		// dt in seconds
 		long t1 = System.nanoTime();
@@ -133,9 +203,9 @@ public class MainBatch {
 
 	public static void initializeSimulationFromString(String configurationString) {
 		// Creates a settings class with the default parameters
-		Settings settings = new Settings();
+		settings = new Settings();
 		YamlParser yamlParser = new YamlParser(settings);
-		yamlParser.parseString(configurationString);
+		yamlParser.parseString(configurationString.replace(EVENT_PLACEHOLDER, "1"));
 
 		// Initialization time measurement
 		long t0 = System.nanoTime();
@@ -149,6 +219,84 @@ public class MainBatch {
 		System.out.println("MainBatch: Initialization time: " + dt + " ms.");
 	}
 
+	/**
+	 * Initializes the next event of an ensemble. The grid and the threads of the previous event are reused.
+	 * @param configurationString   Configuration of the ensemble
+	 * @param event                 Number of the event
+	 */
+	private static void initializeEventFromString(String configurationString, int event) {
+		Settings eventSettings = new Settings();
+		YamlParser yamlParser = new YamlParser(eventSettings);
+		yamlParser.parseString(configurationString.replace(EVENT_PLACEHOLDER, Integer.toString(event)));
+		eventSettings.shareThreads(settings);
+		settings = eventSettings;
+
+		long t0 = System.nanoTime();
+
+		// Release the previous event before the new one is initialized.
+		Grid grid = simulation.grid;
+		simulation = null;
+		simulation = new Simulation(settings, grid);
+
+		long t1 = System.nanoTime();
+		int dt = (int) ((t1 - t0) / 1000 / 1000);
+		System.out.println("MainBatch: Initialization time: " + dt + " ms.");
+	}
+
+	/**
+	 * Lets the diagnostics of the current event accumulate their output in the ensemble averages. The averages are
+	 * assigned by the position of the diagnostic in the configuration.
+	 */
+	private static void setEnsembleAverages(ArrayList<EnsembleAverage> averages) {
+		ArrayList<Diagnostics> diagnostics = simulation.getDiagnosticsList();
+		if (diagnostics.size() != averages.size()) {
+			throw new RuntimeException("MainBatch: The events of an ensemble must use the same diagnostics.");
+		}
+		for (int i = 0; i < averages.size(); i++) {
+			if (diagnostics.get(i) instanceof EnsembleDiagnostics) {
+				((EnsembleDiagnostics) diagnostics.get(i)).setEnsembleAverage(averages.get(i));
+			}
+		}
+	}
+
+	private static ArrayList<EnsembleAverage> createEnsembleAverages() {
+		ArrayList<EnsembleAverage> averages = new ArrayList<EnsembleAverage>();
+		for (int i = 0; i < simulation.getDiagnosticsList().size(); i++) {
+			averages.add(new EnsembleAverage());
+		}
+		return averages;
+	}
+
+	/**
+	 * Writes the ensemble averages using the diagnostics of the last event, which are initialized even if the event
+	 * has failed.
+	 */
+	private static void writeEnsembleAverages(ArrayList<EnsembleAverage> averages) {
+		ArrayList<Diagnostics> diagnostics = simulation.getDiagnosticsList();
+		try {
+			for (int i = 0; i < averages.size(); i++) {
+				if (diagnostics.get(i) instanceof EnsembleDiagnostics) {
+					((EnsembleDiagnostics) diagnostics.get(i)).writeEnsembleAverage(averages.get(i));
+				}
+			}
+			simulation.closeOutput();
+		} catch (IOException e) {
+			System.out.println("MainBatch: Error writing the ensemble average: " + e.getMessage());
+			closeOutputAfterError();
+		}
+	}
+
+	/**
+	 * Closes the files of the simulation after a failed write. Further errors are only reported.
+	 */
+	private static void closeOutputAfterError() {
+		try {
+			simulation.closeOutput();
+		} catch (IOException e) {
+			System.out.println("MainBatch: Error closing the output: " + e.getMessage());
+		}
+	}
+
 	public static void step() {
 		try {
 			simulation.step();
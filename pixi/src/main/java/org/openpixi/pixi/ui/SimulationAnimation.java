@@ -132,6 +132,11 @@ public class SimulationAnimation {
 	public void resetAnimation(Settings settings) {
 		// timer.restart();
 		timer.stop();
+		try {
+			s.closeOutput();
+		} catch (IOException ex) {
+			Logger.getLogger(SimulationAnimation.class.getName()).log(Level.SEVERE, null, ex);
+		}
 		s = new Simulation(settings);
 		clear();
 		repaint();
@@ -39,6 +39,8 @@ public class YamlOutput {
 
 	public ArrayList<YamlEnergyDensity> energyDensity = new ArrayList<YamlEnergyDensity>();
 
+	public ArrayList<YamlCheckpointInTime> checkpointInTime = new ArrayList<YamlCheckpointInTime>();
+
 	/**
 	 * Creates FileGenerator instances and applies them to the Settings instance.
 	 * @param s
@@ -103,6 +105,10 @@ public class YamlOutput {
 		for(YamlEnergyDensity output : energyDensity) {
 			s.addDiagnostics(output.getFileGenerator());
 		}
+
+		for(YamlCheckpointInTime output : checkpointInTime) {
+			s.addDiagnostics(output.getFileGenerator());
+		}
 	}
 	
 }
@@ -3,6 +3,7 @@ package org.openpixi.pixi.ui.util.yaml;
 import java.util.HashMap;
 import java.util.List;
 
+import org.openpixi.pixi.parallel.cellaccess.CellPartitioning;
 import org.openpixi.pixi.physics.Settings;
 import org.openpixi.pixi.physics.SimulationType;
 import org.openpixi.pixi.physics.movement.solver.LeapFrogRelativisticParticleSolver;
@@ -17,6 +18,7 @@ public class YamlSettings {
     public Integer numberOfDimensions;
     public Integer numberOfColors;
     public Integer numberOfThreads;
+	public String cellPartitioning;
     public Double couplingConstant;
 	public Double gridStep;
 	public List<Double> gridSteps;
@@ -28,6 +30,38 @@ public class YamlSettings {
 
 	public Integer implicitSolverIterations;
 	public Double implicitSolverDamping;
+	public Double implicitSolverTolerance;
+
+	public Integer longitudinalDirection;
+	public Double initialProperTime;
+
+	public Boolean useFlatGrid;
+
+	public Boolean useNeighbourTable;
+
+	public Boolean useLockFreeDeposition;
+
+	public Boolean useAdjointLinkCache;
+
+	public Boolean useFusedParticleStep;
+
+	public Boolean useSparseParticleSeeding;
+
+	public Double particleChargeThreshold;
+
+	public Boolean useParallelRandomStreams;
+
+	/**
+	 * Path of a checkpoint file from which the simulation is resumed.
+	 */
+	public String restartFile;
+
+	public Boolean useAsyncOutput;
+
+	/**
+	 * Number of events which are simulated in one process, see {@link org.openpixi.pixi.ui.MainBatch}.
+	 */
+	public Integer numberOfEvents;
 
 	public List<YamlYangMillsParticle> particles;
 	public List<YamlYangMillsParticleStream> streams;
@@ -64,6 +98,7 @@ public class YamlSettings {
 			map.put("temporal implicit cgc ngp", SimulationType.TemporalImplicitCGCNGP);
 			map.put("temporal optimized cgc ngp", SimulationType.TemporalOptimizedCGCNGP);
 			map.put("temporal optimized implicit cgc ngp", SimulationType.TemporalOptimizedImplicitCGCNGP);
+			map.put("temporal packed cgc ngp", SimulationType.TemporalPackedCGCNGP);
 			map.put("boost-invariant cgc", SimulationType.BoostInvariantCGC);
 
 			if(map.containsKey(simulationType)) {
@@ -99,6 +134,20 @@ public class YamlSettings {
         if(numberOfThreads != null)
             settings.setNumOfThreads(numberOfThreads);
 
+		if(cellPartitioning != null) {
+			HashMap<String, CellPartitioning> map = new HashMap<String, CellPartitioning>();
+			map.put("strided", CellPartitioning.Strided);
+			map.put("slabs", CellPartitioning.Slabs);
+			map.put("tiles", CellPartitioning.Tiles);
+			map.put("dynamic", CellPartitioning.Dynamic);
+
+			if(map.containsKey(cellPartitioning)) {
+				settings.setCellPartitioning(map.get(cellPartitioning));
+			} else {
+				throw new RuntimeException("Unknown cell partitioning specified in YAML file.");
+			}
+		}
+
 		// Setting lattice spacing(s). Prioritize gridSteps over gridStep.
 		if(gridSteps != null) {
 			if(gridSteps.size() != numberOfDimensions) {
@@ -188,5 +237,47 @@ public class YamlSettings {
 
 		if(implicitSolverDamping != null)
 			settings.setImplicitSolverDamping(implicitSolverDamping);
+
+		if(implicitSolverTolerance != null)
+			settings.setImplicitSolverTolerance(implicitSolverTolerance);
+
+		if(longitudinalDirection != null)
+			settings.setLongitudinalDirection(longitudinalDirection);
+
+		if(initialProperTime != null)
+			settings.setInitialProperTime(initialProperTime);
+
+		if(useFlatGrid != null)
+			settings.useFlatGrid(useFlatGrid);
+
+		if(useNeighbourTable != null)
+			settings.useNeighbourTable(useNeighbourTable);
+
+		if(useLockFreeDeposition != null)
+			settings.useLockFreeDeposition(useLockFreeDeposition);
+
+		if(useAdjointLinkCache != null)
+			settings.useAdjointLinkCache(useAdjointLinkCache);
+
+		if(useFusedParticleStep != null)
+			settings.useFusedParticleStep(useFusedParticleStep);
+
+		if(useSparseParticleSeeding != null)
+			settings.useSparseParticleSeeding(useSparseParticleSeeding);
+
+		if(particleChargeThreshold != null)
+			settings.setParticleChargeThreshold(particleChargeThreshold);
+
+		if(useParallelRandomStreams != null)
+			settings.useParallelRandomStreams(useParallelRandomStreams);
+
+		if(restartFile != null)
+			settings.setRestartFile(restartFile);
+
+		if(useAsyncOutput != null)
+			settings.useAsyncOutput(useAsyncOutput);
+
+		if(numberOfEvents != null)
+			settings.setNumberOfEvents(numberOfEvents);
 	}
 }
@@ -1,5 +1,6 @@
 package org.openpixi.pixi.ui.util.yaml.currentgenerators;
 
+import org.openpixi.pixi.diagnostics.ArrayEncoding;
 import org.openpixi.pixi.physics.fields.currentgenerators.DualMVModel;
 
 public class YamlDualMVModel {
@@ -55,6 +56,22 @@ public class YamlDualMVModel {
 	 */
 	public Boolean useAlternativeNormalization = false;
 
+	/**
+	 * Encoding of the initial conditions output: "double" (default), "float" or "quantized", see
+	 * {@link org.openpixi.pixi.diagnostics.ArrayEncoding}.
+	 */
+	public String encoding = null;
+
+	/**
+	 * Maximum absolute error of the quantized encoding.
+	 */
+	public Double errorBound = null;
+
+	/**
+	 * Deflater compression level from 1 (fastest) to 9 (smallest), 0 for no compression.
+	 */
+	public Integer compressionLevel = null;
+
 
 	public DualMVModel getCurrentGenerator() {
 		boolean useSeed = (randomSeed1 != null && randomSeed2 != null);
@@ -63,11 +80,13 @@ public class YamlDualMVModel {
 			randomSeed2 = 0;
 		}
 
-		return new DualMVModel(direction, longitudinalLocation, longitudinalWidth, mu,
+		DualMVModel generator = new DualMVModel(direction, longitudinalLocation, longitudinalWidth, mu,
 				lowPassCoefficient,  infraredCoefficient,
 				useSeed, randomSeed1, randomSeed2,
 				createInitialConditionsOutput, outputFile,
 				useAlternativeNormalization);
+		generator.setOutputEncoding(ArrayEncoding.fromOptions(encoding, errorBound, compressionLevel));
+		return generator;
 	}
 
 }
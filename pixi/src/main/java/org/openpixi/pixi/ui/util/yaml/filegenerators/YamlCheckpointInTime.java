@@ -0,0 +1,29 @@
+package org.openpixi.pixi.ui.util.yaml.filegenerators;
+
+import org.openpixi.pixi.diagnostics.methods.CheckpointInTime;
+
+/**
+ * Yaml wrapper for the CheckpointInTime diagnostic.
+ */
+public class YamlCheckpointInTime {
+
+	/**
+	 * Path of the checkpoint file.
+	 */
+	public String path;
+
+	/**
+	 * Checkpoint interval.
+	 */
+	public double interval;
+
+	/**
+	 * Returns an instance of CheckpointInTime according to the parameters in the YAML file.
+	 *
+	 * @return Instance of CheckpointInTime.
+	 */
+	public CheckpointInTime getFileGenerator() {
+		CheckpointInTime fileGen = new CheckpointInTime(path, interval);
+		return fileGen;
+	}
+}
@@ -17,6 +17,21 @@ public class YamlCoulombGaugeInTime {
 	 */
 	public double offset;
 
+	/**
+	 * True/False. Adapt the step size of the gauge fixing to the change of the divergence.
+	 */
+	public Boolean adaptiveStepSize = false;
+
+	/**
+	 * Step size alpha of the gauge fixing, the starting value if the step size is adaptive.
+	 */
+	public Double initialStepSize = 1.0;
+
+	/**
+	 * True/False. Print iterations and wall time of every gauge fixing.
+	 */
+	public Boolean report = false;
+
 	/**
 	 * Returns an instance of CoulombGaugeInTime according to the parameters in the YAML file.
 	 *
@@ -24,6 +39,15 @@ public class YamlCoulombGaugeInTime {
 	 */
 	public CoulombGaugeInTime getFileGenerator() {
 		CoulombGaugeInTime fileGen = new CoulombGaugeInTime(interval, offset);
+		if (adaptiveStepSize != null) {
+			fileGen.setAdaptiveStepSize(adaptiveStepSize);
+		}
+		if (initialStepSize != null) {
+			fileGen.setInitialStepSize(initialStepSize);
+		}
+		if (report != null) {
+			fileGen.setReport(report);
+		}
 		return fileGen;
 	}
 }
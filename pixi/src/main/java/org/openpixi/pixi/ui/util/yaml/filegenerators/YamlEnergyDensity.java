@@ -1,5 +1,6 @@
 package org.openpixi.pixi.ui.util.yaml.filegenerators;
 
+import org.openpixi.pixi.diagnostics.ArrayEncoding;
 import org.openpixi.pixi.diagnostics.methods.EnergyDensity;
 
 public class YamlEnergyDensity {
@@ -19,9 +20,26 @@ public class YamlEnergyDensity {
 	 */
 	public double timeInterval;
 
+	/**
+	 * Encoding of the output: "double" (default), "float" or "quantized", see
+	 * {@link org.openpixi.pixi.diagnostics.ArrayEncoding}.
+	 */
+	public String encoding;
+
+	/**
+	 * Maximum absolute error of the quantized encoding.
+	 */
+	public Double errorBound;
+
+	/**
+	 * Deflater compression level from 1 (fastest) to 9 (smallest), 0 for no compression.
+	 */
+	public Integer compressionLevel;
+
 
 	public EnergyDensity getFileGenerator() {
 		EnergyDensity generator = new EnergyDensity(path, startTime, timeInterval);
+		generator.setEncoding(ArrayEncoding.fromOptions(encoding, errorBound, compressionLevel));
 		return generator;
 	}
 }
@@ -27,6 +27,16 @@ public class YamlOccupationNumbersInTime {
 	 */
 	public Boolean colorful = false;
 
+	/**
+	 * True/False. Adapt the step size of the Coulomb gauge fixing to the change of the divergence.
+	 */
+	public Boolean adaptiveStepSize = false;
+
+	/**
+	 * Step size alpha of the Coulomb gauge fixing, the starting value if the step size is adaptive.
+	 */
+	public Double initialStepSize = 1.0;
+
 	/**
 	 * Returns an instance of CoulombGaugeInTime according to the parameters in the YAML file.
 	 *
@@ -39,6 +49,12 @@ public class YamlOccupationNumbersInTime {
 		} else {
 			fileGen = new OccupationNumbersInTime(interval, outputType, path, false);
 		}
+		if (adaptiveStepSize != null) {
+			fileGen.setAdaptiveStepSize(adaptiveStepSize);
+		}
+		if (initialStepSize != null) {
+			fileGen.setInitialStepSize(initialStepSize);
+		}
 		return fileGen;
 	}
 }
@@ -1,5 +1,6 @@
 package org.openpixi.pixi.ui.util.yaml.filegenerators;
 
+import org.openpixi.pixi.diagnostics.ArrayEncoding;
 import org.openpixi.pixi.diagnostics.methods.PlanarFields;
 
 public class YamlPlanarFields {
@@ -33,6 +34,22 @@ public class YamlPlanarFields {
 	 */
 	public Integer planarIndex;
 
+	/**
+	 * Encoding of the output: "double" (default), "float" or "quantized", see
+	 * {@link org.openpixi.pixi.diagnostics.ArrayEncoding}.
+	 */
+	public String encoding;
+
+	/**
+	 * Maximum absolute error of the quantized encoding.
+	 */
+	public Double errorBound;
+
+	/**
+	 * Deflater compression level from 1 (fastest) to 9 (smallest), 0 for no compression.
+	 */
+	public Integer compressionLevel;
+
 
 	public PlanarFields getFileGenerator() {
 		if(startingTime == null) {
@@ -43,6 +60,8 @@ public class YamlPlanarFields {
 			finalTime = Double.MAX_VALUE;
 		}
 
-		return new PlanarFields(interval, path, startingTime, finalTime, direction, planarIndex);
+		PlanarFields generator = new PlanarFields(interval, path, startingTime, finalTime, direction, planarIndex);
+		generator.setEncoding(ArrayEncoding.fromOptions(encoding, errorBound, compressionLevel));
+		return generator;
 	}
 }
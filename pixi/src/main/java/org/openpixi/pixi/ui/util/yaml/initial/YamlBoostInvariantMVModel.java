@@ -0,0 +1,48 @@
+package org.openpixi.pixi.ui.util.yaml.initial;
+
+import org.openpixi.pixi.physics.initial.CGC.BoostInvariantMVModel;
+
+public class YamlBoostInvariantMVModel {
+	/**
+	 * Longitudinal (rapidity) direction (0 to d)
+	 */
+	public Integer direction;
+
+	/**
+	 * \mu parameter of the MV model. This controls the average charge density squared.
+	 */
+	public Double mu;
+
+	/**
+	 * Coefficient for the low pass filter in the Poisson solver
+	 */
+	public Double lowPassCoefficient = 1.0;
+
+	/**
+	 * Coefficient infrared regulator in the Poisson solver
+	 */
+	public Double infraredCoefficient = 0.0;
+
+	/**
+	 * Seeds to use for the random number generator
+	 */
+	public Integer randomSeed1 = null;
+	public Integer randomSeed2 = null;
+
+	/**
+	 * Option whether to use the \mu^2 (true) or the g^2 \mu^2 (false, default) normalization for the Gaussian
+	 * probability distribution of the color charge densities.
+	 */
+	public Boolean useAlternativeNormalization = false;
+
+	public BoostInvariantMVModel getInitialCondition() {
+		boolean useSeed = (randomSeed1 != null && randomSeed2 != null);
+		if(!useSeed) {
+			randomSeed1 = 0;
+			randomSeed2 = 0;
+		}
+
+		return new BoostInvariantMVModel(direction, mu, lowPassCoefficient, infraredCoefficient,
+				useSeed, randomSeed1, randomSeed2, useAlternativeNormalization);
+	}
+}
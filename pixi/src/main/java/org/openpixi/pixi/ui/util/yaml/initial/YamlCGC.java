@@ -19,6 +19,7 @@ public class YamlCGC {
 	public ArrayList<YamlNucleusCoherent> NucleusCoherent = new ArrayList<YamlNucleusCoherent>();
 	public ArrayList<YamlNucleus> Nucleus = new ArrayList<YamlNucleus>();
 	public ArrayList<YamlNucleusThick> NucleusThick = new ArrayList<YamlNucleusThick>();
+	public ArrayList<YamlBoostInvariantMVModel> BoostInvariantMVModel = new ArrayList<YamlBoostInvariantMVModel>();
 
 	/**
 	 * Creates IInitialCondition instances and applies them to the Settings instance.
@@ -54,6 +55,11 @@ public class YamlCGC {
 			applyOptions(ic);
 			s.addInitialConditions(ic);
 		}
+
+		// Boost-invariant initial conditions do not use the light-cone Poisson solvers.
+		for (YamlBoostInvariantMVModel init : BoostInvariantMVModel) {
+			s.addInitialConditions(init.getInitialCondition());
+		}
 	}
 
 	private void applyOptions(CGCInitialCondition ic) {
@@ -0,0 +1,199 @@
+package org.openpixi.pixi.diagnostics;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openpixi.pixi.diagnostics.methods.EnergyDensity;
+import org.openpixi.pixi.parallel.indexaccess.ParallelIndexIterator;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.SimulationType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class ArrayEncodingTest {
+
+	private final int numberOfValues = 10000;
+
+	private final int chunkSize = 3000;
+
+	private ExecutorService executor;
+
+	@Before
+	public void createExecutor() {
+		executor = Executors.newFixedThreadPool(3);
+	}
+
+	@After
+	public void shutdownExecutor() {
+		executor.shutdown();
+	}
+
+	@Test
+	public void testEncodings() throws IOException {
+		double[] values = new double[numberOfValues];
+		Random random = new Random(5);
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Math.exp(4.0 * random.nextGaussian());
+		}
+		// A constant chunk, a chunk with a large range and non-finite values.
+		for (int i = 3000; i < 6000; i++) {
+			values[i] = 2.5;
+		}
+		values[6100] = 1.E30;
+		values[9000] = Double.NaN;
+		values[9001] = Double.NEGATIVE_INFINITY;
+
+		for (int level = 0; level <= 9; level += 3) {
+			testEncoding(values, new ArrayEncoding(ArrayEncoding.Type.DOUBLE, 0.0, level), 0.0, 0.0);
+			testEncoding(values, new ArrayEncoding(ArrayEncoding.Type.FLOAT, 0.0, level), 0.0, 1.E-7);
+			testEncoding(values, new ArrayEncoding(ArrayEncoding.Type.QUANTIZED, 1.E-3, level), 1.E-3, 1.E-15);
+			testEncoding(values, new ArrayEncoding(ArrayEncoding.Type.QUANTIZED, 1.E-8, level), 1.E-8, 1.E-15);
+		}
+	}
+
+	private void testEncoding(double[] values, ArrayEncoding encoding, double absoluteError, double relativeError)
+			throws IOException {
+		encoding.setChunkSize(chunkSize);
+		ArrayEncoding.EncodedArray encoded = encoding.encode(values, new ParallelIndexIterator(3, executor));
+		ByteBuffer buffer = ByteBuffer.allocate(encoded.getNumberOfBytes() + 8);
+		encoded.put(buffer);
+		Assert.assertEquals(encoded.getNumberOfBytes(), buffer.position());
+		buffer.putDouble(1.0);
+		buffer.flip();
+
+		double[] decoded = ArrayEncoding.decode(buffer, values.length, !encoding.isDefault());
+		Assert.assertEquals(1.0, buffer.getDouble(), 0.0);
+		for (int i = 0; i < values.length; i++) {
+			double delta = absoluteError + relativeError * Math.abs(values[i]);
+			if (Double.isNaN(values[i]) || Double.isInfinite(values[i])) {
+				delta = 0.0;
+			}
+			Assert.assertEquals(encoding.getType() + ", value " + i, values[i], decoded[i], delta);
+		}
+
+		// Encoding in parallel yields the same output.
+		ByteBuffer sequential = ByteBuffer.allocate(encoded.getNumberOfBytes());
+		encoding.encode(values, new ParallelIndexIterator(1, null)).put(sequential);
+		buffer.rewind();
+		buffer.limit(encoded.getNumberOfBytes());
+		Assert.assertTrue(buffer.equals(sequential.rewind()));
+	}
+
+	@Test
+	public void testDefaultEncoding() throws IOException {
+		double[] values = new double[100];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Math.sin(i);
+		}
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		DataOutputStream stream = new DataOutputStream(expected);
+		for (double v : values) {
+			stream.writeDouble(v);
+		}
+		stream.close();
+
+		ArrayEncoding.EncodedArray encoded = new ArrayEncoding().encode(values, new ParallelIndexIterator(2, executor));
+		ByteBuffer buffer = ByteBuffer.allocate(encoded.getNumberOfBytes());
+		encoded.put(buffer);
+		Assert.assertArrayEquals(expected.toByteArray(), buffer.array());
+
+		buffer.flip();
+		double[] decoded = ArrayEncoding.decode(buffer, values.length, false);
+		for (int i = 0; i < values.length; i++) {
+			Assert.assertEquals(values[i], decoded[i], 0.0);
+		}
+	}
+
+	@Test
+	public void testPlainDump() throws IOException {
+		// The first value starts with the same bytes as the header of an encoded array.
+		double[] values = new double[] {Double.longBitsToDouble(0x50584145L << 32), -1.0};
+		File file = File.createTempFile("ArrayEncodingTest", ".dat");
+		file.deleteOnExit();
+		DataOutputStream stream = new DataOutputStream(new FileOutputStream(file));
+		stream.writeInt(1);
+		stream.writeInt(values.length);
+		for (double v : values) {
+			stream.writeDouble(v);
+		}
+		stream.close();
+
+		DumpReader.EnergyDensityDump dump = DumpReader.readEnergyDensity(file.getPath());
+		Assert.assertEquals(values.length, dump.numCells[0]);
+		for (int i = 0; i < values.length; i++) {
+			Assert.assertEquals(values[i], dump.values[i], 0.0);
+		}
+		file.delete();
+	}
+
+	@Test
+	public void testEnergyDensityDump() throws IOException {
+		// EnergyDensity numbers its files relative to the output folder.
+		String directory = "ArrayEncodingTest/";
+		String exactPath = directory + "exact.dat";
+		String quantizedPath = directory + "quantized.dat";
+
+		Settings settings = new Settings();
+		settings.setNumberOfDimensions(3);
+		settings.setNumberOfColors(2);
+		settings.setNumOfThreads(2);
+		settings.setGridStep(1.0);
+		settings.setTimeStep(0.5);
+		settings.setTMax(2.0);
+		settings.setSimulationType(SimulationType.TemporalYangMills);
+		for (int i = 0; i < 3; i++) {
+			settings.setGridCells(i, 6);
+		}
+		double errorBound = 1.E-3;
+		EnergyDensity exact = new EnergyDensity(exactPath, 0.0, 1.0);
+		EnergyDensity quantized = new EnergyDensity(quantizedPath, 0.0, 1.0);
+		quantized.setEncoding(new ArrayEncoding(ArrayEncoding.Type.QUANTIZED, errorBound, 1));
+		settings.addDiagnostics(exact);
+		settings.addDiagnostics(quantized);
+
+		Simulation s = new Simulation(settings);
+		Random random = new Random(2);
+		AlgebraElement E = s.grid.getElementFactory().algebraZero();
+		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+			for (int d = 0; d < 3; d++) {
+				for (int c = 0; c < 3; c++) {
+					E.set(c, random.nextGaussian());
+				}
+				s.grid.setE(i, d, E);
+			}
+		}
+		s.run();
+		s.closeOutput();
+		settings.terminateThreads();
+
+		String[] suffixes = new String[]{"_1.dat", "_2.dat"};
+		for (String suffix : suffixes) {
+			File exactFile = FileFunctions.getFile(directory + "exact" + suffix);
+			File quantizedFile = FileFunctions.getFile(directory + "quantized" + suffix);
+			DumpReader.EnergyDensityDump a = DumpReader.readEnergyDensity(exactFile.getPath());
+			DumpReader.EnergyDensityDump b = DumpReader.readEnergyDensity(quantizedFile.getPath());
+			Assert.assertEquals(s.grid.getTotalNumberOfCells(), a.values.length);
+			for (int i = 0; i < 3; i++) {
+				Assert.assertEquals(6, b.numCells[i]);
+			}
+			for (int i = 0; i < a.values.length; i++) {
+				Assert.assertEquals(a.values[i], b.values[i], errorBound * (1.0 + 1.E-9));
+			}
+			Assert.assertTrue(quantizedFile.length() < exactFile.length() / 2);
+			exactFile.delete();
+			quantizedFile.delete();
+		}
+		FileFunctions.getFile(exactPath).getParentFile().delete();
+	}
+}
@@ -0,0 +1,276 @@
+package org.openpixi.pixi.diagnostics;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.diagnostics.methods.ProjectedEnergyDensity;
+import org.openpixi.pixi.diagnostics.methods.ProjectedEnergyDensity2;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.SimulationType;
+import org.openpixi.pixi.physics.grid.Grid;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+public class EnsembleAverageTest {
+
+	private final double accuracy = 1.E-12;
+
+	private final int numberOfEvents = 3;
+
+	private Settings settings;
+
+	@Test
+	public void testWelford() {
+		Random random = new Random(1);
+		double[][] events = new double[50][4];
+		EnsembleAverage average = new EnsembleAverage();
+		for (int e = 0; e < events.length; e++) {
+			for (int i = 0; i < events[e].length; i++) {
+				// Large offsets spoil the naive sum of squares, but not Welford's algorithm.
+				events[e][i] = 1.E6 * i + random.nextGaussian();
+			}
+			average.add(0, events[e]);
+			average.add(1, new double[]{e});
+		}
+		Assert.assertEquals(2, average.getNumberOfSamples());
+		Assert.assertEquals(events.length, average.getNumberOfEvents(0));
+
+		// Two-pass mean and variance
+		double[] mean = average.getMean(0);
+		double[] variance = average.getVariance(0);
+		for (int i = 0; i < 4; i++) {
+			double m = 0.0;
+			for (double[] event : events) {
+				m += event[i];
+			}
+			m /= events.length;
+			double v = 0.0;
+			for (double[] event : events) {
+				v += (event[i] - m) * (event[i] - m);
+			}
+			v /= events.length - 1;
+			Assert.assertEquals(m, mean[i], accuracy * Math.abs(m));
+			Assert.assertEquals(v, variance[i], 1.E-8 * v);
+		}
+		Assert.assertEquals(24.5, average.getMean(1)[0], accuracy);
+		Assert.assertEquals(212.5, average.getVariance(1)[0], accuracy);
+
+		try {
+			average.add(1, new double[2]);
+			Assert.fail("Samples of different length should be rejected.");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testAddEnsemble() {
+		Random random = new Random(2);
+		EnsembleAverage all = new EnsembleAverage();
+		EnsembleAverage first = new EnsembleAverage();
+		EnsembleAverage second = new EnsembleAverage();
+		for (int e = 0; e < 20; e++) {
+			for (int sample = 0; sample < 3; sample++) {
+				// The second part has fewer events in the last sample, like an event that failed early.
+				if (e >= 15 && sample == 2) {
+					continue;
+				}
+				double[] values = new double[]{1.E6 + random.nextGaussian(), 10.0 * random.nextGaussian()};
+				all.add(sample, values);
+				(e < 8 ? first : second).add(sample, values);
+			}
+		}
+		EnsembleAverage merged = new EnsembleAverage();
+		merged.add(first);
+		merged.add(new EnsembleAverage());
+		merged.add(second);
+
+		Assert.assertEquals(all.getNumberOfSamples(), merged.getNumberOfSamples());
+		for (int sample = 0; sample < 3; sample++) {
+			Assert.assertEquals(all.getNumberOfEvents(sample), merged.getNumberOfEvents(sample));
+			for (int i = 0; i < 2; i++) {
+				double m = all.getMean(sample)[i];
+				double v = all.getVariance(sample)[i];
+				Assert.assertEquals(m, merged.getMean(sample)[i], accuracy * Math.abs(m));
+				Assert.assertEquals(v, merged.getVariance(sample)[i], 1.E-8 * v);
+			}
+		}
+	}
+
+	@Test
+	public void testProjectedEnergyDensity() throws IOException {
+		testProjectedEnergyDensity(false, false);
+		testProjectedEnergyDensity(true, false);
+		// Text output of ProjectedEnergyDensity
+		testProjectedEnergyDensity(false, true);
+	}
+
+	private void testProjectedEnergyDensity(boolean useFlatGrid, boolean text) throws IOException {
+		String directory = "EnsembleAverageTest/";
+
+		// Events simulated separately
+		double[][][] single = new double[numberOfEvents][][];
+		for (int e = 0; e < numberOfEvents; e++) {
+			String path = directory + "pe" + e + ".dat";
+			Simulation s = createSimulation(e, useFlatGrid, null, path, null, text);
+			s.run();
+			s.closeOutput();
+			settings.terminateThreads();
+			single[e] = readFile(path, text);
+		}
+
+		// The same events as an ensemble with a reused grid
+		EnsembleAverage average = new EnsembleAverage();
+		Grid grid = null;
+		for (int e = 0; e < numberOfEvents; e++) {
+			Simulation s = createSimulation(e, useFlatGrid, grid, directory + "pe.dat", average, text);
+			Assert.assertTrue(grid == null || s.grid == grid);
+			s.run();
+			if (e == numberOfEvents - 1) {
+				for (Diagnostics d : s.getDiagnosticsList()) {
+					((EnsembleDiagnostics) d).writeEnsembleAverage(average);
+				}
+			}
+			s.closeOutput();
+			settings.terminateThreads();
+			grid = s.grid;
+		}
+		double[][] mean = readFile(directory + "pe.dat", text);
+		double[][] variance = readFile(directory + "pe_variance.dat", text);
+
+		Assert.assertEquals(single[0].length, mean.length);
+		Assert.assertEquals(1 + 6 * 8, mean[0].length);
+		for (int t = 0; t < mean.length; t++) {
+			Assert.assertEquals(single[0][t][0], variance[t][0], 0.0);
+			for (int i = 0; i < mean[t].length; i++) {
+				double m = 0.0;
+				for (int e = 0; e < numberOfEvents; e++) {
+					m += single[e][t][i];
+				}
+				m /= numberOfEvents;
+				double v = 0.0;
+				for (int e = 0; e < numberOfEvents; e++) {
+					v += Math.pow(single[e][t][i] - m, 2);
+				}
+				v /= numberOfEvents - 1;
+				Assert.assertEquals(m, mean[t][i], accuracy * (1.0 + Math.abs(m)));
+				if (i > 0) {
+					Assert.assertEquals(v, variance[t][i], accuracy * (1.0 + Math.abs(v)));
+				}
+			}
+		}
+
+		for (int e = 0; e < numberOfEvents; e++) {
+			FileFunctions.getFile(directory + "pe" + e + ".dat").delete();
+		}
+		FileFunctions.getFile(directory + "pe.dat").delete();
+		FileFunctions.getFile(directory + "pe_variance.dat").delete();
+		FileFunctions.getFile(directory + "pe.dat").getParentFile().delete();
+	}
+
+	private Simulation createSimulation(int event, boolean useFlatGrid, Grid grid, String path,
+										EnsembleAverage average, boolean text) {
+		settings = new Settings();
+		settings.setNumberOfDimensions(3);
+		settings.setNumberOfColors(2);
+		settings.setNumOfThreads(2);
+		settings.setGridStep(1.0);
+		settings.setTimeStep(0.5);
+		settings.setTMax(2.0);
+		settings.setSimulationType(SimulationType.TemporalYangMills);
+		settings.useFlatGrid(useFlatGrid);
+		settings.setGridCells(0, 8);
+		settings.setGridCells(1, 4);
+		settings.setGridCells(2, 4);
+		EnsembleDiagnostics diagnostic;
+		if (text) {
+			ProjectedEnergyDensity projectedEnergyDensity = new ProjectedEnergyDensity(path, 0.5, 0);
+			projectedEnergyDensity.computeEnergyDensity = true;
+			projectedEnergyDensity.computePoyntingVector = true;
+			diagnostic = projectedEnergyDensity;
+		} else {
+			diagnostic = new ProjectedEnergyDensity2(path, 0.5);
+		}
+		if (average != null) {
+			diagnostic.setEnsembleAverage(average);
+		}
+		settings.addDiagnostics(diagnostic);
+
+		Simulation s = new Simulation(settings, grid);
+
+		Random random = new Random(event);
+		AlgebraElement E = s.grid.getElementFactory().algebraZero();
+		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+			for (int d = 0; d < 3; d++) {
+				for (int c = 0; c < 3; c++) {
+					E.set(c, random.nextGaussian());
+				}
+				s.grid.setE(i, d, E);
+			}
+		}
+		return s;
+	}
+
+	private double[][] readFile(String path, boolean text) throws IOException {
+		return text ? readTextFile(path) : readFile(path);
+	}
+
+	/**
+	 * Reads a file of ProjectedEnergyDensity, every time step (time and six rows) as one array.
+	 */
+	private double[][] readTextFile(String path) throws IOException {
+		BufferedReader reader = new BufferedReader(new FileReader(FileFunctions.getFile(path)));
+		try {
+			ArrayList<double[]> data = new ArrayList<double[]>();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				ArrayList<Double> values = new ArrayList<Double>();
+				values.add(Double.parseDouble(line));
+				for (int r = 0; r < 6; r++) {
+					for (String value : reader.readLine().split("\t")) {
+						values.add(Double.parseDouble(value));
+					}
+				}
+				double[] sample = new double[values.size()];
+				for (int i = 0; i < sample.length; i++) {
+					sample[i] = values.get(i);
+				}
+				data.add(sample);
+			}
+			return data.toArray(new double[data.size()][]);
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Reads a file of ProjectedEnergyDensity2, every time step as one array.
+	 */
+	private double[][] readFile(String path) throws IOException {
+		DataInputStream stream = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(FileFunctions.getFile(path))));
+		try {
+			int longitudinalCells = stream.readInt();
+			int timeSteps = stream.readInt();
+			double[][] data = new double[timeSteps][1 + 6 * longitudinalCells];
+			for (int t = 0; t < timeSteps; t++) {
+				for (int i = 0; i < data[t].length; i++) {
+					data[t][i] = stream.readDouble();
+				}
+			}
+			Assert.assertEquals(-1, stream.read());
+			return data;
+		} finally {
+			stream.close();
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package org.openpixi.pixi.diagnostics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Compares the files written by the OutputWriter to the output of a DataOutputStream.
+ */
+public class OutputWriterTest {
+
+	private final int samples = 20;
+
+	private final int sampleSize = 10000;
+
+	@Test
+	public void testIdenticalOutput() throws IOException {
+		testIdenticalOutput(false, OutputWriter.DEFAULT_NUMBER_OF_BUFFERS);
+		testIdenticalOutput(true, OutputWriter.DEFAULT_NUMBER_OF_BUFFERS);
+		// A single buffer blocks the simulation thread until every sample has been written.
+		testIdenticalOutput(true, 1);
+	}
+
+	private void testIdenticalOutput(boolean asynchronous, int numberOfBuffers) throws IOException {
+		File binaryFile = File.createTempFile("OutputWriterTest", ".dat");
+		File textFile = File.createTempFile("OutputWriterTest", ".txt");
+		binaryFile.deleteOnExit();
+		textFile.deleteOnExit();
+
+		OutputWriter writer = new OutputWriter(asynchronous, numberOfBuffers);
+		ByteArrayOutputStream expectedBinary = new ByteArrayOutputStream();
+		DataOutputStream stream = new DataOutputStream(expectedBinary);
+		StringBuilder expectedText = new StringBuilder();
+		Random random = new Random(1);
+		double[] array = new double[sampleSize];
+
+		for (int t = 0; t < samples; t++) {
+			for (int i = 0; i < array.length; i++) {
+				array[i] = random.nextGaussian();
+			}
+			// Samples of increasing size let the buffers grow.
+			int size = (t + 1) * sampleSize / samples;
+			double[] sample = new double[size];
+			System.arraycopy(array, 0, sample, 0, size);
+
+			ByteBuffer buffer = writer.getBuffer(4 + 8 * size);
+			buffer.putInt(t);
+			OutputWriter.putDoubles(buffer, sample);
+			writer.write(binaryFile, buffer, false);
+			// The sample may be modified as soon as it has been copied.
+			sample[0] = Double.NaN;
+
+			stream.writeInt(t);
+			for (int i = 0; i < size; i++) {
+				stream.writeDouble(array[i]);
+			}
+
+			String line = t + "\t" + FileFunctions.format(array[0]) + "\n";
+			writer.write(textFile, line, false);
+			expectedText.append(line);
+		}
+		stream.close();
+
+		writer.flush();
+		Assert.assertArrayEquals(expectedBinary.toByteArray(), readFile(binaryFile));
+		writer.close();
+		Assert.assertArrayEquals(expectedText.toString().getBytes(), readFile(textFile));
+
+		// The writer can be used again after it has been closed.
+		writer.write(textFile, "end\n", true);
+		writer.close();
+		expectedText.append("end\n");
+		Assert.assertArrayEquals(expectedText.toString().getBytes(), readFile(textFile));
+
+		binaryFile.delete();
+		textFile.delete();
+	}
+
+	@Test
+	public void testError() throws IOException {
+		File directory = File.createTempFile("OutputWriterTest", "");
+		directory.delete();
+		// The parent directory does not exist.
+		File file = new File(directory, "output.dat");
+
+		OutputWriter writer = new OutputWriter(true);
+		try {
+			ByteBuffer buffer = writer.getBuffer(8);
+			buffer.putDouble(1.0);
+			writer.write(file, buffer, false);
+			writer.flush();
+			Assert.fail("The write should have failed.");
+		} catch (IOException e) {
+			// expected
+		}
+		try {
+			writer.close();
+			Assert.fail("The error should be reported by close().");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testClear() throws IOException {
+		for (int async = 0; async < 2; async++) {
+			File file = File.createTempFile("OutputWriterTest", ".txt");
+			file.deleteOnExit();
+
+			// A single buffer makes the writes queue up behind each other.
+			OutputWriter writer = new OutputWriter(async == 1, 1);
+			writer.write(file, "old\n", false);
+			writer.write(file, "old\n", false);
+			// The file is still open and the writes may still be pending.
+			writer.clear(file);
+			writer.write(file, "new\n", false);
+			writer.flush();
+			Assert.assertArrayEquals("new\n".getBytes(), readFile(file));
+
+			// Clearing a file which does not exist creates it.
+			file.delete();
+			writer.clear(file);
+			writer.close();
+			Assert.assertTrue(file.exists());
+			Assert.assertEquals(0, file.length());
+			file.delete();
+		}
+	}
+
+	private byte[] readFile(File file) throws IOException {
+		byte[] bytes = new byte[(int) file.length()];
+		FileInputStream stream = new FileInputStream(file);
+		try {
+			int offset = 0;
+			while (offset < bytes.length) {
+				offset += stream.read(bytes, offset, bytes.length - offset);
+			}
+		} finally {
+			stream.close();
+		}
+		return bytes;
+	}
+}
@@ -1,9 +1,12 @@
 package org.openpixi.pixi.gauge;
 
+import java.util.Random;
+
 import junit.framework.Assert;
 
 import org.junit.Ignore;
 import org.junit.Test;
+import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.GroupElement;
 import org.openpixi.pixi.math.SU2AlgebraElement;
 import org.openpixi.pixi.math.SU2GroupElement;
@@ -53,7 +56,100 @@ public class CoulombGaugeTest {
 		Assert.assertTrue(convergenceList.length > 2);
 	}
 
+	@Test
+	public void testAdaptiveStepSize() {
+		if (printDebugOutput) {
+			System.out.println("NonAbelian Coulomb Configuration with adaptive step size");
+		}
+		testForSU2Fields(new SU2AlgebraElement(.1, 0, 0), new SU2AlgebraElement(0, .1, 0), true, 1.0);
+	}
+
+	@Test
+	public void testStepSize() {
+		if (printDebugOutput) {
+			System.out.println("NonAbelian Coulomb Configuration with smaller step size");
+		}
+		testForSU2Fields(new SU2AlgebraElement(.1, 0, 0), new SU2AlgebraElement(0, .1, 0), false, 0.5);
+	}
+
+	@Test
+	public void testBeforeGaugeFixing() {
+		Settings settings = new Settings();
+		settings.setNumberOfColors(2);
+		settings.setGridCells(new int[] {2, 2, 2});
+		Simulation s = new Simulation(settings);
+
+		CoulombGauge coulomb = new CoulombGauge(s.grid);
+		Assert.assertEquals(0, coulomb.getLastIterations());
+		Assert.assertEquals(0, coulomb.getLastConvergence().length);
+		Assert.assertFalse(coulomb.isLastAccuracyGoalReached());
+	}
+
+	@Test
+	public void testAdaptiveStepSizeReducesIterations() {
+		// On a rough configuration the constant step size overshoots, the adaptive step size needs fewer iterations.
+		CoulombGauge constant = fixRoughConfiguration(8, false);
+		CoulombGauge adaptive = fixRoughConfiguration(8, true);
+		if (printDebugOutput) {
+			System.out.println("Constant step size: " + constant.getLastIterations() + " iterations, "
+					+ constant.getLastWallTime() + " ms");
+			System.out.println("Adaptive step size: " + adaptive.getLastIterations() + " iterations, "
+					+ adaptive.getLastWallTime() + " ms");
+		}
+		Assert.assertTrue(constant.isLastAccuracyGoalReached());
+		Assert.assertTrue(adaptive.isLastAccuracyGoalReached());
+		Assert.assertTrue(adaptive.getLastIterations() < constant.getLastIterations());
+	}
+
+	@Ignore("Benchmark")
+	@Test
+	public void testConvergenceForLatticeSizes() {
+		int[] sizes = new int[] {8, 16, 32};
+		for (int size : sizes) {
+			for (int method = 0; method < 2; method++) {
+				CoulombGauge coulomb = fixRoughConfiguration(size, method > 0);
+				System.out.println("Lattice " + size + "^3, adaptive step size " + (method > 0) + ": "
+						+ coulomb.getLastIterations() + " iterations, " + coulomb.getLastWallTime() + " ms, "
+						+ "accuracy goal reached: " + coulomb.isLastAccuracyGoalReached());
+			}
+		}
+	}
+
+	/**
+	 * Fixes the Coulomb gauge of random SU(2) links exp(i A) with Gaussian distributed color components of A.
+	 */
+	private CoulombGauge fixRoughConfiguration(int size, boolean adaptiveStepSize) {
+		Settings settings = new Settings();
+		settings.setNumberOfColors(2);
+		settings.setGridCells(new int[] {size, size, size});
+		Simulation s = new Simulation(settings);
+		Grid grid = s.grid;
+
+		Random random = new Random(3);
+		AlgebraElement A = grid.getElementFactory().algebraZero();
+		for (int i = 0; i < grid.getTotalNumberOfCells(); i++) {
+			for (int dir = 0; dir < 3; dir++) {
+				for (int color = 0; color < 3; color++) {
+					A.set(color, random.nextGaussian());
+				}
+				grid.setU(i, dir, A.getLink());
+			}
+		}
+
+		CoulombGauge coulomb = new CoulombGauge(grid);
+		coulomb.setMaxIteration(1000);
+		coulomb.setAccuracyGoal(1e-12 * grid.getTotalNumberOfCells());
+		coulomb.setAdaptiveStepSize(adaptiveStepSize);
+		coulomb.applyGaugeTransformation(grid);
+		return coulomb;
+	}
+
 	private Double[] testForSU2Fields(SU2AlgebraElement field1, SU2AlgebraElement field2) {
+		return testForSU2Fields(field1, field2, false, 1.0);
+	}
+
+	private Double[] testForSU2Fields(SU2AlgebraElement field1, SU2AlgebraElement field2,
+			boolean adaptiveStepSize, double initialStepSize) {
 		// Initialize simulation
 
 		Settings settings = new Settings();
@@ -84,6 +180,8 @@ public class CoulombGaugeTest {
 
 		// Apply Coulomb gauge transformation:
 		CoulombGauge coulomb = new CoulombGauge(grid);
+		coulomb.setAdaptiveStepSize(adaptiveStepSize);
+		coulomb.setInitialStepSize(initialStepSize);
 		coulomb.applyGaugeTransformation(grid);
 
 		Double[] convergenceList = coulomb.getLastConvergence();
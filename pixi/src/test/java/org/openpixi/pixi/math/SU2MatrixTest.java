@@ -299,6 +299,48 @@ public class SU2MatrixTest {
 
 	}
 
+	@Test
+	public void testInPlaceOperations() {
+		SU2GroupElement a = createRandomSU2Matrix();
+		SU2GroupElement b = createRandomSU2Matrix();
+		SU2GroupElement c = new SU2GroupElement();
+		SU2AlgebraElement f = createRandomSU2AlgebraElement();
+		SU2AlgebraElement g = new SU2AlgebraElement();
+
+		a.multInto(b, c);
+		compareGroupElements(a.mult(b), c);
+
+		a.multAdjInto(b, c);
+		compareGroupElements(a.mult(b.adj()), c);
+
+		// destination identical to one of the factors
+		c.set(a);
+		c.multAdjInto(b, c);
+		compareGroupElements(a.mult(b.adj()), c);
+		c.set(b);
+		a.multInto(c, c);
+		compareGroupElements(a.mult(b), c);
+
+		a.projInto(g);
+		for (int i = 0; i < 3; i++) {
+			Assert.assertEquals(a.proj().get(i), g.get(i), accuracy);
+		}
+
+		f.getLinkInto(c);
+		compareGroupElements(f.getLink(), c);
+
+		c.setIdentity();
+		compareGroupElements(new SU2GroupElement(1, 0, 0, 0), c);
+		c.setZero();
+		compareGroupElements(new SU2GroupElement(0, 0, 0, 0), c);
+	}
+
+	private void compareGroupElements(GroupElement a, GroupElement b) {
+		for (int i = 0; i < 4; i++) {
+			Assert.assertEquals(a.get(i), b.get(i), accuracy);
+		}
+	}
+
 	@Test
 	public void testScalarMultiplication() {
 		int numberOfTests = 10;
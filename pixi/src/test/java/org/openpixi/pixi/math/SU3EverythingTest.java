@@ -6,6 +6,7 @@ import org.apache.commons.math3.complex.Complex;
 import org.apache.commons.math3.complex.ComplexField;
 import org.apache.commons.math3.linear.Array2DRowFieldMatrix;
 import org.junit.Assert;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.openpixi.pixi.math.GroupElement;
 import org.openpixi.pixi.math.SU3AlgebraElement;
@@ -16,9 +17,6 @@ public class SU3EverythingTest {
 
 
 	private final double accuracy = 1.E-12;
-	// Changing between group and algebra elements with degenerate eigenvalues is not as accurate!!!
-	// TODO: fix this!
-	private final double singularAccuracy = 1.E-7;
 
 	@Test
 	public void testGetterAndSetter() {
@@ -276,6 +274,50 @@ public class SU3EverythingTest {
 		}
 	}
 
+	@Test
+	public void testInPlaceOperations() {
+		int numberOfTests = 10;
+		for (int t = 0; t < numberOfTests; t++) {
+			SU3GroupElement a = createRandomSU3Matrix();
+			SU3GroupElement b = createRandomSU3Matrix();
+			SU3GroupElement c = new SU3GroupElement();
+
+			a.multInto(b, c);
+			compareMatrices(convertToMatrix(a.mult(b)), convertToMatrix(c));
+
+			a.multAdjInto(b, c);
+			compareMatrices(convertToMatrix(a.mult(b.adj())), convertToMatrix(c));
+
+			// destination identical to one of the factors
+			c.set(a);
+			c.multAdjInto(b, c);
+			compareMatrices(convertToMatrix(a.mult(b.adj())), convertToMatrix(c));
+			c.set(b);
+			a.multInto(c, c);
+			compareMatrices(convertToMatrix(a.mult(b)), convertToMatrix(c));
+
+			SU3AlgebraElement f = new SU3AlgebraElement();
+			a.projInto(f);
+			compareMatrices(convertToMatrix(a.proj()), convertToMatrix(f));
+
+			/*
+				Small and large algebra elements.
+			 */
+			double[] scales = new double[]{0.1, 3.0};
+			for (double scale : scales) {
+				SU3AlgebraElement h = new SU3AlgebraElement();
+				for (int i = 0; i < 8; i++) {
+					h.set(i, scale * (Math.random() - 0.5));
+				}
+				SU3GroupElement link = (SU3GroupElement) h.getLink();
+				Array2DRowFieldMatrix<Complex> expected = convertToMatrix(link);
+				h.getLinkInto(c);
+				compareMatrices(expected, convertToMatrix(c));
+				Assert.assertArrayEquals(new double[]{1,0}, c.det(), accuracy);
+			}
+		}
+	}
+
 	@Test
 	public void testSingularAndDegenerate() {
 		/*
@@ -294,7 +336,7 @@ public class SU3EverythingTest {
 			}
 
 			for (int j = 0; j < 8; j++) {
-				Assert.assertEquals(m.get(j), i == j ? 1.0 : 0.0, singularAccuracy);
+				Assert.assertEquals(m.get(j), i == j ? 1.0 : 0.0, accuracy);
 			}
 		}
 		/*
@@ -307,7 +349,7 @@ public class SU3EverythingTest {
 		m = (SU3AlgebraElement) mm.getAlgebraElement();
 
 		for (int j = 0; j < 8; j++) {
-			Assert.assertEquals(m.get(j), 0.0, singularAccuracy);
+			Assert.assertEquals(m.get(j), 0.0, accuracy);
 		}
 	}
 
@@ -397,6 +439,120 @@ public class SU3EverythingTest {
 		}
 	}
 
+	@Test
+	public void testCayleyHamilton() {
+		int numberOfTests = 10;
+		/*
+			Generic, nearly degenerate (with the eigenvalues of lambda_8 and lambda_3) and very small algebra elements.
+			The norm stays below pi, so the logarithm is expected to return the original algebra element.
+		 */
+		double[] scales = new double[]{1.E-9, 0.1, 0.5, 1.0};
+		for (double scale : scales) {
+			for (int type = 0; type < 3; type++) {
+				for (int t = 0; t < numberOfTests; t++) {
+					SU3AlgebraElement h = new SU3AlgebraElement();
+					for (int i = 0; i < 8; i++) {
+						double value = scale * (Math.random() - 0.5);
+						if (type == 1 && i != 7) {
+							value *= 1.E-9;
+						} else if (type == 2 && i != 2) {
+							value *= 1.E-9;
+						}
+						h.set(i, value);
+					}
+					// rotate the degenerate elements so that they are not diagonal
+					h = (SU3AlgebraElement) h.act(createRandomSU3Matrix());
+
+					/*
+						Compare the exponential with the power series.
+					 */
+					SU3GroupElement link = new SU3GroupElement();
+					h.getLinkInto(link);
+					compareMatrices(exponentiate(convertToMatrix(h)), convertToMatrix(link));
+					Assert.assertArrayEquals(new double[]{1,0}, link.det(), accuracy);
+
+					/*
+						The logarithm inverts the exponential.
+					 */
+					SU3AlgebraElement log = (SU3AlgebraElement) link.getAlgebraElement();
+					for (int i = 0; i < 8; i++) {
+						Assert.assertEquals(h.get(i), log.get(i), accuracy);
+					}
+
+					/*
+						Powers of the group element.
+					 */
+					SU3GroupElement sqrt = (SU3GroupElement) link.pow(0.5);
+					compareMatrices(convertToMatrix(link), convertToMatrix(sqrt.mult(sqrt)));
+				}
+			}
+		}
+
+		/*
+			Random group elements are reproduced by the exponential of their logarithm, like with the previous method.
+		 */
+		for (int t = 0; t < numberOfTests; t++) {
+			SU3GroupElement u = createRandomSU3Matrix();
+			compareMatrices(convertToMatrix(u), convertToMatrix(u.getAlgebraElement().getLink()));
+			compareMatrices(convertToMatrix(u), convertToMatrix(u.getAlgebraElementDecomposition().getLink()));
+
+			SU3AlgebraElement h = (SU3AlgebraElement) u.getAlgebraElement();
+			SU3GroupElement link = new SU3GroupElement();
+			h.getLinkIntoDecomposition(link);
+			compareMatrices(convertToMatrix(link), convertToMatrix(h.getLink()));
+		}
+	}
+
+	@Test
+	@Ignore("Benchmark")
+	public void testCayleyHamiltonThroughput() {
+		int numberOfElements = 64;
+		int numberOfCalls = 1000000;
+		double[] scales = new double[]{0.02, 0.3, 1.0};
+		for (double scale : scales) {
+			SU3AlgebraElement[] h = new SU3AlgebraElement[numberOfElements];
+			SU3GroupElement[] u = new SU3GroupElement[numberOfElements];
+			for (int n = 0; n < numberOfElements; n++) {
+				h[n] = new SU3AlgebraElement();
+				for (int i = 0; i < 8; i++) {
+					h[n].set(i, scale * (Math.random() - 0.5));
+				}
+				u[n] = (SU3GroupElement) h[n].getLink();
+			}
+
+			SU3GroupElement link = new SU3GroupElement();
+			double sum = 0.0;
+			for (int repetition = 0; repetition < 3; repetition++) {
+				long t0 = System.nanoTime();
+				for (int n = 0; n < numberOfCalls; n++) {
+					h[n % numberOfElements].getLinkInto(link);
+					sum += link.get(0);
+				}
+				long t1 = System.nanoTime();
+				for (int n = 0; n < numberOfCalls; n++) {
+					h[n % numberOfElements].getLinkIntoDecomposition(link);
+					sum += link.get(0);
+				}
+				long t2 = System.nanoTime();
+				for (int n = 0; n < numberOfCalls; n++) {
+					sum += u[n % numberOfElements].getAlgebraElement().get(0);
+				}
+				long t3 = System.nanoTime();
+				for (int n = 0; n < numberOfCalls; n++) {
+					sum += u[n % numberOfElements].getAlgebraElementDecomposition().get(0);
+				}
+				long t4 = System.nanoTime();
+
+				if (repetition == 2) {
+					System.out.println("Scale " + scale + ": exp " + (t1 - t0) / numberOfCalls + " ns (previous "
+							+ (t2 - t1) / numberOfCalls + " ns), log " + (t3 - t2) / numberOfCalls + " ns (previous "
+							+ (t4 - t3) / numberOfCalls + " ns)");
+				}
+			}
+			Assert.assertFalse(Double.isNaN(sum));
+		}
+	}
+
 	@Test
 	public void testDimensions(){
 		SU3GroupElement U = new SU3GroupElement();
@@ -478,6 +634,23 @@ public class SU3EverythingTest {
 		return u;
 	}
 
+	// power series of exp(i arg)
+	private Array2DRowFieldMatrix<Complex> exponentiate(Array2DRowFieldMatrix<Complex> arg) {
+		Field<Complex> field = ComplexField.getInstance();
+		arg = (Array2DRowFieldMatrix<Complex>) arg.scalarMultiply(new Complex(0,1));
+		Array2DRowFieldMatrix<Complex> summand = new Array2DRowFieldMatrix<Complex>(field, 3, 3);
+		summand.setEntry(0, 0, new Complex(1,0));
+		summand.setEntry(1, 1, new Complex(1,0));
+		summand.setEntry(2, 2, new Complex(1,0));
+		Array2DRowFieldMatrix<Complex> result = (Array2DRowFieldMatrix<Complex>) summand.copy();
+		for (int i = 1; i <= 100; i++) {
+			summand = summand.multiply(arg);
+			summand = (Array2DRowFieldMatrix<Complex>) summand.scalarMultiply(new Complex(1./i,0));
+			result = result.add(summand);
+		}
+		return result;
+	}
+
 	private void compareMatrices(Array2DRowFieldMatrix<Complex> a, Array2DRowFieldMatrix<Complex> b) {
 		for (int i = 0; i < 3; i++) {
 			for (int j = 0; j < 3; j++) {
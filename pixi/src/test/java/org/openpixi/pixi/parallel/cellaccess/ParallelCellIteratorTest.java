@@ -0,0 +1,192 @@
+package org.openpixi.pixi.parallel.cellaccess;
+
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.openpixi.pixi.physics.GeneralBoundaryType;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.fields.FastTYMSolver;
+import org.openpixi.pixi.physics.fields.fieldgenerators.SU2RandomFields;
+import org.openpixi.pixi.physics.grid.EmptyInterpolator;
+import org.openpixi.pixi.physics.grid.Grid;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class ParallelCellIteratorTest {
+
+	@Test
+	public void testPartitioning() {
+		int[][] sizes = new int[][]{{13, 10, 9}, {4, 4, 4}, {1000}, {3, 17}};
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+
+		for (CellPartitioning partitioning : CellPartitioning.values()) {
+			for (int[] size : sizes) {
+				ParallelCellIterator iterator = new ParallelCellIterator(3, executor, partitioning);
+				iterator.setNormalMode(size);
+
+				int numberOfCells = 1;
+				for (int i = 0; i < size.length; i++) {
+					numberOfCells *= size[i];
+				}
+
+				// Every cell has to be visited exactly once, also by copies of the iterator.
+				CountingAction action = new CountingAction(numberOfCells);
+				iterator.execute(null, action);
+				iterator.copy().execute(null, action);
+				for (int i = 0; i < numberOfCells; i++) {
+					Assert.assertEquals(partitioning + ", cell " + i, 2, action.counts.get(i));
+				}
+			}
+		}
+		executor.shutdown();
+	}
+
+	@Test
+	public void testReduction() {
+		int[] size = new int[]{13, 10, 9};
+		int numberOfCells = 13 * 10 * 9;
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+
+		SequentialCellIterator sequentialIterator = new SequentialCellIterator();
+		sequentialIterator.setNormalMode(size);
+		double[] expected = sequentialIterator.reduce(null, new SummingAction());
+		Assert.assertEquals(numberOfCells, expected[0], 0.0);
+		Assert.assertEquals(0.5 * numberOfCells * (numberOfCells - 1), expected[1], 0.0);
+
+		for (CellPartitioning partitioning : CellPartitioning.values()) {
+			ParallelCellIterator iterator = new ParallelCellIterator(3, executor, partitioning);
+			iterator.setNormalMode(size);
+			double[] result = iterator.reduce(null, new SummingAction());
+			Assert.assertArrayEquals(partitioning.toString(), expected, result, 0.0);
+		}
+		executor.shutdown();
+	}
+
+	@Test
+	public void testReproducibleDynamicReduction() {
+		int[] size = new int[]{40, 30, 20};
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+
+		ParallelCellIterator iterator = new ParallelCellIterator(2, executor, CellPartitioning.Dynamic);
+		iterator.setNormalMode(size);
+		double[] expected = iterator.reduce(null, new RoundingAction());
+
+		// The result must not depend on the order in which the chunks are claimed or the number of threads.
+		for (int numberOfThreads = 1; numberOfThreads <= 4; numberOfThreads++) {
+			iterator = new ParallelCellIterator(numberOfThreads, executor, CellPartitioning.Dynamic);
+			iterator.setNormalMode(size);
+			for (int run = 0; run < 10; run++) {
+				double[] result = iterator.reduce(null, new RoundingAction());
+				Assert.assertArrayEquals(expected, result, 0.0);
+			}
+		}
+		executor.shutdown();
+	}
+
+	/**
+	 * Compares the throughput of the field solver for the different partitioning schemes.
+	 */
+	@Test
+	@Ignore
+	public void testPerformance() {
+		int[] size = new int[]{64, 64, 64};
+		int numberOfSteps = 20;
+
+		for (CellPartitioning partitioning : CellPartitioning.values()) {
+			Settings settings = getStandardSettings(size);
+			settings.addFieldGenerator(new SU2RandomFields());
+			settings.setNumOfThreads(4);
+			settings.setCellPartitioning(partitioning);
+			Simulation s = new Simulation(settings);
+
+			// warm up
+			for (int t = 0; t < 5; t++) {
+				s.grid.storeFields();
+				s.grid.updateGrid(settings.getTimeStep());
+			}
+
+			long t0 = System.nanoTime();
+			for (int t = 0; t < numberOfSteps; t++) {
+				s.grid.storeFields();
+				s.grid.updateGrid(settings.getTimeStep());
+			}
+			long t1 = System.nanoTime();
+
+			double msPerStep = (t1 - t0) / 1000.0 / 1000.0 / numberOfSteps;
+			double cellsPerSecond = s.grid.getTotalNumberOfCells() / msPerStep * 1000.0;
+			System.out.println(partitioning + ": " + (int) msPerStep + " ms per step, "
+					+ (int) (cellsPerSecond / 1000) + " thousand cells per second.");
+			settings.terminateThreads();
+		}
+	}
+
+	private class CountingAction implements CellAction {
+
+		private AtomicIntegerArray counts;
+
+		private CountingAction(int numberOfCells) {
+			counts = new AtomicIntegerArray(numberOfCells);
+		}
+
+		public void execute(Grid grid, int index) {
+			counts.incrementAndGet(index);
+		}
+	}
+
+	private class SummingAction implements ReductionCellAction {
+
+		public int getAccumulatorSize() {
+			return 2;
+		}
+
+		public void execute(Grid grid, int index, double[] accumulator) {
+			accumulator[0] += 1;
+			accumulator[1] += index;
+		}
+	}
+
+	/**
+	 * Sums values of very different magnitude, whose sum depends on the order of the additions.
+	 */
+	private class RoundingAction implements ReductionCellAction {
+
+		public int getAccumulatorSize() {
+			return 1;
+		}
+
+		public void execute(Grid grid, int index, double[] accumulator) {
+			// Busy cells make the scheduling of the chunks irregular.
+			double value = Math.sin(index) * Math.pow(10.0, index % 13);
+			for (int i = 0; i < index % 50; i++) {
+				value = Math.sin(value) * Math.pow(10.0, index % 13);
+			}
+			accumulator[0] += value;
+		}
+	}
+
+	private Settings getStandardSettings(int[] size) {
+		Settings s = new Settings();
+
+		s.setRelativistic(true);
+		s.setBoundary(GeneralBoundaryType.Periodic);
+		s.setFieldSolver(new FastTYMSolver());
+		s.useGrid(true);
+		s.setInterpolator(new EmptyInterpolator());
+		s.setSpeedOfLight(1.0);
+		s.setNumberOfDimensions(3);
+
+		s.setGridStep(1.0);
+		s.setTimeStep(0.1);
+		for (int i = 0; i < size.length; i++) {
+			s.setGridCells(i, size[i]);
+		}
+
+		s.setNumberOfColors(2);
+		s.setCouplingConstant(1.0);
+
+		return s;
+	}
+}
@@ -0,0 +1,389 @@
+package org.openpixi.pixi.physics;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.diagnostics.methods.BulkQuantitiesInTime;
+import org.openpixi.pixi.diagnostics.methods.ProjectedEnergyDensity2;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.physics.fields.FastTYMSolver;
+import org.openpixi.pixi.physics.fields.currentgenerators.MVModel;
+import org.openpixi.pixi.physics.fields.fieldgenerators.SU2RandomFields;
+import org.openpixi.pixi.physics.grid.EmptyInterpolator;
+import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.physics.particles.CGCParticle;
+import org.openpixi.pixi.physics.particles.CGCSuperParticle;
+import org.openpixi.pixi.physics.particles.PackedCGCParticles;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public class CheckpointTest {
+
+	@Test
+	public void testRestart() throws IOException {
+		File file = File.createTempFile("checkpoint", ".bin");
+		file.deleteOnExit();
+		int stepsBeforeCheckpoint = 3;
+		int stepsAfterCheckpoint = 4;
+
+		// Reference run
+		Settings settings = getStandardSettings();
+		settings.addFieldGenerator(new SU2RandomFields());
+		Simulation s1 = new Simulation(settings);
+		for (int t = 0; t < stepsBeforeCheckpoint; t++) {
+			s1.step();
+		}
+		Checkpoint.write(s1, file.getPath());
+		for (int t = 0; t < stepsAfterCheckpoint; t++) {
+			s1.step();
+		}
+
+		// Restarted run
+		Settings restartSettings = getStandardSettings();
+		restartSettings.setRestartFile(file.getPath());
+		Simulation s2 = new Simulation(restartSettings);
+		Assert.assertEquals(stepsBeforeCheckpoint, s2.totalSimulationSteps);
+		for (int t = 0; t < stepsAfterCheckpoint; t++) {
+			s2.step();
+		}
+
+		Assert.assertEquals(s1.totalSimulationSteps, s2.totalSimulationSteps);
+		Assert.assertEquals(s1.totalSimulationTime, s2.totalSimulationTime, 0.0);
+		compareGrids(s1.grid, s2.grid);
+
+		settings.terminateThreads();
+		restartSettings.terminateThreads();
+	}
+
+	@Test
+	public void testRestartOutput() throws IOException {
+		File file = File.createTempFile("checkpoint", ".bin");
+		File[] output = new File[4];
+		for (int i = 0; i < output.length; i++) {
+			output[i] = File.createTempFile("CheckpointTest", ".dat");
+			output[i].deleteOnExit();
+		}
+		file.deleteOnExit();
+		int stepsBeforeCheckpoint = 3;
+		int stepsAfterCheckpoint = 4;
+
+		// Reference run. The output written up to the checkpoint is copied, as if the run had been interrupted.
+		Settings settings = getOutputSettings(output[0], output[1], stepsBeforeCheckpoint + stepsAfterCheckpoint);
+		settings.addFieldGenerator(new SU2RandomFields());
+		Simulation s1 = new Simulation(settings);
+		for (int t = 0; t < stepsBeforeCheckpoint; t++) {
+			s1.step();
+		}
+		Checkpoint.write(s1, file.getPath());
+		copyFile(output[0], output[2]);
+		copyFile(output[1], output[3]);
+		for (int t = 0; t < stepsAfterCheckpoint; t++) {
+			s1.step();
+		}
+		s1.getOutputWriter().close();
+
+		// Restarted run appends to the copied output.
+		Settings restartSettings = getOutputSettings(output[2], output[3], stepsBeforeCheckpoint + stepsAfterCheckpoint);
+		restartSettings.setRestartFile(file.getPath());
+		Simulation s2 = new Simulation(restartSettings);
+		for (int t = 0; t < stepsAfterCheckpoint; t++) {
+			s2.step();
+		}
+		s2.getOutputWriter().close();
+
+		Assert.assertArrayEquals(readFile(output[0]), readFile(output[2]));
+		Assert.assertArrayEquals(readFile(output[1]), readFile(output[3]));
+
+		settings.terminateThreads();
+		restartSettings.terminateThreads();
+	}
+
+	@Test
+	public void testRestartParticleCurrent() throws IOException {
+		File file = File.createTempFile("checkpoint", ".bin");
+		file.deleteOnExit();
+		int stepsBeforeCheckpoint = 3;
+		int stepsAfterCheckpoint = 4;
+
+		Settings settings = getParticleCurrentSettings();
+		Simulation s1 = new Simulation(settings);
+		for (int t = 0; t < stepsBeforeCheckpoint; t++) {
+			s1.step();
+		}
+		Checkpoint.write(s1, file.getPath());
+		int numberOfParticles = s1.particles.size();
+		Assert.assertTrue(numberOfParticles > 0);
+		for (int t = 0; t < stepsAfterCheckpoint; t++) {
+			s1.step();
+		}
+
+		// The particles are taken from the checkpoint instead of being created by the current generator.
+		Settings restartSettings = getParticleCurrentSettings();
+		restartSettings.setRestartFile(file.getPath());
+		Simulation s2 = new Simulation(restartSettings);
+		Assert.assertEquals(numberOfParticles, s2.particles.size());
+		for (int t = 0; t < stepsAfterCheckpoint; t++) {
+			s2.step();
+		}
+		compareGrids(s1.grid, s2.grid);
+
+		settings.terminateThreads();
+		restartSettings.terminateThreads();
+	}
+
+	@Test
+	public void testParticles() throws IOException {
+		File file = File.createTempFile("checkpoint", ".bin");
+		file.deleteOnExit();
+
+		Settings settings = getStandardSettings();
+		Simulation s1 = new Simulation(settings);
+
+		CGCParticle p = new CGCParticle(3, 2, 1);
+		for (int i = 0; i < 3; i++) {
+			p.pos0[i] = 0.1 * i + 0.05;
+			p.pos1[i] = 0.2 * i + 0.05;
+			p.vel[i] = (i == 1) ? 1.0 : 0.0;
+		}
+		p.Q0.set(0, 0.3);
+		p.Q1.set(2, -0.7);
+		p.U.set(1, 0.25);
+		p.updateCharge = false;
+		s1.particles.add(p);
+
+		int[] transversalCellIndices = CGCSuperParticle.getTransversalCellIndices(s1.grid.getNumCells(), 1);
+		int longitudinalStride = CGCSuperParticle.getLongitudinalStride(s1.grid.getNumCells(), 1);
+		CGCSuperParticle P = new CGCSuperParticle(1, -1, 3 * transversalCellIndices.length, 2, 1, 2,
+				transversalCellIndices, longitudinalStride);
+		for (int i = 0; i < P.numberOfParticles; i++) {
+			P.Q[i] = s1.grid.getElementFactory().algebraZero();
+			P.Q[i].set(i % 3, 0.1 * i);
+		}
+		s1.particles.add(P);
+
+		PackedCGCParticles R = new PackedCGCParticles(2, 1, 2, s1.grid.getNumCells(), 4);
+		AlgebraElement charge = s1.grid.getElementFactory().algebraZero();
+		for (int i = 0; i < 3; i++) {
+			charge.set(i, 0.2 * i - 0.1);
+			R.add(0.5 * i + 0.01, 0.5 * i + 0.26, i + 1, charge);
+		}
+		s1.particles.add(R);
+
+		Checkpoint.write(s1, file.getPath());
+		Settings restartSettings = getStandardSettings();
+		Simulation s2 = new Simulation(restartSettings);
+		Checkpoint.read(s2, file.getPath());
+
+		Assert.assertEquals(3, s2.particles.size());
+		CGCParticle q = (CGCParticle) s2.particles.get(0);
+		Assert.assertEquals(p.direction, q.direction);
+		Assert.assertEquals(p.updateCharge, q.updateCharge);
+		Assert.assertArrayEquals(p.pos0, q.pos0, 0.0);
+		Assert.assertArrayEquals(p.pos1, q.pos1, 0.0);
+		Assert.assertArrayEquals(p.vel, q.vel, 0.0);
+		compareAlgebraElements(p.Q0, q.Q0);
+		compareAlgebraElements(p.Q1, q.Q1);
+		compareGroupElements(p.U, q.U);
+
+		CGCSuperParticle Q = (CGCSuperParticle) s2.particles.get(1);
+		Assert.assertEquals(P.direction, Q.direction);
+		Assert.assertEquals(P.orientation, Q.orientation);
+		Assert.assertEquals(P.numberOfParticles, Q.numberOfParticles);
+		Assert.assertEquals(P.longitudinalOffset, Q.longitudinalOffset);
+		Assert.assertEquals(P.particlesPerPlane, Q.particlesPerPlane);
+		Assert.assertEquals(P.longitudinalStride, Q.longitudinalStride);
+		Assert.assertArrayEquals(P.transversalCellIndices, Q.transversalCellIndices);
+		Assert.assertEquals(P.subLatticeShift, Q.subLatticeShift);
+		Assert.assertEquals(P.particlePerCell, Q.particlePerCell);
+		for (int i = 0; i < P.numberOfParticles; i++) {
+			compareAlgebraElements(P.Q[i], Q.Q[i]);
+		}
+
+		PackedCGCParticles S = (PackedCGCParticles) s2.particles.get(2);
+		Assert.assertEquals(R.direction, S.direction);
+		Assert.assertEquals(R.orientation, S.orientation);
+		Assert.assertEquals(R.size(), S.size());
+		Assert.assertEquals(R.longitudinalStride, S.longitudinalStride);
+		for (int i = 0; i < R.size(); i++) {
+			Assert.assertEquals(R.pos0[i], S.pos0[i], 0.0);
+			Assert.assertEquals(R.pos1[i], S.pos1[i], 0.0);
+			Assert.assertEquals(R.transversalCellIndices[i], S.transversalCellIndices[i]);
+		}
+		for (int i = 0; i < R.size() * R.numberOfComponents; i++) {
+			Assert.assertEquals(R.Q[i], S.Q[i], 0.0);
+		}
+
+		settings.terminateThreads();
+		restartSettings.terminateThreads();
+	}
+
+	@Test
+	public void testInterruptedWrite() throws IOException {
+		File file = File.createTempFile("checkpoint", ".bin");
+		File temporaryFile = new File(file.getPath() + ".tmp");
+		File backupFile = new File(file.getPath() + ".bak");
+		file.deleteOnExit();
+		temporaryFile.deleteOnExit();
+		backupFile.deleteOnExit();
+
+		Settings settings = getStandardSettings();
+		settings.addFieldGenerator(new SU2RandomFields());
+		Simulation s1 = new Simulation(settings);
+		s1.step();
+		Checkpoint.write(s1, file.getPath());
+		s1.step();
+		Checkpoint.write(s1, file.getPath());
+		Assert.assertTrue(file.exists());
+		Assert.assertFalse(temporaryFile.exists());
+		Assert.assertFalse(backupFile.exists());
+
+		// Interrupted while writing the temporary file: the previous checkpoint is read.
+		writeGarbage(temporaryFile);
+		Assert.assertEquals(2, restart(file).totalSimulationSteps);
+
+		// Interrupted after the previous checkpoint has been renamed to the backup: the complete temporary file is read.
+		s1.step();
+		Checkpoint.write(s1, temporaryFile.getPath());
+		Assert.assertTrue(file.renameTo(backupFile));
+		Simulation s2 = restart(file);
+		Assert.assertEquals(3, s2.totalSimulationSteps);
+		compareGrids(s1.grid, s2.grid);
+
+		// Temporary file incomplete: the backup is read.
+		writeGarbage(temporaryFile);
+		Assert.assertEquals(2, restart(file).totalSimulationSteps);
+
+		// The next checkpoint removes the leftover files.
+		s1.step();
+		Checkpoint.write(s1, file.getPath());
+		Assert.assertFalse(temporaryFile.exists());
+		Assert.assertFalse(backupFile.exists());
+		Assert.assertEquals(4, restart(file).totalSimulationSteps);
+
+		settings.terminateThreads();
+	}
+
+	private void writeGarbage(File file) throws IOException {
+		FileOutputStream stream = new FileOutputStream(file);
+		try {
+			stream.write(new byte[] {1, 2, 3});
+		} finally {
+			stream.close();
+		}
+	}
+
+	private Settings getOutputSettings(File bulkQuantities, File energyDensity, int iterations) {
+		Settings s = getStandardSettings();
+		s.setIterations(iterations);
+		s.useAsyncOutput(true);
+		s.addDiagnostics(new BulkQuantitiesInTime(bulkQuantities.getPath(), 0.1));
+		s.addDiagnostics(new ProjectedEnergyDensity2(energyDensity.getPath(), 0.1));
+		return s;
+	}
+
+	private Settings getParticleCurrentSettings() {
+		Settings s = new Settings();
+		s.setNumberOfDimensions(3);
+		s.setNumberOfColors(2);
+		s.setCouplingConstant(1.0);
+		s.setGridStep(1.0);
+		s.setTimeStep(0.5);
+		s.setGridCells(0, 24);
+		s.setGridCells(1, 4);
+		s.setGridCells(2, 4);
+		s.setNumOfThreads(1);
+		s.setSimulationType(SimulationType.TemporalCGCNGP);
+		s.addCurrentGenerator(new MVModel(0, 1, 8.0, 1.0, 1.0, true, 3, 10.0, 0.5, false));
+		return s;
+	}
+
+	private void copyFile(File source, File target) throws IOException {
+		InputStream in = new FileInputStream(source);
+		OutputStream out = new FileOutputStream(target);
+		try {
+			byte[] buffer = new byte[4096];
+			int length;
+			while ((length = in.read(buffer)) > 0) {
+				out.write(buffer, 0, length);
+			}
+		} finally {
+			in.close();
+			out.close();
+		}
+	}
+
+	private byte[] readFile(File file) throws IOException {
+		byte[] data = new byte[(int) file.length()];
+		InputStream in = new FileInputStream(file);
+		try {
+			int offset = 0;
+			while (offset < data.length) {
+				offset += in.read(data, offset, data.length - offset);
+			}
+		} finally {
+			in.close();
+		}
+		return data;
+	}
+
+	private Simulation restart(File file) {
+		Settings restartSettings = getStandardSettings();
+		restartSettings.setRestartFile(file.getPath());
+		Simulation s = new Simulation(restartSettings);
+		restartSettings.terminateThreads();
+		return s;
+	}
+
+	private void compareGrids(Grid g1, Grid g2) {
+		for (int i = 0; i < g1.getTotalNumberOfCells(); i++) {
+			for (int d = 0; d < g1.getNumberOfDimensions(); d++) {
+				compareGroupElements(g1.getU(i, d), g2.getU(i, d));
+				compareGroupElements(g1.getUnext(i, d), g2.getUnext(i, d));
+				compareAlgebraElements(g1.getE(i, d), g2.getE(i, d));
+				compareAlgebraElements(g1.getJ(i, d), g2.getJ(i, d));
+			}
+			compareAlgebraElements(g1.getRho(i), g2.getRho(i));
+		}
+	}
+
+	private void compareGroupElements(GroupElement a, GroupElement b) {
+		for (int c = 0; c < 4; c++) {
+			Assert.assertEquals(a.get(c), b.get(c), 0.0);
+		}
+	}
+
+	private void compareAlgebraElements(AlgebraElement a, AlgebraElement b) {
+		for (int c = 0; c < a.getAdjointDimension(); c++) {
+			Assert.assertEquals(a.get(c), b.get(c), 0.0);
+		}
+	}
+
+	private Settings getStandardSettings() {
+		Settings s = new Settings();
+
+		s.setRelativistic(true);
+		s.setBoundary(GeneralBoundaryType.Periodic);
+		s.setFieldSolver(new FastTYMSolver());
+		s.useGrid(true);
+		s.setInterpolator(new EmptyInterpolator());
+		s.setSpeedOfLight(1.0);
+		s.setNumberOfDimensions(3);
+
+		s.setGridStep(1.0);
+		s.setTimeStep(0.1);
+		s.setGridCells(0, 6);
+		s.setGridCells(1, 5);
+		s.setGridCells(2, 4);
+
+		s.setNumberOfColors(2);
+		s.setCouplingConstant(1.0);
+		s.setNumOfThreads(1);
+
+		return s;
+	}
+}
@@ -0,0 +1,88 @@
+package org.openpixi.pixi.physics.fields;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.SimulationType;
+import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.physics.initial.CGC.BoostInvariantMVModel;
+
+import java.io.IOException;
+
+public class BoostInvariantSolverTest {
+
+	private final double accuracy = 1.E-20;
+
+	@Test
+	public void testInitialConditions() {
+		Simulation s = new Simulation(getStandardSettings(0.5));
+		Grid grid = s.grid;
+
+		Assert.assertTrue(grid.getFsolver() instanceof BoostInvariantSolver);
+		double longitudinalField = 0.0;
+		for (int i = 0; i < grid.getTotalNumberOfCells(); i++) {
+			for (int d = 1; d < grid.getNumberOfDimensions(); d++) {
+				Assert.assertEquals(0.0, grid.getE(i, d).square(), 0.0);
+			}
+			longitudinalField += grid.getE(i, 0).square();
+		}
+		Assert.assertTrue(longitudinalField > 0.0);
+		Assert.assertEquals(0.0, getGaussViolation(grid), accuracy);
+	}
+
+	@Test
+	public void testGaussLaw() throws IOException {
+		Simulation s = new Simulation(getStandardSettings(0.5));
+		Grid grid = s.grid;
+
+		for (int t = 0; t < 20; t++) {
+			s.step();
+			Assert.assertEquals(0.0, getGaussViolation(grid), accuracy);
+		}
+
+		// The longitudinal field has generated transverse fields.
+		double transverseField = 0.0;
+		for (int i = 0; i < grid.getTotalNumberOfCells(); i++) {
+			for (int d = 1; d < grid.getNumberOfDimensions(); d++) {
+				transverseField += grid.getE(i, d).square();
+			}
+		}
+		Assert.assertTrue(transverseField > 0.0);
+	}
+
+	@Test
+	public void testVacuum() throws IOException {
+		Simulation s = new Simulation(getStandardSettings(0.0));
+		Grid grid = s.grid;
+
+		for (int t = 0; t < 5; t++) {
+			s.step();
+		}
+		for (int i = 0; i < grid.getTotalNumberOfCells(); i++) {
+			for (int d = 0; d < grid.getNumberOfDimensions(); d++) {
+				Assert.assertEquals(0.0, grid.getE(i, d).square(), 0.0);
+			}
+		}
+	}
+
+	private double getGaussViolation(Grid grid) {
+		double violation = 0.0;
+		for (int i = 0; i < grid.getTotalNumberOfCells(); i++) {
+			violation += grid.getGaussConstraintSquared(i);
+		}
+		return violation;
+	}
+
+	private Settings getStandardSettings(double mu) {
+		Settings settings = new Settings();
+		settings.setNumberOfColors(2);
+		settings.setGridCells(new int[] {1, 8, 8});
+		settings.setTimeStep(0.05);
+		settings.setSimulationType(SimulationType.BoostInvariantCGC);
+		settings.setLongitudinalDirection(0);
+		settings.setInitialProperTime(0.05);
+		settings.addInitialConditions(new BoostInvariantMVModel(0, mu, 1.0, 0.0, true, 1, 2, false));
+		return settings;
+	}
+}
@@ -0,0 +1,124 @@
+package org.openpixi.pixi.physics.fields;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.SimulationType;
+import org.openpixi.pixi.physics.grid.Grid;
+
+import java.util.Random;
+
+public class ImplicitTYMSolverTest {
+
+	private final double accuracy = 1.E-12;
+
+	@Test
+	public void testWorkspaceReuse() {
+		Simulation s = new Simulation(getStandardSettings(4, 0.0));
+		Grid grid = s.grid;
+		FieldSolver solver = grid.getFsolver();
+		initializeFields(grid);
+
+		// The second grid is evolved with a fresh solver (and therefore a fresh workspace) in every time step.
+		Grid referenceGrid = new Grid(grid);
+		for (int t = 0; t < 4; t++) {
+			grid.storeFields();
+			grid.updateGrid(0.1);
+
+			referenceGrid.storeFields();
+			solver.clone().step(referenceGrid, 0.1);
+		}
+		compareGrids(referenceGrid, grid, 0.0);
+	}
+
+	@Test
+	public void testConvergence() {
+		int maximumIterations = 100;
+		Simulation s = new Simulation(getStandardSettings(maximumIterations, 1.E-24));
+		Grid grid = s.grid;
+		ImplicitTYMSolver convergingSolver = (ImplicitTYMSolver) grid.getFsolver();
+		initializeFields(grid);
+
+		ImplicitTYMSolver fixedSolver = new ImplicitTYMSolver(maximumIterations, 0.3);
+		fixedSolver.copyBaseClassFields(convergingSolver);
+		Grid referenceGrid = new Grid(grid);
+		for (int t = 0; t < 2; t++) {
+			grid.storeFields();
+			grid.updateGrid(0.1);
+			Assert.assertTrue(convergingSolver.getLastIterations() < maximumIterations);
+
+			referenceGrid.storeFields();
+			fixedSolver.step(referenceGrid, 0.1);
+			Assert.assertEquals(maximumIterations, fixedSolver.getLastIterations());
+		}
+		compareGrids(referenceGrid, grid, 1.E-10);
+	}
+
+	private void initializeFields(Grid grid) {
+		Random random = new Random(42);
+		for (int i = 0; i < grid.getTotalNumberOfCells(); i++) {
+			for (int d = 0; d < grid.getNumberOfDimensions(); d++) {
+				AlgebraElement E = grid.getElementFactory().algebraZero();
+				AlgebraElement A = grid.getElementFactory().algebraZero();
+				for (int j = 0; j < E.getAdjointDimension(); j++) {
+					E.set(j, random.nextDouble() - 0.5);
+					A.set(j, random.nextDouble() - 0.5);
+				}
+				grid.setE(i, d, E);
+				// Links outside of the active region are static.
+				grid.setU(i, d, A.getLink());
+				grid.setUnext(i, d, A.getLink());
+			}
+		}
+	}
+
+	private void compareGrids(Grid g1, Grid g2, double accuracy) {
+		for (int i = 0; i < g1.getTotalNumberOfCells(); i++) {
+			for (int d = 0; d < g1.getNumberOfDimensions(); d++) {
+				GroupElement U1 = g1.getUnext(i, d);
+				GroupElement U2 = g2.getUnext(i, d);
+				for (int j = 0; j < 4; j++) {
+					Assert.assertEquals(U1.get(j), U2.get(j), accuracy);
+				}
+				AlgebraElement E1 = g1.getE(i, d);
+				AlgebraElement E2 = g2.getE(i, d);
+				for (int j = 0; j < E1.getAdjointDimension(); j++) {
+					Assert.assertEquals(E1.get(j), E2.get(j), accuracy);
+				}
+			}
+		}
+	}
+
+	private Settings getStandardSettings(int iterations, double tolerance) {
+		Settings s = new Settings();
+
+		s.setSimulationType(SimulationType.TemporalImplicitCGCNGP);
+		s.setImplicitSolverIterations(iterations);
+		s.setImplicitSolverDamping(0.3);
+		s.setImplicitSolverTolerance(tolerance);
+		s.setRelativistic(true);
+		s.useGrid(true);
+		s.setSpeedOfLight(1.0);
+		s.setNumberOfDimensions(3);
+
+		s.setGridStep(1.0);
+		s.setTimeStep(0.1);
+		s.setGridCells(0, 8);
+		s.setGridCells(1, 6);
+		s.setGridCells(2, 7);
+
+		s.setNumberOfColors(2);
+		s.setCouplingConstant(1.0);
+		s.setNumOfThreads(1);
+
+		// Cells outside of the active region are not evolved by the solver.
+		s.setActiveRegionEnabled(true);
+		s.setActiveRegionPoint1(new int[]{1, 1, 1});
+		s.setActiveRegionPoint2(new int[]{6, 4, 5});
+
+		return s;
+	}
+}
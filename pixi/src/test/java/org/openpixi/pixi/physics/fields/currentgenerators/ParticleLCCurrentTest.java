@@ -0,0 +1,114 @@
+package org.openpixi.pixi.physics.fields.currentgenerators;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.SimulationType;
+import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.physics.particles.CGCParticle;
+import org.openpixi.pixi.physics.particles.IParticle;
+
+import java.io.IOException;
+
+public class ParticleLCCurrentTest {
+
+	private final double accuracy = 1.E-10;
+
+	private final double threshold = 1.E-12;
+
+	private final int steps = 4;
+
+	@Test
+	public void testParallelSeeding() {
+		// The order of the particles must not depend on the number of threads.
+		Settings settings1 = getStandardSettings(SimulationType.TemporalCGC, 1, false);
+		Settings settings2 = getStandardSettings(SimulationType.TemporalCGC, 4, false);
+		Simulation s1 = new Simulation(settings1);
+		Simulation s2 = new Simulation(settings2);
+
+		Assert.assertEquals(s1.grid.getTotalNumberOfCells(), s1.particles.size());
+		Assert.assertEquals(s1.particles.size(), s2.particles.size());
+		for (int i = 0; i < s1.particles.size(); i++) {
+			CGCParticle p1 = (CGCParticle) s1.particles.get(i);
+			CGCParticle p2 = (CGCParticle) s2.particles.get(i);
+			Assert.assertArrayEquals(p1.pos0, p2.pos0, 0.0);
+			compareAlgebraElements(p1.Q0, p2.Q0, 0.0);
+		}
+
+		settings1.terminateThreads();
+		settings2.terminateThreads();
+	}
+
+	@Test
+	public void testSparseSeeding() throws IOException {
+		SimulationType[] simulationTypes = new SimulationType[] {SimulationType.TemporalCGC, SimulationType.TemporalCGCNGP};
+		for (SimulationType simulationType : simulationTypes) {
+			Settings settings1 = getStandardSettings(simulationType, 1, false);
+			Settings settings2 = getStandardSettings(simulationType, 4, true);
+			Simulation s1 = new Simulation(settings1);
+			Simulation s2 = new Simulation(settings2);
+
+			// The charge density vanishes in the transversal columns between the two charges and in the tails of the
+			// longitudinal profile.
+			Assert.assertTrue(s2.particles.size() <= s1.particles.size());
+			for (IParticle p : s2.particles) {
+				Assert.assertTrue(Math.sqrt(((CGCParticle) p).Q0.square()) > threshold);
+			}
+
+			if (simulationType == SimulationType.TemporalCGC) {
+				// Without charge refinement single particles are skipped, and they only carry negligible charges.
+				Assert.assertTrue(s2.particles.size() < s1.particles.size());
+				compareGrids(s1.grid, s2.grid);
+				for (int t = 0; t < steps; t++) {
+					s1.step();
+					s2.step();
+					compareGrids(s1.grid, s2.grid);
+				}
+			}
+
+			settings1.terminateThreads();
+			settings2.terminateThreads();
+		}
+	}
+
+	private void compareGrids(Grid g1, Grid g2) {
+		for (int i = 0; i < g1.getTotalNumberOfCells(); i++) {
+			for (int d = 0; d < g1.getNumberOfDimensions(); d++) {
+				compareAlgebraElements(g1.getJ(i, d), g2.getJ(i, d), accuracy);
+			}
+			compareAlgebraElements(g1.getRho(i), g2.getRho(i), accuracy);
+		}
+	}
+
+	private void compareAlgebraElements(AlgebraElement a, AlgebraElement b, double delta) {
+		for (int c = 0; c < a.getAdjointDimension(); c++) {
+			Assert.assertEquals(a.get(c), b.get(c), delta);
+		}
+	}
+
+	private Settings getStandardSettings(SimulationType simulationType, int threads, boolean useSparseParticleSeeding) {
+		Settings s = new Settings();
+		s.setNumberOfDimensions(3);
+		s.setNumberOfColors(2);
+		s.setCouplingConstant(1.0);
+		s.setGridStep(1.0);
+		s.setTimeStep(0.5);
+		s.setGridCells(0, 24);
+		s.setGridCells(1, 8);
+		s.setGridCells(2, 8);
+		s.setNumOfThreads(threads);
+		s.setSimulationType(simulationType);
+		s.useSparseParticleSeeding(useSparseParticleSeeding);
+		s.setParticleChargeThreshold(threshold);
+
+		PointChargeLCCurrent current = new PointChargeLCCurrent(0, 1, 12.0, 1.5, false, false);
+		// Two opposite charges, so that the total charge (which is removed by the Poisson solver) vanishes. The locations
+		// are given in the transversal plane.
+		current.addCharge(new double[] {4.0, 2.0}, new double[] {1.0, 0.0, 0.0}, 1.0);
+		current.addCharge(new double[] {4.0, 6.0}, new double[] {1.0, 0.0, 0.0}, -1.0);
+		s.addCurrentGenerator(current);
+		return s;
+	}
+}
@@ -0,0 +1,138 @@
+package org.openpixi.pixi.physics.grid;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.ElementFactory;
+import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.SimulationType;
+import org.openpixi.pixi.physics.initial.CGC.CGCInitialCondition;
+import org.openpixi.pixi.physics.initial.CGC.LightConePoissonSolverImproved;
+import org.openpixi.pixi.physics.initial.CGC.MVModel;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Compares the parallel transport with the adjoint matrices of the links to the adjoint action of the group elements.
+ */
+public class AdjointLinkCacheTest {
+
+	private final double accuracy = 1.E-12;
+
+	private final int longitudinalNumCells = 32;
+
+	private final int transversalNumCells = 4;
+
+	private final int steps = 8;
+
+	@Test
+	public void testAdjointMatrix() {
+		Random random = new Random(3);
+		for (int colors = 2; colors <= 3; colors++) {
+			ElementFactory factory = new ElementFactory(colors);
+			int n = factory.numberOfComponents;
+			for (int t = 0; t < 20; t++) {
+				AlgebraElement A = factory.algebraZero();
+				AlgebraElement X = factory.algebraZero();
+				for (int c = 0; c < n; c++) {
+					A.set(c, 4.0 * (random.nextDouble() - 0.5));
+					X.set(c, random.nextDouble() - 0.5);
+				}
+				GroupElement U = A.getLink();
+				double[] matrix = new double[n * n];
+				U.getAdjointMatrix(matrix);
+
+				AlgebraElement result = factory.algebraZero();
+				AdjointLinkCache.act(matrix, X, result);
+				compareAlgebraElements(X.act(U), result, accuracy, "act");
+				AdjointLinkCache.actAdjoint(matrix, X, result);
+				compareAlgebraElements(X.act(U.adj()), result, accuracy, "actAdjoint");
+
+				double[] values = new double[n + 1];
+				double[] temp = new double[n];
+				for (int c = 0; c < n; c++) {
+					values[c + 1] = X.get(c);
+				}
+				AdjointLinkCache.act(matrix, values, 1, temp);
+				AdjointLinkCache.actAdjoint(matrix, values, 1, temp);
+				for (int c = 0; c < n; c++) {
+					Assert.assertEquals(X.get(c), values[c + 1], accuracy);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testIdenticalCurrents() throws IOException {
+		SimulationType[] types = new SimulationType[]{SimulationType.TemporalCGCNGP,
+				SimulationType.TemporalOptimizedCGCNGP, SimulationType.TemporalPackedCGCNGP};
+		for (SimulationType type : types) {
+			for (int colors = 2; colors <= 3; colors++) {
+				for (int orientation = -1; orientation <= 1; orientation += 2) {
+					testIdenticalCurrents(type, colors, 2, orientation);
+				}
+			}
+		}
+	}
+
+	private void testIdenticalCurrents(SimulationType type, int colors, int direction, int orientation)
+			throws IOException {
+		Settings settings1 = getStandardSettings(type, colors, direction, orientation, false);
+		Settings settings2 = getStandardSettings(type, colors, direction, orientation, true);
+		Simulation s1 = new Simulation(settings1);
+		Simulation s2 = new Simulation(settings2);
+		Assert.assertNull(s1.grid.getAdjointLinkCache());
+		Assert.assertNotNull(s2.grid.getAdjointLinkCache());
+
+		String info = type + ", " + colors + " colors, orientation " + orientation;
+		for (int t = 0; t < steps; t++) {
+			s1.step();
+			s2.step();
+			double currentNorm = 0.0;
+			for (int i = 0; i < s1.grid.getTotalNumberOfCells(); i++) {
+				for (int d = 0; d < s1.grid.getNumberOfDimensions(); d++) {
+					compareAlgebraElements(s1.grid.getJ(i, d), s2.grid.getJ(i, d), accuracy, info + ", step " + t);
+					currentNorm += s1.grid.getJ(i, d).square();
+				}
+				compareAlgebraElements(s1.grid.getRho(i), s2.grid.getRho(i), accuracy, info + ", step " + t);
+			}
+			Assert.assertTrue(info, currentNorm > 0.0);
+		}
+
+		settings1.terminateThreads();
+		settings2.terminateThreads();
+	}
+
+	private void compareAlgebraElements(AlgebraElement a, AlgebraElement b, double delta, String info) {
+		for (int c = 0; c < a.getAdjointDimension(); c++) {
+			Assert.assertEquals(info, a.get(c), b.get(c), delta);
+		}
+	}
+
+	private Settings getStandardSettings(SimulationType simulationType, int colors, int direction, int orientation,
+	                                     boolean useAdjointLinkCache) {
+		Settings settings = new Settings();
+		settings.setNumberOfDimensions(3);
+		settings.setNumberOfColors(colors);
+		settings.setCouplingConstant(1.0);
+		settings.setNumOfThreads(2);
+		settings.setGridStep(1.0);
+		settings.setTimeStep(0.5);
+		for (int i = 0; i < 3; i++) {
+			settings.setGridCells(i, (i == direction) ? longitudinalNumCells : transversalNumCells);
+		}
+		settings.setSimulationType(simulationType);
+		settings.useAdjointLinkCache(useAdjointLinkCache);
+
+		MVModel chargeDensity = new MVModel(direction, orientation, longitudinalNumCells / 2.0, 1.0, 1.0,
+				true, 3, 10.0, 0.5, 0.5);
+		CGCInitialCondition initialCondition = new CGCInitialCondition();
+		initialCondition.setInitialChargeDensity(chargeDensity);
+		initialCondition.setPoissonSolver(new LightConePoissonSolverImproved());
+		settings.addInitialConditions(initialCondition);
+		return settings;
+	}
+}
@@ -0,0 +1,146 @@
+package org.openpixi.pixi.physics.grid;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.SimulationType;
+import org.openpixi.pixi.physics.initial.CGC.CGCInitialCondition;
+import org.openpixi.pixi.physics.initial.CGC.LightConePoissonSolverImproved;
+import org.openpixi.pixi.physics.initial.CGC.MVModel;
+import org.openpixi.pixi.physics.particles.CGCSuperParticle;
+import org.openpixi.pixi.physics.particles.IParticle;
+
+import java.io.IOException;
+
+/**
+ * Compares the optimized super particle simulation of a single MV model nucleus with the simulation using single
+ * {@link org.openpixi.pixi.physics.particles.CGCParticle}s.
+ */
+public class CGCSuperParticleInterpolationNGPTest {
+
+	private final double accuracy = 1.E-13;
+
+	private final int longitudinalNumCells = 32;
+
+	private final int transversalNumCells = 4;
+
+	private final int steps = 6;
+
+	@Test
+	public void testIdenticalCurrents() throws IOException {
+		for (int direction = 0; direction < 3; direction++) {
+			for (int orientation = -1; orientation <= 1; orientation += 2) {
+				for (int particlesPerCell = 1; particlesPerCell <= 3; particlesPerCell++) {
+					testIdenticalCurrents(SimulationType.TemporalCGCNGP, SimulationType.TemporalOptimizedCGCNGP,
+							direction, orientation, particlesPerCell);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The implicit solver requires dt == dx, i.e. a single particle per cell.
+	 */
+	@Test
+	public void testImplicitSolver() throws IOException {
+		for (int orientation = -1; orientation <= 1; orientation += 2) {
+			testIdenticalCurrents(SimulationType.TemporalImplicitCGCNGP, SimulationType.TemporalOptimizedImplicitCGCNGP,
+					0, orientation, 1);
+		}
+	}
+
+	@Test
+	public void testTransversalCellIndices() {
+		int[] numCells = new int[] {3, 4, 5};
+		for (int direction = 0; direction < numCells.length; direction++) {
+			int[] indices = CGCSuperParticle.getTransversalCellIndices(numCells, direction);
+			int stride = CGCSuperParticle.getLongitudinalStride(numCells, direction);
+			Assert.assertEquals(60 / numCells[direction], indices.length);
+
+			// Every cell of the grid is reached exactly once.
+			boolean[] reached = new boolean[60];
+			for (int z = 0; z < numCells[direction]; z++) {
+				for (int j = 0; j < indices.length; j++) {
+					int index = indices[j] + z * stride;
+					Assert.assertFalse(reached[index]);
+					reached[index] = true;
+				}
+			}
+		}
+	}
+
+	private void testIdenticalCurrents(SimulationType simulationType, SimulationType optimizedSimulationType,
+	                                   int direction, int orientation, int particlesPerCell) throws IOException {
+		Settings settings1 = getStandardSettings(simulationType, direction, orientation, particlesPerCell);
+		Settings settings2 = getStandardSettings(optimizedSimulationType, direction, orientation, particlesPerCell);
+		Simulation s1 = new Simulation(settings1);
+		Simulation s2 = new Simulation(settings2);
+
+		int numberOfCharges = 0;
+		for (IParticle p : s2.particles) {
+			CGCSuperParticle P = (CGCSuperParticle) p;
+			Assert.assertEquals(direction, P.direction);
+			numberOfCharges += P.numberOfParticles;
+		}
+		Assert.assertEquals(s1.particles.size(), numberOfCharges);
+
+		String info = optimizedSimulationType + ", direction " + direction + ", orientation " + orientation + ", " + particlesPerCell + " ppc";
+		compareGrids(s1.grid, s2.grid, info);
+		for (int t = 0; t < steps * particlesPerCell; t++) {
+			s1.step();
+			s2.step();
+			compareGrids(s1.grid, s2.grid, info + ", step " + t);
+		}
+
+		settings1.terminateThreads();
+		settings2.terminateThreads();
+	}
+
+	private void compareGrids(Grid g1, Grid g2, String info) {
+		double currentNorm = 0.0;
+		for (int i = 0; i < g1.getTotalNumberOfCells(); i++) {
+			for (int d = 0; d < g1.getNumberOfDimensions(); d++) {
+				// Every link receives at most one contribution per time step, so the currents are bit-identical.
+				compareAlgebraElements(g1.getJ(i, d), g2.getJ(i, d), 0.0, info);
+				currentNorm += g1.getJ(i, d).square();
+			}
+			// Charges within a cell are added up in a different order.
+			compareAlgebraElements(g1.getRho(i), g2.getRho(i), accuracy, info);
+		}
+		Assert.assertTrue(info, currentNorm > 0.0);
+	}
+
+	private void compareAlgebraElements(AlgebraElement a, AlgebraElement b, double delta, String info) {
+		for (int c = 0; c < a.getAdjointDimension(); c++) {
+			Assert.assertEquals(info, a.get(c), b.get(c), delta);
+		}
+	}
+
+	private Settings getStandardSettings(SimulationType simulationType, int direction, int orientation,
+	                                     int particlesPerCell) {
+		Settings settings = new Settings();
+		settings.setNumberOfDimensions(3);
+		settings.setNumberOfColors(2);
+		settings.setCouplingConstant(1.0);
+		settings.setNumOfThreads(1);
+		settings.setGridStep(1.0);
+		settings.setTimeStep(1.0 / particlesPerCell);
+		for (int i = 0; i < 3; i++) {
+			settings.setGridCells(i, (i == direction) ? longitudinalNumCells : transversalNumCells);
+		}
+		settings.setImplicitSolverIterations(3);
+		settings.setSimulationType(simulationType);
+
+		// The nucleus is placed in the middle of the box, but the tails of the charge density extend over the whole box,
+		// so charges cross the periodic boundary in both orientations.
+		MVModel chargeDensity = new MVModel(direction, orientation, longitudinalNumCells / 2.0, 1.0, 1.0,
+				true, 3, 10.0, 0.5, 0.5);
+		CGCInitialCondition initialCondition = new CGCInitialCondition();
+		initialCondition.setInitialChargeDensity(chargeDensity);
+		initialCondition.setPoissonSolver(new LightConePoissonSolverImproved());
+		settings.addInitialConditions(initialCondition);
+		return settings;
+	}
+}
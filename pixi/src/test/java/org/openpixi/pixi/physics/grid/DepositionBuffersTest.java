@@ -0,0 +1,162 @@
+package org.openpixi.pixi.physics.grid;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.particles.CGCParticle;
+import org.openpixi.pixi.physics.particles.IParticle;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+public class DepositionBuffersTest {
+
+	private final int numberOfParticles = 20000;
+
+	@Test
+	public void testLockFreeDeposition() {
+		for (int flat = 0; flat < 2; flat++) {
+			boolean useFlatGrid = (flat == 1);
+			Settings settings1 = getStandardSettings(useFlatGrid, false);
+			Settings settings2 = getStandardSettings(useFlatGrid, true);
+			Simulation s1 = new Simulation(settings1);
+			Simulation s2 = new Simulation(settings2);
+			Assert.assertFalse(s1.grid.useLockFreeDeposition());
+			Assert.assertTrue(s2.grid.useLockFreeDeposition());
+
+			LocalInterpolation interpolation1 = new LocalInterpolation(new DepositAlgorithm(), settings1.getParticleIterator());
+			LocalInterpolation interpolation2 = new LocalInterpolation(new DepositAlgorithm(), settings2.getParticleIterator());
+
+			// Deposit twice to check that the buffers are cleared after the reduction.
+			for (int seed = 0; seed < 2; seed++) {
+				ArrayList<IParticle> particles = createParticles(s1.grid, seed);
+				s1.grid.resetCurrent();
+				s1.grid.resetCharge();
+				s2.grid.resetCurrent();
+				s2.grid.resetCharge();
+				interpolation1.interpolateChargedensity(particles, s1.grid);
+				interpolation1.interpolateToGrid(particles, s1.grid);
+				interpolation2.interpolateChargedensity(particles, s2.grid);
+				interpolation2.interpolateToGrid(particles, s2.grid);
+
+				// All values are integers, so the order of the additions does not matter.
+				for (int i = 0; i < s1.grid.getTotalNumberOfCells(); i++) {
+					for (int c = 0; c < 3; c++) {
+						Assert.assertEquals(s1.grid.getRho(i).get(c), s2.grid.getRho(i).get(c), 0.0);
+						for (int d = 0; d < s1.grid.getNumberOfDimensions(); d++) {
+							Assert.assertEquals(s1.grid.getJ(i, d).get(c), s2.grid.getJ(i, d).get(c), 0.0);
+						}
+					}
+				}
+			}
+
+			// Deposits outside of the particle interpolation go directly to the grid.
+			s2.grid.resetCharge();
+			AlgebraElement charge = s2.grid.getElementFactory().algebraZero();
+			charge.set(1, 2.0);
+			s2.grid.addRho(5, charge);
+			Assert.assertEquals(2.0, s2.grid.getRho(5).get(1), 0.0);
+
+			settings1.terminateThreads();
+			settings2.terminateThreads();
+		}
+	}
+
+	@Test
+	public void testReproducibleDeposition() {
+		Settings settings = getStandardSettings(false, true);
+		Simulation s = new Simulation(settings);
+		int numOfThreads = settings.getNumOfThreads();
+		LocalInterpolation interpolation = new LocalInterpolation(new DepositAlgorithm(), settings.getParticleIterator());
+		Grid grid = s.grid;
+		int numberOfCells = grid.getTotalNumberOfCells();
+
+		// Non-integer charges, so the result depends on the order of the additions.
+		ArrayList<IParticle> particles = createParticles(grid, 0);
+		Random random = new Random(1);
+		for (IParticle p : particles) {
+			for (int c = 0; c < 3; c++) {
+				((CGCParticle) p).Q0.set(c, random.nextDouble() - 0.5);
+			}
+		}
+
+		// Expected result: every task sums up its particles in order, the tasks are combined in order.
+		double[][] taskSums = new double[numOfThreads][numberOfCells * 3];
+		for (int n = 0; n < particles.size(); n++) {
+			CGCParticle p = (CGCParticle) particles.get(n);
+			for (int c = 0; c < 3; c++) {
+				taskSums[n % numOfThreads][(int) p.pos0[0] * 3 + c] += p.Q0.get(c);
+			}
+		}
+		double[] expected = new double[numberOfCells * 3];
+		for (int t = 0; t < numOfThreads; t++) {
+			for (int i = 0; i < expected.length; i++) {
+				expected[i] += taskSums[t][i];
+			}
+		}
+
+		for (int repetition = 0; repetition < 5; repetition++) {
+			grid.resetCharge();
+			interpolation.interpolateChargedensity(particles, grid);
+			for (int i = 0; i < numberOfCells; i++) {
+				for (int c = 0; c < 3; c++) {
+					Assert.assertEquals(expected[i * 3 + c], grid.getRho(i).get(c), 0.0);
+				}
+			}
+		}
+
+		settings.terminateThreads();
+	}
+
+		private ArrayList<IParticle> createParticles(Grid grid, int seed) {
+		Random random = new Random(seed);
+		ArrayList<IParticle> particles = new ArrayList<IParticle>();
+		for (int n = 0; n < numberOfParticles; n++) {
+			CGCParticle p = new CGCParticle(3, 2, random.nextInt(3));
+			// Most particles share a few cells, which provokes conflicting deposits.
+			int index = (n % 2 == 0) ? random.nextInt(4) : random.nextInt(grid.getTotalNumberOfCells());
+			p.pos0[0] = index;
+			for (int c = 0; c < 3; c++) {
+				p.Q0.set(c, random.nextInt(21) - 10);
+			}
+			particles.add(p);
+		}
+		return particles;
+	}
+
+	private Settings getStandardSettings(boolean useFlatGrid, boolean useLockFreeDeposition) {
+		Settings s = new Settings();
+		s.setNumberOfDimensions(3);
+		s.setNumberOfColors(2);
+		s.setGridStep(1.0);
+		s.setTimeStep(0.1);
+		s.setGridCells(0, 16);
+		s.setGridCells(1, 16);
+		s.setGridCells(2, 20);
+		s.setNumOfThreads(4);
+		s.useFlatGrid(useFlatGrid);
+		s.useLockFreeDeposition(useLockFreeDeposition);
+		return s;
+	}
+
+	/**
+	 * Deposits the charge of a particle in the cell whose index is stored in the first position component.
+	 */
+	private class DepositAlgorithm implements InterpolatorAlgorithm {
+
+		public void interpolateToGrid(IParticle p, Grid g) {
+			CGCParticle P = (CGCParticle) p;
+			g.addJ((int) P.pos0[0], P.direction, P.Q0);
+		}
+
+		public void interpolateChargedensity(IParticle p, Grid g) {
+			CGCParticle P = (CGCParticle) p;
+			g.addRho((int) P.pos0[0], P.Q0);
+		}
+
+		public void interpolateToParticle(IParticle p, Grid g) {
+		}
+	}
+}
@@ -3,6 +3,8 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.openpixi.pixi.physics.gauge.DoubleFFTWrapper;
 
+import java.util.Random;
+
 public class FFTTest {
 
 	private double accuracy = Math.pow(10, -10);
@@ -30,4 +32,44 @@ public class FFTTest {
 			Assert.assertEquals(0.0, data[fft.getFFTArrayIndex(i)+1], accuracy);
 		}
 	}
+
+	@Test
+	public void testRealTransform() {
+		int[][] shapes = {{8, 6, 4}, {5, 1, 7}, {9}, {4, 3}, {3, 5, 6}, {1, 1, 1}};
+		Random random = new Random(1);
+
+		for (int[] dimensions : shapes) {
+			DoubleFFTWrapper fft = DoubleFFTWrapper.getInstance(dimensions);
+			Assert.assertSame(fft, DoubleFFTWrapper.getInstance(dimensions.clone()));
+
+			int totalGridPoints = 1;
+			for (int size : dimensions) {
+				totalGridPoints *= size;
+			}
+			double[] input = new double[totalGridPoints];
+			double[] complexData = new double[fft.getFFTArraySize()];
+			for (int i = 0; i < totalGridPoints; i++) {
+				input[i] = random.nextDouble() - 0.5;
+				complexData[fft.getFFTArrayIndex(i)] = input[i];
+			}
+
+			// Compare half spectrum to the complex transform
+			double[] spectrum = new double[fft.getRealFFTArraySize()];
+			fft.realForward(input, spectrum);
+			fft.complexForward(complexData);
+			for (int i = 0; i < totalGridPoints; i++) {
+				int index = fft.getRealFFTArrayIndex(i);
+				double sign = fft.isRealFFTConjugate(i) ? -1.0 : 1.0;
+				Assert.assertEquals(complexData[fft.getFFTArrayIndex(i)], spectrum[index], accuracy);
+				Assert.assertEquals(complexData[fft.getFFTArrayIndex(i) + 1], sign * spectrum[index + 1], accuracy);
+			}
+
+			// Transform back
+			double[] output = new double[totalGridPoints];
+			fft.realInverse(spectrum, output, true);
+			for (int i = 0; i < totalGridPoints; i++) {
+				Assert.assertEquals(input[i], output[i], accuracy);
+			}
+		}
+	}
 }
@@ -0,0 +1,182 @@
+package org.openpixi.pixi.physics.grid;
+
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.physics.GeneralBoundaryType;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.fields.FastTYMSolver;
+import org.openpixi.pixi.physics.fields.fieldgenerators.SU2RandomFields;
+
+public class FlatGridTest {
+
+	private final double accuracy = 1.E-12;
+
+	@Test
+	public void testCopy() {
+		Settings settings = getStandardSettings(new int[]{8, 9, 10});
+		settings.addFieldGenerator(new SU2RandomFields());
+		Simulation s = new Simulation(settings);
+
+		FlatGrid flatGrid = new FlatGrid(s.grid);
+		compareGrids(s.grid, flatGrid);
+
+		// Copying back into Cell based storage
+		Grid grid = new Grid(flatGrid);
+		compareGrids(grid, flatGrid);
+	}
+
+	@Test
+	public void testEvolution() {
+		Settings settings = getStandardSettings(new int[]{8, 9, 10});
+		settings.addFieldGenerator(new SU2RandomFields());
+		Simulation s = new Simulation(settings);
+
+		Grid grid = s.grid;
+		FlatGrid flatGrid = new FlatGrid(grid);
+
+		int numberOfSteps = 5;
+		for (int t = 0; t < numberOfSteps; t++) {
+			grid.storeFields();
+			grid.updateGrid(settings.getTimeStep());
+			flatGrid.storeFields();
+			flatGrid.updateGrid(settings.getTimeStep());
+		}
+		compareGrids(grid, flatGrid);
+	}
+
+	@Test
+	public void testCellView() {
+		Settings settings = getStandardSettings(new int[]{4, 4, 4});
+		settings.useFlatGrid(true);
+		settings.addFieldGenerator(new SU2RandomFields());
+		Simulation s = new Simulation(settings);
+		Assert.assertTrue(s.grid instanceof FlatGrid);
+
+		Grid g = s.grid;
+		AlgebraElement E = g.getE(3, 1).mult(2.0);
+		g.getCell(3).setE(1, E);
+		compareAlgebraElements(E, g.getE(3, 1));
+
+		g.getCell(5).addJ(2, E);
+		g.getCell(5).addJ(2, E);
+		compareAlgebraElements(E.mult(2.0), g.getJ(5, 2));
+
+		Cell copy = g.getCell(3).copy();
+		compareGroupElements(g.getU(3, 0), copy.getU(0));
+
+		g.resetCurrent();
+		Assert.assertEquals(0.0, g.getJ(5, 2).square(), accuracy);
+	}
+
+	/**
+	 * Compares memory and throughput of the Cell based storage and the flat storage. The time per step, the time of
+	 * {@link Grid#storeFields()} and the time of {@link Grid#copyValuesFrom(Grid)} (used by the implicit solvers and
+	 * the Gauss constraint restoration) are measured separately.
+	 */
+	@Test
+	@Ignore
+	public void testPerformance() {
+		int[] size = new int[]{64, 64, 64};
+		int numberOfSteps = 20;
+		int numberOfThreads = 1;
+
+		for (int mode = 0; mode < 2; mode++) {
+			Settings settings = getStandardSettings(size);
+			settings.addFieldGenerator(new SU2RandomFields());
+			settings.setNumOfThreads(numberOfThreads);
+			settings.useFlatGrid(mode == 1);
+
+			System.gc();
+			long memory0 = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+			Simulation s = new Simulation(settings);
+			System.gc();
+			long memory1 = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+
+			// warm up
+			for (int t = 0; t < 3; t++) {
+				s.grid.storeFields();
+				s.grid.updateGrid(settings.getTimeStep());
+			}
+
+			long updateTime = 0;
+			long storeTime = 0;
+			for (int t = 0; t < numberOfSteps; t++) {
+				long t0 = System.nanoTime();
+				s.grid.storeFields();
+				long t1 = System.nanoTime();
+				s.grid.updateGrid(settings.getTimeStep());
+				long t2 = System.nanoTime();
+				storeTime += t1 - t0;
+				updateTime += t2 - t1;
+			}
+
+			Grid copy = (mode == 1) ? new FlatGrid(s.grid) : new Grid(s.grid);
+			long t0 = System.nanoTime();
+			for (int t = 0; t < numberOfSteps; t++) {
+				copy.copyValuesFrom(s.grid);
+			}
+			long copyTime = System.nanoTime() - t0;
+
+			String name = (mode == 1) ? "FlatGrid" : "Grid";
+			System.out.println(name + ": memory " + (memory1 - memory0) / 1024 / 1024 + " MB, "
+					+ updateTime / 1000 / 1000 / numberOfSteps + " ms per update, "
+					+ storeTime / 1000 / 1000 / numberOfSteps + " ms per storeFields, "
+					+ copyTime / 1000 / 1000 / numberOfSteps + " ms per copy.");
+			settings.terminateThreads();
+		}
+	}
+
+	private void compareGrids(Grid g1, Grid g2) {
+		for (int i = 0; i < g1.getTotalNumberOfCells(); i++) {
+			for (int d = 0; d < g1.getNumberOfDimensions(); d++) {
+				compareGroupElements(g1.getU(i, d), g2.getU(i, d));
+				compareGroupElements(g1.getUnext(i, d), g2.getUnext(i, d));
+				compareAlgebraElements(g1.getE(i, d), g2.getE(i, d));
+				compareAlgebraElements(g1.getJ(i, d), g2.getJ(i, d));
+			}
+			compareAlgebraElements(g1.getRho(i), g2.getRho(i));
+			Assert.assertEquals(g1.isActive(i), g2.isActive(i));
+			Assert.assertEquals(g1.isEvaluatable(i), g2.isEvaluatable(i));
+		}
+	}
+
+	private void compareGroupElements(GroupElement a, GroupElement b) {
+		for (int c = 0; c < 4; c++) {
+			Assert.assertEquals(a.get(c), b.get(c), accuracy);
+		}
+	}
+
+	private void compareAlgebraElements(AlgebraElement a, AlgebraElement b) {
+		for (int c = 0; c < a.getAdjointDimension(); c++) {
+			Assert.assertEquals(a.get(c), b.get(c), accuracy);
+		}
+	}
+
+	private Settings getStandardSettings(int[] size) {
+		Settings s = new Settings();
+
+		s.setRelativistic(true);
+		s.setBoundary(GeneralBoundaryType.Periodic);
+		s.setFieldSolver(new FastTYMSolver());
+		s.useGrid(true);
+		s.setInterpolator(new EmptyInterpolator());
+		s.setSpeedOfLight(1.0);
+		s.setNumberOfDimensions(3);
+
+		s.setGridStep(1.0);
+		s.setTimeStep(0.1);
+		for (int i = 0; i < size.length; i++) {
+			s.setGridCells(i, size[i]);
+		}
+
+		s.setNumberOfColors(2);
+		s.setCouplingConstant(1.0);
+		s.setNumOfThreads(1);
+
+		return s;
+	}
+}
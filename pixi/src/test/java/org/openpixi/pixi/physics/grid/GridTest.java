@@ -165,6 +165,38 @@ public class GridTest {
 		}
 	}
 
+	@Test
+	public void testNeighbourTable()
+	{
+		Settings settings = getStandardSettings();
+		Simulation s = new Simulation(settings);
+		Grid g = s.grid;
+		Assert.assertFalse(g.isUsingNeighbourTable());
+
+		Settings tableSettings = getStandardSettings();
+		tableSettings.useNeighbourTable(true);
+		Simulation s2 = new Simulation(tableSettings);
+		Grid g2 = s2.grid;
+		Assert.assertTrue(g2.isUsingNeighbourTable());
+
+		// Copies keep the neighbour table.
+		Grid g3 = new Grid(g2);
+		Assert.assertTrue(g3.isUsingNeighbourTable());
+
+		for (int index = 0; index < g.getTotalNumberOfCells(); index++) {
+			for (int d = 0; d < g.getNumberOfDimensions(); d++) {
+				for (int o = -1; o <= 1; o++) {
+					Assert.assertEquals(g.shift(index, d, o), g2.shift(index, d, o));
+					Assert.assertEquals(g.shift(index, d, o), g3.shift(index, d, o));
+				}
+			}
+		}
+
+		g2.setUseNeighbourTable(false);
+		Assert.assertFalse(g2.isUsingNeighbourTable());
+		Assert.assertEquals(g.shift(0, 0, -1), g2.shift(0, 0, -1));
+	}
+
 	@Test
 	public void testShiftSpeed()
 	{
@@ -0,0 +1,173 @@
+package org.openpixi.pixi.physics.grid;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.SU3AlgebraElement;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.SimulationType;
+import org.openpixi.pixi.physics.initial.CGC.CGCInitialCondition;
+import org.openpixi.pixi.physics.initial.CGC.LightConePoissonSolverImproved;
+import org.openpixi.pixi.physics.initial.CGC.MVModel;
+import org.openpixi.pixi.physics.particles.IParticle;
+import org.openpixi.pixi.physics.particles.PackedCGCParticles;
+
+import java.io.IOException;
+
+/**
+ * Compares the simulation of a single MV model nucleus using {@link PackedCGCParticles} with the simulation using
+ * single {@link org.openpixi.pixi.physics.particles.CGCParticle}s.
+ */
+public class PackedCGCParticleInterpolationNGPTest {
+
+	private final int longitudinalNumCells = 32;
+
+	private final int transversalNumCells = 4;
+
+	private final int steps = 6;
+
+	@Test
+	public void testIdenticalCurrents() throws IOException {
+		for (int direction = 0; direction < 3; direction++) {
+			for (int orientation = -1; orientation <= 1; orientation += 2) {
+				for (int particlesPerCell = 1; particlesPerCell <= 2; particlesPerCell++) {
+					for (int threads = 1; threads <= 2; threads++) {
+						testIdenticalCurrents(direction, orientation, particlesPerCell, threads);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testGetCharge() {
+		PackedCGCParticles P = new PackedCGCParticles(0, 1, 3, new int[] {4, 4, 4}, 1);
+		AlgebraElement charge = new SU3AlgebraElement();
+		for (int c = 0; c < 8; c++) {
+			charge.set(c, 0.1 * c - 0.3);
+		}
+		P.add(0.0, 1.0, 0, charge);
+
+		// The target has a trace part, e.g. from rounding errors of previous operations, which has to be removed.
+		SU3AlgebraElement result = new SU3AlgebraElement(new double[] {1, 0, 0, 0, 1, 0, 0, 0, 1});
+		for (int n = 0; n < 2; n++) {
+			P.getCharge(0, result);
+			for (int c = 0; c < 8; c++) {
+				Assert.assertEquals(charge.get(c), result.get(c), 1.E-15);
+			}
+			Assert.assertEquals(0.0, result.getEntry(0) + result.getEntry(4) + result.getEntry(8), 1.E-15);
+		}
+	}
+
+	@Test
+	public void testCopy() {
+		PackedCGCParticles P = new PackedCGCParticles(1, -1, 3, new int[] {4, 4, 4}, 2);
+		AlgebraElement charge = new SU3AlgebraElement();
+		for (int c = 0; c < 8; c++) {
+			charge.set(c, 0.1 * c - 0.3);
+		}
+		P.add(0.5, 0.25, 3, charge);
+
+		PackedCGCParticles copy = (PackedCGCParticles) P.copy();
+		Assert.assertEquals(1, copy.size());
+		Assert.assertEquals(P.getCellIndex(0, 2), copy.getCellIndex(0, 2));
+
+		// The copy is independent of the original.
+		P.pos0[0] = 1.5;
+		P.Q[0] = 7.0;
+		P.add(0.0, 0.0, 0, charge);
+		Assert.assertEquals(0.5, copy.pos0[0], 0.0);
+		Assert.assertEquals(0.25, copy.pos1[0], 0.0);
+		Assert.assertEquals(charge.get(0), copy.Q[0], 0.0);
+		Assert.assertEquals(1, copy.size());
+		copy.add(0.0, 0.0, 0, charge);
+		Assert.assertEquals(2, copy.size());
+
+		// Shifts by zero, e.g. from periodic particle boundaries, are ignored.
+		copy.addPosition(0, 0.0);
+		copy.addPrevPosition(0, 0.0);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testUnsupportedSetter() {
+		PackedCGCParticles P = new PackedCGCParticles(0, 1, 2, new int[] {4, 4, 4}, 1);
+		P.setPosition(0, 1.0);
+	}
+
+	private void testIdenticalCurrents(int direction, int orientation, int particlesPerCell, int threads)
+			throws IOException {
+		Settings settings1 = getStandardSettings(SimulationType.TemporalCGCNGP, direction, orientation, particlesPerCell, 1);
+		Settings settings2 = getStandardSettings(SimulationType.TemporalPackedCGCNGP, direction, orientation, particlesPerCell, threads);
+		Simulation s1 = new Simulation(settings1);
+		Simulation s2 = new Simulation(settings2);
+
+		Assert.assertEquals(threads, s2.particles.size());
+		int numberOfCharges = 0;
+		for (IParticle p : s2.particles) {
+			PackedCGCParticles P = (PackedCGCParticles) p;
+			Assert.assertEquals(direction, P.direction);
+			Assert.assertEquals(orientation, P.orientation);
+			numberOfCharges += P.size();
+		}
+		Assert.assertEquals(s1.particles.size(), numberOfCharges);
+
+		String info = "direction " + direction + ", orientation " + orientation + ", " + particlesPerCell + " ppc, "
+				+ threads + " threads";
+		// With a single container the particles are processed in the same order, so the results are bit-identical.
+		double accuracy = (threads == 1) ? 0.0 : 1.E-13;
+		compareGrids(s1.grid, s2.grid, accuracy, info);
+		for (int t = 0; t < steps * particlesPerCell; t++) {
+			s1.step();
+			s2.step();
+			compareGrids(s1.grid, s2.grid, accuracy, info + ", step " + t);
+		}
+
+		settings1.terminateThreads();
+		settings2.terminateThreads();
+	}
+
+	private void compareGrids(Grid g1, Grid g2, double accuracy, String info) {
+		double currentNorm = 0.0;
+		for (int i = 0; i < g1.getTotalNumberOfCells(); i++) {
+			for (int d = 0; d < g1.getNumberOfDimensions(); d++) {
+				// Every link receives at most one contribution per time step.
+				compareAlgebraElements(g1.getJ(i, d), g2.getJ(i, d), 0.0, info);
+				currentNorm += g1.getJ(i, d).square();
+			}
+			compareAlgebraElements(g1.getRho(i), g2.getRho(i), accuracy, info);
+		}
+		Assert.assertTrue(info, currentNorm > 0.0);
+	}
+
+	private void compareAlgebraElements(AlgebraElement a, AlgebraElement b, double delta, String info) {
+		for (int c = 0; c < a.getAdjointDimension(); c++) {
+			Assert.assertEquals(info, a.get(c), b.get(c), delta);
+		}
+	}
+
+	private Settings getStandardSettings(SimulationType simulationType, int direction, int orientation,
+	                                     int particlesPerCell, int threads) {
+		Settings settings = new Settings();
+		settings.setNumberOfDimensions(3);
+		settings.setNumberOfColors(2);
+		settings.setCouplingConstant(1.0);
+		settings.setNumOfThreads(threads);
+		settings.setGridStep(1.0);
+		settings.setTimeStep(1.0 / particlesPerCell);
+		for (int i = 0; i < 3; i++) {
+			settings.setGridCells(i, (i == direction) ? longitudinalNumCells : transversalNumCells);
+		}
+		settings.setSimulationType(simulationType);
+
+		// The nucleus is placed in the middle of the box, but the tails of the charge density extend over the whole box,
+		// so charges cross the periodic boundary in both orientations.
+		MVModel chargeDensity = new MVModel(direction, orientation, longitudinalNumCells / 2.0, 1.0, 1.0,
+				true, 3, 10.0, 0.5, 0.5);
+		CGCInitialCondition initialCondition = new CGCInitialCondition();
+		initialCondition.setInitialChargeDensity(chargeDensity);
+		initialCondition.setPoissonSolver(new LightConePoissonSolverImproved());
+		settings.addInitialConditions(initialCondition);
+		return settings;
+	}
+}
@@ -0,0 +1,133 @@
+package org.openpixi.pixi.physics.initial.CGC;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.SimulationType;
+import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.physics.util.GridFunctions;
+
+public class LightConePoissonSolverTest {
+
+	private final int longitudinalNumCells = 16;
+
+	private final int transversalNumCells = 8;
+
+	@Test
+	public void testPoissonSheets() {
+		for (int direction = 0; direction < 3; direction++) {
+			Settings settings = getStandardSettings(direction, 1, 3, null);
+			Simulation s = new Simulation(settings);
+			MVModel chargeDensity = getChargeDensity(direction, 1);
+			chargeDensity.initialize(s);
+
+			double aT = s.grid.getLatticeSpacing((direction + 1) % 3);
+			AlgebraElement[] phi = FourierFunctions.solvePoissonSheets(s, chargeDensity, aT);
+
+			// Compare with the sheet by sheet solution.
+			int[] transverseNumCells = GridFunctions.reduceGridPos(s.grid.getNumCells(), direction);
+			int totalTransverseCells = GridFunctions.getTotalNumberOfCells(transverseNumCells);
+			for (int z = 0; z < longitudinalNumCells; z++) {
+				for (int c = 0; c < 3; c++) {
+					double[] rho2D = new double[totalTransverseCells];
+					for (int i = 0; i < totalTransverseCells; i++) {
+						rho2D[i] = chargeDensity.getChargeDensity(getIndex(s, i, transverseNumCells, direction, z)).get(c);
+					}
+					double[] phi2D = FourierFunctions.solvePoisson2D(rho2D, transverseNumCells, aT);
+					for (int i = 0; i < totalTransverseCells; i++) {
+						Assert.assertEquals(phi2D[i], phi[getIndex(s, i, transverseNumCells, direction, z)].get(c), 0.0);
+					}
+				}
+			}
+			settings.terminateThreads();
+		}
+	}
+
+	@Test
+	public void testParallelSolvers() {
+		for (int orientation = -1; orientation <= 1; orientation += 2) {
+			ICGCPoissonSolver[][] solvers = new ICGCPoissonSolver[][] {
+					{new LightConePoissonSolverImproved(), new LightConePoissonSolverImproved()},
+					{new LightConePoissonSolverImprovedFull(), new LightConePoissonSolverImprovedFull()}
+			};
+			for (ICGCPoissonSolver[] pair : solvers) {
+				// The results must not depend on the number of threads.
+				Settings settings1 = getStandardSettings(2, orientation, 1, pair[0]);
+				Settings settings2 = getStandardSettings(2, orientation, 4, pair[1]);
+				Simulation s1 = new Simulation(settings1);
+				Simulation s2 = new Simulation(settings2);
+
+				compareGrids(s1.grid, s2.grid);
+				AlgebraElement[] gauss1 = pair[0].getGaussViolation();
+				AlgebraElement[] gauss2 = pair[1].getGaussViolation();
+				for (int i = 0; i < gauss1.length; i++) {
+					compareAlgebraElements(gauss1[i], gauss2[i]);
+				}
+				GroupElement[] V1 = pair[0].getV();
+				GroupElement[] V2 = pair[1].getV();
+				for (int i = 0; i < V1.length; i++) {
+					compareGroupElements(V1[i], V2[i]);
+				}
+
+				settings1.terminateThreads();
+				settings2.terminateThreads();
+			}
+		}
+	}
+
+	private int getIndex(Simulation s, int transverseIndex, int[] transverseNumCells, int direction, int z) {
+		int[] transGridPos = GridFunctions.getCellPos(transverseIndex, transverseNumCells);
+		return s.grid.getCellIndex(GridFunctions.insertGridPos(transGridPos, direction, z));
+	}
+
+	private void compareGrids(Grid g1, Grid g2) {
+		for (int i = 0; i < g1.getTotalNumberOfCells(); i++) {
+			for (int d = 0; d < g1.getNumberOfDimensions(); d++) {
+				compareGroupElements(g1.getU(i, d), g2.getU(i, d));
+				compareGroupElements(g1.getUnext(i, d), g2.getUnext(i, d));
+				compareAlgebraElements(g1.getE(i, d), g2.getE(i, d));
+			}
+		}
+	}
+
+	private void compareGroupElements(GroupElement a, GroupElement b) {
+		for (int j = 0; j < 4; j++) {
+			Assert.assertEquals(a.get(j), b.get(j), 0.0);
+		}
+	}
+
+	private void compareAlgebraElements(AlgebraElement a, AlgebraElement b) {
+		for (int c = 0; c < a.getAdjointDimension(); c++) {
+			Assert.assertEquals(a.get(c), b.get(c), 0.0);
+		}
+	}
+
+	private MVModel getChargeDensity(int direction, int orientation) {
+		return new MVModel(direction, orientation, longitudinalNumCells / 2.0, 1.0, 1.0, true, 3, 10.0, 0.5, 0.5);
+	}
+
+	private Settings getStandardSettings(int direction, int orientation, int threads, ICGCPoissonSolver poissonSolver) {
+		Settings settings = new Settings();
+		settings.setNumberOfDimensions(3);
+		settings.setNumberOfColors(2);
+		settings.setCouplingConstant(1.0);
+		settings.setNumOfThreads(threads);
+		settings.setGridStep(1.0);
+		settings.setTimeStep(0.5);
+		for (int i = 0; i < 3; i++) {
+			settings.setGridCells(i, (i == direction) ? longitudinalNumCells : transversalNumCells);
+		}
+		settings.setSimulationType(SimulationType.TemporalCGCNGP);
+
+		if (poissonSolver != null) {
+			CGCInitialCondition initialCondition = new CGCInitialCondition();
+			initialCondition.setInitialChargeDensity(getChargeDensity(direction, orientation));
+			initialCondition.setPoissonSolver(poissonSolver);
+			settings.addInitialConditions(initialCondition);
+		}
+		return settings;
+	}
+}
@@ -0,0 +1,89 @@
+package org.openpixi.pixi.physics.measurements;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.physics.GeneralBoundaryType;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.fields.FastTYMSolver;
+import org.openpixi.pixi.physics.fields.fieldgenerators.SU2RandomFields;
+import org.openpixi.pixi.physics.grid.EmptyInterpolator;
+import org.openpixi.pixi.physics.grid.Grid;
+
+public class BulkObservablesTest {
+
+	private final double accuracy = 1.E-12;
+
+	@Test
+	public void testComparisonWithFieldMeasurements() {
+		for (int threads = 1; threads <= 3; threads += 2) {
+			Settings settings = getStandardSettings(new int[]{6, 7, 8});
+			settings.setNumOfThreads(threads);
+			settings.addFieldGenerator(new SU2RandomFields());
+			Simulation s = new Simulation(settings);
+			Grid grid = s.grid;
+
+			// Evolve a few steps to obtain non-trivial electric fields and Unext.
+			for (int t = 0; t < 3; t++) {
+				grid.storeFields();
+				grid.updateGrid(settings.getTimeStep());
+			}
+			grid.setEvaluationRegion(new int[]{1, 0, 0}, new int[]{4, 6, 7});
+
+			BulkObservables observables = new BulkObservables(true, true);
+			observables.calculate(grid);
+			FieldMeasurements measurements = new FieldMeasurements();
+
+			for (int i = 0; i < 3; i++) {
+				Assert.assertEquals(measurements.calculateEsquared(grid, i), observables.getEsquared(i), accuracy);
+				Assert.assertEquals(measurements.calculateBsquared(grid, i), observables.getBsquared(i), accuracy);
+			}
+			Assert.assertEquals(measurements.calculateGaussConstraint(grid), observables.getGaussViolation(), accuracy);
+
+			double e0 = observables.getEsquared(0) + observables.getBsquared(0);
+			double e1 = observables.getEsquared(1) + observables.getBsquared(1);
+			double e2 = observables.getEsquared(2) + observables.getBsquared(2);
+			Assert.assertEquals(-e0 + e1 + e2, observables.getPressure(0), accuracy);
+			Assert.assertEquals(e0 + e1 - e2, observables.getPressure(2), accuracy);
+
+			// Local energy density
+			double[] energyDensity = observables.getEnergyDensity();
+			for (int index = 0; index < grid.getTotalNumberOfCells(); index++) {
+				double energy = 0.0;
+				if (grid.isEvaluatable(index)) {
+					for (int d = 0; d < 3; d++) {
+						AlgebraElement B = grid.getB(index, d, 0).add(grid.getB(index, d, 1));
+						energy += (0.5 * grid.getE(index, d).square() + 0.25 * B.square())
+								* Math.pow(grid.getLatticeUnitFactor(d), -2);
+					}
+				}
+				Assert.assertEquals(energy, energyDensity[index], accuracy);
+			}
+			settings.terminateThreads();
+		}
+	}
+
+	private Settings getStandardSettings(int[] size) {
+		Settings s = new Settings();
+
+		s.setRelativistic(true);
+		s.setBoundary(GeneralBoundaryType.Periodic);
+		s.setFieldSolver(new FastTYMSolver());
+		s.useGrid(true);
+		s.setInterpolator(new EmptyInterpolator());
+		s.setSpeedOfLight(1.0);
+		s.setNumberOfDimensions(3);
+
+		s.setGridStep(1.0);
+		s.setTimeStep(0.1);
+		for (int i = 0; i < size.length; i++) {
+			s.setGridCells(i, size[i]);
+		}
+
+		s.setNumberOfColors(2);
+		s.setCouplingConstant(1.0);
+
+		return s;
+	}
+}
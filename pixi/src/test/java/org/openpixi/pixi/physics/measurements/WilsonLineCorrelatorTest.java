@@ -0,0 +1,65 @@
+package org.openpixi.pixi.physics.measurements;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.math.SU2AlgebraElement;
+import org.openpixi.pixi.math.SU3AlgebraElement;
+import org.openpixi.pixi.physics.util.GridFunctions;
+
+import java.util.Random;
+
+public class WilsonLineCorrelatorTest {
+
+	private final double accuracy = 1.E-12;
+
+	@Test
+	public void testSU2() {
+		int[] numCells = new int[]{6, 5};
+		Random random = new Random(42);
+		GroupElement[] V = new GroupElement[GridFunctions.getTotalNumberOfCells(numCells)];
+		for (int i = 0; i < V.length; i++) {
+			V[i] = new SU2AlgebraElement(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()).getLink();
+		}
+		compareWithAllPairs(V, numCells);
+	}
+
+	@Test
+	public void testSU3() {
+		int[] numCells = new int[]{4, 7};
+		Random random = new Random(42);
+		GroupElement[] V = new GroupElement[GridFunctions.getTotalNumberOfCells(numCells)];
+		for (int i = 0; i < V.length; i++) {
+			double[] values = new double[8];
+			for (int c = 0; c < values.length; c++) {
+				values[c] = random.nextGaussian();
+			}
+			V[i] = new SU3AlgebraElement(values).getLink();
+		}
+		compareWithAllPairs(V, numCells);
+	}
+
+	/**
+	 * Compares the FFT correlator with the direct sum over all pairs of cells.
+	 */
+	private void compareWithAllPairs(GroupElement[] V, int[] numCells) {
+		int totalCells = V.length;
+		WilsonLineCorrelator correlator = new WilsonLineCorrelator(numCells);
+		double[] correlation = correlator.computeCorrelation(V);
+
+		for (int r = 0; r < totalCells; r++) {
+			int[] rPos = GridFunctions.getCellPos(r, numCells);
+			double sum = 0.0;
+			for (int i = 0; i < totalCells; i++) {
+				int[] x = GridFunctions.getCellPos(i, numCells);
+				int[] y = new int[x.length];
+				for (int k = 0; k < x.length; k++) {
+					y[k] = x[k] + rPos[k];
+				}
+				int j = GridFunctions.getCellIndex(y, numCells);
+				sum += V[i].mult(V[j].adj()).getRealTrace();
+			}
+			Assert.assertEquals(sum / totalCells, correlation[r], accuracy);
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package org.openpixi.pixi.physics.movement;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.SimulationType;
+import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.physics.initial.CGC.CGCInitialCondition;
+import org.openpixi.pixi.physics.initial.CGC.LightConePoissonSolverImproved;
+import org.openpixi.pixi.physics.initial.CGC.MVModel;
+
+import java.io.IOException;
+
+public class FusedParticleStepTest {
+
+	private final int steps = 8;
+
+	@Test
+	public void testSingleThread() throws IOException {
+		// With a single thread all deposits happen in the same order, so both paths are bit-identical.
+		compare(SimulationType.TemporalCGCNGP, 1, false, 0.0);
+		compare(SimulationType.TemporalOptimizedCGCNGP, 1, false, 0.0);
+	}
+
+	@Test
+	public void testMultipleThreads() throws IOException {
+		compare(SimulationType.TemporalCGCNGP, 4, false, 1.E-12);
+		compare(SimulationType.TemporalCGCNGP, 4, true, 1.E-12);
+		compare(SimulationType.TemporalOptimizedCGCNGP, 4, true, 1.E-12);
+	}
+
+	private void compare(SimulationType simulationType, int numberOfThreads, boolean useLockFreeDeposition,
+	                     double accuracy) throws IOException {
+		Settings settings1 = getStandardSettings(simulationType, numberOfThreads, useLockFreeDeposition, false);
+		Settings settings2 = getStandardSettings(simulationType, numberOfThreads, useLockFreeDeposition, true);
+		Simulation s1 = new Simulation(settings1);
+		Simulation s2 = new Simulation(settings2);
+
+		for (int t = 0; t < steps; t++) {
+			s1.step();
+			s2.step();
+			compareGrids(s1.grid, s2.grid, accuracy);
+		}
+
+		settings1.terminateThreads();
+		settings2.terminateThreads();
+	}
+
+	private void compareGrids(Grid g1, Grid g2, double accuracy) {
+		for (int i = 0; i < g1.getTotalNumberOfCells(); i++) {
+			for (int d = 0; d < g1.getNumberOfDimensions(); d++) {
+				compareAlgebraElements(g1.getE(i, d), g2.getE(i, d), accuracy);
+				compareAlgebraElements(g1.getJ(i, d), g2.getJ(i, d), accuracy);
+				compareGroupElements(g1.getU(i, d), g2.getU(i, d), accuracy);
+				compareGroupElements(g1.getUnext(i, d), g2.getUnext(i, d), accuracy);
+			}
+			compareAlgebraElements(g1.getRho(i), g2.getRho(i), accuracy);
+		}
+	}
+
+	private void compareAlgebraElements(AlgebraElement a, AlgebraElement b, double accuracy) {
+		for (int c = 0; c < a.getAdjointDimension(); c++) {
+			Assert.assertEquals(a.get(c), b.get(c), accuracy);
+		}
+	}
+
+	private void compareGroupElements(GroupElement a, GroupElement b, double accuracy) {
+		for (int c = 0; c < 4; c++) {
+			Assert.assertEquals(a.get(c), b.get(c), accuracy);
+		}
+	}
+
+	private Settings getStandardSettings(SimulationType simulationType, int numberOfThreads,
+	                                     boolean useLockFreeDeposition, boolean useFusedParticleStep) {
+		Settings settings = new Settings();
+		settings.setNumberOfDimensions(3);
+		settings.setNumberOfColors(2);
+		settings.setCouplingConstant(1.0);
+		settings.setNumOfThreads(numberOfThreads);
+		settings.setGridStep(1.0);
+		settings.setTimeStep(0.5);
+		settings.setGridCells(0, 32);
+		settings.setGridCells(1, 4);
+		settings.setGridCells(2, 4);
+		settings.setSimulationType(simulationType);
+		settings.useLockFreeDeposition(useLockFreeDeposition);
+		settings.useFusedParticleStep(useFusedParticleStep);
+
+		MVModel chargeDensity = new MVModel(0, 1, 16.0, 1.0, 1.0, true, 5, 10.0, 0.5, 0.5);
+		CGCInitialCondition initialCondition = new CGCInitialCondition();
+		initialCondition.setInitialChargeDensity(chargeDensity);
+		initialCondition.setPoissonSolver(new LightConePoissonSolverImproved());
+		settings.addInitialConditions(initialCondition);
+		return settings;
+	}
+}
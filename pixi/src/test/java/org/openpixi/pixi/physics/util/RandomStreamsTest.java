@@ -0,0 +1,132 @@
+package org.openpixi.pixi.physics.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.fields.currentgenerators.SphericalProtonLCCurrent;
+import org.openpixi.pixi.physics.initial.CGC.MVModel;
+
+import java.util.Random;
+
+public class RandomStreamsTest {
+
+	@Test
+	public void testStreams() {
+		RandomStreams streams1 = new RandomStreams(42);
+		RandomStreams streams2 = new RandomStreams(42);
+		RandomStreams.Stream a = streams1.getStream(1, 3);
+		RandomStreams.Stream b = streams2.getStream(1, 3);
+		RandomStreams.Stream c = streams1.getStream(3, 1);
+		RandomStreams.Stream d = new RandomStreams(43).getStream(1, 3);
+
+		int n = 100000;
+		double sum = 0.0;
+		double sumOfSquares = 0.0;
+		int differentComponent = 0;
+		int differentSeed = 0;
+		for (int i = 0; i < n; i++) {
+			double x = a.nextGaussian();
+			// Streams with the same seed and key are identical.
+			Assert.assertEquals(x, b.nextGaussian(), 0.0);
+			if (x != c.nextGaussian()) {
+				differentComponent++;
+			}
+			if (x != d.nextGaussian()) {
+				differentSeed++;
+			}
+			sum += x;
+			sumOfSquares += x * x;
+		}
+		Assert.assertEquals(n, differentComponent);
+		Assert.assertEquals(n, differentSeed);
+
+		// Mean and variance of the normal distribution within a few standard errors.
+		Assert.assertEquals(0.0, sum / n, 0.02);
+		Assert.assertEquals(1.0, sumOfSquares / n, 0.02);
+
+		for (int i = 0; i < 1000; i++) {
+			double x = a.nextDouble();
+			Assert.assertTrue(0.0 <= x && x < 1.0);
+		}
+
+		Assert.assertEquals(0, RandomStreams.getNumberOfBlocks(0));
+		Assert.assertEquals(1, RandomStreams.getNumberOfBlocks(RandomStreams.BLOCK_SIZE));
+		Assert.assertEquals(2, RandomStreams.getNumberOfBlocks(RandomStreams.BLOCK_SIZE + 1));
+		Assert.assertEquals(RandomStreams.BLOCK_SIZE + 1, RandomStreams.getBlockEnd(1, RandomStreams.BLOCK_SIZE + 1));
+	}
+
+	@Test
+	public void testMVModelIndependentOfThreads() {
+		for (int direction = 0; direction < 3; direction++) {
+			Settings settings1 = getStandardSettings(direction, 1);
+			Settings settings2 = getStandardSettings(direction, 4);
+			Simulation s1 = new Simulation(settings1);
+			Simulation s2 = new Simulation(settings2);
+			MVModel model1 = new MVModel(direction, 1, 8.0, 2.0, 1.0, true, 5, 10.0, 0.5, 0.5);
+			MVModel model2 = new MVModel(direction, 1, 8.0, 2.0, 1.0, true, 5, 10.0, 0.5, 0.5);
+			model1.initialize(s1);
+			model2.initialize(s2);
+
+			double norm = 0.0;
+			for (int i = 0; i < s1.grid.getTotalNumberOfCells(); i++) {
+				compareAlgebraElements(model1.getChargeDensity(i), model2.getChargeDensity(i));
+				norm += model1.getChargeDensity(i).square();
+			}
+			Assert.assertTrue(norm > 0.0);
+
+			settings1.terminateThreads();
+			settings2.terminateThreads();
+		}
+	}
+
+	@Test
+	public void testSphericalProtonIndependentOfThreads() {
+		Settings settings1 = getStandardSettings(2, 1);
+		Settings settings2 = getStandardSettings(2, 4);
+		Simulation s1 = new Simulation(settings1);
+		Simulation s2 = new Simulation(settings2);
+		AlgebraElement[] rho1 = getProtonChargeDensity(s1);
+		AlgebraElement[] rho2 = getProtonChargeDensity(s2);
+
+		double norm = 0.0;
+		for (int i = 0; i < rho1.length; i++) {
+			compareAlgebraElements(rho1[i], rho2[i]);
+			norm += rho1[i].square();
+		}
+		Assert.assertTrue(norm > 0.0);
+
+		settings1.terminateThreads();
+		settings2.terminateThreads();
+	}
+
+	private AlgebraElement[] getProtonChargeDensity(Simulation s) {
+		SphericalProtonLCCurrent proton = new SphericalProtonLCCurrent(2, 1, 8.0, 2.0, false, false,
+				new Random(7), 1.0);
+		proton.addCharge(new double[]{20.0, 20.0}, 6.0);
+		return proton.computeChargeDensity(s);
+	}
+
+	private void compareAlgebraElements(AlgebraElement a, AlgebraElement b) {
+		for (int c = 0; c < a.getAdjointDimension(); c++) {
+			Assert.assertEquals(a.get(c), b.get(c), 0.0);
+		}
+	}
+
+	private Settings getStandardSettings(int direction, int numberOfThreads) {
+		Settings settings = new Settings();
+		settings.setNumberOfDimensions(3);
+		settings.setNumberOfColors(2);
+		settings.setCouplingConstant(1.0);
+		settings.setNumOfThreads(numberOfThreads);
+		settings.setGridStep(1.0);
+		settings.setTimeStep(0.5);
+		// Several blocks of random streams in the transversal plane and in the whole grid.
+		for (int i = 0; i < 3; i++) {
+			settings.setGridCells(i, (i == direction) ? 16 : 40);
+		}
+		settings.useParallelRandomStreams(true);
+		return settings;
+	}
+}
@@ -0,0 +1,118 @@
+package org.openpixi.pixi.ui;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+public class MainBatchTest {
+
+	private final double accuracy = 1.E-12;
+
+	@Test
+	public void testFailedEvent() throws IOException {
+		File directory = File.createTempFile("MainBatchTest", "");
+		Assert.assertTrue(directory.delete());
+		Assert.assertTrue(new File(directory, "checkpoint1").mkdirs());
+		Assert.assertTrue(new File(directory, "checkpoint3").mkdirs());
+		// The checkpoint of the second event can not be written, since its directory is a file.
+		Assert.assertTrue(new File(directory, "checkpoint2").createNewFile());
+
+		String path = directory.getPath() + "/";
+		MainBatch.runSimulationFromString(getConfiguration(path, 3));
+		double[][] mean = readFile(path + "pe.dat");
+		double[][] variance = readFile(path + "pe_variance.dat");
+
+		// The same events simulated separately
+		MainBatch.runSimulationFromString(getConfiguration(path, 1).replace(MainBatch.EVENT_PLACEHOLDER, "1")
+				.replace("pe.dat", "pe1.dat"));
+		MainBatch.runSimulationFromString(getConfiguration(path, 1).replace(MainBatch.EVENT_PLACEHOLDER, "3")
+				.replace("pe.dat", "pe3.dat"));
+		double[][] event1 = readFile(path + "pe1.dat");
+		double[][] event3 = readFile(path + "pe3.dat");
+
+		// The ensemble average only contains the completed events.
+		Assert.assertEquals(event1.length, mean.length);
+		for (int t = 0; t < mean.length; t++) {
+			for (int i = 0; i < mean[t].length; i++) {
+				double m = (event1[t][i] + event3[t][i]) / 2.0;
+				Assert.assertEquals(m, mean[t][i], accuracy * (1.0 + Math.abs(m)));
+				if (i > 0) {
+					double v = Math.pow(event1[t][i] - event3[t][i], 2) / 2.0;
+					Assert.assertEquals(v, variance[t][i], accuracy * (1.0 + Math.abs(v)));
+				}
+			}
+		}
+
+		for (String name : new String[]{"pe.dat", "pe_variance.dat", "pe1.dat", "pe3.dat", "checkpoint2",
+				"checkpoint1/cp.dat", "checkpoint3/cp.dat", "checkpoint1", "checkpoint3"}) {
+			new File(directory, name).delete();
+		}
+		directory.delete();
+	}
+
+	private String getConfiguration(String path, int numberOfEvents) {
+		return "simulationType: temporal optimized cgc ngp\n"
+				+ "gridSteps: [.5, 1, 1]\n"
+				+ "couplingConstant: 2\n"
+				+ "numberOfDimensions: 3\n"
+				+ "numberOfColors: 2\n"
+				+ "numberOfThreads: 2\n"
+				+ "gridCells: [32, 8, 8]\n"
+				+ "timeStep: 0.25\n"
+				+ "duration: 4\n"
+				+ "numberOfEvents: " + numberOfEvents + "\n"
+				+ "initialConditions:\n"
+				+ "  CGC:\n"
+				+ "    poissonSolver: improved full\n"
+				+ "    MVModelCoherent:\n"
+				+ "      - direction: 0\n"
+				+ "        orientation: 1\n"
+				+ "        longitudinalLocation: 5\n"
+				+ "        longitudinalWidth: 1.0\n"
+				+ "        randomSeed: 5%i%\n"
+				+ "        mu: .1\n"
+				+ "        ultravioletCutoffTransverse: 1.0\n"
+				+ "        infraredCoefficient: 0.2\n"
+				+ "      - direction: 0\n"
+				+ "        orientation: -1\n"
+				+ "        longitudinalLocation: 11\n"
+				+ "        longitudinalWidth: 1.0\n"
+				+ "        randomSeed: 6%i%\n"
+				+ "        mu: .1\n"
+				+ "        ultravioletCutoffTransverse: 1.0\n"
+				+ "        infraredCoefficient: 0.2\n"
+				+ "output:\n"
+				+ "  projectedEnergyDensity2:\n"
+				+ "    - path: '" + path + "pe.dat'\n"
+				+ "      interval: 1\n"
+				+ "  checkpointInTime:\n"
+				+ "    - path: '" + path + "checkpoint%i%/cp.dat'\n"
+				+ "      interval: 2\n";
+	}
+
+	/**
+	 * Reads a file of ProjectedEnergyDensity2, every time step as one array.
+	 */
+	private double[][] readFile(String path) throws IOException {
+		DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(path)));
+		try {
+			int longitudinalCells = stream.readInt();
+			int timeSteps = stream.readInt();
+			double[][] data = new double[timeSteps][1 + 6 * longitudinalCells];
+			for (int t = 0; t < timeSteps; t++) {
+				for (int i = 0; i < data[t].length; i++) {
+					data[t][i] = stream.readDouble();
+				}
+			}
+			Assert.assertEquals(-1, stream.read());
+			return data;
+		} finally {
+			stream.close();
+		}
+	}
+}